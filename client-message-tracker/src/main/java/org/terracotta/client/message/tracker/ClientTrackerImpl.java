@@ -22,7 +22,6 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.stream.Stream;
 import org.terracotta.entity.ClientSourceId;
 
 class ClientTrackerImpl<M, R> implements ClientTracker<M, R> {
@@ -32,8 +31,8 @@ class ClientTrackerImpl<M, R> implements ClientTracker<M, R> {
   public ClientTrackerImpl() {
   }
 
-  Stream<SequencedRecordedMessage<M, R>> getTrackedValues() {
-    return objectTrackers.entrySet().stream().flatMap(t->t.getValue().getTrackedValues().stream().map(e->convert(t.getKey(), e)));
+  TrackedValuesCursor<M, R> openTrackedValues() {
+    return new TrackedValuesCursor<>(objectTrackers);
   }
 
   static <M, R> SequencedRecordedMessage<M, R> convert(ClientSourceId cid, TrackerImpl.RequestResponse<M, R> rr) {
@@ -66,7 +65,9 @@ class ClientTrackerImpl<M, R> implements ClientTracker<M, R> {
   }
 
   TrackerImpl<M, R> getTracker(ClientSourceId clientId) {
-    return objectTrackers.computeIfAbsent(clientId, d -> new TrackerImpl<>());
+    // computeIfAbsent locks the bin even when the client is already tracked
+    TrackerImpl<M, R> tracker = objectTrackers.get(clientId);
+    return tracker != null ? tracker : objectTrackers.computeIfAbsent(clientId, d -> new TrackerImpl<>());
   }
 
   @Override
@@ -83,11 +83,24 @@ public interface OOOMessageHandler<M extends EntityMessage, R extends EntityResp
    * Get a stream of tracked messages ordered by sequence id - Order is important
    * so replay is
    * sequenced correctly.
+   * The messages of a client tracked concurrently out of transaction order are
+   * streamed in sequence order too.
+   * <p>
+   * The stream is lazy: messages are emitted as the tracked messages of each client
+   * are walked, without copying nor sorting all of them first.
    *
    * @return a stream of ordered RecordedMessages
    */
   Stream<RecordedMessage<M, R>> getRecordedMessages();
 
+  /**
+   * Open a cursor walking the tracked messages in the order of {@link #getRecordedMessages()},
+   * to sync them in chunks.
+   *
+   * @return a cursor positioned before the first tracked message
+   */
+  RecordedMessageCursor<M, R> openRecordedMessages();
+
   /**
    * load all the sequenced messages to the current message tracker
    *
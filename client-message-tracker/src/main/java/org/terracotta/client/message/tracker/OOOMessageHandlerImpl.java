@@ -29,8 +29,6 @@ import java.util.function.BiFunction;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 
-import static java.util.Comparator.comparingLong;
-
 public class OOOMessageHandlerImpl<M extends EntityMessage, R extends EntityResponse> implements OOOMessageHandler<M, R> {
 
   private final ClientTrackerImpl<M, R> clientMessageTracker;
@@ -98,7 +96,12 @@ public class OOOMessageHandlerImpl<M extends EntityMessage, R extends EntityResp
 
   @Override
   public Stream<RecordedMessage<M, R>> getRecordedMessages() {
-    return clientMessageTracker.getTrackedValues().sorted(comparingLong(SequencedRecordedMessage::getSequenceId)).map(SequencedRecordedMessage::convert);
+    return clientMessageTracker.openTrackedValues().stream();
+  }
+
+  @Override
+  public RecordedMessageCursor<M, R> openRecordedMessages() {
+    return clientMessageTracker.openTrackedValues();
   }
 
   @Override
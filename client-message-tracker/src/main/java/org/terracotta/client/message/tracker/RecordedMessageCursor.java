@@ -0,0 +1,41 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.client.message.tracker;
+
+import com.tc.classloader.CommonComponent;
+
+import java.util.List;
+
+/**
+ * Walks the tracked messages of an {@link OOOMessageHandler} chunk by chunk, so that they can be synced to a passive
+ * in several messages. The cursor keeps its position between chunks and can be resumed at any time, while the tracked
+ * messages keep changing: messages reconciled in the meantime are skipped and newly tracked messages are included as
+ * long as the cursor did not move past them.
+ * <p>
+ * A cursor is not thread-safe.
+ */
+@CommonComponent
+public interface RecordedMessageCursor<M, R> {
+
+  /**
+   * Returns the next tracked messages, in the order of {@link OOOMessageHandler#getRecordedMessages()}.
+   *
+   * @param maxMessages the maximum number of messages to return
+   * @return the next messages, or an empty list once all the messages were returned
+   */
+  List<RecordedMessage<M, R>> nextChunk(int maxMessages);
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.client.message.tracker;
+
+import org.terracotta.entity.ClientSourceId;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static java.util.Comparator.comparingLong;
+
+/**
+ * Merges the tracked values of all the clients by sequence id. Each client is walked in sequence id order, a few
+ * values at a time, so only those few values per client are held whatever the depth of the duplicate windows.
+ */
+class TrackedValuesCursor<M, R> implements RecordedMessageCursor<M, R> {
+
+  static final int FETCH_SIZE = 32;
+
+  private final Map<ClientSourceId, TrackerImpl<M, R>> trackers;
+  private final PriorityQueue<ClientCursor> heads = new PriorityQueue<>(comparingLong(ClientCursor::peekSequenceId));
+  private final List<TrackerImpl.RequestResponse<M, R>> fetched = new ArrayList<>(FETCH_SIZE);
+
+  TrackedValuesCursor(Map<ClientSourceId, TrackerImpl<M, R>> trackers) {
+    this.trackers = trackers;
+    for (Map.Entry<ClientSourceId, TrackerImpl<M, R>> entry : trackers.entrySet()) {
+      ClientCursor cursor = new ClientCursor(entry.getKey(), entry.getValue());
+      if (cursor.fetch()) {
+        heads.add(cursor);
+      }
+    }
+  }
+
+  @Override
+  public List<RecordedMessage<M, R>> nextChunk(int maxMessages) {
+    if (heads.isEmpty()) {
+      return Collections.emptyList();
+    }
+    List<RecordedMessage<M, R>> chunk = new ArrayList<>(Math.min(maxMessages, heads.size() * FETCH_SIZE));
+    while (chunk.size() < maxMessages && !heads.isEmpty()) {
+      chunk.add(next());
+    }
+    return chunk;
+  }
+
+  Stream<RecordedMessage<M, R>> stream() {
+    Iterator<RecordedMessage<M, R>> iterator = new Iterator<RecordedMessage<M, R>>() {
+      @Override
+      public boolean hasNext() {
+        return !heads.isEmpty();
+      }
+
+      @Override
+      public RecordedMessage<M, R> next() {
+        if (heads.isEmpty()) {
+          throw new NoSuchElementException();
+        }
+        return TrackedValuesCursor.this.next();
+      }
+    };
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+  }
+
+  private RecordedMessage<M, R> next() {
+    ClientCursor cursor = heads.poll();
+    RecordedMessage<M, R> message = ClientTrackerImpl.convert(cursor.clientId, cursor.values.poll()).convert();
+    if (!cursor.values.isEmpty() || cursor.fetch()) {
+      heads.add(cursor);
+    }
+    return message;
+  }
+
+  private class ClientCursor {
+    private final ClientSourceId clientId;
+    private final TrackerImpl<M, R> tracker;
+    private final Deque<TrackerImpl.RequestResponse<M, R>> values = new ArrayDeque<>(FETCH_SIZE);
+    private long lastSequence;
+
+    ClientCursor(ClientSourceId clientId, TrackerImpl<M, R> tracker) {
+      this.clientId = clientId;
+      this.tracker = tracker;
+    }
+
+    /**
+     * Fetches the next values of the client, unless it was untracked in the meantime.
+     */
+    boolean fetch() {
+      if (trackers.get(clientId) != tracker) {
+        return false;
+      }
+      fetched.clear();
+      if (tracker.copyTrackedValues(lastSequence, FETCH_SIZE, fetched) == 0) {
+        return false;
+      }
+      lastSequence = fetched.get(fetched.size() - 1).getSequenceId();
+      values.addAll(fetched);
+      return true;
+    }
+
+    long peekSequenceId() {
+      return values.peek().getSequenceId();
+    }
+  }
+}
@@ -17,53 +17,166 @@
 package org.terracotta.client.message.tracker;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Optional;
-import java.util.SortedMap;
-import java.util.TreeMap;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
 
 import org.terracotta.entity.StateDumpCollector;
 
+/**
+ * Tracked values are kept in primitive arrays sorted by transaction id, between a head which only moves forward as the
+ * client reconciles its transactions and a tail where the new transactions of the client are appended. Lookups are
+ * lock-free optimistic reads which only fall back to a read lock when racing with a write.
+ */
 class TrackerImpl<M, R> implements Tracker<M, R> {
 
-  private final SortedMap<Long, RequestResponse<M, R>> trackedValues;
+  private static final int INITIAL_CAPACITY = 16;
+
+  private final StampedLock lock = new StampedLock();
+
+  private long[] transactions = new long[INITIAL_CAPACITY];
+  private long[] inserts = new long[INITIAL_CAPACITY];
+  private Object[] requests = new Object[INITIAL_CAPACITY];
+  private Object[] responses = new Object[INITIAL_CAPACITY];
+  private int head;
+  private int tail;
   private volatile long reconciledMarker = 0L;
 
-  /**
-   * Constructor taking a predicate to define the tracking policy. If the
-   * predicate returns true, the source will be tracked.
-   *
-   * @param trackerPolicy defines if a source is tracked or not
-   */
   TrackerImpl() {
-    this.trackedValues = new TreeMap<>();
   }
 
   @Override
   public void track(long track, long id, M source, R value) {
     if (id > 0) {
-      placeTrackedValue(track, id, source, value);
+      long stamp = lock.writeLock();
+      try {
+        // a reconciled transaction can never be looked up again
+        if (id >= reconciledMarker) {
+          placeTrackedValue(track, id, source, value);
+        }
+      } finally {
+        lock.unlockWrite(stamp);
+      }
     }
   }
 
-  private synchronized void placeTrackedValue(long insert, long id, M req, R value) {
-    trackedValues.put(id, new RequestResponse<>(insert, id, req, value));
+  private void placeTrackedValue(long insert, long id, M req, R value) {
+    if (tail == transactions.length) {
+      makeRoom();
+    }
+
+    int index = tail;
+    if (tail > head && transactions[tail - 1] >= id) {
+      // out of order, or already tracked
+      index = Arrays.binarySearch(transactions, head, tail, id);
+      if (index >= 0) {
+        setTrackedValue(index, insert, id, req, value);
+        return;
+      }
+      index = -(index + 1);
+      int moved = tail - index;
+      System.arraycopy(transactions, index, transactions, index + 1, moved);
+      System.arraycopy(inserts, index, inserts, index + 1, moved);
+      System.arraycopy(requests, index, requests, index + 1, moved);
+      System.arraycopy(responses, index, responses, index + 1, moved);
+    }
+    setTrackedValue(index, insert, id, req, value);
+    tail++;
+  }
+
+  private void setTrackedValue(int index, long insert, long id, M req, R value) {
+    transactions[index] = id;
+    inserts[index] = insert;
+    requests[index] = req;
+    responses[index] = value;
+  }
+
+  private void makeRoom() {
+    int size = tail - head;
+    if (size <= transactions.length / 2) {
+      System.arraycopy(transactions, head, transactions, 0, size);
+      System.arraycopy(inserts, head, inserts, 0, size);
+      System.arraycopy(requests, head, requests, 0, size);
+      System.arraycopy(responses, head, responses, 0, size);
+      Arrays.fill(requests, size, tail, null);
+      Arrays.fill(responses, size, tail, null);
+    } else {
+      int capacity = transactions.length * 2;
+      transactions = Arrays.copyOfRange(transactions, head, head + capacity);
+      inserts = Arrays.copyOfRange(inserts, head, head + capacity);
+      requests = Arrays.copyOfRange(requests, head, head + capacity);
+      responses = Arrays.copyOfRange(responses, head, head + capacity);
+    }
+    head = 0;
+    tail = size;
   }
 
   @Override
-  public synchronized R getTrackedValue(long id) {
-    return Optional.ofNullable(trackedValues.get(id)).map(RequestResponse::getResponse).orElse(null);
+  @SuppressWarnings("unchecked")
+  public R getTrackedValue(long id) {
+    return (R) lookup(id, true);
   }
 
   @Override
-  public synchronized M getTrackedRequest(long id) {
-    return Optional.ofNullable(trackedValues.get(id)).map(RequestResponse::getRequest).orElse(null);
+  @SuppressWarnings("unchecked")
+  public M getTrackedRequest(long id) {
+    return (M) lookup(id, false);
+  }
+
+  private Object lookup(long id, boolean response) {
+    long stamp = lock.tryOptimisticRead();
+    Object value = find(id, response);
+    if (!lock.validate(stamp)) {
+      stamp = lock.readLock();
+      try {
+        value = find(id, response);
+      } finally {
+        lock.unlockRead(stamp);
+      }
+    }
+    return value;
+  }
+
+  /**
+   * Must not fail on the inconsistent state an optimistic read may observe, which then gets discarded.
+   */
+  private Object find(long id, boolean response) {
+    long[] ids = transactions;
+    Object[] values = response ? responses : requests;
+    int from = head;
+    int to = Math.min(tail, Math.min(ids.length, values.length));
+    if (from < 0 || from >= to) {
+      return null;
+    }
+    int index = Arrays.binarySearch(ids, from, to, id);
+    return index >= 0 ? values[index] : null;
   }
 
   @Override
-  public synchronized void reconcile(long id) {
-    reconciledMarker = Math.max(id, reconciledMarker);// don't go backwards
-    trackedValues.headMap(id).clear();
+  public void reconcile(long id) {
+    if (id <= reconciledMarker) {
+      // don't go backwards
+      return;
+    }
+
+    long stamp = lock.writeLock();
+    try {
+      if (id > reconciledMarker) {
+        reconciledMarker = id;
+        int from = head;
+        while (head < tail && transactions[head] < id) {
+          head++;
+        }
+        Arrays.fill(requests, from, head, null);
+        Arrays.fill(responses, from, head, null);
+        if (head == tail) {
+          head = tail = 0;
+        }
+      }
+    } finally {
+      lock.unlockWrite(stamp);
+    }
   }
 
   @Override
@@ -71,13 +184,71 @@ class TrackerImpl<M, R> implements Tracker<M, R> {
     return id < reconciledMarker;
   }
 
-  synchronized Collection<RequestResponse<M, R>> getTrackedValues() {
-    return new ArrayList<>(trackedValues.values());
+  @SuppressWarnings("unchecked")
+  Collection<RequestResponse<M, R>> getTrackedValues() {
+    long stamp = lock.readLock();
+    try {
+      List<RequestResponse<M, R>> trackedValues = new ArrayList<>(tail - head);
+      for (int i = head; i < tail; i++) {
+        trackedValues.add(new RequestResponse<>(inserts[i], transactions[i], (M) requests[i], (R) responses[i]));
+      }
+      return trackedValues;
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  /**
+   * Copies the tracked values following the given sequence id, in sequence id order. The values tracked out of
+   * transaction order are not stored in sequence id order, so all the values are scanned to select the next ones.
+   *
+   * @param afterSequence the sequence id to start after
+   * @param max           the maximum number of values to copy
+   * @param into          the collection to copy the values into
+   * @return the number of copied values
+   */
+  @SuppressWarnings("unchecked")
+  int copyTrackedValues(long afterSequence, int max, Collection<? super RequestResponse<M, R>> into) {
+    // indexes of the selected values, sorted by sequence id
+    int[] selected = new int[max];
+    int count = 0;
+    long stamp = lock.readLock();
+    try {
+      for (int i = head; i < tail; i++) {
+        long insert = inserts[i];
+        if (insert <= afterSequence || count == max && insert >= inserts[selected[count - 1]]) {
+          continue;
+        }
+        int position = count < max ? count++ : max - 1;
+        while (position > 0 && inserts[selected[position - 1]] > insert) {
+          selected[position] = selected[position - 1];
+          position--;
+        }
+        selected[position] = i;
+      }
+      for (int j = 0; j < count; j++) {
+        int i = selected[j];
+        into.add(new RequestResponse<>(inserts[i], transactions[i], (M) requests[i], (R) responses[i]));
+      }
+      return count;
+    } finally {
+      lock.unlockRead(stamp);
+    }
   }
 
   @Override
-  public synchronized void addStateTo(StateDumpCollector stateDumper) {
-    stateDumper.addState("TrackedResponses", new ArrayList<>(trackedValues.keySet()));
+  public void addStateTo(StateDumpCollector stateDumper) {
+    List<Long> trackedResponses;
+    long stamp = lock.readLock();
+    try {
+      trackedResponses = new ArrayList<>(tail - head);
+      for (int i = head; i < tail; i++) {
+        trackedResponses.add(transactions[i]);
+      }
+    } finally {
+      lock.unlockRead(stamp);
+    }
+    stateDumper.addState("TrackedResponses", trackedResponses);
   }
 
   static class RequestResponse<M, R> {
@@ -25,6 +25,7 @@ import org.terracotta.entity.EntityResponse;
 import org.terracotta.entity.InvokeContext;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -33,9 +34,11 @@ import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toSet;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.hamcrest.Matchers.sameInstance;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -290,6 +293,111 @@ public class OOOMessageHandlerImplTest {
     assertThat(clients.contains(clientSourceId3), is(false));
   }
 
+  @Test
+  public void testRecordedMessagesInSequence() throws Exception {
+    EntityMessage message = mock(EntityMessage.class);
+    List<String> invoked = new ArrayList<>();
+    for (long txn = 1; txn <= 100; txn++) {
+      // the clients take turns with different numbers of messages
+      long client = txn % 7 % 3;
+      messageHandler.invoke(new DummyContext(new DummyClientSourceId(client), txn, 1), message, (ctxt, msg) -> mock(EntityResponse.class));
+      invoked.add(client + ":" + txn);
+    }
+
+    assertThat(messageHandler.getRecordedMessages().map(OOOMessageHandlerImplTest::describe).collect(toList()), is(invoked));
+  }
+
+  @Test
+  public void testRecordedMessagesInSequenceWhenTrackedOutOfOrder() throws Exception {
+    EntityMessage message = mock(EntityMessage.class);
+    List<String> invoked = new ArrayList<>();
+    int count = TrackedValuesCursor.FETCH_SIZE * 3;
+    for (long i = 1; i <= count; i++) {
+      // client 1 sends its transactions backwards, client 2 in order
+      long txn1 = count + 1 - i;
+      messageHandler.invoke(new DummyContext(new DummyClientSourceId(1), txn1, 1), message, (ctxt, msg) -> mock(EntityResponse.class));
+      invoked.add("1:" + txn1);
+      messageHandler.invoke(new DummyContext(new DummyClientSourceId(2), i, 1), message, (ctxt, msg) -> mock(EntityResponse.class));
+      invoked.add("2:" + i);
+    }
+
+    assertThat(messageHandler.getRecordedMessages().map(OOOMessageHandlerImplTest::describe).collect(toList()), is(invoked));
+
+    RecordedMessageCursor<EntityMessage, EntityResponse> cursor = messageHandler.openRecordedMessages();
+    List<String> chunked = new ArrayList<>();
+    List<RecordedMessage<EntityMessage, EntityResponse>> chunk;
+    while (!(chunk = cursor.nextChunk(7)).isEmpty()) {
+      chunk.stream().map(OOOMessageHandlerImplTest::describe).forEach(chunked::add);
+    }
+    assertThat(chunked, is(invoked));
+  }
+
+  @Test
+  public void testRecordedMessagesInChunks() throws Exception {
+    EntityMessage message = mock(EntityMessage.class);
+    for (long txn = 1; txn <= 100; txn++) {
+      messageHandler.invoke(new DummyContext(new DummyClientSourceId(txn % 4), txn, 1), message, (ctxt, msg) -> mock(EntityResponse.class));
+    }
+
+    RecordedMessageCursor<EntityMessage, EntityResponse> cursor = messageHandler.openRecordedMessages();
+    List<String> chunked = new ArrayList<>();
+    List<RecordedMessage<EntityMessage, EntityResponse>> chunk;
+    while (!(chunk = cursor.nextChunk(7)).isEmpty()) {
+      assertThat(chunk.size(), lessThanOrEqualTo(7));
+      chunk.stream().map(OOOMessageHandlerImplTest::describe).forEach(chunked::add);
+    }
+
+    assertThat(chunked, is(messageHandler.getRecordedMessages().map(OOOMessageHandlerImplTest::describe).collect(toList())));
+    assertThat(chunked.size(), is(100));
+    assertThat(cursor.nextChunk(7).isEmpty(), is(true));
+  }
+
+  @Test
+  public void testRecordedMessagesCursorResumesAfterChanges() throws Exception {
+    EntityMessage message = mock(EntityMessage.class);
+    DummyClientSourceId clientSourceId1 = new DummyClientSourceId(1);
+    DummyClientSourceId clientSourceId2 = new DummyClientSourceId(2);
+    DummyClientSourceId clientSourceId3 = new DummyClientSourceId(3);
+    for (long txn = 1; txn <= 100; txn++) {
+      messageHandler.invoke(new DummyContext(clientSourceId1, txn, 1), message, (ctxt, msg) -> mock(EntityResponse.class));
+      messageHandler.invoke(new DummyContext(clientSourceId2, txn, 1), message, (ctxt, msg) -> mock(EntityResponse.class));
+      messageHandler.invoke(new DummyContext(clientSourceId3, txn, 1), message, (ctxt, msg) -> mock(EntityResponse.class));
+    }
+
+    RecordedMessageCursor<EntityMessage, EntityResponse> cursor = messageHandler.openRecordedMessages();
+    List<String> synced = cursor.nextChunk(30).stream().map(OOOMessageHandlerImplTest::describe).collect(toList());
+    assertThat(synced.get(29), is("3:10"));
+
+    // client 1 reconciles up to 50 and goes on, client 3 disconnects
+    messageHandler.invoke(new DummyContext(clientSourceId1, 101, 50), message, (ctxt, msg) -> mock(EntityResponse.class));
+    messageHandler.untrackClient(clientSourceId3);
+
+    List<RecordedMessage<EntityMessage, EntityResponse>> chunk;
+    while (!(chunk = cursor.nextChunk(30)).isEmpty()) {
+      chunk.stream().map(OOOMessageHandlerImplTest::describe).forEach(synced::add);
+    }
+
+    // the messages the cursor had already fetched from each client before the changes are still synced
+    Set<String> expected = new HashSet<>();
+    for (long txn = 1; txn <= 101; txn++) {
+      if (txn <= TrackedValuesCursor.FETCH_SIZE || txn >= 50) {
+        expected.add("1:" + txn);
+      }
+      if (txn <= 100) {
+        expected.add("2:" + txn);
+      }
+      if (txn <= TrackedValuesCursor.FETCH_SIZE) {
+        expected.add("3:" + txn);
+      }
+    }
+    assertThat(new HashSet<>(synced), is(expected));
+    assertThat(synced.size(), is(expected.size()));
+  }
+
+  private static String describe(RecordedMessage<?, ?> recordedMessage) {
+    return recordedMessage.getClientSourceId().toLong() + ":" + recordedMessage.getTransactionId();
+  }
+
   private DummyEntityResponse invokeActiveInternal(InvokeContext context, DummyEntityMessage message) {
     return new DummyEntityResponse();
   }
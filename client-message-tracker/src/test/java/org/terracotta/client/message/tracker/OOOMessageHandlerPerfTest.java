@@ -0,0 +1,146 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.client.message.tracker;
+
+import org.junit.Ignore;
+import org.junit.Test;
+import org.terracotta.entity.ClientSourceId;
+import org.terracotta.entity.EntityMessage;
+import org.terracotta.entity.EntityResponse;
+import org.terracotta.entity.InvokeContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures the throughput of tracked invocations going through {@link OOOMessageHandlerImpl} from a varying number of
+ * clients, each client being driven by its own thread like when clients invoke through different concurrency keys.
+ */
+public class OOOMessageHandlerPerfTest {
+
+  private static final EntityMessage MESSAGE = new EntityMessage() {};
+  private static final EntityResponse RESPONSE = new EntityResponse() {};
+
+  // how many transactions of a client are in flight, i.e. not reconciled yet
+  private static final int IN_FLIGHT = 64;
+
+  @Test
+  @Ignore
+  public void trackedInvocations() throws Exception {
+    for (int round = 0; round < 5; round++) {
+      for (int clients : new int[] {1, 4, 16, 64, 256}) {
+        int threads = Math.min(clients, Runtime.getRuntime().availableProcessors());
+        long invocations = run(clients, threads, 2_000_000 / threads);
+        System.out.println(round + ". clients: " + clients + ", threads: " + threads + ", " + invocations + " invocations/s");
+      }
+    }
+  }
+
+  private static long run(int clients, int threads, int invocationsPerThread) throws Exception {
+    OOOMessageHandlerImpl<EntityMessage, EntityResponse> handler = new OOOMessageHandlerImpl<>(msg -> true, () -> {});
+    CountDownLatch start = new CountDownLatch(1);
+    LongAdder checksum = new LongAdder();
+    List<Thread> workers = new ArrayList<>(threads);
+
+    for (int t = 0; t < threads; t++) {
+      int thread = t;
+      Thread worker = new Thread(() -> {
+        // each thread drives its share of the clients in turn
+        List<Context> contexts = new ArrayList<>();
+        for (int c = thread; c < clients; c += threads) {
+          contexts.add(new Context(new DummyClientSourceId(c)));
+        }
+        try {
+          start.await();
+          for (int i = 0; i < invocationsPerThread; i++) {
+            Context context = contexts.get(i % contexts.size());
+            context.next();
+            if (handler.invoke(context, MESSAGE, (ctx, msg) -> RESPONSE) == RESPONSE) {
+              checksum.increment();
+            }
+            // a resent message is answered from the tracked responses
+            if (handler.lookupResponse(context.clientSourceId, context.current - 1) == RESPONSE) {
+              checksum.increment();
+            }
+          }
+        } catch (Exception e) {
+          throw new AssertionError(e);
+        }
+      });
+      worker.start();
+      workers.add(worker);
+    }
+
+    long st = System.nanoTime();
+    start.countDown();
+    for (Thread worker : workers) {
+      worker.join();
+    }
+    long nanos = System.nanoTime() - st;
+
+    if (checksum.sum() < (long) threads * invocationsPerThread) {
+      throw new AssertionError("Missing responses: " + checksum.sum());
+    }
+    return (long) threads * invocationsPerThread * 1_000_000_000L / nanos;
+  }
+
+  private static class Context implements InvokeContext {
+
+    private final ClientSourceId clientSourceId;
+    private long current;
+
+    private Context(ClientSourceId clientSourceId) {
+      this.clientSourceId = clientSourceId;
+    }
+
+    void next() {
+      current++;
+    }
+
+    @Override
+    public ClientSourceId getClientSource() {
+      return clientSourceId;
+    }
+
+    @Override
+    public long getCurrentTransactionId() {
+      return current;
+    }
+
+    @Override
+    public long getOldestTransactionId() {
+      return Math.max(1, current - IN_FLIGHT);
+    }
+
+    @Override
+    public boolean isValidClientInformation() {
+      return true;
+    }
+
+    @Override
+    public ClientSourceId makeClientSourceId(long l) {
+      return new DummyClientSourceId(l);
+    }
+
+    @Override
+    public int getConcurrencyKey() {
+      return 0;
+    }
+  }
+}
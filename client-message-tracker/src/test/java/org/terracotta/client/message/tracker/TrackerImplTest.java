@@ -20,7 +20,17 @@ import org.junit.Test;
 import org.terracotta.entity.EntityMessage;
 import org.terracotta.entity.EntityResponse;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.util.stream.Collectors.toList;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.Matchers.sameInstance;
@@ -99,4 +109,119 @@ public class TrackerImplTest {
     assertThat(tracker.getTrackedValue(2L), notNullValue());
 
   }
+
+  @Test
+  public void trackOutOfOrder() throws Exception {
+    EntityMessage message = mock(EntityMessage.class);
+
+    TrackerImpl<EntityMessage, EntityResponse> tracker = new TrackerImpl<>();
+    tracker.track(1L, 5L, message, new Response(5L));
+    tracker.track(2L, 2L, message, new Response(2L));
+    tracker.track(3L, 9L, message, new Response(9L));
+    tracker.track(4L, 3L, message, new Response(3L));
+
+    for (long id : new long[] {2L, 3L, 5L, 9L}) {
+      assertThat(((Response) tracker.getTrackedValue(id)).id, is(id));
+    }
+    assertThat(tracker.getTrackedValue(4L), nullValue());
+    assertThat(tracker.getTrackedValues().stream().map(TrackerImpl.RequestResponse::getTransactionId).collect(toList()), contains(2L, 3L, 5L, 9L));
+    assertThat(tracker.getTrackedValues().stream().map(TrackerImpl.RequestResponse::getSequenceId).collect(toList()), contains(2L, 4L, 1L, 3L));
+  }
+
+  @Test
+  public void trackReplacesTrackedValue() throws Exception {
+    EntityMessage message = mock(EntityMessage.class);
+    EntityResponse response = mock(EntityResponse.class);
+
+    TrackerImpl<EntityMessage, EntityResponse> tracker = new TrackerImpl<>();
+    tracker.track(1L, 1L, message, mock(EntityResponse.class));
+    tracker.track(2L, 1L, message, response);
+
+    assertThat(tracker.getTrackedValue(1L), sameInstance(response));
+    assertThat(tracker.getTrackedValues().size(), is(1));
+  }
+
+  @Test
+  public void reconciledMessageNotTracked() throws Exception {
+    EntityMessage message = mock(EntityMessage.class);
+    EntityResponse response = mock(EntityResponse.class);
+
+    TrackerImpl<EntityMessage, EntityResponse> tracker = new TrackerImpl<>();
+    tracker.reconcile(5L);
+    tracker.track(1L, 3L, message, response);
+
+    assertThat(tracker.wasReconciled(3L), is(true));
+    assertThat(tracker.getTrackedValue(3L), nullValue());
+  }
+
+  @Test
+  public void slidingWindow() throws Exception {
+    EntityMessage message = mock(EntityMessage.class);
+
+    TrackerImpl<EntityMessage, EntityResponse> tracker = new TrackerImpl<>();
+    for (long id = 1; id <= 10_000; id++) {
+      tracker.reconcile(id - 40);
+      // gaps and reordering, like transactions of a client spread over entities and concurrency keys
+      if (id % 3 != 0) {
+        long tracked = id % 5 == 1 && id > 1 ? id - 1 : id % 5 == 0 ? id + 1 : id;
+        tracker.track(id, tracked, message, new Response(tracked));
+      }
+    }
+
+    List<Long> tracked = tracker.getTrackedValues().stream().map(TrackerImpl.RequestResponse::getTransactionId).collect(toList());
+    assertThat(tracked.size(), lessThanOrEqualTo(41));
+    assertThat(tracked, is(tracked.stream().sorted().collect(toList())));
+    for (long id = 1; id <= 10_001; id++) {
+      Response response = (Response) tracker.getTrackedValue(id);
+      assertThat(response == null ? null : response.id, is(tracked.contains(id) ? id : null));
+    }
+  }
+
+  @Test
+  public void lookupsWhileTracking() throws Exception {
+    EntityMessage message = mock(EntityMessage.class);
+    TrackerImpl<EntityMessage, EntityResponse> tracker = new TrackerImpl<>();
+    int count = 200_000;
+    AtomicBoolean done = new AtomicBoolean();
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    List<Thread> readers = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      Thread reader = new Thread(() -> {
+        try {
+          Random random = new Random();
+          while (!done.get()) {
+            long id = 1 + random.nextInt(count);
+            Response response = (Response) tracker.getTrackedValue(id);
+            if (response != null && response.id != id) {
+              throw new AssertionError("Got the response of " + response.id + " for " + id);
+            }
+          }
+        } catch (Throwable t) {
+          failure.set(t);
+        }
+      });
+      reader.start();
+      readers.add(reader);
+    }
+
+    for (long id = 1; id <= count; id++) {
+      tracker.reconcile(id - 100);
+      tracker.track(id, id, message, new Response(id));
+    }
+    done.set(true);
+    for (Thread reader : readers) {
+      reader.join();
+    }
+
+    assertThat(failure.get(), nullValue());
+  }
+
+  private static class Response implements EntityResponse {
+    private final long id;
+
+    private Response(long id) {
+      this.id = id;
+    }
+  }
 }
@@ -19,6 +19,7 @@ package org.terracotta.client.message.tracker.demo;
 import org.terracotta.client.message.tracker.OOOMessageHandler;
 import org.terracotta.client.message.tracker.OOOMessageHandlerConfiguration;
 import org.terracotta.client.message.tracker.RecordedMessage;
+import org.terracotta.client.message.tracker.RecordedMessageCursor;
 import org.terracotta.entity.ActiveInvokeContext;
 import org.terracotta.entity.ActiveServerEntity;
 import org.terracotta.entity.ClientDescriptor;
@@ -32,11 +33,12 @@ import org.terracotta.entity.PassiveSynchronizationChannel;
 import org.terracotta.entity.ServiceException;
 import org.terracotta.entity.ServiceRegistry;
 
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.List;
 
 public class DemoActiveEntity implements ActiveServerEntity<EntityMessage, EntityResponse> {
 
+  private static final int SYNC_CHUNK_SIZE = 1000;
+
   private final OOOMessageHandler<EntityMessage, EntityResponse> messageHandler;
 
   public DemoActiveEntity(ServiceRegistry serviceRegistry) throws ServiceException {
@@ -92,11 +94,12 @@ public class DemoActiveEntity implements ActiveServerEntity<EntityMessage, Entit
 
     // Sync client message tracker state
     int segmentIndex = concurrencyKeyToSegmentIndex(concurrencyKey);
-    messageHandler.getTrackedClients().forEach(clientSourceId -> {
-      Stream<RecordedMessage<EntityMessage, EntityResponse>> trackedResponsesForSegment = messageHandler.getRecordedMessages();
-      EntityMessage clientMessageTrackerSegmentData = new MessageTrackerSyncMessage(trackedResponsesForSegment.collect(Collectors.toList()));
+    RecordedMessageCursor<EntityMessage, EntityResponse> trackedResponses = messageHandler.openRecordedMessages();
+    List<RecordedMessage<EntityMessage, EntityResponse>> chunk;
+    while (!(chunk = trackedResponses.nextChunk(SYNC_CHUNK_SIZE)).isEmpty()) {
+      EntityMessage clientMessageTrackerSegmentData = new MessageTrackerSyncMessage(chunk);
       passiveSynchronizationChannel.synchronizeToPassive(clientMessageTrackerSegmentData);
-    });
+    }
   }
 
   private int concurrencyKeyToSegmentIndex(int concurrencyKey) {
@@ -0,0 +1,152 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.runnel;
+
+import org.terracotta.runnel.decoding.fields.ArrayField;
+import org.terracotta.runnel.decoding.fields.BoolField;
+import org.terracotta.runnel.decoding.fields.ByteBufferField;
+import org.terracotta.runnel.decoding.fields.CharField;
+import org.terracotta.runnel.decoding.fields.EnumField;
+import org.terracotta.runnel.decoding.fields.Field;
+import org.terracotta.runnel.decoding.fields.FloatingPoint64Field;
+import org.terracotta.runnel.decoding.fields.Int32Field;
+import org.terracotta.runnel.decoding.fields.Int64Field;
+import org.terracotta.runnel.decoding.fields.StringField;
+import org.terracotta.runnel.decoding.fields.StructField;
+import org.terracotta.runnel.metadata.FieldHandle;
+import org.terracotta.runnel.metadata.Metadata;
+
+/**
+ * An access plan resolves the fields of a structure by name and type once, handing out {@link FieldHandle}s that
+ * encoders and decoders accept in place of field names. Looking a field up through its handle only costs an index
+ * comparison, so codecs on hot paths should resolve their handles once, typically in static fields, and use them
+ * for every message.
+ * <p>
+ * Handles only work with the encoders and decoders of the structure they were resolved from, or of the structures
+ * aliasing it. Use {@link #structPlan(String)} and {@link #structsPlan(String)} to resolve the fields of sub-structs.
+ * Note: Instances of this class are thread-safe.
+ *
+ * @see Struct#accessPlan()
+ */
+public class AccessPlan {
+
+  private final StructField structField;
+  private final Metadata metadata;
+
+  AccessPlan(StructField structField) {
+    structField.checkFullyInitialized();
+    this.structField = structField;
+    this.metadata = structField.getMetadata();
+  }
+
+  public FieldHandle<BoolField> bool(String name) {
+    return handle(name, BoolField.class, null);
+  }
+
+  public FieldHandle<CharField> chr(String name) {
+    return handle(name, CharField.class, null);
+  }
+
+  @SuppressWarnings("unchecked")
+  public FieldHandle<EnumField<?>> enm(String name) {
+    return handle(name, (Class<EnumField<?>>) (Class<?>) EnumField.class, null);
+  }
+
+  public FieldHandle<Int32Field> int32(String name) {
+    return handle(name, Int32Field.class, null);
+  }
+
+  public FieldHandle<Int64Field> int64(String name) {
+    return handle(name, Int64Field.class, null);
+  }
+
+  public FieldHandle<FloatingPoint64Field> fp64(String name) {
+    return handle(name, FloatingPoint64Field.class, null);
+  }
+
+  public FieldHandle<StringField> string(String name) {
+    return handle(name, StringField.class, null);
+  }
+
+  public FieldHandle<ByteBufferField> byteBuffer(String name) {
+    return handle(name, ByteBufferField.class, null);
+  }
+
+  public FieldHandle<StructField> struct(String name) {
+    return handle(name, StructField.class, null);
+  }
+
+  public FieldHandle<ArrayField> bools(String name) {
+    return handle(name, ArrayField.class, BoolField.class);
+  }
+
+  public FieldHandle<ArrayField> chrs(String name) {
+    return handle(name, ArrayField.class, CharField.class);
+  }
+
+  public FieldHandle<ArrayField> int32s(String name) {
+    return handle(name, ArrayField.class, Int32Field.class);
+  }
+
+  public FieldHandle<ArrayField> int64s(String name) {
+    return handle(name, ArrayField.class, Int64Field.class);
+  }
+
+  public FieldHandle<ArrayField> fp64s(String name) {
+    return handle(name, ArrayField.class, FloatingPoint64Field.class);
+  }
+
+  public FieldHandle<ArrayField> strings(String name) {
+    return handle(name, ArrayField.class, StringField.class);
+  }
+
+  public FieldHandle<ArrayField> byteBuffers(String name) {
+    return handle(name, ArrayField.class, ByteBufferField.class);
+  }
+
+  public FieldHandle<ArrayField> structs(String name) {
+    return handle(name, ArrayField.class, StructField.class);
+  }
+
+  /**
+   * Create the access plan of a sub-struct.
+   * @param name the name of the struct field.
+   * @return the sub-struct's access plan.
+   */
+  public AccessPlan structPlan(String name) {
+    return new AccessPlan(struct(name).field());
+  }
+
+  /**
+   * Create the access plan of the elements of a struct array.
+   * @param name the name of the struct array field.
+   * @return the struct array elements' access plan.
+   */
+  public AccessPlan structsPlan(String name) {
+    return new AccessPlan((StructField) structs(name).field().subField());
+  }
+
+  private <T extends Field, S extends Field> FieldHandle<T> handle(String name, Class<T> fieldClazz, Class<S> subFieldClazz) {
+    return metadata.handle(name, fieldClazz, subFieldClazz);
+  }
+
+  @Override
+  public String toString() {
+    return "AccessPlan{" + structField.name() + "}";
+  }
+
+}
@@ -19,6 +19,7 @@ package org.terracotta.runnel;
 import org.terracotta.runnel.decoding.StructDecoder;
 import org.terracotta.runnel.decoding.fields.Field;
 import org.terracotta.runnel.decoding.fields.StructField;
+import org.terracotta.runnel.encoding.StreamingStructEncoder;
 import org.terracotta.runnel.encoding.StructEncoder;
 import org.terracotta.runnel.utils.ReadBuffer;
 
@@ -55,6 +56,29 @@ public class Struct {
     return new StructEncoder<>(root);
   }
 
+  /**
+   * Create a non-thread safe encoder writing fields straight into the given byte buffer as they are added, allowing
+   * encoding according to the present structure without allocating intermediate objects.
+   * Note: this method is thread-safe.
+   * @param byteBuffer the byte buffer to encode into, from its current position.
+   * @return the encoder.
+   * @see StreamingStructEncoder
+   */
+  public StreamingStructEncoder<Void> encoder(ByteBuffer byteBuffer) {
+    root.checkFullyInitialized();
+    return new StreamingStructEncoder<>(root, byteBuffer);
+  }
+
+  /**
+   * Create an access plan, resolving the fields of the present structure once so that encoders and decoders can
+   * access them through handles instead of names.
+   * Note: this method is thread-safe.
+   * @return the access plan.
+   */
+  public AccessPlan accessPlan() {
+    return new AccessPlan(root);
+  }
+
   /**
    * Create a non-thread safe decoder allowing decoding according to the present structure.
    * Note: this method is thread-safe.
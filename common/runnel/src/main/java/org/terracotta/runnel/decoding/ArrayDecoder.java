@@ -16,6 +16,11 @@
  */
 package org.terracotta.runnel.decoding;
 
+import org.terracotta.runnel.decoding.fields.BoolField;
+import org.terracotta.runnel.decoding.fields.CharField;
+import org.terracotta.runnel.decoding.fields.FloatingPoint64Field;
+import org.terracotta.runnel.decoding.fields.Int32Field;
+import org.terracotta.runnel.decoding.fields.Int64Field;
 import org.terracotta.runnel.decoding.fields.ValueField;
 import org.terracotta.runnel.utils.ReadBuffer;
 
@@ -28,6 +33,7 @@ public class ArrayDecoder<T, P> {
   private final ReadBuffer readBuffer;
   private final P parent;
   private final int length;
+  private int read;
 
   public ArrayDecoder(ValueField<T> arrayedField, ReadBuffer readBuffer, P parent) {
     this.arrayedField = arrayedField;
@@ -43,13 +49,141 @@ public class ArrayDecoder<T, P> {
   }
 
   public T value() {
+    read++;
     return arrayedField.decode(readBuffer);
   }
 
+  /**
+   * Decode the next value of a boolean array without boxing it.
+   * @return the decoded value.
+   */
+  public boolean booleanValue() {
+    BoolField field = arrayedField(BoolField.class);
+    read++;
+    return field.decodeBoolean(readBuffer);
+  }
+
+  /**
+   * Decode the next value of a character array without boxing it.
+   * @return the decoded value.
+   */
+  public char charValue() {
+    CharField field = arrayedField(CharField.class);
+    read++;
+    return field.decodeChar(readBuffer);
+  }
+
+  /**
+   * Decode the next value of a 32-bit integer array without boxing it.
+   * @return the decoded value.
+   */
+  public int intValue() {
+    Int32Field field = arrayedField(Int32Field.class);
+    read++;
+    return field.decodeInt(readBuffer);
+  }
+
+  /**
+   * Decode the next value of a 64-bit integer array without boxing it.
+   * @return the decoded value.
+   */
+  public long longValue() {
+    Int64Field field = arrayedField(Int64Field.class);
+    read++;
+    return field.decodeLong(readBuffer);
+  }
+
+  /**
+   * Decode the next value of a 64-bit, double-precision floating point number array without boxing it.
+   * @return the decoded value.
+   */
+  public double doubleValue() {
+    FloatingPoint64Field field = arrayedField(FloatingPoint64Field.class);
+    read++;
+    return field.decodeDouble(readBuffer);
+  }
+
+  /**
+   * Decode all the values of a boolean array that were not read yet.
+   * @return the decoded values.
+   */
+  public boolean[] toBooleanArray() {
+    BoolField field = arrayedField(BoolField.class);
+    boolean[] values = new boolean[length - read];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = field.decodeBoolean(readBuffer);
+    }
+    read = length;
+    return values;
+  }
+
+  /**
+   * Decode all the values of a character array that were not read yet.
+   * @return the decoded values.
+   */
+  public char[] toCharArray() {
+    CharField field = arrayedField(CharField.class);
+    char[] values = new char[length - read];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = field.decodeChar(readBuffer);
+    }
+    read = length;
+    return values;
+  }
+
+  /**
+   * Decode all the values of a 32-bit integer array that were not read yet.
+   * @return the decoded values.
+   */
+  public int[] toIntArray() {
+    Int32Field field = arrayedField(Int32Field.class);
+    int[] values = new int[length - read];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = field.decodeInt(readBuffer);
+    }
+    read = length;
+    return values;
+  }
+
+  /**
+   * Decode all the values of a 64-bit integer array that were not read yet.
+   * @return the decoded values.
+   */
+  public long[] toLongArray() {
+    Int64Field field = arrayedField(Int64Field.class);
+    long[] values = new long[length - read];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = field.decodeLong(readBuffer);
+    }
+    read = length;
+    return values;
+  }
+
+  /**
+   * Decode all the values of a 64-bit, double-precision floating point number array that were not read yet.
+   * @return the decoded values.
+   */
+  public double[] toDoubleArray() {
+    FloatingPoint64Field field = arrayedField(FloatingPoint64Field.class);
+    double[] values = new double[length - read];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = field.decodeDouble(readBuffer);
+    }
+    read = length;
+    return values;
+  }
+
   public P end() {
     readBuffer.skipAll();
 
     return parent;
   }
 
+  private <F extends ValueField<?>> F arrayedField(Class<F> clazz) {
+    if (arrayedField.getClass() != clazz) {
+      throw new IllegalStateException("Invalid subtype for array '" + arrayedField.name() + "', expected : '" + clazz.getSimpleName() + "' but was '" + arrayedField.getClass().getSimpleName() + "'");
+    }
+    return clazz.cast(arrayedField);
+  }
+
 }
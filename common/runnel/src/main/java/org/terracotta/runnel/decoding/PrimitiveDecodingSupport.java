@@ -30,6 +30,14 @@ public interface PrimitiveDecodingSupport {
    */
   Boolean bool(String name);
 
+  /**
+   * Decode a boolean without boxing it.
+   * @param name the field name.
+   * @param defaultValue the value to return if the field was absent from the data.
+   * @return the decoded value, or defaultValue if it was absent from the data.
+   */
+  boolean bool(String name, boolean defaultValue);
+
   /**
    * Decode a character.
    * @param name the field name.
@@ -37,6 +45,14 @@ public interface PrimitiveDecodingSupport {
    */
   Character chr(String name);
 
+  /**
+   * Decode a character without boxing it.
+   * @param name the field name.
+   * @param defaultValue the value to return if the field was absent from the data.
+   * @return the decoded value, or defaultValue if it was absent from the data.
+   */
+  char chr(String name, char defaultValue);
+
   /**
    * Decode a 32-bit integer.
    * @param name the field name.
@@ -44,6 +60,14 @@ public interface PrimitiveDecodingSupport {
    */
   Integer int32(String name);
 
+  /**
+   * Decode a 32-bit integer without boxing it.
+   * @param name the field name.
+   * @param defaultValue the value to return if the field was absent from the data.
+   * @return the decoded value, or defaultValue if it was absent from the data.
+   */
+  int int32(String name, int defaultValue);
+
   /**
    * Decode an enumeration.
    * @param name the field name.
@@ -59,6 +83,14 @@ public interface PrimitiveDecodingSupport {
    */
   Long int64(String name);
 
+  /**
+   * Decode a 64-bit integer without boxing it.
+   * @param name the field name.
+   * @param defaultValue the value to return if the field was absent from the data.
+   * @return the decoded value, or defaultValue if it was absent from the data.
+   */
+  long int64(String name, long defaultValue);
+
   /**
    * Decode a 64-bit, double-precision floating point number.
    * @param name the field name.
@@ -66,6 +98,14 @@ public interface PrimitiveDecodingSupport {
    */
   Double fp64(String name);
 
+  /**
+   * Decode a 64-bit, double-precision floating point number without boxing it.
+   * @param name the field name.
+   * @param defaultValue the value to return if the field was absent from the data.
+   * @return the decoded value, or defaultValue if it was absent from the data.
+   */
+  double fp64(String name, double defaultValue);
+
   /**
    * Decode a character string.
    * @param name the field name.
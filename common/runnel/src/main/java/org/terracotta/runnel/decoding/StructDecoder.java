@@ -16,6 +16,7 @@
  */
 package org.terracotta.runnel.decoding;
 
+import org.terracotta.runnel.decoding.fields.ArrayField;
 import org.terracotta.runnel.decoding.fields.BoolField;
 import org.terracotta.runnel.decoding.fields.ByteBufferField;
 import org.terracotta.runnel.decoding.fields.CharField;
@@ -26,6 +27,7 @@ import org.terracotta.runnel.decoding.fields.Int64Field;
 import org.terracotta.runnel.decoding.fields.StringField;
 import org.terracotta.runnel.decoding.fields.StructField;
 import org.terracotta.runnel.metadata.FieldDecoder;
+import org.terracotta.runnel.metadata.FieldHandle;
 import org.terracotta.runnel.utils.ReadBuffer;
 
 import java.nio.ByteBuffer;
@@ -51,21 +53,70 @@ public class StructDecoder<P> implements PrimitiveDecodingSupport {
     this.fieldDecoder = structField.getMetadata().fieldDecoder(this.readBuffer);
   }
 
+  /**
+   * Reuse this decoder as a flyweight to decode another occurrence of the same structure, without allocating.
+   * @param byteBuffer the byte buffer containing the data to be decoded.
+   * @return this.
+   */
+  public StructDecoder<P> reset(ByteBuffer byteBuffer) {
+    checkRoot();
+    readBuffer.reset(byteBuffer);
+    return reset(readBuffer);
+  }
+
+  /**
+   * Reuse this decoder as a flyweight to decode another occurrence of the same structure, without allocating.
+   * @param readBuffer the read buffer containing the data to be decoded, which is consumed like it would be when
+   *                   passed to the constructor.
+   * @return this.
+   */
+  public StructDecoder<P> reset(ReadBuffer readBuffer) {
+    checkRoot();
+    int size = readBuffer.getVlqInt();
+    this.readBuffer.reset(readBuffer, size);
+    fieldDecoder.reset();
+    return this;
+  }
+
+  private void checkRoot() {
+    if (parent != null) {
+      throw new IllegalStateException("Cannot reset non-root decoder");
+    }
+  }
+
   @Override
   public Boolean bool(String name) {
     return fieldDecoder.decodeValue(name, BoolField.class);
   }
 
+  @Override
+  public boolean bool(String name, boolean defaultValue) {
+    BoolField field = fieldDecoder.nextValueField(name, BoolField.class);
+    return field == null ? defaultValue : field.decodeBoolean(readBuffer);
+  }
+
   @Override
   public Character chr(String name) {
     return fieldDecoder.decodeValue(name, CharField.class);
   }
 
+  @Override
+  public char chr(String name, char defaultValue) {
+    CharField field = fieldDecoder.nextValueField(name, CharField.class);
+    return field == null ? defaultValue : field.decodeChar(readBuffer);
+  }
+
   @Override
   public Integer int32(String name) {
     return fieldDecoder.decodeValue(name, Int32Field.class);
   }
 
+  @Override
+  public int int32(String name, int defaultValue) {
+    Int32Field field = fieldDecoder.nextValueField(name, Int32Field.class);
+    return field == null ? defaultValue : field.decodeInt(readBuffer);
+  }
+
   @SuppressWarnings("unchecked")
   @Override
   public <E> Enm<E> enm(String name) {
@@ -81,11 +132,23 @@ public class StructDecoder<P> implements PrimitiveDecodingSupport {
     return fieldDecoder.decodeValue(name, Int64Field.class);
   }
 
+  @Override
+  public long int64(String name, long defaultValue) {
+    Int64Field field = fieldDecoder.nextValueField(name, Int64Field.class);
+    return field == null ? defaultValue : field.decodeLong(readBuffer);
+  }
+
   @Override
   public Double fp64(String name) {
     return fieldDecoder.decodeValue(name, FloatingPoint64Field.class);
   }
 
+  @Override
+  public double fp64(String name, double defaultValue) {
+    FloatingPoint64Field field = fieldDecoder.nextValueField(name, FloatingPoint64Field.class);
+    return field == null ? defaultValue : field.decodeDouble(readBuffer);
+  }
+
   @Override
   public String string(String name) {
     return fieldDecoder.decodeValue(name, StringField.class);
@@ -133,6 +196,104 @@ public class StructDecoder<P> implements PrimitiveDecodingSupport {
     return fieldDecoder.decodeStructArray(name, this);
   }
 
+  public Boolean bool(FieldHandle<BoolField> handle) {
+    return fieldDecoder.decodeValue(handle);
+  }
+
+  public boolean bool(FieldHandle<BoolField> handle, boolean defaultValue) {
+    BoolField field = fieldDecoder.nextValueField(handle);
+    return field == null ? defaultValue : field.decodeBoolean(readBuffer);
+  }
+
+  public Character chr(FieldHandle<CharField> handle) {
+    return fieldDecoder.decodeValue(handle);
+  }
+
+  public char chr(FieldHandle<CharField> handle, char defaultValue) {
+    CharField field = fieldDecoder.nextValueField(handle);
+    return field == null ? defaultValue : field.decodeChar(readBuffer);
+  }
+
+  public Integer int32(FieldHandle<Int32Field> handle) {
+    return fieldDecoder.decodeValue(handle);
+  }
+
+  public int int32(FieldHandle<Int32Field> handle, int defaultValue) {
+    Int32Field field = fieldDecoder.nextValueField(handle);
+    return field == null ? defaultValue : field.decodeInt(readBuffer);
+  }
+
+  public Long int64(FieldHandle<Int64Field> handle) {
+    return fieldDecoder.decodeValue(handle);
+  }
+
+  public long int64(FieldHandle<Int64Field> handle, long defaultValue) {
+    Int64Field field = fieldDecoder.nextValueField(handle);
+    return field == null ? defaultValue : field.decodeLong(readBuffer);
+  }
+
+  public Double fp64(FieldHandle<FloatingPoint64Field> handle) {
+    return fieldDecoder.decodeValue(handle);
+  }
+
+  public double fp64(FieldHandle<FloatingPoint64Field> handle, double defaultValue) {
+    FloatingPoint64Field field = fieldDecoder.nextValueField(handle);
+    return field == null ? defaultValue : field.decodeDouble(readBuffer);
+  }
+
+  @SuppressWarnings("unchecked")
+  public <E> Enm<E> enm(FieldHandle<EnumField<?>> handle) {
+    EnumField<?> field = fieldDecoder.nextValueField(handle);
+    if (field == null) {
+      return new Enm<>(handle.name());
+    }
+    return (Enm<E>) field.decode(readBuffer);
+  }
+
+  public String string(FieldHandle<StringField> handle) {
+    return fieldDecoder.decodeValue(handle);
+  }
+
+  public ByteBuffer byteBuffer(FieldHandle<ByteBufferField> handle) {
+    return fieldDecoder.decodeValue(handle);
+  }
+
+  public ArrayDecoder<Integer, StructDecoder<P>> int32s(FieldHandle<ArrayField> handle) {
+    return fieldDecoder.decodeValueArray(handle, Int32Field.class, this);
+  }
+
+  public ArrayDecoder<Boolean, StructDecoder<P>> bools(FieldHandle<ArrayField> handle) {
+    return fieldDecoder.decodeValueArray(handle, BoolField.class, this);
+  }
+
+  public ArrayDecoder<Character, StructDecoder<P>> chrs(FieldHandle<ArrayField> handle) {
+    return fieldDecoder.decodeValueArray(handle, CharField.class, this);
+  }
+
+  public ArrayDecoder<Long, StructDecoder<P>> int64s(FieldHandle<ArrayField> handle) {
+    return fieldDecoder.decodeValueArray(handle, Int64Field.class, this);
+  }
+
+  public ArrayDecoder<Double, StructDecoder<P>> fp64s(FieldHandle<ArrayField> handle) {
+    return fieldDecoder.decodeValueArray(handle, FloatingPoint64Field.class, this);
+  }
+
+  public ArrayDecoder<String, StructDecoder<P>> strings(FieldHandle<ArrayField> handle) {
+    return fieldDecoder.decodeValueArray(handle, StringField.class, this);
+  }
+
+  public ArrayDecoder<ByteBuffer, StructDecoder<P>> byteBuffers(FieldHandle<ArrayField> handle) {
+    return fieldDecoder.decodeValueArray(handle, ByteBufferField.class, this);
+  }
+
+  public StructDecoder<StructDecoder<P>> struct(FieldHandle<StructField> handle) {
+    return fieldDecoder.decodeStruct(handle, this);
+  }
+
+  public StructArrayDecoder<StructDecoder<P>> structs(FieldHandle<ArrayField> handle) {
+    return fieldDecoder.decodeStructArray(handle, this);
+  }
+
   public P end() {
     if (parent == null) {
       throw new IllegalStateException("Cannot end root decoder");
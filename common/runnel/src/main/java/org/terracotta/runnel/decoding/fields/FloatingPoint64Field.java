@@ -30,11 +30,15 @@ public class FloatingPoint64Field extends AbstractValueField<Double> {
 
   @Override
   public Double decode(ReadBuffer readBuffer) {
+    return decodeDouble(readBuffer);
+  }
+
+  public double decodeDouble(ReadBuffer readBuffer) {
     int size = readBuffer.getVlqInt();
     if (size != 8) {
       throw new CorruptDataException("Expected field size of 8, read : " + size);
     }
-    return readBuffer.getDouble();
+    return readBuffer.getDoubleValue();
   }
 
 }
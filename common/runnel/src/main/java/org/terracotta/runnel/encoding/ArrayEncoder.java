@@ -16,33 +16,16 @@
  */
 package org.terracotta.runnel.encoding;
 
-import org.terracotta.runnel.encoding.dataholders.DataHolder;
-
-import java.util.List;
-
 /**
  * @author Ludovic Orban
  */
 public abstract class ArrayEncoder<T, P> {
 
-  private final P parent;
-  private final List<DataHolder> values;
-
-  ArrayEncoder(List<DataHolder> values, P parent) {
-    this.values = values;
-    this.parent = parent;
+  ArrayEncoder() {
   }
 
-  public ArrayEncoder<T, P> value(T value) {
-    DataHolder dataHolder = buildDataHolder(value);
-    this.values.add(dataHolder);
-    return this;
-  }
-
-  protected abstract DataHolder buildDataHolder(T value);
+  public abstract ArrayEncoder<T, P> value(T value);
 
-  public P end() {
-    return parent;
-  }
+  public abstract P end();
 
 }
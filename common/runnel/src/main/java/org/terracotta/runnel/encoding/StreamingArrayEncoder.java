@@ -0,0 +1,134 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.runnel.encoding;
+
+import org.terracotta.runnel.utils.StreamingWriteBuffer;
+import org.terracotta.runnel.utils.VLQ;
+
+import java.nio.ByteBuffer;
+
+/**
+ * An array encoder writing its values straight into the buffer of a {@link StreamingStructEncoder}.
+ * Instances are reused by their enclosing encoder and must not be used after {@link #end()} was called.
+ */
+class StreamingArrayEncoder<T, P> extends ArrayEncoder<T, P> {
+
+  static final ValueWriter<Boolean> BOOL = (writeBuffer, value) -> {
+    writeBuffer.putVlqInt(1);
+    writeBuffer.putBoolean(value);
+  };
+  static final ValueWriter<Character> CHR = (writeBuffer, value) -> {
+    writeBuffer.putVlqInt(2);
+    writeBuffer.putChar(value);
+  };
+  static final ValueWriter<Integer> INT32 = (writeBuffer, value) -> {
+    writeBuffer.putVlqInt(4);
+    writeBuffer.putInt(value);
+  };
+  static final ValueWriter<Long> INT64 = (writeBuffer, value) -> {
+    writeBuffer.putVlqInt(8);
+    writeBuffer.putLong(value);
+  };
+  static final ValueWriter<Double> FP64 = (writeBuffer, value) -> {
+    writeBuffer.putVlqInt(8);
+    writeBuffer.putDouble(value);
+  };
+  static final ValueWriter<String> STRING = (writeBuffer, value) -> {
+    int mark = writeBuffer.reserveVlqInt();
+    writeBuffer.putString(value);
+    writeBuffer.patchSize(mark);
+  };
+  static final ValueWriter<ByteBuffer> BYTE_BUFFER = (writeBuffer, value) -> {
+    writeBuffer.putVlqInt(value.remaining());
+    writeBuffer.putByteBuffer(value);
+  };
+
+  private final StreamingWriteBuffer writeBuffer;
+  private ValueWriter<T> valueWriter;
+  private P parent;
+  private int sizeMark;
+  private int lengthMark;
+  private int length;
+
+  StreamingArrayEncoder(StreamingWriteBuffer writeBuffer) {
+    this.writeBuffer = writeBuffer;
+  }
+
+  /**
+   * Start a new array, the field index having already been written.
+   */
+  @SuppressWarnings("unchecked")
+  <V> StreamingArrayEncoder<V, P> open(ValueWriter<V> valueWriter, P parent) {
+    StreamingArrayEncoder<V, P> encoder = (StreamingArrayEncoder<V, P>) this;
+    encoder.valueWriter = valueWriter;
+    encoder.parent = parent;
+    encoder.sizeMark = writeBuffer.reserveVlqInt();
+    encoder.lengthMark = writeBuffer.reserveVlqInt();
+    encoder.length = 0;
+    return encoder;
+  }
+
+  @Override
+  public ArrayEncoder<T, P> value(T value) {
+    valueWriter.write(writeBuffer, value);
+    length++;
+    return this;
+  }
+
+  @Override
+  public P end() {
+    writeBuffer.patchVlqInt(lengthMark, length);
+    writeBuffer.patchSize(sizeMark);
+    return parent;
+  }
+
+  /**
+   * Write the size, length and values of an array out of a primitive array, without boxing.
+   * The size is known upfront, so no back-patching is needed.
+   */
+  static void writeInt32s(StreamingWriteBuffer writeBuffer, int[] values) {
+    writeBuffer.putVlqInt(VLQ.encodedSize(values.length) + values.length * (1 + 4));
+    writeBuffer.putVlqInt(values.length);
+    for (int value : values) {
+      writeBuffer.putVlqInt(4);
+      writeBuffer.putInt(value);
+    }
+  }
+
+  static void writeInt64s(StreamingWriteBuffer writeBuffer, long[] values) {
+    writeBuffer.putVlqInt(VLQ.encodedSize(values.length) + values.length * (1 + 8));
+    writeBuffer.putVlqInt(values.length);
+    for (long value : values) {
+      writeBuffer.putVlqInt(8);
+      writeBuffer.putLong(value);
+    }
+  }
+
+  static void writeFp64s(StreamingWriteBuffer writeBuffer, double[] values) {
+    writeBuffer.putVlqInt(VLQ.encodedSize(values.length) + values.length * (1 + 8));
+    writeBuffer.putVlqInt(values.length);
+    for (double value : values) {
+      writeBuffer.putVlqInt(8);
+      writeBuffer.putDouble(value);
+    }
+  }
+
+  interface ValueWriter<T> {
+    void write(StreamingWriteBuffer writeBuffer, T value);
+  }
+
+}
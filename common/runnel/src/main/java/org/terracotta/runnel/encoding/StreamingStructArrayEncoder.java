@@ -0,0 +1,84 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.runnel.encoding;
+
+import org.terracotta.runnel.decoding.fields.StructField;
+import org.terracotta.runnel.utils.StreamingWriteBuffer;
+
+/**
+ * A struct array encoder writing its elements straight into the buffer of a {@link StreamingStructEncoder}.
+ * Instances are reused by their enclosing encoder and must not be used after {@link #end()} was called.
+ */
+class StreamingStructArrayEncoder<P> extends StructArrayEncoder<P> {
+
+  private final StreamingWriteBuffer writeBuffer;
+  private final StreamingStructEncoder<StructArrayEncoder<P>> elementEncoder;
+  private StructField structField;
+  private P parent;
+  private int sizeMark;
+  private int lengthMark;
+  private int elementMark;
+  private int length;
+
+  StreamingStructArrayEncoder(StreamingWriteBuffer writeBuffer) {
+    this.writeBuffer = writeBuffer;
+    this.elementEncoder = new StreamingStructEncoder<>(writeBuffer);
+  }
+
+  /**
+   * Start a new array, the field index having already been written.
+   */
+  StreamingStructArrayEncoder<P> open(StructField structField, P parent) {
+    this.structField = structField;
+    this.parent = parent;
+    this.sizeMark = writeBuffer.reserveVlqInt();
+    this.lengthMark = writeBuffer.reserveVlqInt();
+    this.elementMark = -1;
+    this.length = 0;
+    return this;
+  }
+
+  @Override
+  public StructEncoder<StructArrayEncoder<P>> add() {
+    closeElement();
+    elementMark = writeBuffer.reserveVlqInt();
+    return elementEncoder.open(structField, this, -1);
+  }
+
+  @Override
+  public P end() {
+    closeElement();
+    writeBuffer.patchVlqInt(lengthMark, length);
+    writeBuffer.patchSize(sizeMark);
+    return parent;
+  }
+
+  private void closeElement() {
+    if (elementMark < 0) {
+      return;
+    }
+    if (writeBuffer.position() == elementMark + 1) {
+      // empty elements are dropped, just like the data holder-based encoder does
+      writeBuffer.position(elementMark);
+    } else {
+      writeBuffer.patchSize(elementMark);
+      length++;
+    }
+    elementMark = -1;
+  }
+
+}
@@ -0,0 +1,402 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.runnel.encoding;
+
+import org.terracotta.runnel.decoding.fields.ArrayField;
+import org.terracotta.runnel.decoding.fields.BoolField;
+import org.terracotta.runnel.decoding.fields.ByteBufferField;
+import org.terracotta.runnel.decoding.fields.CharField;
+import org.terracotta.runnel.decoding.fields.EnumField;
+import org.terracotta.runnel.decoding.fields.FloatingPoint64Field;
+import org.terracotta.runnel.decoding.fields.Int32Field;
+import org.terracotta.runnel.decoding.fields.Int64Field;
+import org.terracotta.runnel.decoding.fields.StringField;
+import org.terracotta.runnel.decoding.fields.StructField;
+import org.terracotta.runnel.metadata.FieldHandle;
+import org.terracotta.runnel.metadata.FieldSearcher;
+import org.terracotta.runnel.utils.StreamingWriteBuffer;
+import org.terracotta.runnel.utils.VLQ;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link StructEncoder} writing fields straight into a caller-supplied byte buffer as they are added, instead of
+ * building a tree of data holders that gets sized then written by {@link StructEncoder#encode()}.
+ * The sizes of structs and arrays are back-patched when they are ended, and the output is byte-for-byte identical
+ * to the one of the regular encoder.
+ * <p>
+ * Since data is written in order, sub-struct and array encoders must be ended before resuming encoding with their
+ * parent. Those sub-encoders are reused and must not be used anymore once ended.
+ * The root encoder can be pointed at a new buffer with {@link #reset(ByteBuffer)}, making it possible to pool
+ * both encoders and buffers.
+ * <p>
+ * A {@link java.nio.BufferOverflowException} is thrown when the buffer is too small to contain the encoded data.
+ * Note: Instances of this class are not thread-safe.
+ */
+public class StreamingStructEncoder<P> extends StructEncoder<P> {
+
+  private final StreamingWriteBuffer writeBuffer;
+  private StructField structField;
+  private FieldSearcher fieldSearcher;
+  private P parent;
+  private int sizeMark;
+  private StreamingStructEncoder<StructEncoder<P>> subStructEncoder;
+  private StreamingArrayEncoder<?, StructEncoder<P>> arrayEncoder;
+  private StreamingStructArrayEncoder<StructEncoder<P>> structArrayEncoder;
+
+  public StreamingStructEncoder(StructField structField, ByteBuffer byteBuffer) {
+    this.writeBuffer = new StreamingWriteBuffer(byteBuffer);
+    open(structField, null, writeBuffer.reserveVlqInt());
+  }
+
+  StreamingStructEncoder(StreamingWriteBuffer writeBuffer) {
+    this.writeBuffer = writeBuffer;
+  }
+
+  /**
+   * Start a new struct.
+   * @param sizeMark the mark of the reserved size slot, or -1 when the size is managed by an enclosing struct array.
+   */
+  StreamingStructEncoder<P> open(StructField structField, P parent, int sizeMark) {
+    if (this.structField == structField) {
+      fieldSearcher.reset();
+    } else {
+      this.structField = structField;
+      this.fieldSearcher = structField.getMetadata().fieldSearcher();
+    }
+    this.parent = parent;
+    this.sizeMark = sizeMark;
+    return this;
+  }
+
+  /**
+   * Discard whatever was encoded so far and start encoding a new structure in the given byte buffer.
+   * @param byteBuffer the byte buffer to encode into, from its current position.
+   * @return this.
+   */
+  public StreamingStructEncoder<P> reset(ByteBuffer byteBuffer) {
+    if (parent != null) {
+      throw new IllegalStateException("Cannot reset non-root encoder");
+    }
+    writeBuffer.reset(byteBuffer);
+    return open(structField, null, writeBuffer.reserveVlqInt());
+  }
+
+  @Override
+  public StreamingStructEncoder<P> bool(String name, boolean value) {
+    return putBool(fieldSearcher.findField(name, BoolField.class, null), value);
+  }
+
+  @Override
+  public StreamingStructEncoder<P> chr(String name, char value) {
+    return putChr(fieldSearcher.findField(name, CharField.class, null), value);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public <E> StreamingStructEncoder<P> enm(String name, E value) {
+    return putEnm((EnumField<E>) fieldSearcher.findField(name, EnumField.class, null), value);
+  }
+
+  @Override
+  public StreamingStructEncoder<P> int32(String name, int value) {
+    return putInt32(fieldSearcher.findField(name, Int32Field.class, null), value);
+  }
+
+  @Override
+  public StreamingStructEncoder<P> int64(String name, long value) {
+    return putInt64(fieldSearcher.findField(name, Int64Field.class, null), value);
+  }
+
+  @Override
+  public StreamingStructEncoder<P> fp64(String name, double value) {
+    return putFp64(fieldSearcher.findField(name, FloatingPoint64Field.class, null), value);
+  }
+
+  @Override
+  public StreamingStructEncoder<P> string(String name, String value) {
+    return putString(fieldSearcher.findField(name, StringField.class, null), value);
+  }
+
+  @Override
+  public StreamingStructEncoder<P> byteBuffer(String name, ByteBuffer value) {
+    return putByteBuffer(fieldSearcher.findField(name, ByteBufferField.class, null), value);
+  }
+
+  @Override
+  public P end() {
+    if (parent == null) {
+      throw new IllegalStateException("Cannot end root encoder");
+    }
+    if (sizeMark >= 0) {
+      writeBuffer.patchSize(sizeMark);
+    }
+    return parent;
+  }
+
+  /**
+   * Encode a 32-bit integer array without boxing its values.
+   * @param name the field name.
+   * @param values the values to encode.
+   * @return this.
+   */
+  public StreamingStructEncoder<P> int32s(String name, int[] values) {
+    return putInt32s(fieldSearcher.findField(name, ArrayField.class, Int32Field.class), values);
+  }
+
+  /**
+   * Encode a 32-bit integer array without boxing its values.
+   * @param handle the field handle.
+   * @param values the values to encode.
+   * @return this.
+   */
+  public StreamingStructEncoder<P> int32s(FieldHandle<ArrayField> handle, int[] values) {
+    return putInt32s(fieldSearcher.findArrayField(handle, Int32Field.class), values);
+  }
+
+  /**
+   * Encode a 64-bit integer array without boxing its values.
+   * @param name the field name.
+   * @param values the values to encode.
+   * @return this.
+   */
+  public StreamingStructEncoder<P> int64s(String name, long[] values) {
+    return putInt64s(fieldSearcher.findField(name, ArrayField.class, Int64Field.class), values);
+  }
+
+  /**
+   * Encode a 64-bit integer array without boxing its values.
+   * @param handle the field handle.
+   * @param values the values to encode.
+   * @return this.
+   */
+  public StreamingStructEncoder<P> int64s(FieldHandle<ArrayField> handle, long[] values) {
+    return putInt64s(fieldSearcher.findArrayField(handle, Int64Field.class), values);
+  }
+
+  /**
+   * Encode a 64-bit, double-precision floating point number array without boxing its values.
+   * @param name the field name.
+   * @param values the values to encode.
+   * @return this.
+   */
+  public StreamingStructEncoder<P> fp64s(String name, double[] values) {
+    return putFp64s(fieldSearcher.findField(name, ArrayField.class, FloatingPoint64Field.class), values);
+  }
+
+  /**
+   * Encode a 64-bit, double-precision floating point number array without boxing its values.
+   * @param handle the field handle.
+   * @param values the values to encode.
+   * @return this.
+   */
+  public StreamingStructEncoder<P> fp64s(FieldHandle<ArrayField> handle, double[] values) {
+    return putFp64s(fieldSearcher.findArrayField(handle, FloatingPoint64Field.class), values);
+  }
+
+  /**
+   * Complete the encoding of the structure, then copy it in the given byte buffer, unless that buffer is the one
+   * this encoder writes into.
+   * @param bb the byte buffer to fill with the encoded structure.
+   * @return the passed-in byte buffer.
+   */
+  @Override
+  public ByteBuffer encode(ByteBuffer bb) {
+    int start = sizeMark;
+    ByteBuffer target = encode();
+    if (bb != target) {
+      ByteBuffer encoded = target.duplicate();
+      encoded.limit(encoded.position()).position(start);
+      bb.put(encoded);
+    }
+    return bb;
+  }
+
+  /**
+   * Complete the encoding of the structure by back-patching its size.
+   * Unlike {@link StructEncoder#encode()}, no buffer is allocated: the returned buffer is the one this encoder
+   * writes into, positioned right after the encoded structure.
+   * @return the byte buffer this encoder writes into.
+   */
+  @Override
+  public ByteBuffer encode() {
+    if (parent != null) {
+      throw new IllegalStateException("Cannot encode non-root encoder");
+    }
+    if (sizeMark < 0) {
+      throw new IllegalStateException("Encoder already encoded, it must be reset before being reused");
+    }
+    writeBuffer.patchSize(sizeMark);
+    sizeMark = -1;
+    return writeBuffer.byteBuffer();
+  }
+
+  @Override
+  FieldSearcher fieldSearcher() {
+    return fieldSearcher;
+  }
+
+  @Override
+  StreamingStructEncoder<P> putBool(BoolField field, boolean value) {
+    writeBuffer.putVlqInt(field.index());
+    writeBuffer.putVlqInt(1);
+    writeBuffer.putBoolean(value);
+    return this;
+  }
+
+  @Override
+  StreamingStructEncoder<P> putChr(CharField field, char value) {
+    writeBuffer.putVlqInt(field.index());
+    writeBuffer.putVlqInt(2);
+    writeBuffer.putChar(value);
+    return this;
+  }
+
+  @Override
+  <E> StreamingStructEncoder<P> putEnm(EnumField<E> field, E value) {
+    int intValue = field.getEnumMapping().toInt(value);
+    writeBuffer.putVlqInt(field.index());
+    writeBuffer.putVlqInt(VLQ.encodedSize(intValue));
+    writeBuffer.putVlqInt(intValue);
+    return this;
+  }
+
+  @Override
+  StreamingStructEncoder<P> putInt32(Int32Field field, int value) {
+    writeBuffer.putVlqInt(field.index());
+    writeBuffer.putVlqInt(4);
+    writeBuffer.putInt(value);
+    return this;
+  }
+
+  @Override
+  StreamingStructEncoder<P> putInt64(Int64Field field, long value) {
+    writeBuffer.putVlqInt(field.index());
+    writeBuffer.putVlqInt(8);
+    writeBuffer.putLong(value);
+    return this;
+  }
+
+  @Override
+  StreamingStructEncoder<P> putFp64(FloatingPoint64Field field, double value) {
+    writeBuffer.putVlqInt(field.index());
+    writeBuffer.putVlqInt(8);
+    writeBuffer.putDouble(value);
+    return this;
+  }
+
+  @Override
+  StreamingStructEncoder<P> putString(StringField field, String value) {
+    if (value != null) {
+      writeBuffer.putVlqInt(field.index());
+      int mark = writeBuffer.reserveVlqInt();
+      writeBuffer.putString(value);
+      writeBuffer.patchSize(mark);
+    }
+    return this;
+  }
+
+  @Override
+  StreamingStructEncoder<P> putByteBuffer(ByteBufferField field, ByteBuffer value) {
+    writeBuffer.putVlqInt(field.index());
+    writeBuffer.putVlqInt(value.remaining());
+    writeBuffer.putByteBuffer(value);
+    return this;
+  }
+
+  @Override
+  StructEncoder<StructEncoder<P>> openStruct(StructField field) {
+    writeBuffer.putVlqInt(field.index());
+    int mark = writeBuffer.reserveVlqInt();
+    if (subStructEncoder == null) {
+      subStructEncoder = new StreamingStructEncoder<>(writeBuffer);
+    }
+    return subStructEncoder.open(field, this, mark);
+  }
+
+  @Override
+  ArrayEncoder<Boolean, StructEncoder<P>> openBools(ArrayField field) {
+    return openArray(field, StreamingArrayEncoder.BOOL);
+  }
+
+  @Override
+  ArrayEncoder<Character, StructEncoder<P>> openChrs(ArrayField field) {
+    return openArray(field, StreamingArrayEncoder.CHR);
+  }
+
+  @Override
+  ArrayEncoder<Integer, StructEncoder<P>> openInt32s(ArrayField field) {
+    return openArray(field, StreamingArrayEncoder.INT32);
+  }
+
+  @Override
+  ArrayEncoder<Long, StructEncoder<P>> openInt64s(ArrayField field) {
+    return openArray(field, StreamingArrayEncoder.INT64);
+  }
+
+  @Override
+  ArrayEncoder<Double, StructEncoder<P>> openFp64s(ArrayField field) {
+    return openArray(field, StreamingArrayEncoder.FP64);
+  }
+
+  @Override
+  ArrayEncoder<String, StructEncoder<P>> openStrings(ArrayField field) {
+    return openArray(field, StreamingArrayEncoder.STRING);
+  }
+
+  @Override
+  ArrayEncoder<ByteBuffer, StructEncoder<P>> openByteBuffers(ArrayField field) {
+    return openArray(field, StreamingArrayEncoder.BYTE_BUFFER);
+  }
+
+  @Override
+  StructArrayEncoder<StructEncoder<P>> openStructs(ArrayField field) {
+    writeBuffer.putVlqInt(field.index());
+    if (structArrayEncoder == null) {
+      structArrayEncoder = new StreamingStructArrayEncoder<>(writeBuffer);
+    }
+    return structArrayEncoder.open((StructField) field.subField(), this);
+  }
+
+  private StreamingStructEncoder<P> putInt32s(ArrayField field, int[] values) {
+    writeBuffer.putVlqInt(field.index());
+    StreamingArrayEncoder.writeInt32s(writeBuffer, values);
+    return this;
+  }
+
+  private StreamingStructEncoder<P> putInt64s(ArrayField field, long[] values) {
+    writeBuffer.putVlqInt(field.index());
+    StreamingArrayEncoder.writeInt64s(writeBuffer, values);
+    return this;
+  }
+
+  private StreamingStructEncoder<P> putFp64s(ArrayField field, double[] values) {
+    writeBuffer.putVlqInt(field.index());
+    StreamingArrayEncoder.writeFp64s(writeBuffer, values);
+    return this;
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> ArrayEncoder<T, StructEncoder<P>> openArray(ArrayField field, StreamingArrayEncoder.ValueWriter<T> valueWriter) {
+    writeBuffer.putVlqInt(field.index());
+    if (arrayEncoder == null) {
+      arrayEncoder = new StreamingArrayEncoder<>(writeBuffer);
+    }
+    return ((StreamingArrayEncoder<T, StructEncoder<P>>) arrayEncoder).open(valueWriter, this);
+  }
+
+}
@@ -40,6 +40,15 @@ public class StructArrayEncoder<P> {
     this.currentData = new ArrayList<>();
   }
 
+  /**
+   * Used by {@link StreamingStructArrayEncoder}, which keeps its own state and never builds data holders.
+   */
+  StructArrayEncoder() {
+    this.structField = null;
+    this.values = null;
+    this.parent = null;
+  }
+
   public StructEncoder<StructArrayEncoder<P>> add() {
     if (!currentData.isEmpty()) {
       values.add(new StructDataHolder(currentData, -1));
@@ -37,6 +37,7 @@ import org.terracotta.runnel.encoding.dataholders.Int32DataHolder;
 import org.terracotta.runnel.encoding.dataholders.Int64DataHolder;
 import org.terracotta.runnel.encoding.dataholders.StringDataHolder;
 import org.terracotta.runnel.encoding.dataholders.StructDataHolder;
+import org.terracotta.runnel.metadata.FieldHandle;
 import org.terracotta.runnel.metadata.FieldSearcher;
 import org.terracotta.runnel.utils.VLQ;
 import org.terracotta.runnel.utils.WriteBuffer;
@@ -66,63 +67,87 @@ public class StructEncoder<P> implements PrimitiveEncodingSupport<StructEncoder<
     this.parent = parent;
   }
 
+  /**
+   * Used by {@link StreamingStructEncoder}, which keeps its own state and never builds data holders.
+   */
+  StructEncoder() {
+    this.fieldSearcher = null;
+    this.data = null;
+    this.parent = null;
+  }
+
   @Override
   public StructEncoder<P> bool(String name, boolean value) {
-    BoolField field = fieldSearcher.findField(name, BoolField.class, null);
-    data.add(new BoolDataHolder(value, field.index()));
-    return this;
+    return putBool(fieldSearcher().findField(name, BoolField.class, null), value);
+  }
+
+  public StructEncoder<P> bool(FieldHandle<BoolField> handle, boolean value) {
+    return putBool(fieldSearcher().findField(handle), value);
   }
 
   @Override
   public StructEncoder<P> chr(String name, char value) {
-    CharField field = fieldSearcher.findField(name, CharField.class, null);
-    data.add(new CharDataHolder(value, field.index()));
-    return this;
+    return putChr(fieldSearcher().findField(name, CharField.class, null), value);
+  }
+
+  public StructEncoder<P> chr(FieldHandle<CharField> handle, char value) {
+    return putChr(fieldSearcher().findField(handle), value);
   }
 
   @SuppressWarnings("unchecked")
   @Override
   public <E> StructEncoder<P> enm(String name, E value) {
-    EnumField<E> field = (EnumField<E>) fieldSearcher.findField(name, EnumField.class, null);
-    data.add(new EnumDataHolder<>(value, field.index(), field.getEnumMapping()));
-    return this;
+    return putEnm((EnumField<E>) fieldSearcher().findField(name, EnumField.class, null), value);
+  }
+
+  @SuppressWarnings("unchecked")
+  public <E> StructEncoder<P> enm(FieldHandle<EnumField<?>> handle, E value) {
+    return putEnm((EnumField<E>) fieldSearcher().findField(handle), value);
   }
 
   @Override
   public StructEncoder<P> int32(String name, int value) {
-    Int32Field field = fieldSearcher.findField(name, Int32Field.class, null);
-    data.add(new Int32DataHolder(value, field.index()));
-    return this;
+    return putInt32(fieldSearcher().findField(name, Int32Field.class, null), value);
+  }
+
+  public StructEncoder<P> int32(FieldHandle<Int32Field> handle, int value) {
+    return putInt32(fieldSearcher().findField(handle), value);
   }
 
   @Override
   public StructEncoder<P> int64(String name, long value) {
-    Int64Field field = fieldSearcher.findField(name, Int64Field.class, null);
-    data.add(new Int64DataHolder(value, field.index()));
-    return this;
+    return putInt64(fieldSearcher().findField(name, Int64Field.class, null), value);
+  }
+
+  public StructEncoder<P> int64(FieldHandle<Int64Field> handle, long value) {
+    return putInt64(fieldSearcher().findField(handle), value);
   }
 
   @Override
   public StructEncoder<P> fp64(String name, double value) {
-    FloatingPoint64Field field = fieldSearcher.findField(name, FloatingPoint64Field.class, null);
-    data.add(new FloatingPoint64DataHolder(value, field.index()));
-    return this;
+    return putFp64(fieldSearcher().findField(name, FloatingPoint64Field.class, null), value);
+  }
+
+  public StructEncoder<P> fp64(FieldHandle<FloatingPoint64Field> handle, double value) {
+    return putFp64(fieldSearcher().findField(handle), value);
   }
 
   @Override
   public StructEncoder<P> string(String name, String value) {
-    StringField field = fieldSearcher.findField(name, StringField.class, null);
-    if (value != null) {
-      data.add(new StringDataHolder(value, field.index()));
-    }
-    return this;
+    return putString(fieldSearcher().findField(name, StringField.class, null), value);
+  }
+
+  public StructEncoder<P> string(FieldHandle<StringField> handle, String value) {
+    return putString(fieldSearcher().findField(handle), value);
   }
 
   @Override
   public StructEncoder<P> byteBuffer(String name, ByteBuffer value) {
-    ByteBufferField field = fieldSearcher.findField(name, ByteBufferField.class, null);
-    data.add(new ByteBufferDataHolder(value, field.index()));
-    return this;
+    return putByteBuffer(fieldSearcher().findField(name, ByteBufferField.class, null), value);
+  }
+
+  public StructEncoder<P> byteBuffer(FieldHandle<ByteBufferField> handle, ByteBuffer value) {
+    return putByteBuffer(fieldSearcher().findField(handle), value);
   }
 
   public <T> StructEncoder<P> struct(String name, T value, StructEncoderFunction<T> function) {
@@ -133,10 +158,11 @@ public class StructEncoder<P> implements PrimitiveEncodingSupport<StructEncoder<
   }
 
   public StructEncoder<StructEncoder<P>> struct(String name) {
-    StructField field = fieldSearcher.findField(name, StructField.class, null);
-    List<DataHolder> values = new ArrayList<>();
-    data.add(new StructDataHolder(values, field.index()));
-    return new StructEncoder<>(field, values, this);
+    return openStruct(fieldSearcher().findField(name, StructField.class, null));
+  }
+
+  public StructEncoder<StructEncoder<P>> struct(FieldHandle<StructField> handle) {
+    return openStruct(fieldSearcher().findField(handle));
   }
 
   public P end() {
@@ -147,10 +173,143 @@ public class StructEncoder<P> implements PrimitiveEncodingSupport<StructEncoder<
   }
 
   public ArrayEncoder<Boolean, StructEncoder<P>> bools(String name) {
-    final ArrayField field = fieldSearcher.findField(name, ArrayField.class, BoolField.class);
+    return openBools(fieldSearcher().findField(name, ArrayField.class, BoolField.class));
+  }
+
+  public ArrayEncoder<Boolean, StructEncoder<P>> bools(FieldHandle<ArrayField> handle) {
+    return openBools(fieldSearcher().findArrayField(handle, BoolField.class));
+  }
+
+  public ArrayEncoder<Character, StructEncoder<P>> chrs(String name) {
+    return openChrs(fieldSearcher().findField(name, ArrayField.class, CharField.class));
+  }
+
+  public ArrayEncoder<Character, StructEncoder<P>> chrs(FieldHandle<ArrayField> handle) {
+    return openChrs(fieldSearcher().findArrayField(handle, CharField.class));
+  }
+
+  public ArrayEncoder<Integer, StructEncoder<P>> int32s(String name) {
+    return openInt32s(fieldSearcher().findField(name, ArrayField.class, Int32Field.class));
+  }
+
+  public ArrayEncoder<Integer, StructEncoder<P>> int32s(FieldHandle<ArrayField> handle) {
+    return openInt32s(fieldSearcher().findArrayField(handle, Int32Field.class));
+  }
+
+  public ArrayEncoder<Long, StructEncoder<P>> int64s(String name) {
+    return openInt64s(fieldSearcher().findField(name, ArrayField.class, Int64Field.class));
+  }
+
+  public ArrayEncoder<Long, StructEncoder<P>> int64s(FieldHandle<ArrayField> handle) {
+    return openInt64s(fieldSearcher().findArrayField(handle, Int64Field.class));
+  }
+
+  public ArrayEncoder<Double, StructEncoder<P>> fp64s(String name) {
+    return openFp64s(fieldSearcher().findField(name, ArrayField.class, FloatingPoint64Field.class));
+  }
+
+  public ArrayEncoder<Double, StructEncoder<P>> fp64s(FieldHandle<ArrayField> handle) {
+    return openFp64s(fieldSearcher().findArrayField(handle, FloatingPoint64Field.class));
+  }
+
+  public ArrayEncoder<String, StructEncoder<P>> strings(String name) {
+    return openStrings(fieldSearcher().findField(name, ArrayField.class, StringField.class));
+  }
+
+  public ArrayEncoder<String, StructEncoder<P>> strings(FieldHandle<ArrayField> handle) {
+    return openStrings(fieldSearcher().findArrayField(handle, StringField.class));
+  }
+
+  public ArrayEncoder<ByteBuffer, StructEncoder<P>> byteBuffers(String name) {
+    return openByteBuffers(fieldSearcher().findField(name, ArrayField.class, ByteBufferField.class));
+  }
+
+  public ArrayEncoder<ByteBuffer, StructEncoder<P>> byteBuffers(FieldHandle<ArrayField> handle) {
+    return openByteBuffers(fieldSearcher().findArrayField(handle, ByteBufferField.class));
+  }
+
+  public StructArrayEncoder<StructEncoder<P>> structs(String name) {
+    return openStructs(fieldSearcher().findField(name, ArrayField.class, StructField.class));
+  }
+
+  public StructArrayEncoder<StructEncoder<P>> structs(FieldHandle<ArrayField> handle) {
+    return openStructs(fieldSearcher().findArrayField(handle, StructField.class));
+  }
+
+  public <T> StructEncoder<P> structs(String name, T[] array, StructEncoderFunction<T> function) {
+    return structs(name, Arrays.asList(array), function);
+  }
+
+  public <T> StructEncoder<P> structs(String name, Iterable<T> iterable, StructEncoderFunction<T> function) {
+    StructArrayEncoder<StructEncoder<P>> subStructArrayEncoder = structs(name);
+    for (T t : iterable) {
+      function.encode(subStructArrayEncoder.add(), t);
+    }
+    subStructArrayEncoder.end();
+    return this;
+  }
+
+  /*
+   * The methods below encode an already resolved field, whether it was looked up by name or by handle.
+   * They are overridden by StreamingStructEncoder.
+   */
+
+  FieldSearcher fieldSearcher() {
+    return fieldSearcher;
+  }
+
+  StructEncoder<P> putBool(BoolField field, boolean value) {
+    data.add(new BoolDataHolder(value, field.index()));
+    return this;
+  }
+
+  StructEncoder<P> putChr(CharField field, char value) {
+    data.add(new CharDataHolder(value, field.index()));
+    return this;
+  }
+
+  <E> StructEncoder<P> putEnm(EnumField<E> field, E value) {
+    data.add(new EnumDataHolder<>(value, field.index(), field.getEnumMapping()));
+    return this;
+  }
+
+  StructEncoder<P> putInt32(Int32Field field, int value) {
+    data.add(new Int32DataHolder(value, field.index()));
+    return this;
+  }
+
+  StructEncoder<P> putInt64(Int64Field field, long value) {
+    data.add(new Int64DataHolder(value, field.index()));
+    return this;
+  }
+
+  StructEncoder<P> putFp64(FloatingPoint64Field field, double value) {
+    data.add(new FloatingPoint64DataHolder(value, field.index()));
+    return this;
+  }
+
+  StructEncoder<P> putString(StringField field, String value) {
+    if (value != null) {
+      data.add(new StringDataHolder(value, field.index()));
+    }
+    return this;
+  }
+
+  StructEncoder<P> putByteBuffer(ByteBufferField field, ByteBuffer value) {
+    data.add(new ByteBufferDataHolder(value, field.index()));
+    return this;
+  }
+
+  StructEncoder<StructEncoder<P>> openStruct(StructField field) {
+    List<DataHolder> values = new ArrayList<>();
+    data.add(new StructDataHolder(values, field.index()));
+    return new StructEncoder<>(field, values, this);
+  }
+
+  ArrayEncoder<Boolean, StructEncoder<P>> openBools(final ArrayField field) {
     List<DataHolder> values = new ArrayList<>();
     data.add(new ArrayDataHolder(values, field.index()));
-    return new ArrayEncoder<Boolean, StructEncoder<P>>(values, this) {
+    return new DataHolderArrayEncoder<Boolean, StructEncoder<P>>(values, this) {
       @Override
       protected DataHolder buildDataHolder(Boolean value) {
         return new BoolDataHolder(value, field.index());
@@ -158,11 +317,10 @@ public class StructEncoder<P> implements PrimitiveEncodingSupport<StructEncoder<
     };
   }
 
-  public ArrayEncoder<Character, StructEncoder<P>> chrs(String name) {
-    final ArrayField field = fieldSearcher.findField(name, ArrayField.class, CharField.class);
+  ArrayEncoder<Character, StructEncoder<P>> openChrs(final ArrayField field) {
     List<DataHolder> values = new ArrayList<>();
     data.add(new ArrayDataHolder(values, field.index()));
-    return new ArrayEncoder<Character, StructEncoder<P>>(values, this) {
+    return new DataHolderArrayEncoder<Character, StructEncoder<P>>(values, this) {
       @Override
       protected DataHolder buildDataHolder(Character value) {
         return new CharDataHolder(value, field.index());
@@ -170,11 +328,10 @@ public class StructEncoder<P> implements PrimitiveEncodingSupport<StructEncoder<
     };
   }
 
-  public ArrayEncoder<Integer, StructEncoder<P>> int32s(String name) {
-    final ArrayField field = fieldSearcher.findField(name, ArrayField.class, Int32Field.class);
+  ArrayEncoder<Integer, StructEncoder<P>> openInt32s(final ArrayField field) {
     List<DataHolder> values = new ArrayList<>();
     data.add(new ArrayDataHolder(values, field.index()));
-    return new ArrayEncoder<Integer, StructEncoder<P>>(values, this) {
+    return new DataHolderArrayEncoder<Integer, StructEncoder<P>>(values, this) {
       @Override
       protected DataHolder buildDataHolder(Integer value) {
         return new Int32DataHolder(value, field.index());
@@ -182,11 +339,10 @@ public class StructEncoder<P> implements PrimitiveEncodingSupport<StructEncoder<
     };
   }
 
-  public ArrayEncoder<Long, StructEncoder<P>> int64s(String name) {
-    final ArrayField field = fieldSearcher.findField(name, ArrayField.class, Int64Field.class);
+  ArrayEncoder<Long, StructEncoder<P>> openInt64s(final ArrayField field) {
     List<DataHolder> values = new ArrayList<>();
     data.add(new ArrayDataHolder(values, field.index()));
-    return new ArrayEncoder<Long, StructEncoder<P>>(values, this) {
+    return new DataHolderArrayEncoder<Long, StructEncoder<P>>(values, this) {
       @Override
       protected DataHolder buildDataHolder(Long value) {
         return new Int64DataHolder(value, field.index());
@@ -194,11 +350,10 @@ public class StructEncoder<P> implements PrimitiveEncodingSupport<StructEncoder<
     };
   }
 
-  public ArrayEncoder<Double, StructEncoder<P>> fp64s(String name) {
-    final ArrayField field = fieldSearcher.findField(name, ArrayField.class, FloatingPoint64Field.class);
+  ArrayEncoder<Double, StructEncoder<P>> openFp64s(final ArrayField field) {
     List<DataHolder> values = new ArrayList<>();
     data.add(new ArrayDataHolder(values, field.index()));
-    return new ArrayEncoder<Double, StructEncoder<P>>(values, this) {
+    return new DataHolderArrayEncoder<Double, StructEncoder<P>>(values, this) {
       @Override
       protected DataHolder buildDataHolder(Double value) {
         return new FloatingPoint64DataHolder(value, field.index());
@@ -206,11 +361,10 @@ public class StructEncoder<P> implements PrimitiveEncodingSupport<StructEncoder<
     };
   }
 
-  public ArrayEncoder<String, StructEncoder<P>> strings(String name) {
-    final ArrayField field = fieldSearcher.findField(name, ArrayField.class, StringField.class);
+  ArrayEncoder<String, StructEncoder<P>> openStrings(final ArrayField field) {
     List<DataHolder> values = new ArrayList<>();
     data.add(new ArrayDataHolder(values, field.index()));
-    return new ArrayEncoder<String, StructEncoder<P>>(values, this) {
+    return new DataHolderArrayEncoder<String, StructEncoder<P>>(values, this) {
       @Override
       protected DataHolder buildDataHolder(String value) {
         return new StringDataHolder(value, field.index());
@@ -218,11 +372,10 @@ public class StructEncoder<P> implements PrimitiveEncodingSupport<StructEncoder<
     };
   }
 
-  public ArrayEncoder<ByteBuffer, StructEncoder<P>> byteBuffers(String name) {
-    final ArrayField field = fieldSearcher.findField(name, ArrayField.class, ByteBufferField.class);
+  ArrayEncoder<ByteBuffer, StructEncoder<P>> openByteBuffers(final ArrayField field) {
     List<DataHolder> values = new ArrayList<>();
     data.add(new ArrayDataHolder(values, field.index()));
-    return new ArrayEncoder<ByteBuffer, StructEncoder<P>>(values, this) {
+    return new DataHolderArrayEncoder<ByteBuffer, StructEncoder<P>>(values, this) {
       @Override
       protected DataHolder buildDataHolder(ByteBuffer value) {
         return new ByteBufferDataHolder(value, field.index());
@@ -230,27 +383,12 @@ public class StructEncoder<P> implements PrimitiveEncodingSupport<StructEncoder<
     };
   }
 
-  public StructArrayEncoder<StructEncoder<P>> structs(String name) {
-    final ArrayField field = fieldSearcher.findField(name, ArrayField.class, StructField.class);
+  StructArrayEncoder<StructEncoder<P>> openStructs(ArrayField field) {
     List<StructDataHolder> values = new ArrayList<>();
     data.add(new ArrayDataHolder(values, field.index()));
     return new StructArrayEncoder<>(values, this, ((StructField) field.subField()));
   }
 
-  public <T> StructEncoder<P> structs(String name, T[] array, StructEncoderFunction<T> function) {
-    return structs(name, Arrays.asList(array), function);
-  }
-
-  public <T> StructEncoder<P> structs(String name, Iterable<T> iterable, StructEncoderFunction<T> function) {
-    StructArrayEncoder<StructEncoder<P>> subStructArrayEncoder = structs(name);
-    for (T t : iterable) {
-      function.encode(subStructArrayEncoder.add(), t);
-    }
-    subStructArrayEncoder.end();
-    return this;
-  }
-
-
   /**
    * Encode the structure in the given byte buffer.
    * @param bb the byte buffer to fill with the encoded structure.
@@ -41,7 +41,14 @@ public class FieldDecoder {
   }
 
   public <P> StructArrayDecoder<P> decodeStructArray(String name, P parent) {
-    ArrayField field = nextField(name, ArrayField.class, StructField.class);
+    return decodeStructArray(nextField(name, ArrayField.class, StructField.class), parent);
+  }
+
+  public <P> StructArrayDecoder<P> decodeStructArray(FieldHandle<ArrayField> handle, P parent) {
+    return decodeStructArray(nextField(handle.resolveArray(metadata, StructField.class)), parent);
+  }
+
+  private <P> StructArrayDecoder<P> decodeStructArray(ArrayField field, P parent) {
     if (field == null) {
       return null;
     }
@@ -49,16 +56,30 @@ public class FieldDecoder {
   }
 
   public <P> StructDecoder<P> decodeStruct(String name, P parent) {
-    StructField field = nextField(name, StructField.class, null);
+    return decodeStruct(nextField(name, StructField.class, null), parent);
+  }
+
+  public <P> StructDecoder<P> decodeStruct(FieldHandle<StructField> handle, P parent) {
+    return decodeStruct(nextField(handle.resolve(metadata)), parent);
+  }
+
+  private <P> StructDecoder<P> decodeStruct(StructField field, P parent) {
     if (field == null) {
       return null;
     }
     return new StructDecoder<>(field, readBuffer, parent);
   }
 
-  @SuppressWarnings("unchecked")
   public <T, P> ArrayDecoder<T, P> decodeValueArray(String name, Class<? extends ValueField<T>> clazz, P parent) {
-    ArrayField field = nextField(name, ArrayField.class, clazz);
+    return decodeValueArray(nextField(name, ArrayField.class, clazz), parent);
+  }
+
+  public <T, P> ArrayDecoder<T, P> decodeValueArray(FieldHandle<ArrayField> handle, Class<? extends ValueField<T>> clazz, P parent) {
+    return decodeValueArray(nextField(handle.resolveArray(metadata, clazz)), parent);
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T, P> ArrayDecoder<T, P> decodeValueArray(ArrayField field, P parent) {
     if (field == null) {
       return null;
     }
@@ -73,9 +94,56 @@ public class FieldDecoder {
     return field.decode(readBuffer);
   }
 
+  public <T> T decodeValue(FieldHandle<? extends ValueField<T>> handle) {
+    ValueField<T> field = nextField(handle.resolve(metadata));
+    if (field == null) {
+      return null;
+    }
+    return field.decode(readBuffer);
+  }
+
+  /**
+   * Move to the given value field, leaving the read buffer positioned at its value so that it can be decoded
+   * without boxing.
+   * @return the field, or null if it was absent from the data.
+   */
+  public <F extends ValueField<?>> F nextValueField(String name, Class<F> clazz) {
+    return nextField(name, clazz, null);
+  }
+
+  /**
+   * Move to the given value field, leaving the read buffer positioned at its value so that it can be decoded
+   * without boxing.
+   * @return the field, or null if it was absent from the data.
+   */
+  public <F extends ValueField<?>> F nextValueField(FieldHandle<F> handle) {
+    return nextField(handle.resolve(metadata));
+  }
+
+  /**
+   * Make this decoder usable for a new occurrence of the same structure, its read buffer having been reset.
+   * @return this.
+   */
+  public FieldDecoder reset() {
+    lastIndex = -1;
+    readAheadIndex = -1;
+    return this;
+  }
+
   @SuppressWarnings("unchecked")
   private  <T extends Field, S extends Field> T nextField(String name, Class<T> fieldClazz, Class<S> subFieldClazz) {
-    Field field = findFieldWithIndex(name, fieldClazz, subFieldClazz);
+    return (T) nextField(findFieldWithIndex(name, fieldClazz, subFieldClazz));
+  }
+
+  private <T extends Field> T nextField(T field) {
+    if (field.index() <= lastIndex) {
+      throw new IllegalArgumentException("No such field left : '" + field.name() + "'");
+    }
+    lastIndex = field.index();
+    return seek(field);
+  }
+
+  private <T extends Field> T seek(T field) {
     if (readBuffer.limitReached()) {
       return null;
     }
@@ -98,7 +166,7 @@ public class FieldDecoder {
     } else if (index != field.index()) {
       return null;
     } else {
-      return (T) field;
+      return field;
     }
   }
 
@@ -107,10 +175,6 @@ public class FieldDecoder {
     if (field == null) {
       throw new IllegalArgumentException("No such field : " + name);
     }
-    if (field.index() <= lastIndex) {
-      throw new IllegalArgumentException("No such field left : '" + name + "'");
-    }
-    lastIndex = field.index();
 
     if (field.getClass() != fieldClazz) {
       throw new IllegalArgumentException("Invalid type for field '" + name + "', expected : '" + fieldClazz.getSimpleName() + "' but was '" + field.getClass().getSimpleName() + "'");
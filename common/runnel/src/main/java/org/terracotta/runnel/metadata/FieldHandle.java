@@ -0,0 +1,70 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.runnel.metadata;
+
+import org.terracotta.runnel.decoding.fields.ArrayField;
+import org.terracotta.runnel.decoding.fields.Field;
+
+/**
+ * A field of a structure resolved once by name and type, which encoders and decoders can use to access that field
+ * without looking it up again.
+ * Note: Instances of this class are immutable and thread-safe.
+ */
+public final class FieldHandle<F extends Field> {
+
+  private final Metadata metadata;
+  private final F field;
+
+  FieldHandle(Metadata metadata, F field) {
+    this.metadata = metadata;
+    this.field = field;
+  }
+
+  public F field() {
+    return field;
+  }
+
+  public String name() {
+    return field.name();
+  }
+
+  public int index() {
+    return field.index();
+  }
+
+  F resolve(Metadata metadata) {
+    if (this.metadata != metadata) {
+      throw new IllegalArgumentException("Field '" + field.name() + "' does not belong to this structure");
+    }
+    return field;
+  }
+
+  ArrayField resolveArray(Metadata metadata, Class<? extends Field> subFieldClazz) {
+    ArrayField arrayField = (ArrayField) resolve(metadata);
+    Field subField = arrayField.subField();
+    if (subField.getClass() != subFieldClazz) {
+      throw new IllegalArgumentException("Invalid subtype for field '" + field.name() + "', expected : '" + subFieldClazz.getSimpleName() + "' but was '" + subField.getClass().getSimpleName() + "'");
+    }
+    return arrayField;
+  }
+
+  @Override
+  public String toString() {
+    return field.name() + "@" + field.index() + " (" + field.getClass().getSimpleName() + ")";
+  }
+
+}
@@ -55,4 +55,29 @@ public class FieldSearcher {
     return field;
   }
 
+  public <T extends Field> T findField(FieldHandle<T> handle) {
+    return checkOrder(handle.resolve(metadata));
+  }
+
+  public ArrayField findArrayField(FieldHandle<ArrayField> handle, Class<? extends Field> subFieldClazz) {
+    return checkOrder(handle.resolveArray(metadata, subFieldClazz));
+  }
+
+  private <T extends Field> T checkOrder(T field) {
+    if (field.index() <= lastIndex) {
+      throw new IllegalArgumentException("No such field left : '" + field.name() + "'");
+    }
+    lastIndex = field.index();
+    return field;
+  }
+
+  /**
+   * Make this searcher usable for a new occurrence of the same structure.
+   * @return this.
+   */
+  public FieldSearcher reset() {
+    lastIndex = -1;
+    return this;
+  }
+
 }
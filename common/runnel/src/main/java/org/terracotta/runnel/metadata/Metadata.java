@@ -94,6 +94,20 @@ public class Metadata {
     return map;
   }
 
+  /**
+   * Resolve a field by name and check its type, once.
+   * @param name the field name.
+   * @param fieldClazz the expected field type.
+   * @param subFieldClazz the expected arrayed field type if the field is an array, null otherwise.
+   * @return the field handle.
+   */
+  public <T extends Field, S extends Field> FieldHandle<T> handle(String name, Class<T> fieldClazz, Class<S> subFieldClazz) {
+    if (!initialized) {
+      throw new IllegalStateException("Metadata not yet initialized");
+    }
+    return new FieldHandle<>(this, fieldSearcher().findField(name, fieldClazz, subFieldClazz));
+  }
+
   Field getFieldByName(String name) {
     return fieldsByName.get(name);
   }
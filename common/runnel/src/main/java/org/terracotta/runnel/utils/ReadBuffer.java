@@ -25,8 +25,8 @@ import java.nio.ByteBuffer;
 public final class ReadBuffer {
   private static final boolean V1_STRING_DECODING = false;
 
-  private final ByteBuffer byteBuffer;
-  private final int limit;
+  private ByteBuffer byteBuffer;
+  private int limit;
 
   public ReadBuffer(ByteBuffer byteBuffer) {
     this(byteBuffer, byteBuffer.remaining());
@@ -40,14 +40,55 @@ public final class ReadBuffer {
     }
   }
 
+  /**
+   * Point this read buffer at the remaining bytes of another byte buffer, so that it can be reused.
+   * @param byteBuffer the byte buffer to read from.
+   * @return this.
+   */
+  public ReadBuffer reset(ByteBuffer byteBuffer) {
+    return reset(byteBuffer, byteBuffer.remaining());
+  }
+
+  /**
+   * Turn this read buffer into the equivalent of {@code readBuffer.limit(size)} without allocating a new instance.
+   * {@code readBuffer} can be this read buffer.
+   * @param readBuffer the read buffer to limit.
+   * @param size the limit.
+   * @return this.
+   */
+  public ReadBuffer reset(ReadBuffer readBuffer, int size) {
+    if (size < 0) {
+      throw new IllegalArgumentException("size cannot be < 0");
+    }
+    return reset(readBuffer.byteBuffer, size);
+  }
+
+  private ReadBuffer reset(ByteBuffer byteBuffer, int size) {
+    int limit = byteBuffer.position() + size;
+    if (limit > byteBuffer.capacity()) {
+      throw new LimitReachedException();
+    }
+    this.byteBuffer = byteBuffer;
+    this.limit = limit;
+    return this;
+  }
+
   public Boolean getBoolean() {
+    return getBooleanValue();
+  }
+
+  public boolean getBooleanValue() {
     if (byteBuffer.position() + 1 > limit) {
       throw new LimitReachedException();
     }
-    return byteBuffer.get() == (byte) 0 ? Boolean.FALSE : Boolean.TRUE;
+    return byteBuffer.get() != (byte) 0;
   }
 
   public Double getDouble() {
+    return getDoubleValue();
+  }
+
+  public double getDoubleValue() {
     if (byteBuffer.position() + 8 > limit) {
       throw new LimitReachedException();
     }
@@ -55,6 +96,10 @@ public final class ReadBuffer {
   }
 
   public Long getLong() {
+    return getLongValue();
+  }
+
+  public long getLongValue() {
     if (byteBuffer.position() + 8 > limit) {
       throw new LimitReachedException();
     }
@@ -62,6 +107,10 @@ public final class ReadBuffer {
   }
 
   public Character getChar() {
+    return getCharValue();
+  }
+
+  public char getCharValue() {
     if (byteBuffer.position() + 2 > limit) {
       throw new LimitReachedException();
     }
@@ -69,6 +118,10 @@ public final class ReadBuffer {
   }
 
   public Integer getInt() {
+    return getIntValue();
+  }
+
+  public int getIntValue() {
     if (byteBuffer.position() + 4 > limit) {
       throw new LimitReachedException();
     }
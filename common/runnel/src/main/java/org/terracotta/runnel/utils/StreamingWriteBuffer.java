@@ -0,0 +1,157 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.runnel.utils;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * A write buffer that writes fields as they come, reserving room for the VLQ-encoded sizes and lengths that are
+ * not yet known and back-patching them once the enclosed content has been written.
+ * <p>
+ * Reserved slots are a single byte wide, which is enough for any size below 128. Bigger values make the content
+ * written after the slot move right by the extra bytes, so the output is byte-for-byte the same as the one
+ * produced by the sizing-then-writing {@link WriteBuffer} path.
+ */
+public class StreamingWriteBuffer {
+
+  private ByteBuffer byteBuffer;
+
+  public StreamingWriteBuffer(ByteBuffer byteBuffer) {
+    this.byteBuffer = byteBuffer;
+  }
+
+  public void reset(ByteBuffer byteBuffer) {
+    this.byteBuffer = byteBuffer;
+  }
+
+  public ByteBuffer byteBuffer() {
+    return byteBuffer;
+  }
+
+  public int position() {
+    return byteBuffer.position();
+  }
+
+  public void position(int position) {
+    byteBuffer.position(position);
+  }
+
+  public void putBoolean(boolean value) {
+    byteBuffer.put(value ? (byte) 1 : (byte) 0);
+  }
+
+  public void putChar(char value) {
+    byteBuffer.putChar(value);
+  }
+
+  public void putDouble(double value) {
+    byteBuffer.putDouble(value);
+  }
+
+  public void putLong(long value) {
+    byteBuffer.putLong(value);
+  }
+
+  public void putInt(int value) {
+    byteBuffer.putInt(value);
+  }
+
+  public void putVlqInt(int value) {
+    VLQ.encode(value, byteBuffer);
+  }
+
+  public void putByteBuffer(ByteBuffer buffer) {
+    byteBuffer.put(buffer);
+  }
+
+  /**
+   * Write a string using the same modified UTF-8 encoding as {@link StringTool#putEncoded(ByteBuffer, String, int)},
+   * without any intermediate copy.
+   * @param value the string to write.
+   */
+  public void putString(String value) {
+    int length = value.length();
+    for (int i = 0; i < length; i++) {
+      char c = value.charAt(i);
+      if (c <= '\u007F' && c != '\u0000') {
+        byteBuffer.put((byte) c);
+      } else if (c <= '\u07FF') {
+        byteBuffer.put((byte) (0xC0 | c >>> 6)).put((byte) (0x80 | (c & 0x3F)));
+      } else {
+        byteBuffer.put((byte) (0xE0 | c >>> 12)).put((byte) (0x80 | ((c >>> 6) & 0x3F))).put((byte) (0x80 | (c & 0x3F)));
+      }
+    }
+  }
+
+  /**
+   * Reserve room for a VLQ-encoded int whose value is not known yet.
+   * @return the mark to pass to {@link #patchVlqInt(int, int)} or {@link #patchSize(int)}.
+   */
+  public int reserveVlqInt() {
+    int mark = byteBuffer.position();
+    byteBuffer.put((byte) 0);
+    return mark;
+  }
+
+  /**
+   * Back-patch a reserved slot with the count of bytes written after it.
+   * @param mark the mark returned by {@link #reserveVlqInt()}.
+   * @return the patched size.
+   */
+  public int patchSize(int mark) {
+    int size = byteBuffer.position() - mark - 1;
+    patchVlqInt(mark, size);
+    return size;
+  }
+
+  /**
+   * Back-patch a reserved slot with the given value, moving whatever was written after the slot if the value
+   * does not fit in a single byte.
+   * @param mark the mark returned by {@link #reserveVlqInt()}.
+   * @param value the value to write.
+   */
+  public void patchVlqInt(int mark, int value) {
+    int encodedSize = VLQ.encodedSize(value);
+    int shift = encodedSize - 1;
+    if (shift > 0) {
+      int end = byteBuffer.position();
+      if (byteBuffer.limit() - end < shift) {
+        throw new BufferOverflowException();
+      }
+      moveRight(mark + 1, end, shift);
+      byteBuffer.position(end + shift);
+    }
+    for (int i = shift, index = mark; i >= 0; i--, index++) {
+      int b = (value >>> (7 * i)) & 0x7F;
+      byteBuffer.put(index, (byte) (i == 0 ? b : b | 0x80));
+    }
+  }
+
+  private void moveRight(int from, int to, int distance) {
+    if (byteBuffer.hasArray()) {
+      byte[] array = byteBuffer.array();
+      int offset = byteBuffer.arrayOffset();
+      System.arraycopy(array, offset + from, array, offset + from + distance, to - from);
+    } else {
+      for (int i = to - 1; i >= from; i--) {
+        byteBuffer.put(i + distance, byteBuffer.get(i));
+      }
+    }
+  }
+
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.runnel;
+
+import org.junit.Ignore;
+import org.junit.Test;
+import org.terracotta.runnel.decoding.StructArrayDecoder;
+import org.terracotta.runnel.decoding.StructDecoder;
+import org.terracotta.runnel.decoding.fields.ArrayField;
+import org.terracotta.runnel.decoding.fields.BoolField;
+import org.terracotta.runnel.decoding.fields.EnumField;
+import org.terracotta.runnel.decoding.fields.Int64Field;
+import org.terracotta.runnel.decoding.fields.StringField;
+import org.terracotta.runnel.decoding.fields.StructField;
+import org.terracotta.runnel.encoding.StreamingStructEncoder;
+import org.terracotta.runnel.encoding.StructArrayEncoder;
+import org.terracotta.runnel.encoding.StructEncoder;
+import org.terracotta.runnel.metadata.FieldHandle;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Compares named field access with access through an {@link AccessPlan}, on a structure shaped like the license
+ * response of the dynamic-config topology entity codec.
+ */
+public class AccessPlanPerfTest {
+
+  enum Type {
+    REQ_LICENSE,
+    REQ_HAS_INCOMPLETE_CHANGE,
+    REQ_MUST_BE_RESTARTED
+  }
+
+  private static final Struct STRUCT = StructBuilder.newStructBuilder()
+      .enm("type", 10, EnumMappingBuilder.newEnumMappingBuilder(Type.class)
+          .mapping(Type.REQ_LICENSE, 1)
+          .mapping(Type.REQ_HAS_INCOMPLETE_CHANGE, 2)
+          .mapping(Type.REQ_MUST_BE_RESTARTED, 3)
+          .build())
+      .struct("REQ_LICENSE", 20, StructBuilder.newStructBuilder()
+          .string("date", 10)
+          .structs("limits", 20, StructBuilder.newStructBuilder()
+              .string("name", 10)
+              .int64("value", 20)
+              .build())
+          .structs("flags", 30, StructBuilder.newStructBuilder()
+              .string("name", 10)
+              .bool("value", 20)
+              .build())
+          .build())
+      .bool("REQ_HAS_INCOMPLETE_CHANGE", 30)
+      .bool("REQ_MUST_BE_RESTARTED", 40)
+      .build();
+
+  private static final AccessPlan PLAN = STRUCT.accessPlan();
+  private static final FieldHandle<EnumField<?>> TYPE = PLAN.enm("type");
+  private static final FieldHandle<StructField> LICENSE = PLAN.struct("REQ_LICENSE");
+  private static final AccessPlan LICENSE_PLAN = PLAN.structPlan("REQ_LICENSE");
+  private static final FieldHandle<StringField> DATE = LICENSE_PLAN.string("date");
+  private static final FieldHandle<ArrayField> LIMITS = LICENSE_PLAN.structs("limits");
+  private static final FieldHandle<ArrayField> FLAGS = LICENSE_PLAN.structs("flags");
+  private static final AccessPlan LIMIT_PLAN = LICENSE_PLAN.structsPlan("limits");
+  private static final FieldHandle<StringField> LIMIT_NAME = LIMIT_PLAN.string("name");
+  private static final FieldHandle<Int64Field> LIMIT_VALUE = LIMIT_PLAN.int64("value");
+  private static final AccessPlan FLAG_PLAN = LICENSE_PLAN.structsPlan("flags");
+  private static final FieldHandle<StringField> FLAG_NAME = FLAG_PLAN.string("name");
+  private static final FieldHandle<BoolField> FLAG_VALUE = FLAG_PLAN.bool("value");
+
+  private static final int LIMIT_COUNT = 8;
+  private static final int FLAG_COUNT = 4;
+
+  @Test
+  @Ignore
+  public void compareNamesWithHandles() {
+    int messages = 200_000;
+    ByteBuffer buffer = ByteBuffer.allocate(4096);
+    StreamingStructEncoder<Void> encoder = STRUCT.encoder(buffer);
+    encodeByName(encoder);
+    buffer.flip();
+    StructDecoder<Void> decoder = STRUCT.decoder(buffer);
+
+    for (int j = 0; j < 20; j++) {
+      long checksum = 0;
+
+      long st = System.nanoTime();
+      for (int i = 0; i < messages; i++) {
+        buffer.clear();
+        encodeByName(encoder.reset(buffer));
+        buffer.flip();
+        checksum += decodeByName(decoder.reset(buffer));
+      }
+      long namesNanos = System.nanoTime() - st;
+
+      st = System.nanoTime();
+      for (int i = 0; i < messages; i++) {
+        buffer.clear();
+        encodeByHandle(encoder.reset(buffer));
+        buffer.flip();
+        checksum -= decodeByHandle(decoder.reset(buffer));
+      }
+      long handlesNanos = System.nanoTime() - st;
+
+      if (checksum != 0) {
+        throw new AssertionError("Named and handle accesses decoded different values");
+      }
+      System.out.println(j + ". names: " + (namesNanos / messages) + "ns/message, handles: " + (handlesNanos / messages) + "ns/message");
+    }
+  }
+
+  private static void encodeByName(StructEncoder<Void> encoder) {
+    encoder.enm("type", Type.REQ_LICENSE);
+    StructEncoder<StructEncoder<Void>> license = encoder.struct("REQ_LICENSE")
+        .string("date", "2030/01/01");
+    StructArrayEncoder<StructEncoder<StructEncoder<Void>>> limits = license.structs("limits");
+    for (int i = 0; i < LIMIT_COUNT; i++) {
+      limits.add().string("name", "limit").int64("value", i).end();
+    }
+    StructArrayEncoder<StructEncoder<StructEncoder<Void>>> flags = limits.end().structs("flags");
+    for (int i = 0; i < FLAG_COUNT; i++) {
+      flags.add().string("name", "flag").bool("value", (i & 1) == 0).end();
+    }
+    flags.end().end().encode();
+  }
+
+  private static void encodeByHandle(StructEncoder<Void> encoder) {
+    encoder.enm(TYPE, Type.REQ_LICENSE);
+    StructEncoder<StructEncoder<Void>> license = encoder.struct(LICENSE)
+        .string(DATE, "2030/01/01");
+    StructArrayEncoder<StructEncoder<StructEncoder<Void>>> limits = license.structs(LIMITS);
+    for (int i = 0; i < LIMIT_COUNT; i++) {
+      limits.add().string(LIMIT_NAME, "limit").int64(LIMIT_VALUE, i).end();
+    }
+    StructArrayEncoder<StructEncoder<StructEncoder<Void>>> flags = limits.end().structs(FLAGS);
+    for (int i = 0; i < FLAG_COUNT; i++) {
+      flags.add().string(FLAG_NAME, "flag").bool(FLAG_VALUE, (i & 1) == 0).end();
+    }
+    flags.end().end().encode();
+  }
+
+  private static long decodeByName(StructDecoder<Void> decoder) {
+    long checksum = decoder.<Type>enm("type").get().ordinal();
+    StructDecoder<StructDecoder<Void>> license = decoder.struct("REQ_LICENSE");
+    checksum += license.string("date").length();
+    StructArrayDecoder<StructDecoder<StructDecoder<Void>>> limits = license.structs("limits");
+    while (limits.hasNext()) {
+      StructDecoder<?> limit = limits.next();
+      checksum += limit.string("name").length() + limit.int64("value", 0L);
+      limit.end();
+    }
+    limits.end();
+    StructArrayDecoder<StructDecoder<StructDecoder<Void>>> flags = license.structs("flags");
+    while (flags.hasNext()) {
+      StructDecoder<?> flag = flags.next();
+      checksum += flag.string("name").length() + (flag.bool("value", false) ? 1 : 0);
+      flag.end();
+    }
+    flags.end();
+    return checksum;
+  }
+
+  private static long decodeByHandle(StructDecoder<Void> decoder) {
+    long checksum = decoder.<Type>enm(TYPE).get().ordinal();
+    StructDecoder<StructDecoder<Void>> license = decoder.struct(LICENSE);
+    checksum += license.string(DATE).length();
+    StructArrayDecoder<StructDecoder<StructDecoder<Void>>> limits = license.structs(LIMITS);
+    while (limits.hasNext()) {
+      StructDecoder<?> limit = limits.next();
+      checksum += limit.string(LIMIT_NAME).length() + limit.int64(LIMIT_VALUE, 0L);
+      limit.end();
+    }
+    limits.end();
+    StructArrayDecoder<StructDecoder<StructDecoder<Void>>> flags = license.structs(FLAGS);
+    while (flags.hasNext()) {
+      StructDecoder<?> flag = flags.next();
+      checksum += flag.string(FLAG_NAME).length() + (flag.bool(FLAG_VALUE, false) ? 1 : 0);
+      flag.end();
+    }
+    flags.end();
+    return checksum;
+  }
+
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.runnel;
+
+import org.junit.Test;
+import org.terracotta.runnel.decoding.ArrayDecoder;
+import org.terracotta.runnel.decoding.StructArrayDecoder;
+import org.terracotta.runnel.decoding.StructDecoder;
+import org.terracotta.runnel.decoding.fields.ArrayField;
+import org.terracotta.runnel.decoding.fields.EnumField;
+import org.terracotta.runnel.decoding.fields.Int32Field;
+import org.terracotta.runnel.decoding.fields.StringField;
+import org.terracotta.runnel.decoding.fields.StructField;
+import org.terracotta.runnel.encoding.StructArrayEncoder;
+import org.terracotta.runnel.encoding.StructEncoder;
+import org.terracotta.runnel.metadata.FieldHandle;
+
+import java.nio.ByteBuffer;
+
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class AccessPlanTest {
+
+  enum Color {
+    RED, GREEN
+  }
+
+  private static final EnumMapping<Color> COLORS = EnumMappingBuilder.newEnumMappingBuilder(Color.class)
+      .mapping(Color.RED, 1)
+      .mapping(Color.GREEN, 2)
+      .build();
+
+  private static final Struct ENTRY = StructBuilder.newStructBuilder()
+      .string("key", 1)
+      .int32("value", 2)
+      .build();
+
+  private static final Struct STRUCT = StructBuilder.newStructBuilder()
+      .enm("color", 1, COLORS)
+      .string("name", 2)
+      .struct("entry", 3, ENTRY)
+      .int64s("ids", 4)
+      .structs("entries", 5, ENTRY)
+      .int32("count", 6)
+      .build();
+
+  private static final AccessPlan PLAN = STRUCT.accessPlan();
+  private static final FieldHandle<EnumField<?>> COLOR = PLAN.enm("color");
+  private static final FieldHandle<StringField> NAME = PLAN.string("name");
+  private static final FieldHandle<StructField> ENTRY_FIELD = PLAN.struct("entry");
+  private static final FieldHandle<ArrayField> IDS = PLAN.int64s("ids");
+  private static final FieldHandle<ArrayField> ENTRIES = PLAN.structs("entries");
+  private static final FieldHandle<Int32Field> COUNT = PLAN.int32("count");
+
+  private static final AccessPlan ENTRY_PLAN = ENTRY.accessPlan();
+  private static final FieldHandle<StringField> KEY = ENTRY_PLAN.string("key");
+  private static final FieldHandle<Int32Field> VALUE = ENTRY_PLAN.int32("value");
+
+  @Test
+  public void testHandlesProduceSameBytesAsNames() throws Exception {
+    ByteBuffer byName = STRUCT.encoder()
+        .enm("color", Color.GREEN)
+        .string("name", "joe")
+        .struct("entry")
+          .string("key", "a")
+          .int32("value", 1)
+        .end()
+        .int64s("ids")
+          .value(1L)
+          .value(2L)
+        .end()
+        .structs("entries")
+          .add()
+            .string("key", "b")
+            .int32("value", 2)
+          .end()
+          .add()
+            .string("key", "c")
+            .int32("value", 3)
+          .end()
+        .end()
+        .int32("count", 42)
+        .encode();
+
+    assertThat(encodeWithHandles(STRUCT.encoder()), is(byName));
+
+    ByteBuffer streamed = encodeWithHandles(STRUCT.encoder(ByteBuffer.allocate(256)));
+    streamed.flip();
+    byName.rewind();
+    assertThat(streamed, is(byName));
+  }
+
+  @Test
+  public void testDecodeWithHandles() throws Exception {
+    ByteBuffer bb = encodeWithHandles(STRUCT.encoder());
+    bb.rewind();
+
+    StructDecoder<Void> decoder = STRUCT.decoder(bb);
+    assertThat(decoder.<Color>enm(COLOR).get(), is(Color.GREEN));
+    assertThat(decoder.string(NAME), is("joe"));
+
+    StructDecoder<StructDecoder<Void>> entry = decoder.struct(ENTRY_FIELD);
+    assertThat(entry.string(KEY), is("a"));
+    assertThat(entry.int32(VALUE, -1), is(1));
+    entry.end();
+
+    ArrayDecoder<Long, StructDecoder<Void>> ids = decoder.int64s(IDS);
+    assertThat(ids.toLongArray(), is(new long[] {1L, 2L}));
+    ids.end();
+
+    StructArrayDecoder<StructDecoder<Void>> entries = decoder.structs(ENTRIES);
+    assertThat(entries.length(), is(2));
+    StructDecoder<StructArrayDecoder<StructDecoder<Void>>> element = entries.next();
+    assertThat(element.string(KEY), is("b"));
+    assertThat(element.int32(VALUE), is(2));
+    element.end();
+    element = entries.next();
+    assertThat(element.string(KEY), is("c"));
+    assertThat(element.int32(VALUE), is(3));
+    element.end();
+    entries.end();
+
+    assertThat(decoder.int32(COUNT, -1), is(42));
+  }
+
+  @Test
+  public void testMixNamesAndHandles() throws Exception {
+    ByteBuffer bb = STRUCT.encoder()
+        .string(NAME, "joe")
+        .int32("count", 42)
+        .encode();
+    bb.rewind();
+
+    StructDecoder<Void> decoder = STRUCT.decoder(bb);
+    assertThat(decoder.string("name"), is("joe"));
+    assertThat(decoder.struct(ENTRY_FIELD), is(nullValue()));
+    assertThat(decoder.int32(COUNT), is(42));
+  }
+
+  @Test
+  public void testSubStructPlans() throws Exception {
+    FieldHandle<StringField> key = PLAN.structPlan("entry").string("key");
+    FieldHandle<Int32Field> value = PLAN.structsPlan("entries").int32("value");
+
+    ByteBuffer bb = STRUCT.encoder()
+        .struct("entry")
+          .string(key, "a")
+        .end()
+        .structs("entries")
+          .add()
+            .int32(value, 1)
+          .end()
+        .end()
+        .encode();
+    bb.rewind();
+
+    StructDecoder<Void> decoder = STRUCT.decoder(bb);
+    assertThat(decoder.struct("entry").string(KEY), is("a"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testHandleOfAnotherStruct() throws Exception {
+    STRUCT.encoder().string(KEY, "a");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testHandlesMustBeUsedInOrder() throws Exception {
+    STRUCT.encoder()
+        .int32(COUNT, 1)
+        .string(NAME, "joe");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidType() throws Exception {
+    PLAN.int32("name");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidArraySubtype() throws Exception {
+    STRUCT.encoder().int32s(IDS);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNoSuchField() throws Exception {
+    PLAN.int64("unknown");
+  }
+
+  private static ByteBuffer encodeWithHandles(StructEncoder<Void> encoder) {
+    StructEncoder<StructEncoder<Void>> entry = encoder
+        .enm(COLOR, Color.GREEN)
+        .string(NAME, "joe")
+        .struct(ENTRY_FIELD);
+    entry
+        .string(KEY, "a")
+        .int32(VALUE, 1)
+      .end()
+      .int64s(IDS)
+        .value(1L)
+        .value(2L)
+      .end();
+    StructArrayEncoder<StructEncoder<Void>> entries = encoder.structs(ENTRIES);
+    entries.add()
+        .string(KEY, "b")
+        .int32(VALUE, 2)
+      .end();
+    entries.add()
+        .string(KEY, "c")
+        .int32(VALUE, 3)
+      .end();
+    return entries.end()
+        .int32(COUNT, 42)
+        .encode();
+  }
+
+}
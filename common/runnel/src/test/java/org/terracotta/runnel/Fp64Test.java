@@ -99,4 +99,33 @@ public class Fp64Test {
     assertThat(decoder.fp64("z"), is(2.0));
   }
 
+  @Test
+  public void testPrimitiveFp64() throws Exception {
+    Struct struct = StructBuilder.newStructBuilder()
+        .fp64("x", 1)
+        .fp64s("y", 2)
+        .fp64("z", 3)
+        .build();
+
+    ByteBuffer encoded = struct.encoder()
+        .fp64("x", -1.0)
+        .fp64s("y")
+          .value(-10.0)
+          .value(-15.0)
+        .end()
+        .encode();
+
+    encoded.rewind();
+
+    StructDecoder<Void> decoder = struct.decoder(encoded);
+
+    assertThat(decoder.fp64("x", 7.0), is(-1.0));
+    ArrayDecoder<Double, StructDecoder<Void>> ad = decoder.fp64s("y");
+    assertThat(ad.doubleValue(), is(-10.0));
+    assertThat(ad.doubleValue(), is(-15.0));
+    assertThat(ad.toDoubleArray().length, is(0));
+    ad.end();
+    assertThat(decoder.fp64("z", 7.0), is(7.0));
+  }
+
 }
@@ -92,4 +92,33 @@ public class Int32Test {
     assertThat(decoder.int32("z"), is(Integer.MAX_VALUE));
   }
 
+  @Test
+  public void testPrimitiveInt32() throws Exception {
+    Struct struct = StructBuilder.newStructBuilder()
+        .int32("x", 1)
+        .int32s("y", 2)
+        .int32("z", 3)
+        .build();
+
+    ByteBuffer encoded = struct.encoder()
+        .int32s("y")
+          .value(-10)
+          .value(-15)
+          .value(-20)
+        .end()
+        .int32("z", Integer.MAX_VALUE)
+        .encode();
+
+    encoded.rewind();
+
+    StructDecoder<Void> decoder = struct.decoder(encoded);
+
+    assertThat(decoder.int32("x", 7), is(7));
+    ArrayDecoder<Integer, StructDecoder<Void>> ad = decoder.int32s("y");
+    assertThat(ad.intValue(), is(-10));
+    assertThat(ad.toIntArray(), is(new int[] {-15, -20}));
+    ad.end();
+    assertThat(decoder.int32("z", 7), is(Integer.MAX_VALUE));
+  }
+
 }
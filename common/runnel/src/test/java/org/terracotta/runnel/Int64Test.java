@@ -92,4 +92,50 @@ public class Int64Test {
     assertThat(decoder.int64("z"), is(Long.MAX_VALUE));
   }
 
+  @Test
+  public void testPrimitiveInt64() throws Exception {
+    Struct struct = StructBuilder.newStructBuilder()
+        .int64("x", 1)
+        .int64s("y", 2)
+        .int64("z", 3)
+        .build();
+
+    ByteBuffer encoded = struct.encoder()
+        .int64("x", -1)
+        .int64s("y")
+          .value(-10L)
+          .value(-15L)
+          .value(-20L)
+        .end()
+        .encode();
+
+    encoded.rewind();
+
+    StructDecoder<Void> decoder = struct.decoder(encoded);
+
+    assertThat(decoder.int64("x", 7L), is(-1L));
+    ArrayDecoder<Long, StructDecoder<Void>> ad = decoder.int64s("y");
+    assertThat(ad.toLongArray(), is(new long[] {-10L, -15L, -20L}));
+    ad.end();
+    assertThat(decoder.int64("z", 7L), is(7L));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testPrimitiveInt64OnWrongArrayType() throws Exception {
+    Struct struct = StructBuilder.newStructBuilder()
+        .int32s("y", 1)
+        .build();
+
+    ByteBuffer encoded = struct.encoder()
+        .int32s("y")
+          .value(-10)
+        .end()
+        .encode();
+
+    encoded.rewind();
+
+    ArrayDecoder<Integer, StructDecoder<Void>> ad = struct.decoder(encoded).int32s("y");
+    ad.longValue();
+  }
+
 }
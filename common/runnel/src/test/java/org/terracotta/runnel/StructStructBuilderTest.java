@@ -261,4 +261,48 @@ public class StructStructBuilderTest {
     assertThat(decoder.int64("id"), is(999L));
   }
 
+  @Test
+  public void testResetRootDecoder() throws Exception {
+    ByteBuffer bb1 = struct.encoder()
+        .string("name", "joe")
+        .struct("mapEntry")
+          .string("key", "1")
+        .end()
+        .int64("id", 999L)
+        .encode();
+    ByteBuffer bb2 = struct.encoder()
+        .string("name", "jack")
+        .int64("id", 1000L)
+        .encode();
+
+    bb1.rewind();
+    bb2.rewind();
+
+    StructDecoder<Void> decoder = struct.decoder(bb1);
+    assertThat(decoder.string("name"), is("joe"));
+    assertThat(decoder.struct("mapEntry").string("key"), is("1"));
+
+    decoder.reset(bb2);
+    assertThat(decoder.string("name"), is("jack"));
+    assertThat(decoder.struct("mapEntry"), is(nullValue()));
+    assertThat(decoder.int64("id", 0L), is(1000L));
+
+    bb1.rewind();
+    decoder.reset(bb1);
+    assertThat(decoder.int64("id", 0L), is(999L));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testCannotResetNonRootDecoder() throws Exception {
+    ByteBuffer bb = struct.encoder()
+        .struct("mapEntry")
+          .string("key", "1")
+        .end()
+        .encode();
+
+    bb.rewind();
+
+    struct.decoder(bb).struct("mapEntry").reset(bb);
+  }
+
 }
@@ -76,8 +76,11 @@ public class EncodingPerfTest {
                                                  .build();
 
   static StructEncoder<Void> buildRecord(Random r, int seed, int minStrSize, int maxStrSize) {
-    return RDS.encoder()
-              .int64("msn", seed)
+    return buildRecord(RDS.encoder(), r, seed, minStrSize, maxStrSize);
+  }
+
+  static <E extends StructEncoder<Void>> E buildRecord(E encoder, Random r, int seed, int minStrSize, int maxStrSize) {
+    encoder.int64("msn", seed)
               .struct("key")
                  .string("string", "key" + seed)
               .end()
@@ -103,6 +106,7 @@ public class EncodingPerfTest {
                  .string("string", stringValue(r, minStrSize/4, maxStrSize/4))
               .end()
            .end();
+    return encoder;
   }
 
   private static String stringValue(Random r, int minsz, int maxsz) {
@@ -147,4 +151,59 @@ public class EncodingPerfTest {
     System.out.println(objectRateSecs + " objs/sec " + byteRateSecs + " bytes/sec");
   }
 
+  @Test
+  @Ignore
+  public void compareWithStreamingEncoder() {
+    int records = 5000;
+    Random r = new Random(0);
+    String[] strings = new String[records];
+    for (int i = 0; i < records; i++) {
+      strings[i] = stringValue(r, 64, 256);
+    }
+    StreamingStructEncoder<Void> streamingEncoder = RDS.encoder(ByteBuffer.allocate(8192));
+    ByteBuffer target = ByteBuffer.allocate(8192);
+
+    for (int j = 0; j < 50; j++) {
+      long totalBytes = 0;
+      long st = System.nanoTime();
+      for (int i = 0; i < records; i++) {
+        ByteBuffer b = encodeRecord(RDS.encoder(), i, strings[i]).encode();
+        totalBytes += b.position();
+      }
+      long dataHolderNanos = System.nanoTime() - st;
+
+      st = System.nanoTime();
+      for (int i = 0; i < records; i++) {
+        target.clear();
+        ByteBuffer b = encodeRecord(streamingEncoder.reset(target), i, strings[i]).encode();
+        totalBytes -= b.position();
+      }
+      long streamingNanos = System.nanoTime() - st;
+
+      if (totalBytes != 0) {
+        throw new AssertionError("Encoders produced different sizes");
+      }
+      System.out.println(j + ". data holders: " + (dataHolderNanos / records) + "ns/record, streaming: " + (streamingNanos / records) + "ns/record");
+    }
+  }
+
+  private static StructEncoder<Void> encodeRecord(StructEncoder<Void> encoder, int seed, String string) {
+    return encoder.int64("msn", seed)
+        .struct("key")
+          .string("string", "key")
+        .end()
+        .structs("cells")
+          .add()
+            .string("name", "Cell1")
+            .enm("type", Typ.STRING)
+            .string("string", string)
+          .end()
+          .add()
+            .string("name", "Cell2")
+            .enm("type", Typ.INT)
+            .int32("int", seed)
+          .end()
+        .end();
+  }
+
 }
@@ -0,0 +1,282 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.runnel.encoding;
+
+import org.junit.Test;
+import org.terracotta.runnel.EnumMapping;
+import org.terracotta.runnel.EnumMappingBuilder;
+import org.terracotta.runnel.Struct;
+import org.terracotta.runnel.StructBuilder;
+import org.terracotta.runnel.decoding.ArrayDecoder;
+import org.terracotta.runnel.decoding.StructArrayDecoder;
+import org.terracotta.runnel.decoding.StructDecoder;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+
+public class StreamingStructEncoderTest {
+
+  enum Color {
+    RED,
+    BLUE
+  }
+
+  private static final EnumMapping<Color> COLOR_MAPPING = EnumMappingBuilder.newEnumMappingBuilder(Color.class)
+      .mapping(Color.RED, 1)
+      .mapping(Color.BLUE, 300)
+      .build();
+
+  private final Struct cell = StructBuilder.newStructBuilder()
+      .string("name", 1)
+      .enm("color", 2, COLOR_MAPPING)
+      .int32("int", 3)
+      .build();
+
+  private final Struct struct = StructBuilder.newStructBuilder()
+      .bool("bool", 1)
+      .chr("char", 2)
+      .int64("long", 3)
+      .fp64("double", 4)
+      .struct("cell", 5, cell)
+      .structs("cells", 6, cell)
+      .int32s("ints", 7)
+      .strings("strings", 8)
+      .byteBuffer("bytes", 9)
+      .int64s("longs", 10)
+      .build();
+
+  @Test
+  public void testSameBytesAsDataHolderEncoder() throws Exception {
+    Random random = new Random(0);
+    for (int count : new int[] {0, 1, 10, 200}) {
+      for (int stringLength : new int[] {0, 10, 200}) {
+        String string = randomString(random, stringLength);
+
+        ByteBuffer expected = fill(struct.encoder(), count, string).encode();
+        expected.rewind();
+
+        ByteBuffer heap = ByteBuffer.allocate(1 << 20);
+        ByteBuffer encoded = fill(struct.encoder(heap), count, string).encode();
+        encoded.flip();
+        assertThat(encoded, is(expected));
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(1 << 20);
+        encoded = fill(struct.encoder(direct), count, string).encode();
+        encoded.flip();
+        assertThat(encoded, is(expected));
+      }
+    }
+  }
+
+  @Test
+  public void testDecode() throws Exception {
+    ByteBuffer bb = fill(struct.encoder(ByteBuffer.allocate(4096)), 5, "abc").encode();
+    bb.flip();
+
+    StructDecoder<Void> decoder = struct.decoder(bb);
+    assertThat(decoder.bool("bool"), is(true));
+    assertThat(decoder.chr("char"), is('\u00E9'));
+    assertThat(decoder.int64("long"), is(42L));
+    assertThat(decoder.fp64("double"), is(1.5));
+
+    StructDecoder<StructDecoder<Void>> cellDecoder = decoder.struct("cell");
+    assertThat(cellDecoder.string("name"), is("abc"));
+    assertThat(cellDecoder.<Color>enm("color").get(), is(Color.BLUE));
+    cellDecoder.end();
+
+    StructArrayDecoder<StructDecoder<Void>> cellsDecoder = decoder.structs("cells");
+    assertThat(cellsDecoder.length(), is(3));
+    assertThat(cellsDecoder.next().string("name"), is("cell-1abc"));
+    assertThat(cellsDecoder.next().string("name"), is("cell-2abc"));
+    assertThat(cellsDecoder.next().string("name"), is("cell-4abc"));
+    cellsDecoder.end();
+
+    ArrayDecoder<Integer, StructDecoder<Void>> intsDecoder = decoder.int32s("ints");
+    assertThat(intsDecoder.length(), is(50));
+    for (int i = 0; i < 50; i++) {
+      assertThat(intsDecoder.value(), is(i));
+    }
+    intsDecoder.end();
+
+    ArrayDecoder<String, StructDecoder<Void>> stringsDecoder = decoder.strings("strings");
+    assertThat(stringsDecoder.length(), is(5));
+    assertThat(stringsDecoder.value(), is("\u0000\u07FF\uFFFFabc"));
+    stringsDecoder.end();
+
+    assertThat(decoder.byteBuffer("bytes").remaining(), is(35));
+  }
+
+  @Test
+  public void testNullStringIsSkipped() throws Exception {
+    ByteBuffer bb = struct.encoder(ByteBuffer.allocate(64))
+        .struct("cell")
+          .string("name", null)
+          .int32("int", 1)
+        .end()
+        .encode();
+    bb.flip();
+
+    StructDecoder<StructDecoder<Void>> cellDecoder = struct.decoder(bb).struct("cell");
+    assertThat(cellDecoder.string("name"), is(nullValue()));
+    assertThat(cellDecoder.int32("int"), is(1));
+  }
+
+  @Test
+  public void testPrimitiveArrays() throws Exception {
+    Struct arrays = StructBuilder.newStructBuilder()
+        .int32s("ints", 1)
+        .int64s("longs", 2)
+        .fp64s("doubles", 3)
+        .build();
+
+    int[] ints = new int[100];
+    Arrays.setAll(ints, i -> i * 3);
+
+    StructEncoder<Void> encoder = arrays.encoder();
+    ArrayEncoder<Integer, StructEncoder<Void>> intsEncoder = encoder.int32s("ints");
+    for (int i : ints) {
+      intsEncoder.value(i);
+    }
+    intsEncoder.end()
+        .int64s("longs").value(1L).value(2L).end()
+        .fp64s("doubles").end();
+    ByteBuffer expected = encoder.encode();
+    expected.rewind();
+
+    ByteBuffer encoded = arrays.encoder(ByteBuffer.allocate(1024))
+        .int32s("ints", ints)
+        .int64s("longs", new long[] {1L, 2L})
+        .fp64s("doubles", new double[0])
+        .encode();
+    encoded.flip();
+
+    assertThat(encoded, is(expected));
+  }
+
+  @Test
+  public void testEncodeFromNonZeroPosition() throws Exception {
+    ByteBuffer bb = ByteBuffer.allocate(4096);
+    bb.position(10);
+    struct.encoder(bb).int64("long", 1L).encode();
+    bb.limit(bb.position()).position(10);
+
+    assertThat(struct.decoder(bb).int64("long"), is(1L));
+  }
+
+  @Test
+  public void testResetAndReuse() throws Exception {
+    ByteBuffer expected = fill(struct.encoder(), 10, "reused").encode();
+    expected.rewind();
+
+    StreamingStructEncoder<Void> encoder = struct.encoder(ByteBuffer.allocate(4096));
+    fill(encoder, 3, "first").encode();
+
+    ByteBuffer bb = ByteBuffer.allocate(4096);
+    fill(encoder.reset(bb), 10, "reused").encode();
+    bb.flip();
+
+    assertThat(bb, is(expected));
+  }
+
+  @Test
+  public void testEncodeCopiesIntoOtherBuffer() throws Exception {
+    ByteBuffer expected = fill(struct.encoder(), 10, "copied").encode();
+    expected.rewind();
+
+    ByteBuffer bb = ByteBuffer.allocate(expected.remaining());
+    fill(struct.encoder(ByteBuffer.allocate(4096)), 10, "copied").encode(bb);
+    bb.flip();
+
+    assertThat(bb, is(expected));
+  }
+
+  @Test(expected = BufferOverflowException.class)
+  public void testBufferTooSmall() throws Exception {
+    fill(struct.encoder(ByteBuffer.allocate(32)), 10, "too big").encode();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testCannotEncodeTwice() throws Exception {
+    StreamingStructEncoder<Void> encoder = struct.encoder(ByteBuffer.allocate(64));
+    encoder.int64("long", 1L).encode();
+    encoder.encode();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testCannotEncodeNonRoot() throws Exception {
+    struct.encoder(ByteBuffer.allocate(64))
+        .struct("cell")
+          .string("name", "joe")
+        .encode();
+  }
+
+  private static <E extends StructEncoder<Void>> E fill(E encoder, int count, String string) {
+    encoder.bool("bool", true)
+        .chr("char", '\u00E9')
+        .int64("long", 42L)
+        .fp64("double", 1.5)
+        .struct("cell")
+          .string("name", string)
+          .enm("color", Color.BLUE)
+        .end();
+
+    StructArrayEncoder<StructEncoder<Void>> cellsEncoder = encoder.structs("cells");
+    for (int i = 0; i < count; i++) {
+      if (i % 3 == 0) {
+        // empty elements are dropped
+        cellsEncoder.add();
+      } else {
+        cellsEncoder.add()
+            .string("name", "cell-" + i + string)
+            .int32("int", i)
+            .end();
+      }
+    }
+    cellsEncoder.end();
+
+    ArrayEncoder<Integer, StructEncoder<Void>> intsEncoder = encoder.int32s("ints");
+    for (int i = 0; i < count * 10; i++) {
+      intsEncoder.value(i);
+    }
+    intsEncoder.end();
+
+    ArrayEncoder<String, StructEncoder<Void>> stringsEncoder = encoder.strings("strings");
+    for (int i = 0; i < count; i++) {
+      stringsEncoder.value("\u0000\u07FF\uFFFF" + string);
+    }
+    stringsEncoder.end();
+
+    encoder.byteBuffer("bytes", ByteBuffer.wrap(new byte[count * 7]))
+        .int64s("longs").value(1L).value(2L).end();
+    return encoder;
+  }
+
+  private static String randomString(Random random, int length) {
+    char[] chars = new char[length];
+    for (int i = 0; i < length; i++) {
+      chars[i] = (char) ('A' + random.nextInt(26));
+    }
+    return new String(chars);
+  }
+
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.persistence.sanskrit;
+
+/**
+ * The formats of the records of the append.log file.
+ */
+public enum AppendLogFormat {
+  /**
+   * Records made of lines of text: an optional format version, the timestamp, the data, the hash and an empty line.
+   */
+  TEXT,
+
+  /**
+   * Length-prefixed binary records following a file header, with a CRC32 checksum of each record, the timestamp as
+   * epoch seconds and nanoseconds and the hashes as raw bytes.
+   */
+  BINARY
+}
@@ -31,4 +31,9 @@ public interface FilesystemDirectory {
   void delete(String filename) throws IOException;
 
   void backup(String filename) throws IOException;
+
+  /**
+   * Atomically replace the target file with the source file.
+   */
+  void move(String source, String target) throws IOException;
 }
@@ -46,29 +46,40 @@ public class HashChecker {
   }
 
   public boolean check(String hash) throws SanskritException {
+    return check(hash, false);
+  }
+
+  /**
+   * @param batched true if the record is followed by other records of the same batch, in which case only the hash
+   *                of the last record of the batch ever gets written to a hash file.
+   */
+  public boolean check(String hash, boolean batched) throws SanskritException {
     if (hashes.isEmpty()) {
       if (laterHash) {
         throw new SanskritException("Found hashes after the last recorded hash");
       }
-      laterHash = true;
-      LOGGER.trace("check({}): {}", hash, false);
+      // the records of a batch are all uncommitted until the hash of its last record is written
+      if (!batched) {
+        laterHash = true;
+      }
+      LOGGER.trace("check({}, {}): {}", hash, batched, false);
       return false;
     }
 
     String removed = hashes.remove(hash);
-    LOGGER.trace("check({}): removed: {}", hash, removed);
+    LOGGER.trace("check({}, {}): removed: {}", hash, batched, removed);
 
     if (removed != null) {
       if (removedFirst == null) {
         removedFirst = removed;
       }
     } else {
-      if (removedFirst != null) {
+      if (removedFirst != null && !batched) {
         throw new SanskritException("Found extra hash between final hashes: " + hash);
       }
     }
 
-    LOGGER.trace("check({}): {}", hash, true);
+    LOGGER.trace("check({}, {}): {}", hash, batched, true);
     return true;
   }
 
@@ -73,7 +73,7 @@ public class HashUtils {
     }
   }
 
-  private static String toHexText(byte[] input) {
+  static String toHexText(byte[] input) {
     StringBuilder sb = new StringBuilder(input.length * 2);
 
     for (byte b : input) {
@@ -82,4 +82,23 @@ public class HashUtils {
 
     return sb.toString();
   }
+
+  static byte[] fromHexText(String input) {
+    if (input.length() % 2 != 0) {
+      throw new IllegalArgumentException("Invalid hex text: " + input);
+    }
+
+    byte[] bytes = new byte[input.length() / 2];
+
+    for (int i = 0; i < bytes.length; i++) {
+      int high = Character.digit(input.charAt(2 * i), 16);
+      int low = Character.digit(input.charAt(2 * i + 1), 16);
+      if (high == -1 || low == -1) {
+        throw new IllegalArgumentException("Invalid hex text: " + input);
+      }
+      bytes[i] = (byte) ((high << 4) | low);
+    }
+
+    return bytes;
+  }
 }
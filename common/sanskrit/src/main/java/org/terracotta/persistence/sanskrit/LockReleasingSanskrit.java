@@ -19,6 +19,7 @@ package org.terracotta.persistence.sanskrit;
 import org.terracotta.persistence.sanskrit.change.SanskritChange;
 
 import java.io.IOException;
+import java.util.List;
 
 import static org.terracotta.persistence.sanskrit.Owner.own;
 
@@ -64,6 +65,11 @@ public class LockReleasingSanskrit implements Sanskrit {
     underlying.applyChange(change);
   }
 
+  @Override
+  public void applyChanges(List<SanskritChange> changes) throws SanskritException {
+    underlying.applyChanges(changes);
+  }
+
   @Override
   public MutableSanskritObject newMutableSanskritObject() {
     return underlying.newMutableSanskritObject();
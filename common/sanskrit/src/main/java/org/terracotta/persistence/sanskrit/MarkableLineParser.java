@@ -63,6 +63,13 @@ public class MarkableLineParser {
     return mark;
   }
 
+  /**
+   * @return the position right after the last byte read, which is right after the newline of the last parsed line.
+   */
+  public long getPosition() {
+    return position;
+  }
+
   private class LineParsingSpliterator implements Spliterator<String> {
     private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
 
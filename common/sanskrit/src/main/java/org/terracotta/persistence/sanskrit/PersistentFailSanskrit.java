@@ -18,6 +18,8 @@ package org.terracotta.persistence.sanskrit;
 
 import org.terracotta.persistence.sanskrit.change.SanskritChange;
 
+import java.util.List;
+
 public class PersistentFailSanskrit implements Sanskrit {
   private final Sanskrit underlying;
   private volatile Exception failure;
@@ -86,6 +88,18 @@ public class PersistentFailSanskrit implements Sanskrit {
     }
   }
 
+  @Override
+  public void applyChanges(List<SanskritChange> changes) throws SanskritException {
+    failCheck();
+
+    try {
+      underlying.applyChanges(changes);
+    } catch (Exception e) {
+      failure = e;
+      throw e;
+    }
+  }
+
   @Override
   public MutableSanskritObject newMutableSanskritObject() {
     return underlying.newMutableSanskritObject();
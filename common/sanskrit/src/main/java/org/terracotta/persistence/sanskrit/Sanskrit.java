@@ -23,6 +23,7 @@ import org.terracotta.persistence.sanskrit.change.SanskritChange;
 import org.terracotta.persistence.sanskrit.change.UnsetKeySanskritChange;
 
 import java.io.IOException;
+import java.util.List;
 
 import static org.terracotta.persistence.sanskrit.Owner.own;
 
@@ -70,6 +71,12 @@ public interface Sanskrit extends AutoCloseable {
 
   void applyChange(SanskritChange change) throws SanskritException;
 
+  /**
+   * Apply several changes, in order, making them durable all at once.
+   * Either all the changes or none of them survive a crash.
+   */
+  void applyChanges(List<SanskritChange> changes) throws SanskritException;
+
   MutableSanskritObject newMutableSanskritObject();
 
   void reset() throws SanskritException;
@@ -22,14 +22,16 @@ import org.terracotta.persistence.sanskrit.change.SanskritChange;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
-import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
-import java.nio.channels.Channels;
 import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Deque;
 import java.util.List;
 import java.util.Objects;
@@ -37,6 +39,7 @@ import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
+import java.util.zip.CRC32;
 
 import static org.terracotta.persistence.sanskrit.MarkableLineParser.LS;
 
@@ -49,26 +52,72 @@ public class SanskritImpl implements Sanskrit {
   private static final Logger LOGGER = LoggerFactory.getLogger(SanskritImpl.class);
 
   private static final String APPEND_LOG_FILE = "append.log";
+  private static final String COMPACTED_APPEND_LOG_FILE = "append.log.compacted";
+  private static final String MIGRATED_APPEND_LOG_FILE = "append.log.migrated";
   private static final String HASH_0_FILE = "hash0";
   private static final String HASH_1_FILE = "hash1";
   private static final String FORMAT_VERSION = "format version: ";
+  private static final String SNAPSHOT_OF = "snapshot of: ";
+  private static final String BATCHED = "batched";
+
+  // a text log starts with a timestamp or a format version line, never with a zero byte
+  private static final byte[] BINARY_HEADER = {0, 'S', 'K', 'R', 0, 0, 0, 1};
+  private static final int BINARY_RECORD_HEADER_SIZE = 8;
+  private static final int BINARY_HASH_SIZE = 20;
+  private static final byte BINARY_SNAPSHOT = 1;
+  private static final byte BINARY_BATCHED = 2;
+  private static final byte BINARY_TEXT_TIMESTAMP = 4;
+
+  /**
+   * Number of records appended after the last snapshot which triggers the compaction of the append log.
+   */
+  public static final int DEFAULT_COMPACTION_THRESHOLD = 1000;
 
   private final FilesystemDirectory filesystemDirectory;
   private final SanskritMapper mapper;
+  private final int compactionThreshold;
+  private final AppendLogFormat format;
 
   private volatile MutableSanskritObject data;
   private volatile String lastHash;
   private volatile String nextHashFile;
+  private volatile int recordsSinceSnapshot;
+  private volatile AppendLogFormat appendLogFormat;
 
   public SanskritImpl(FilesystemDirectory filesystemDirectory, SanskritMapper mapper) throws SanskritException {
+    this(filesystemDirectory, mapper, DEFAULT_COMPACTION_THRESHOLD);
+  }
+
+  /**
+   * @param compactionThreshold the number of records appended after the last snapshot at which the append log gets
+   *                            compacted, or 0 to never compact it.
+   */
+  public SanskritImpl(FilesystemDirectory filesystemDirectory, SanskritMapper mapper, int compactionThreshold) throws SanskritException {
+    this(filesystemDirectory, mapper, compactionThreshold, AppendLogFormat.BINARY);
+  }
+
+  /**
+   * @param compactionThreshold the number of records appended after the last snapshot at which the append log gets
+   *                            compacted, or 0 to never compact it.
+   * @param format              the format of the records of a new append log. An existing append log in another
+   *                            format is read as is, and rewritten in this format before the next record is appended.
+   */
+  public SanskritImpl(FilesystemDirectory filesystemDirectory, SanskritMapper mapper, int compactionThreshold, AppendLogFormat format) throws SanskritException {
+    if (compactionThreshold < 0) {
+      throw new IllegalArgumentException("Invalid compaction threshold: " + compactionThreshold);
+    }
     this.filesystemDirectory = filesystemDirectory;
     this.mapper = mapper;
+    this.compactionThreshold = compactionThreshold;
+    this.format = Objects.requireNonNull(format);
     init();
   }
 
   private void init() throws SanskritException {
     lastHash = null;
     nextHashFile = null;
+    recordsSinceSnapshot = 0;
+    appendLogFormat = null;
     this.data = newMutableSanskritObject();
 
     try {
@@ -77,77 +126,61 @@ public class SanskritImpl implements Sanskrit {
       String hash1 = getHashFromFile(HASH_1_FILE, filesToDelete);
       HashChecker hashChecker = new HashChecker(hash0, hash1);
 
+      recoverCompaction(hash0, hash1);
+      // a migrated append log replaces the current one atomically, a leftover one is incomplete
+      filesystemDirectory.delete(MIGRATED_APPEND_LOG_FILE);
+
       MutableSanskritObject result = newMutableSanskritObject();
 
       try (FileData appendLog = filesystemDirectory.getFileData(APPEND_LOG_FILE)) {
         if (appendLog != null) {
-          InputStream appendLogStream = new BufferedInputStream(Channels.newInputStream(appendLog));
-          MarkableLineParser parser = new MarkableLineParser(appendLogStream);
-          Stream<String> lines = parser.lines();
-          Stream<Deque<String>> records = groupByEmptyLines(lines);
-
-          AtomicReference<SanskritException> error = new AtomicReference<>();
           AtomicLong counter = new AtomicLong();
-          try {
-            records.forEach(record -> {
-              try {
-                if (record.size() < 3) {
-                  throw new SanskritException("Invalid record");
-                }
-
-                long idx = counter.incrementAndGet();
-
-                String timestamp;
-                String version;
-                String first = record.removeFirst();
-                if (first.startsWith(FORMAT_VERSION)) {
-                  // V2 and so on
-                  timestamp = record.removeFirst();
-                  version = first.substring(16);
-                } else {
-                  // V1 change format don't have a version flag
-                  timestamp = first;
-                  version = "";
-                }
-                String hash = record.removeLast();
-                String data = String.join(LS, record);
-
-                LOGGER.trace("init(): record {}: timestamp={}, version={}, hash={}, data={}", idx, timestamp, version, hash, data);
-
-                hash = checkHash(timestamp, data, hash);
-                String hashedHash = HashUtils.generateHash(hash);
-                boolean acceptRecord = hashChecker.check(hashedHash);
-
-                LOGGER.trace("init(): record {}: hash={}, hashedHash={}, acceptRecord={}", idx, hash, hashedHash, acceptRecord);
-
-                if (acceptRecord) {
-                  parser.mark();
-                  mapper.fromString(data, version, result);
-                  onNewRecord(timestamp, data);
-                  lastHash = hash;
-                }
-              } catch (SanskritException e) {
-                error.set(e);
-                throw new UncheckedSanskritException(e);
+          AtomicLong mark = new AtomicLong();
+          // records of an uncommitted batch are not accepted but still chain to each other
+          AtomicReference<String> previousHash = new AtomicReference<>();
+
+          AppendLogFormat logFormat = readRecords(appendLog, (record, end) -> {
+            long idx = counter.incrementAndGet();
+
+            LOGGER.trace("init(): record {}: timestamp={}, version={}, snapshotOf={}, batched={}, hash={}, data={}", idx, record.timestamp, record.version, record.snapshotOf, record.batched, record.hash, record.data);
+
+            if (record.snapshotOf != null) {
+              if (idx != 1) {
+                throw new SanskritException("Snapshot record found after the first record");
+              }
+              // the snapshot stands for the records it replaced, the last one of which may still be in a hash file
+              if (!hashChecker.check(HashUtils.generateHash(record.snapshotOf))) {
+                throw new SanskritException("No hash for the records replaced by the snapshot");
               }
-            });
-          } catch (UncheckedSanskritException e) {
-            if (error.get() != null) {
-              throw error.get();
-            } else {
-              throw e;
+              previousHash.set(record.snapshotOf);
             }
-          }
 
-          long mark = parser.getMark();
-          if (mark == 0) {
-            filesToDelete.add("append.log");
+            String hash = checkHash(previousHash.getAndSet(record.hash), record.timestamp, record.data, record.hash);
+            String hashedHash = HashUtils.generateHash(hash);
+            boolean acceptRecord = hashChecker.check(hashedHash, record.batched);
+
+            LOGGER.trace("init(): record {}: hash={}, hashedHash={}, acceptRecord={}", idx, hash, hashedHash, acceptRecord);
+
+            if (acceptRecord) {
+              mark.set(end);
+              mapper.fromString(record.data, record.version, result);
+              onNewRecord(record.timestamp, record.data);
+              lastHash = hash;
+              recordsSinceSnapshot = record.snapshotOf == null ? recordsSinceSnapshot + 1 : 0;
+            } else if (record.snapshotOf != null) {
+              throw new SanskritException("No hash for the snapshot record");
+            }
+          });
+
+          if (mark.get() == 0) {
+            filesToDelete.add(APPEND_LOG_FILE);
           } else {
             try {
-              appendLog.truncate(mark);
+              appendLog.truncate(mark.get());
             } catch (IOException e) {
               throw new SanskritException(e);
             }
+            appendLogFormat = logFormat;
           }
         }
       }
@@ -171,6 +204,217 @@ public class SanskritImpl implements Sanskrit {
     }
   }
 
+  /**
+   * A compacted append log only replaces the current one once the hash of its snapshot record has been written to a
+   * hash file. A leftover compacted append log whose hash made it to a hash file must replace the current one,
+   * otherwise the compaction did not complete and it is discarded.
+   */
+  private void recoverCompaction(String hash0, String hash1) throws SanskritException, IOException {
+    String snapshotHash = null;
+
+    try (FileData compactedLog = filesystemDirectory.getFileData(COMPACTED_APPEND_LOG_FILE)) {
+      if (compactedLog == null) {
+        return;
+      }
+
+      List<Record> records = new ArrayList<>(1);
+      try {
+        readRecords(compactedLog, (record, end) -> records.add(record));
+      } catch (SanskritException | RuntimeException e) {
+        LOGGER.debug("recoverCompaction(): unreadable compacted append log", e);
+      }
+
+      if (records.size() == 1 && records.get(0).snapshotOf != null) {
+        Record snapshot = records.get(0);
+        if (snapshot.hash.equals(calculateHash(snapshot.snapshotOf, snapshot.timestamp, snapshot.data))) {
+          snapshotHash = HashUtils.generateHash(snapshot.hash);
+        }
+      }
+    }
+
+    if (snapshotHash != null && (snapshotHash.equals(hash0) || snapshotHash.equals(hash1))) {
+      LOGGER.trace("recoverCompaction(): completing compaction");
+      filesystemDirectory.move(COMPACTED_APPEND_LOG_FILE, APPEND_LOG_FILE);
+    } else {
+      LOGGER.trace("recoverCompaction(): discarding incomplete compaction");
+      filesystemDirectory.delete(COMPACTED_APPEND_LOG_FILE);
+    }
+  }
+
+  /**
+   * Read the records of a log in either format, from its start.
+   *
+   * @return the format of the log
+   */
+  private AppendLogFormat readRecords(FileData log, RecordHandler handler) throws SanskritException, IOException {
+    ByteBuffer bytes = readFully(log);
+
+    if (isBinary(bytes)) {
+      readBinaryRecords(bytes, handler);
+      return AppendLogFormat.BINARY;
+    }
+
+    readTextRecords(new MarkableLineParser(new ByteArrayInputStream(bytes.array(), 0, bytes.limit())), handler);
+    return AppendLogFormat.TEXT;
+  }
+
+  private static ByteBuffer readFully(FileData fileData) throws IOException {
+    long size = fileData.size();
+    if (size > Integer.MAX_VALUE) {
+      throw new IOException("File too large: " + size);
+    }
+
+    ByteBuffer bytes = ByteBuffer.allocate((int) size);
+    fileData.position(0);
+    while (bytes.hasRemaining()) {
+      if (fileData.read(bytes) == -1) {
+        break;
+      }
+    }
+    bytes.flip();
+    return bytes;
+  }
+
+  private static boolean isBinary(ByteBuffer bytes) {
+    if (bytes.remaining() < BINARY_HEADER.length) {
+      return false;
+    }
+
+    byte[] header = new byte[BINARY_HEADER.length];
+    bytes.duplicate().get(header);
+    return Arrays.equals(header, BINARY_HEADER);
+  }
+
+  private void readTextRecords(MarkableLineParser parser, RecordHandler handler) throws SanskritException {
+    AtomicReference<SanskritException> error = new AtomicReference<>();
+    try {
+      groupByEmptyLines(parser.lines()).forEach(lines -> {
+        try {
+          handler.onRecord(parseRecord(lines), parser.getPosition());
+        } catch (SanskritException e) {
+          error.set(e);
+          throw new UncheckedSanskritException(e);
+        }
+      });
+    } catch (UncheckedSanskritException e) {
+      if (error.get() != null) {
+        throw error.get();
+      } else {
+        throw e;
+      }
+    }
+  }
+
+  /**
+   * Binary records are length-prefixed and carry a CRC32 checksum of their content, which stops the read at the first
+   * torn or garbled record. Whether the records up to there are all the committed ones is then up to the hash files,
+   * just like for text records.
+   */
+  private static void readBinaryRecords(ByteBuffer bytes, RecordHandler handler) throws SanskritException {
+    bytes.position(BINARY_HEADER.length);
+    CRC32 crc = new CRC32();
+
+    while (bytes.remaining() >= BINARY_RECORD_HEADER_SIZE) {
+      int length = bytes.getInt();
+      int checksum = bytes.getInt();
+      if (length <= 0 || length > bytes.remaining()) {
+        LOGGER.debug("readBinaryRecords(): incomplete record at {}", bytes.position() - BINARY_RECORD_HEADER_SIZE);
+        return;
+      }
+
+      ByteBuffer body = bytes.slice();
+      body.limit(length);
+      crc.reset();
+      crc.update(body.duplicate());
+      if ((int) crc.getValue() != checksum) {
+        LOGGER.debug("readBinaryRecords(): checksum mismatch for record at {}", bytes.position() - BINARY_RECORD_HEADER_SIZE);
+        return;
+      }
+
+      bytes.position(bytes.position() + length);
+      handler.onRecord(parseBinaryRecord(body), bytes.position());
+    }
+  }
+
+  private static Record parseBinaryRecord(ByteBuffer body) throws SanskritException {
+    try {
+      byte flags = body.get();
+      String version = getBinaryString(body);
+      String snapshotOf = (flags & BINARY_SNAPSHOT) != 0 ? getBinaryHash(body) : null;
+      String timestamp;
+      if ((flags & BINARY_TEXT_TIMESTAMP) != 0) {
+        timestamp = getBinaryString(body);
+      } else {
+        timestamp = Instant.ofEpochSecond(body.getLong(), body.getInt()).toString();
+      }
+      String hash = getBinaryHash(body);
+      String data = StandardCharsets.UTF_8.decode(body).toString();
+      return new Record(version, snapshotOf, (flags & BINARY_BATCHED) != 0, timestamp, data, hash);
+    } catch (BufferUnderflowException | IllegalArgumentException | DateTimeException e) {
+      throw new SanskritException("Invalid binary record", e);
+    }
+  }
+
+  private static String getBinaryString(ByteBuffer body) {
+    ByteBuffer bytes = body.slice();
+    int length = body.getInt();
+    if (length < 0 || length > body.remaining()) {
+      throw new BufferUnderflowException();
+    }
+    bytes.position(Integer.BYTES).limit(Integer.BYTES + length);
+    body.position(body.position() + length);
+    return StandardCharsets.UTF_8.decode(bytes).toString();
+  }
+
+  private static String getBinaryHash(ByteBuffer body) {
+    byte[] hash = new byte[BINARY_HASH_SIZE];
+    body.get(hash);
+    return HashUtils.toHexText(hash);
+  }
+
+  private static Record parseRecord(Deque<String> lines) throws SanskritException {
+    if (lines.size() < 3) {
+      throw new SanskritException("Invalid record");
+    }
+
+    String version;
+    String first = lines.removeFirst();
+    if (first.startsWith(FORMAT_VERSION)) {
+      // V2 and so on
+      version = first.substring(FORMAT_VERSION.length());
+      first = lines.removeFirst();
+    } else {
+      // V1 change format don't have a version flag
+      version = "";
+    }
+
+    String snapshotOf = null;
+    if (first.startsWith(SNAPSHOT_OF)) {
+      if (lines.size() < 2) {
+        throw new SanskritException("Invalid snapshot record");
+      }
+      snapshotOf = first.substring(SNAPSHOT_OF.length());
+      first = lines.removeFirst();
+    }
+
+    boolean batched = false;
+    if (first.equals(BATCHED)) {
+      if (lines.size() < 2) {
+        throw new SanskritException("Invalid batched record");
+      }
+      batched = true;
+      first = lines.removeFirst();
+    }
+
+    if (lines.isEmpty()) {
+      throw new SanskritException("Invalid record");
+    }
+
+    String hash = lines.removeLast();
+    String data = String.join(LS, lines);
+    return new Record(version, snapshotOf, batched, first, data, hash);
+  }
+
   String getHashToDelete(HashChecker hashChecker) throws SanskritException {
     return hashChecker.done();
   }
@@ -215,8 +459,8 @@ public class SanskritImpl implements Sanskrit {
     return hash;
   }
 
-  String checkHash(String timestamp, String data, String hash) throws SanskritException {
-    String expectedHash = calculateHash(timestamp, data);
+  private static String checkHash(String previousHash, String timestamp, String data, String hash) throws SanskritException {
+    String expectedHash = calculateHash(previousHash, timestamp, data);
     if (!hash.equals(expectedHash)) {
       throw new SanskritException("Hash mismatch. Got: " + hash + ". Computed: " + expectedHash);
     }
@@ -224,8 +468,12 @@ public class SanskritImpl implements Sanskrit {
   }
 
   String calculateHash(String timestamp, String data) {
-    LOGGER.trace("calculateHash({}, {})", timestamp, data);
-    if (lastHash == null) {
+    return calculateHash(lastHash, timestamp, data);
+  }
+
+  private static String calculateHash(String previousHash, String timestamp, String data) {
+    LOGGER.trace("calculateHash({}, {}, {})", previousHash, timestamp, data);
+    if (previousHash == null) {
       return HashUtils.generateHash(
           timestamp,
           LS,
@@ -233,7 +481,7 @@ public class SanskritImpl implements Sanskrit {
       );
     } else {
       return HashUtils.generateHash(
-          lastHash,
+          previousHash,
           LS,
           LS,
           timestamp,
@@ -278,6 +526,22 @@ public class SanskritImpl implements Sanskrit {
     appendChange(change);
   }
 
+  /**
+   * Apply the changes in order, then append one record per change to the log with a single write and a single hash
+   * file update. All records but the last one are flagged as batched: they only get committed with the last one, so
+   * a crash before the hash of the batch is written leaves none of them.
+   */
+  @Override
+  public void applyChanges(List<SanskritChange> changes) throws SanskritException {
+    if (changes.isEmpty()) {
+      return;
+    }
+    for (SanskritChange change : changes) {
+      change.accept(data);
+    }
+    appendChanges(changes);
+  }
+
   @Override
   public MutableSanskritObject newMutableSanskritObject() {
     return new SanskritObjectImpl(mapper);
@@ -304,28 +568,224 @@ public class SanskritImpl implements Sanskrit {
   private void appendChange(String data) throws SanskritException {
     String timestamp = getTimestamp();
     appendRecord(timestamp, data);
+    onRecordsAppended(1);
+  }
+
+  private void appendChanges(List<SanskritChange> changes) throws SanskritException {
+    List<Record> records = new ArrayList<>(changes.size());
+    String hash = lastHash;
+    for (int i = 0; i < changes.size(); i++) {
+      String data = mapper.toString(changes.get(i));
+      String timestamp = getTimestamp();
+      LOGGER.trace("appendChanges(): {}", data);
+      hash = calculateHash(hash, timestamp, data);
+      records.add(new Record(mapper.getCurrentFormatVersion(), null, i < changes.size() - 1, timestamp, data, hash));
+    }
+    appendEntry(records, hash);
+    onRecordsAppended(changes.size());
   }
 
   void appendRecord(String timestamp, String data) throws SanskritException {
     LOGGER.trace("appendRecord({}, {})", timestamp, data);
     String hash = calculateHash(timestamp, data);
-    appendEntry((FORMAT_VERSION + mapper.getCurrentFormatVersion()) + LS + timestamp + LS + data + LS + hash + LS + LS, hash);
+    appendEntry(Collections.singletonList(new Record(mapper.getCurrentFormatVersion(), null, false, timestamp, data, hash)), hash);
+  }
+
+  /**
+   * @param newLog true to encode the records as the whole content of a new log, starting with the header of its format.
+   */
+  private static ByteBuffer encodeRecords(AppendLogFormat format, List<Record> records, boolean newLog) {
+    if (format == AppendLogFormat.TEXT) {
+      StringBuilder text = new StringBuilder();
+      for (Record record : records) {
+        if (!record.version.isEmpty()) {
+          text.append(FORMAT_VERSION).append(record.version).append(LS);
+        }
+        if (record.snapshotOf != null) {
+          text.append(SNAPSHOT_OF).append(record.snapshotOf).append(LS);
+        }
+        if (record.batched) {
+          text.append(BATCHED).append(LS);
+        }
+        text.append(record.timestamp).append(LS).append(record.data).append(LS).append(record.hash).append(LS).append(LS);
+      }
+      return StandardCharsets.UTF_8.encode(text.toString());
+    }
+
+    List<ByteBuffer> bodies = new ArrayList<>(records.size());
+    int size = newLog ? BINARY_HEADER.length : 0;
+    for (Record record : records) {
+      ByteBuffer body = encodeBinaryRecord(record);
+      bodies.add(body);
+      size += BINARY_RECORD_HEADER_SIZE + body.remaining();
+    }
+
+    ByteBuffer bytes = ByteBuffer.allocate(size);
+    if (newLog) {
+      bytes.put(BINARY_HEADER);
+    }
+    CRC32 crc = new CRC32();
+    for (ByteBuffer body : bodies) {
+      crc.reset();
+      crc.update(body.duplicate());
+      bytes.putInt(body.remaining());
+      bytes.putInt((int) crc.getValue());
+      bytes.put(body);
+    }
+    bytes.flip();
+    return bytes;
+  }
+
+  private static ByteBuffer encodeBinaryRecord(Record record) {
+    byte[] version = record.version.getBytes(StandardCharsets.UTF_8);
+    byte[] data = record.data.getBytes(StandardCharsets.UTF_8);
+    Instant instant = parseTimestamp(record.timestamp);
+    byte[] textTimestamp = instant == null ? record.timestamp.getBytes(StandardCharsets.UTF_8) : null;
+
+    byte flags = 0;
+    int size = 1 + Integer.BYTES + version.length + BINARY_HASH_SIZE + data.length;
+    if (record.snapshotOf != null) {
+      flags |= BINARY_SNAPSHOT;
+      size += BINARY_HASH_SIZE;
+    }
+    if (record.batched) {
+      flags |= BINARY_BATCHED;
+    }
+    if (textTimestamp != null) {
+      flags |= BINARY_TEXT_TIMESTAMP;
+      size += Integer.BYTES + textTimestamp.length;
+    } else {
+      size += Long.BYTES + Integer.BYTES;
+    }
+
+    ByteBuffer body = ByteBuffer.allocate(size);
+    body.put(flags);
+    body.putInt(version.length).put(version);
+    if (record.snapshotOf != null) {
+      body.put(HashUtils.fromHexText(record.snapshotOf));
+    }
+    if (textTimestamp != null) {
+      body.putInt(textTimestamp.length).put(textTimestamp);
+    } else {
+      body.putLong(instant.getEpochSecond()).putInt(instant.getNano());
+    }
+    body.put(HashUtils.fromHexText(record.hash));
+    body.put(data);
+    body.flip();
+    return body;
+  }
+
+  /**
+   * @return the instant of a timestamp only if it is stored without loss in binary form, as the text of the
+   * timestamp is part of the hash of the record.
+   */
+  private static Instant parseTimestamp(String timestamp) {
+    try {
+      Instant instant = Instant.parse(timestamp);
+      return instant.toString().equals(timestamp) ? instant : null;
+    } catch (DateTimeException e) {
+      return null;
+    }
+  }
+
+  private void onRecordsAppended(int count) {
+    recordsSinceSnapshot += count;
+    if (compactionThreshold > 0 && recordsSinceSnapshot >= compactionThreshold) {
+      try {
+        compact();
+      } catch (SanskritException | RuntimeException e) {
+        // the appended records are durable: a failed compaction must not fail the append, it is retried later
+        LOGGER.warn("Unable to compact the append log, will retry after {} more records", compactionThreshold, e);
+        recordsSinceSnapshot = 0;
+      }
+    }
+  }
+
+  /**
+   * Replace the append log with a single snapshot record of the current data, so that loading it does not replay
+   * the whole history of changes anymore.
+   * <p>
+   * The snapshot record chains to the last replaced record, whose hash it carries. The compacted log is fully
+   * written before the hash of its snapshot record goes to the next hash file, then it atomically replaces the
+   * append log and the previous hash file gets deleted, just like when appending a record. A crash at any point
+   * leaves either the complete previous log or the complete compacted log to be loaded. If the compaction fails before
+   * replacing the append log, the compacted log and its hash are deleted so that appending can go on.
+   */
+  public void compact() throws SanskritException {
+    if (lastHash == null) {
+      return;
+    }
+
+    String snapshotOf = lastHash;
+    String timestamp = getTimestamp();
+    SanskritChange snapshot = data::accept;
+    String snapshotData = mapper.toString(snapshot);
+    String hash = calculateHash(snapshotOf, timestamp, snapshotData);
+    String finalHash = HashUtils.generateHash(hash);
+    LOGGER.trace("compact(): snapshotOf={}, hash={}, finalHash={}", snapshotOf, hash, finalHash);
+
+    Record record = new Record(mapper.getCurrentFormatVersion(), snapshotOf, false, timestamp, snapshotData, hash);
+
+    try {
+      try (FileData compactedLog = filesystemDirectory.create(COMPACTED_APPEND_LOG_FILE, true)) {
+        compactedLog.truncate(0);
+        write(compactedLog, encodeRecords(format, Collections.singletonList(record), true));
+      }
+
+      try (FileData hashFile = createNewHashFile()) {
+        write(hashFile, finalHash);
+      }
+
+      filesystemDirectory.move(COMPACTED_APPEND_LOG_FILE, APPEND_LOG_FILE);
+    } catch (IOException | SanskritException e) {
+      SanskritException failure = e instanceof SanskritException ? (SanskritException) e : new SanskritException(e);
+      discardCompaction(failure);
+      throw failure;
+    }
+
+    appendLogFormat = format;
+    lastHash = hash;
+    recordsSinceSnapshot = 0;
+
+    try {
+      nextHashFile = flipHashFile();
+      filesystemDirectory.delete(nextHashFile);
+    } catch (IOException e) {
+      throw new SanskritException(e);
+    }
+  }
+
+  /**
+   * Delete the hash of the snapshot record first: without it, the compacted log is discarded when loading.
+   */
+  private void discardCompaction(SanskritException failure) {
+    try {
+      filesystemDirectory.delete(nextHashFile);
+      filesystemDirectory.delete(COMPACTED_APPEND_LOG_FILE);
+    } catch (IOException e) {
+      failure.addSuppressed(e);
+    }
   }
 
   private String getTimestamp() {
     return Instant.now().toString();
   }
 
-  private void appendEntry(String logEntry, String entryHash) throws SanskritException {
-    LOGGER.trace("appendEntry({}, {})", logEntry, entryHash);
+  private void appendEntry(List<Record> records, String entryHash) throws SanskritException {
+    LOGGER.trace("appendEntry({}, {})", records.size(), entryHash);
     String finalHash = HashUtils.generateHash(entryHash);
     LOGGER.trace("appendEntry({}): finalHash: {}", entryHash, finalHash);
 
+    if (appendLogFormat != null && appendLogFormat != format) {
+      migrate();
+    }
+
     try (
         FileData appendLog = getAppendLogForAppend();
         FileData hashFile = createNewHashFile()
     ) {
-      write(appendLog, logEntry);
+      write(appendLog, encodeRecords(format, records, appendLogFormat == null));
+      appendLogFormat = format;
       write(hashFile, finalHash);
 
       nextHashFile = flipHashFile();
@@ -337,6 +797,31 @@ public class SanskritImpl implements Sanskrit {
     }
   }
 
+  /**
+   * Rewrite the append log in the current format. The records and their hashes stay the same whatever their format,
+   * so the rewritten log atomically replaces the current one without touching the hash files.
+   */
+  private void migrate() throws SanskritException {
+    LOGGER.trace("migrate(): {} to {}", appendLogFormat, format);
+
+    try {
+      List<Record> records = new ArrayList<>();
+      try (FileData appendLog = filesystemDirectory.getFileData(APPEND_LOG_FILE)) {
+        readRecords(appendLog, (record, end) -> records.add(record));
+      }
+
+      try (FileData migratedLog = filesystemDirectory.create(MIGRATED_APPEND_LOG_FILE, true)) {
+        migratedLog.truncate(0);
+        write(migratedLog, encodeRecords(format, records, true));
+      }
+
+      filesystemDirectory.move(MIGRATED_APPEND_LOG_FILE, APPEND_LOG_FILE);
+      appendLogFormat = format;
+    } catch (IOException e) {
+      throw new SanskritException(e);
+    }
+  }
+
   private String flipHashFile() {
     if (Objects.equals(nextHashFile, HASH_0_FILE)) {
       return HASH_1_FILE;
@@ -364,9 +849,11 @@ public class SanskritImpl implements Sanskrit {
   }
 
   private void write(FileData fileData, String text) throws SanskritException {
-    try {
-      ByteBuffer bytes = StandardCharsets.UTF_8.encode(text);
+    write(fileData, StandardCharsets.UTF_8.encode(text));
+  }
 
+  private void write(FileData fileData, ByteBuffer bytes) throws SanskritException {
+    try {
       while (bytes.hasRemaining()) {
         fileData.write(bytes);
       }
@@ -376,4 +863,29 @@ public class SanskritImpl implements Sanskrit {
       throw new SanskritException(e);
     }
   }
+
+  private interface RecordHandler {
+    /**
+     * @param end the position in the log right after the record
+     */
+    void onRecord(Record record, long end) throws SanskritException;
+  }
+
+  private static class Record {
+    private final String version;
+    private final String snapshotOf;
+    private final boolean batched;
+    private final String timestamp;
+    private final String data;
+    private final String hash;
+
+    private Record(String version, String snapshotOf, boolean batched, String timestamp, String data, String hash) {
+      this.version = version;
+      this.snapshotOf = snapshotOf;
+      this.batched = batched;
+      this.timestamp = timestamp;
+      this.data = data;
+      this.hash = hash;
+    }
+  }
 }
@@ -126,4 +126,36 @@ public class HashCheckerTest {
     assertTrue(checker.check("e"));
     checker.check("e");
   }
+
+  @Test
+  public void batchedHashesFoundAfterOneHashFound() throws Exception {
+    HashChecker checker = new HashChecker("e", null);
+    assertTrue(checker.check("a"));
+    assertTrue(checker.check("e"));
+    assertFalse(checker.check("f", true));
+    assertFalse(checker.check("g", true));
+    assertFalse(checker.check("h"));
+    assertNull(checker.done());
+    assertEquals("hash1", checker.nextHashFile());
+  }
+
+  @Test(expected = SanskritException.class)
+  public void batchedHashFoundAfterUncommittedHash() throws Exception {
+    HashChecker checker = new HashChecker("e", null);
+    assertTrue(checker.check("e"));
+    assertFalse(checker.check("f"));
+    checker.check("g", true);
+  }
+
+  @Test
+  public void batchedHashesBetweenHashes() throws Exception {
+    HashChecker checker = new HashChecker("d", "g");
+    assertTrue(checker.check("a"));
+    assertTrue(checker.check("d"));
+    assertTrue(checker.check("e", true));
+    assertTrue(checker.check("f", true));
+    assertTrue(checker.check("g"));
+    assertEquals("hash0", checker.done());
+    assertEquals("hash0", checker.nextHashFile());
+  }
 }
@@ -18,7 +18,7 @@ package org.terracotta.persistence.sanskrit;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
-import java.nio.charset.Charset;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -29,9 +29,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import static org.junit.Assert.assertTrue;
 
 public class MemoryFilesystemDirectory implements FilesystemDirectory {
-  private static final Charset UTF_8 = Charset.forName("UTF-8");
-
-  private final ConcurrentMap<String, String> files = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, byte[]> files = new ConcurrentHashMap<>();
   private final Set<String> locks = new HashSet<>();
   private final Semaphore directoryLock = new Semaphore(1);
   private boolean fail;
@@ -64,7 +62,7 @@ public class MemoryFilesystemDirectory implements FilesystemDirectory {
         throw new IOException("File open: " + filename);
       }
     } else {
-      files.put(filename, "");
+      files.put(filename, new byte[0]);
     }
 
     locks.add(filename);
@@ -100,6 +98,21 @@ public class MemoryFilesystemDirectory implements FilesystemDirectory {
     delete(filename);
   }
 
+  @Override
+  public void move(String source, String target) throws IOException {
+    checkFail();
+
+    if (locks.contains(source) || locks.contains(target)) {
+      throw new IOException("File open: " + source + " or " + target);
+    }
+
+    byte[] content = files.remove(source);
+    if (content == null) {
+      throw new IOException("No such file: " + source);
+    }
+    files.put(target, content);
+  }
+
   private void checkFail() throws IOException {
     if (fail) {
       throw new IOException("fail");
@@ -131,16 +144,9 @@ public class MemoryFilesystemDirectory implements FilesystemDirectory {
       int writeExtent = writePosition + writeLength;
 
       files.compute(filename, (k, v) -> {
-        byte[] bytes = v.getBytes(UTF_8);
-        int newLength = Math.max(bytes.length, writeExtent);
-
-        ByteBuffer newValue = ByteBuffer.allocate(newLength);
-        newValue.put(bytes);
-        newValue.position(writePosition);
-        newValue.put(src);
-        newValue.flip();
-
-        return UTF_8.decode(newValue).toString();
+        byte[] bytes = Arrays.copyOf(v, Math.max(v.length, writeExtent));
+        src.get(bytes, writePosition, writeLength);
+        return bytes;
       });
 
       position.set(writeExtent);
@@ -152,8 +158,7 @@ public class MemoryFilesystemDirectory implements FilesystemDirectory {
     public int read(ByteBuffer dst) throws IOException {
       checkFail();
 
-      String data = files.get(filename);
-      byte[] bytes = data.getBytes(UTF_8);
+      byte[] bytes = files.get(filename);
 
       int readPosition = position.get();
       if (readPosition >= bytes.length) {
@@ -185,7 +190,7 @@ public class MemoryFilesystemDirectory implements FilesystemDirectory {
     @Override
     public long size() throws IOException {
       checkFail();
-      return files.get(filename).length();
+      return files.get(filename).length;
     }
 
     @Override
@@ -195,8 +200,8 @@ public class MemoryFilesystemDirectory implements FilesystemDirectory {
       int intSize = (int) size;
 
       files.compute(filename, (k, v) -> {
-        if (v.length() > size) {
-          return v.substring(0, intSize);
+        if (v.length > size) {
+          return Arrays.copyOf(v, intSize);
         } else {
           return v;
         }
@@ -18,18 +18,28 @@ package org.terracotta.persistence.sanskrit;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.terracotta.persistence.sanskrit.change.AddLongSanskritChange;
+import org.terracotta.persistence.sanskrit.change.AddStringSanskritChange;
 import org.terracotta.persistence.sanskrit.change.SanskritChange;
 import org.terracotta.persistence.sanskrit.change.SanskritChangeBuilder;
+import org.terracotta.persistence.sanskrit.change.UnsetKeySanskritChange;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.terracotta.persistence.sanskrit.AppendLogFormat.TEXT;
 import static org.terracotta.persistence.sanskrit.MarkableLineParser.LS;
 
 public class SanskritTest {
@@ -463,6 +473,408 @@ public class SanskritTest {
     }
   }
 
+  @Test
+  public void applyChanges() throws Exception {
+    try (Sanskrit sanskrit = new SanskritImpl(filesystemDirectory, mapper, 0, TEXT)) {
+      sanskrit.setString("key1", "value0");
+      sanskrit.applyChanges(Arrays.asList(
+          new AddStringSanskritChange("key1", "value1"),
+          new AddLongSanskritChange("key2", 2L),
+          new UnsetKeySanskritChange("key3")
+      ));
+
+      assertEquals("value1", sanskrit.getString("key1"));
+      assertEquals(2L, (long) sanskrit.getLong("key2"));
+    }
+
+    String appendLog = getFileText("append.log");
+    assertEquals(4, countRecords(appendLog));
+    assertEquals(2, appendLog.split(LS + "batched" + LS, -1).length - 1);
+    assertNullFiles("hash0");
+    loadAndAssertState(makeMap("key1", "value1", "key2", 2L), "key3");
+  }
+
+  @Test
+  public void crashDuringBatchWrite() throws Exception {
+    try (Sanskrit sanskrit = new SanskritImpl(filesystemDirectory, mapper, 0, TEXT)) {
+      sanskrit.setString("key1", "value0");
+    }
+    String appendLog = getFileText("append.log");
+    String hash = getFileText("hash0");
+
+    try (Sanskrit sanskrit = new SanskritImpl(filesystemDirectory, mapper, 0, TEXT)) {
+      sanskrit.applyChanges(Arrays.asList(
+          new AddStringSanskritChange("key1", "value1"),
+          new AddStringSanskritChange("key2", "value2"),
+          new AddStringSanskritChange("key3", "value3")
+      ));
+    }
+    String batchLog = getFileText("append.log");
+
+    // the batch records written up to a record boundary, up to all of them, but the hash of the batch never written
+    int end = appendLog.length();
+    while (end <= batchLog.length()) {
+      filesystemDirectory = new MemoryFilesystemDirectory();
+      createFileWithContent("append.log", batchLog.substring(0, end));
+      createFileWithContent("hash0", hash);
+
+      loadAndAssertState(makeMap("key1", "value0"), "key2", "key3");
+      assertAppendLog(appendLog);
+
+      end = batchLog.indexOf(LS + LS, end) + 2 * LS.length();
+      if (end < 2 * LS.length()) {
+        break;
+      }
+    }
+  }
+
+  @Test
+  public void crashBeforePreviousHashDeletedAfterBatch() throws Exception {
+    AtomicBoolean crash = new AtomicBoolean();
+    filesystemDirectory = new MemoryFilesystemDirectory() {
+      @Override
+      public void delete(String filename) throws IOException {
+        if (crash.get() && filename.startsWith("hash")) {
+          throw new IOException("crash");
+        }
+        super.delete(filename);
+      }
+    };
+
+    try (Sanskrit sanskrit = Sanskrit.init(filesystemDirectory, mapper)) {
+      sanskrit.setString("key1", "value0");
+    }
+
+    try (Sanskrit sanskrit = Sanskrit.init(filesystemDirectory, mapper)) {
+      crash.set(true);
+      sanskrit.applyChanges(Arrays.asList(
+          new AddStringSanskritChange("key1", "value1"),
+          new AddStringSanskritChange("key2", "value2"),
+          new AddStringSanskritChange("key3", "value3")
+      ));
+      fail("Expected SanskritException");
+    } catch (SanskritException e) {
+      // expected
+    }
+    crash.set(false);
+    String appendLog = getFileText("append.log");
+    assertNotNull(getFileText("hash0"));
+    String hash = getFileText("hash1");
+
+    loadAndAssertState(makeMap("key1", "value1", "key2", "value2", "key3", "value3"));
+    assertAppendLog(appendLog);
+    assertFile("hash1", hash);
+    assertNullFiles("hash0");
+  }
+
+  @Test
+  public void compactionReplacesHistoryWithSnapshot() throws Exception {
+    try (SanskritImpl sanskrit = new SanskritImpl(filesystemDirectory, mapper, 3, TEXT)) {
+      sanskrit.setString("key1", "value1");
+      sanskrit.setString("key2", "value2");
+      sanskrit.removeKey("key2");
+      sanskrit.setLong("key3", 3L);
+    }
+
+    String appendLog = getFileText("append.log");
+    assertEquals(2, countRecords(appendLog));
+    assertTrue(appendLog.contains("snapshot of: "));
+    assertNullFiles("append.log.compacted");
+
+    loadAndAssertState(makeMap("key1", "value1", "key3", 3L), "key2");
+  }
+
+  @Test
+  public void repeatedCompactions() throws Exception {
+    try (SanskritImpl sanskrit = new SanskritImpl(filesystemDirectory, mapper, 2, TEXT)) {
+      for (long i = 0; i < 7; i++) {
+        sanskrit.setLong("key" + (i % 3), i);
+      }
+    }
+
+    assertEquals(2, countRecords(getFileText("append.log")));
+    loadAndAssertState(makeMap("key0", 6L, "key1", 4L, "key2", 5L));
+
+    try (SanskritImpl sanskrit = new SanskritImpl(filesystemDirectory, mapper, 2, TEXT)) {
+      sanskrit.setLong("key0", 7L);
+      sanskrit.setLong("key1", 8L);
+    }
+
+    assertEquals(2, countRecords(getFileText("append.log")));
+    loadAndAssertState(makeMap("key0", 7L, "key1", 8L, "key2", 5L));
+  }
+
+  @Test
+  public void compactionRolledForwardWhenSnapshotHashWritten() throws Exception {
+    AtomicBoolean crash = new AtomicBoolean();
+    filesystemDirectory = new MemoryFilesystemDirectory() {
+      @Override
+      public void move(String source, String target) throws IOException {
+        if (crash.get()) {
+          throw new IOException("crash");
+        }
+        super.move(source, target);
+      }
+
+      @Override
+      public void delete(String filename) throws IOException {
+        // the crash also prevents the compaction from being discarded
+        if (crash.get()) {
+          throw new IOException("crash");
+        }
+        super.delete(filename);
+      }
+    };
+
+    try (SanskritImpl sanskrit = new SanskritImpl(filesystemDirectory, mapper, 0, TEXT)) {
+      sanskrit.setString("key1", "value1");
+      sanskrit.setString("key2", "value2");
+      crash.set(true);
+      try {
+        sanskrit.compact();
+        fail("Expected SanskritException");
+      } catch (SanskritException e) {
+        // expected
+      }
+    }
+
+    String compacted = getFileText("append.log.compacted");
+    assertNotNull(getFileText("hash0"));
+    assertNotNull(getFileText("hash1"));
+
+    crash.set(false);
+    try (SanskritImpl sanskrit = new SanskritImpl(filesystemDirectory, mapper, 0, TEXT)) {
+      assertEquals("value1", sanskrit.getString("key1"));
+      assertEquals("value2", sanskrit.getString("key2"));
+    }
+
+    assertAppendLog(compacted);
+    assertNullFiles("append.log.compacted", "hash1");
+    loadAndAssertState(makeMap("key1", "value1", "key2", "value2"));
+  }
+
+  @Test
+  public void failedCompactionDoesNotFailAppend() throws Exception {
+    AtomicBoolean failMove = new AtomicBoolean(true);
+    filesystemDirectory = new MemoryFilesystemDirectory() {
+      @Override
+      public void move(String source, String target) throws IOException {
+        if (failMove.getAndSet(false)) {
+          throw new IOException("move failed");
+        }
+        super.move(source, target);
+      }
+    };
+
+    try (SanskritImpl sanskrit = new SanskritImpl(filesystemDirectory, mapper, 2, TEXT)) {
+      sanskrit.setString("key1", "value1");
+      sanskrit.setString("key2", "value2");
+      assertNullFiles("append.log.compacted");
+      assertEquals(2, countRecords(getFileText("append.log")));
+
+      sanskrit.setString("key3", "value3");
+      sanskrit.setString("key4", "value4");
+    }
+
+    assertEquals(1, countRecords(getFileText("append.log")));
+    loadAndAssertState(makeMap("key1", "value1", "key2", "value2", "key3", "value3", "key4", "value4"));
+  }
+
+  @Test
+  public void incompleteCompactionDiscarded() throws Exception {
+    try (SanskritImpl sanskrit = new SanskritImpl(filesystemDirectory, mapper, 0, TEXT)) {
+      sanskrit.setString("key1", "value1");
+      sanskrit.setString("key2", "value2");
+    }
+    String appendLog = getFileText("append.log");
+    createFileWithContent("append.log.compacted", "format version: 2" + LS + "snapshot of: ");
+
+    loadAndAssertState(makeMap("key1", "value1", "key2", "value2"));
+
+    assertAppendLog(appendLog);
+    assertNullFiles("append.log.compacted");
+  }
+
+  @Test
+  public void compactionRecoveredWhenPreviousHashNotDeleted() throws Exception {
+    String previousHash;
+    try (SanskritImpl sanskrit = new SanskritImpl(filesystemDirectory, mapper, 0, TEXT)) {
+      sanskrit.setString("key1", "value1");
+      sanskrit.setString("key2", "value2");
+      previousHash = getFileText("hash1");
+      sanskrit.compact();
+    }
+    assertNullFiles("hash1");
+    String hash = getFileText("hash0");
+    createFileWithContent("hash1", previousHash);
+
+    try (SanskritImpl sanskrit = new SanskritImpl(filesystemDirectory, mapper, 0, TEXT)) {
+      assertEquals("value2", sanskrit.getString("key2"));
+      sanskrit.setString("key3", "value3");
+    }
+
+    assertEquals(2, countRecords(getFileText("append.log")));
+    assertNotEquals(hash, getFileText("hash1"));
+    assertNullFiles("hash0");
+    loadAndAssertState(makeMap("key1", "value1", "key2", "value2", "key3", "value3"));
+  }
+
+  @Test
+  public void snapshotWithoutMatchingHashFails() throws Exception {
+    try (SanskritImpl sanskrit = new SanskritImpl(filesystemDirectory, mapper, 1, TEXT)) {
+      sanskrit.setString("key1", "value1");
+    }
+    filesystemDirectory.delete("hash0");
+    filesystemDirectory.delete("hash1");
+    createFileWithContent("hash0", NO_MATCH_HASH);
+
+    loadAndFail();
+  }
+
+  @Test
+  public void binaryRecordsByDefault() throws Exception {
+    try (Sanskrit sanskrit = Sanskrit.init(filesystemDirectory, mapper)) {
+      sanskrit.setString("key1", "value1");
+      sanskrit.applyChanges(Arrays.asList(
+          new AddLongSanskritChange("key2", 2L),
+          new AddStringSanskritChange("key3", "value3")
+      ));
+      sanskrit.removeKey("key3");
+    }
+
+    byte[] appendLog = getFileBytes("append.log");
+    assertArrayEquals(new byte[]{0, 'S', 'K', 'R', 0, 0, 0, 1}, Arrays.copyOf(appendLog, 8));
+    loadAndAssertState(makeMap("key1", "value1", "key2", 2L), "key3");
+    assertArrayEquals(appendLog, getFileBytes("append.log"));
+  }
+
+  @Test
+  public void binaryLogSmallerThanTextLog() throws Exception {
+    try (Sanskrit sanskrit = new SanskritImpl(filesystemDirectory, mapper, 0, TEXT)) {
+      sanskrit.setString("key1", "value1");
+      sanskrit.setLong("key2", 2L);
+    }
+    int textSize = getFileBytes("append.log").length;
+
+    filesystemDirectory = new MemoryFilesystemDirectory();
+    try (Sanskrit sanskrit = Sanskrit.init(filesystemDirectory, mapper)) {
+      sanskrit.setString("key1", "value1");
+      sanskrit.setLong("key2", 2L);
+    }
+    int binarySize = getFileBytes("append.log").length;
+
+    assertTrue(textSize + " / " + binarySize, binarySize < textSize * 2 / 3);
+  }
+
+  @Test
+  public void textLogMigratedOnNextWrite() throws Exception {
+    try (Sanskrit sanskrit = new SanskritImpl(filesystemDirectory, mapper, 0, TEXT)) {
+      sanskrit.setString("key1", "value1");
+      sanskrit.setString("key2", "value2");
+    }
+    String textLog = getFileText("append.log");
+    String hash = getFileText("hash1");
+
+    // reading leaves the text log untouched
+    loadAndAssertState(makeMap("key1", "value1", "key2", "value2"));
+    assertAppendLog(textLog);
+    assertFile("hash1", hash);
+
+    try (Sanskrit sanskrit = Sanskrit.init(filesystemDirectory, mapper)) {
+      sanskrit.setString("key3", "value3");
+    }
+
+    assertEquals(0, getFileBytes("append.log")[0]);
+    assertNullFiles("append.log.migrated", "hash1");
+    loadAndAssertState(makeMap("key1", "value1", "key2", "value2", "key3", "value3"));
+
+    // and back, for a downgrade
+    try (Sanskrit sanskrit = new SanskritImpl(filesystemDirectory, mapper, 0, TEXT)) {
+      sanskrit.setString("key4", "value4");
+    }
+
+    String appendLog = getFileText("append.log");
+    assertTrue(appendLog.startsWith(textLog));
+    assertEquals(4, countRecords(appendLog));
+    loadAndAssertState(makeMap("key1", "value1", "key2", "value2", "key3", "value3", "key4", "value4"));
+  }
+
+  @Test
+  public void crashDuringMigration() throws Exception {
+    AtomicBoolean crash = new AtomicBoolean();
+    filesystemDirectory = new MemoryFilesystemDirectory() {
+      @Override
+      public void move(String source, String target) throws IOException {
+        if (crash.get()) {
+          throw new IOException("crash");
+        }
+        super.move(source, target);
+      }
+    };
+
+    try (Sanskrit sanskrit = new SanskritImpl(filesystemDirectory, mapper, 0, TEXT)) {
+      sanskrit.setString("key1", "value1");
+    }
+    String textLog = getFileText("append.log");
+    String hash = getFileText("hash0");
+
+    crash.set(true);
+    try (Sanskrit sanskrit = Sanskrit.init(filesystemDirectory, mapper)) {
+      sanskrit.setString("key2", "value2");
+      fail("Expected SanskritException");
+    } catch (SanskritException e) {
+      // expected
+    }
+    crash.set(false);
+    assertNotNull(getFileBytes("append.log.migrated"));
+
+    loadAndAssertState(makeMap("key1", "value1"), "key2");
+    assertAppendLog(textLog);
+    assertFile("hash0", hash);
+    assertNullFiles("append.log.migrated", "hash1");
+  }
+
+  @Test
+  public void tornBinaryRecord() throws Exception {
+    try (Sanskrit sanskrit = Sanskrit.init(filesystemDirectory, mapper)) {
+      sanskrit.setString("key1", "value1");
+    }
+    byte[] appendLog = getFileBytes("append.log");
+    String hash = getFileText("hash0");
+
+    try (Sanskrit sanskrit = Sanskrit.init(filesystemDirectory, mapper)) {
+      sanskrit.setString("key2", "value2");
+    }
+    byte[] nextAppendLog = getFileBytes("append.log");
+
+    // every partial write of the second record, with its hash never written
+    for (int length = appendLog.length; length <= nextAppendLog.length; length++) {
+      filesystemDirectory = new MemoryFilesystemDirectory();
+      createFileWithContent("append.log", Arrays.copyOf(nextAppendLog, length));
+      createFileWithContent("hash0", hash);
+
+      loadAndAssertState(makeMap("key1", "value1"), "key2");
+      assertArrayEquals(appendLog, getFileBytes("append.log"));
+    }
+  }
+
+  @Test
+  public void corruptBinaryRecord() throws Exception {
+    try (Sanskrit sanskrit = Sanskrit.init(filesystemDirectory, mapper)) {
+      sanskrit.setString("key1", "value1");
+    }
+    byte[] appendLog = getFileBytes("append.log");
+    appendLog[appendLog.length - 3]++;
+    filesystemDirectory.delete("append.log");
+    createFileWithContent("append.log", appendLog);
+
+    loadAndFail();
+  }
+
+  private static int countRecords(String appendLog) {
+    return appendLog.split(LS + LS, -1).length - 1;
+  }
+
   private static String lines(String... lines) {
     StringBuilder sb = new StringBuilder();
     for (String line : lines) {
@@ -547,6 +959,11 @@ public class SanskritTest {
   }
 
   private String getFileText(String filename) throws IOException {
+    byte[] bytes = getFileBytes(filename);
+    return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private byte[] getFileBytes(String filename) throws IOException {
     try (FileData fileData = filesystemDirectory.getFileData(filename)) {
       if (fileData == null) {
         return null;
@@ -554,8 +971,7 @@ public class SanskritTest {
 
       ByteBuffer bytes = ByteBuffer.allocate((int) fileData.size());
       fileData.read(bytes);
-      bytes.flip();
-      return StandardCharsets.UTF_8.decode(bytes).toString();
+      return bytes.array();
     }
   }
 
@@ -566,8 +982,12 @@ public class SanskritTest {
   }
 
   private void createFileWithContent(String filename, String text) throws Exception {
+    createFileWithContent(filename, text.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private void createFileWithContent(String filename, byte[] content) throws Exception {
     try (FileData fileData = filesystemDirectory.create(filename, false)) {
-      ByteBuffer bytes = StandardCharsets.UTF_8.encode(text);
+      ByteBuffer bytes = ByteBuffer.wrap(content);
 
       while (bytes.hasRemaining()) {
         fileData.write(bytes);
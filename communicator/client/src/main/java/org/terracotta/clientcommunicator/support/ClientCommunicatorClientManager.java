@@ -19,6 +19,10 @@ package org.terracotta.clientcommunicator.support;
 import org.terracotta.entity.EntityMessage;
 import org.terracotta.entity.EntityResponse;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 /**
  *  See ClientCommunicatorServerManager
  *
@@ -33,6 +37,28 @@ public interface ClientCommunicatorClientManager<M extends EntityMessage, R exte
      */
     void handleInvokeResponse(R response);
 
+    /**
+     *
+     * Handles the response that was received from ClientCommunicatorServerManager#sendWithAck(Set, byte[], ClientDescriptor),
+     * waiting at most the given time for all the clients to ack the message
+     *
+     * @param response the received response
+     * @param timeout the maximum time to wait
+     * @param unit the unit of the timeout
+     * @throws TimeoutException if the clients did not all ack the message in time
+     */
+    void handleInvokeResponse(R response, long timeout, TimeUnit unit) throws TimeoutException;
+
+    /**
+     *
+     * Handles the response that was received from ClientCommunicatorServerManager#sendWithAck(Set, byte[], ClientDescriptor)
+     * without waiting, so that many such requests can be pipelined
+     *
+     * @param response the received response
+     * @return a future completed once all the clients have acked the message
+     */
+    CompletableFuture<Void> handleInvokeResponseAsync(R response);
+
     /**
      * Handles messages received from server using ClientCommunicatorServerManager#sendWithAck(Set, byte[], ClientDescriptor)
      *
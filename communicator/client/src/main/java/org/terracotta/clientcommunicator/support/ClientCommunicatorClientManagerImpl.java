@@ -16,16 +16,19 @@
  */
 package org.terracotta.clientcommunicator.support;
 
-import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import org.terracotta.entity.EntityClientEndpoint;
 import org.terracotta.entity.EntityMessage;
 import org.terracotta.entity.EntityResponse;
 import org.terracotta.entity.MessageCodecException;
 
 import java.nio.ByteBuffer;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * @author vmad
@@ -34,16 +37,52 @@ public class ClientCommunicatorClientManagerImpl<M extends EntityMessage, R exte
 
     private final EntityClientEndpoint<M, R> entityClientEndpoint;
     private final ClientCommunicatorMessageFactory<M, R> clientCommunicatorMessageFactory;
-    private final ConcurrentMap<Integer, AtomicBoolean> monitors = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, CompletableFuture<Void>> completions = new ConcurrentHashMap<>();
+    private final Set<Integer> abandonedRequests = ConcurrentHashMap.newKeySet();
 
     public ClientCommunicatorClientManagerImpl(EntityClientEndpoint<M, R> entityClientEndpoint, ClientCommunicatorMessageFactory<M, R> clientCommunicatorMessageFactory) {
         this.entityClientEndpoint = entityClientEndpoint;
         this.clientCommunicatorMessageFactory = clientCommunicatorMessageFactory;
     }
 
-    @SuppressFBWarnings({"JLM_JSR166_UTILCONCURRENT_MONITORENTER", "UW_UNCOND_WAIT"})
     @Override
     public void handleInvokeResponse(R response) {
+        CompletableFuture<Void> completion = handleInvokeResponseAsync(response);
+        try {
+            completion.get();
+        } catch (InterruptedException e) {
+            completion.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void handleInvokeResponse(R response, long timeout, TimeUnit unit) throws TimeoutException {
+        CompletableFuture<Void> completion = handleInvokeResponseAsync(response);
+        try {
+            completion.get(timeout, unit);
+        } catch (TimeoutException e) {
+            completion.cancel(false);
+            throw e;
+        } catch (InterruptedException e) {
+            completion.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Cancelling the returned future gives up waiting: the request is then forgotten.
+     */
+    @Override
+    public CompletableFuture<Void> handleInvokeResponseAsync(R response) {
         try {
             ClientCommunicatorRequest clientCommunicatorRequest = ClientCommunicatorRequestCodec.deserialize(clientCommunicatorMessageFactory.extractBytesFromResponse(response));
 
@@ -51,22 +90,37 @@ public class ClientCommunicatorClientManagerImpl<M extends EntityMessage, R exte
             if(clientCommunicatorRequest.getRequestType() != ClientCommunicatorRequestType.CLIENT_WAIT) {
                 throw new RuntimeException("Received Wrong ClientCommunicatorRequestType in invokeResponse: expected - " + ClientCommunicatorRequestType.CLIENT_WAIT + ", got - " + clientCommunicatorRequest.getRequestType());
             }
-            AtomicBoolean last = monitors.putIfAbsent(requestSequenceNumber, new AtomicBoolean());
-            if(last == null) {
-                AtomicBoolean monitor = monitors.get(requestSequenceNumber);
-                while (!monitor.get()) {
-                    synchronized (monitor) {
-                        monitor.wait();
-                    }
+            CompletableFuture<Void> completion = completion(requestSequenceNumber);
+            completion.whenComplete((v, t) -> {
+                if (completion.isCancelled() && completions.remove(requestSequenceNumber, completion)) {
+                    // the REQUEST_COMPLETE message might still come: it must not be kept waiting for a waiter
+                    abandonedRequests.add(requestSequenceNumber);
                 }
-            }
-            monitors.remove(requestSequenceNumber);
-        } catch (InterruptedException | MessageCodecException e) {
+            });
+            return completion;
+        } catch (MessageCodecException e) {
             throw new RuntimeException(e);
         }
     }
 
-    @SuppressFBWarnings("JLM_JSR166_UTILCONCURRENT_MONITORENTER")
+    /**
+     * Returns the completion of the given request, whichever of the CLIENT_WAIT response and the REQUEST_COMPLETE
+     * message comes first creating it and the other one finding it.
+     */
+    private CompletableFuture<Void> completion(int requestSequenceNumber) {
+        CompletableFuture<Void> created = new CompletableFuture<>();
+        CompletableFuture<Void> existing = completions.putIfAbsent(requestSequenceNumber, created);
+        if (existing == null) {
+            return created;
+        }
+        completions.remove(requestSequenceNumber, existing);
+        return existing;
+    }
+
+    int getPendingRequestCount() {
+        return completions.size() + abandonedRequests.size();
+    }
+
     @Override
     public void handleClientCommunicatorMessage(R message, ClientCommunicatorMessageHandler clientCommunicatorMessageHandler) {
       try {
@@ -86,14 +140,8 @@ public class ClientCommunicatorClientManagerImpl<M extends EntityMessage, R exte
                 break;
 
             case REQUEST_COMPLETE:
-                int requestSequenceNumber = clientCommunicatorRequest.getRequestSequenceNumber();
-                AtomicBoolean last = monitors.putIfAbsent(requestSequenceNumber, new AtomicBoolean());
-                if(last != null) {
-                    AtomicBoolean monitor = monitors.get(requestSequenceNumber);
-                    synchronized (monitor) {
-                        monitor.compareAndSet(false, true);
-                        monitor.notifyAll();
-                    }
+                if (!abandonedRequests.remove(clientCommunicatorRequest.getRequestSequenceNumber())) {
+                    completion(clientCommunicatorRequest.getRequestSequenceNumber()).complete(null);
                 }
                 break;
 
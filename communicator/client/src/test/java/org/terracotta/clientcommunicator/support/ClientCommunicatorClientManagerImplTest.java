@@ -0,0 +1,129 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.clientcommunicator.support;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.terracotta.entity.EntityMessage;
+import org.terracotta.entity.EntityResponse;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class ClientCommunicatorClientManagerImplTest {
+
+    private final ClientCommunicatorClientManagerImpl<Message, Response> manager = new ClientCommunicatorClientManagerImpl<>(null, new MessageFactory());
+
+    @Test
+    public void testWaitThenComplete() throws Exception {
+        CompletableFuture<Void> completion = manager.handleInvokeResponseAsync(request(ClientCommunicatorRequestType.CLIENT_WAIT, 1));
+        Assert.assertFalse(completion.isDone());
+
+        manager.handleClientCommunicatorMessage(request(ClientCommunicatorRequestType.REQUEST_COMPLETE, 1), bytes -> Assert.fail());
+
+        Assert.assertTrue(completion.isDone());
+        Assert.assertEquals(0, manager.getPendingRequestCount());
+    }
+
+    @Test
+    public void testCompleteThenWait() throws Exception {
+        manager.handleClientCommunicatorMessage(request(ClientCommunicatorRequestType.REQUEST_COMPLETE, 1), bytes -> Assert.fail());
+        Assert.assertEquals(1, manager.getPendingRequestCount());
+
+        manager.handleInvokeResponse(request(ClientCommunicatorRequestType.CLIENT_WAIT, 1));
+
+        Assert.assertEquals(0, manager.getPendingRequestCount());
+    }
+
+    @Test
+    public void testRequestsCompleteIndependently() throws Exception {
+        CompletableFuture<Void> first = manager.handleInvokeResponseAsync(request(ClientCommunicatorRequestType.CLIENT_WAIT, 1));
+        CompletableFuture<Void> second = manager.handleInvokeResponseAsync(request(ClientCommunicatorRequestType.CLIENT_WAIT, 2));
+
+        manager.handleClientCommunicatorMessage(request(ClientCommunicatorRequestType.REQUEST_COMPLETE, 2), bytes -> Assert.fail());
+
+        Assert.assertFalse(first.isDone());
+        Assert.assertTrue(second.isDone());
+    }
+
+    @Test
+    public void testTimedOutWaitIsForgotten() throws Exception {
+        try {
+            manager.handleInvokeResponse(request(ClientCommunicatorRequestType.CLIENT_WAIT, 1), 10, TimeUnit.MILLISECONDS);
+            Assert.fail("expected TimeoutException");
+        } catch (TimeoutException e) {
+            // expected
+        }
+
+        manager.handleClientCommunicatorMessage(request(ClientCommunicatorRequestType.REQUEST_COMPLETE, 1), bytes -> Assert.fail());
+
+        Assert.assertEquals("the late completion must not be kept", 0, manager.getPendingRequestCount());
+    }
+
+    @Test
+    public void testCancelledAsyncWaitIsForgotten() throws Exception {
+        CompletableFuture<Void> completion = manager.handleInvokeResponseAsync(request(ClientCommunicatorRequestType.CLIENT_WAIT, 1));
+
+        completion.cancel(false);
+        manager.handleClientCommunicatorMessage(request(ClientCommunicatorRequestType.REQUEST_COMPLETE, 1), bytes -> Assert.fail());
+
+        Assert.assertEquals(0, manager.getPendingRequestCount());
+    }
+
+    private static Response request(ClientCommunicatorRequestType type, int requestSequenceNumber) {
+        return new Response(ClientCommunicatorRequestCodec.serialize(new ClientCommunicatorRequest(type, requestSequenceNumber, new byte[0])));
+    }
+
+    private static class Message implements EntityMessage {
+        private final byte[] bytes;
+
+        Message(byte[] bytes) {
+            this.bytes = bytes;
+        }
+    }
+
+    private static class Response implements EntityResponse {
+        private final byte[] bytes;
+
+        Response(byte[] bytes) {
+            this.bytes = bytes;
+        }
+    }
+
+    private static class MessageFactory implements ClientCommunicatorMessageFactory<Message, Response> {
+        @Override
+        public Message createEntityMessage(byte[] message) {
+            return new Message(message);
+        }
+
+        @Override
+        public byte[] extractBytesFromMessage(Message entityMessage) {
+            return entityMessage.bytes;
+        }
+
+        @Override
+        public Response createEntityResponse(byte[] message) {
+            return new Response(message);
+        }
+
+        @Override
+        public byte[] extractBytesFromResponse(Response entityResponse) {
+            return entityResponse.bytes;
+        }
+    }
+}
@@ -22,6 +22,7 @@ import org.terracotta.entity.EntityResponse;
 import org.terracotta.entity.MessageCodecException;
 
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  *
@@ -53,6 +54,20 @@ public interface ClientCommunicatorServerManager<M extends EntityMessage, R exte
      */
     R sendWithAck(Set<ClientDescriptor> toClients, byte[] message, ClientDescriptor source) throws MessageCodecException;
 
+    /**
+     * Sends a message to given set of clients without any client waiting for their acks
+     *
+     * The message is encoded once for all the clients, and any number of such requests can be in flight at the same
+     * time. Note that Entity should call {@link #handleClientAck} with client acks, and {@link #handleClientDisconnect}
+     * with client disconnects, for the returned future to complete
+     *
+     * @param toClients Set of clients to which given message will be sent
+     * @param message   the message to be sent
+     * @return a future completed once all the clients have either acked the message or disconnected
+     * @throws MessageCodecException
+     */
+    CompletableFuture<Void> sendWithAckAsync(Set<ClientDescriptor> toClients, byte[] message) throws MessageCodecException;
+
     /**
      * Sends a message to given set of clients
      *
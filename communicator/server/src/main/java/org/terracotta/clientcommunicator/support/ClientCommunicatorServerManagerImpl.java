@@ -17,6 +17,8 @@
 package org.terracotta.clientcommunicator.support;
 
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.terracotta.entity.ClientCommunicator;
 import org.terracotta.entity.ClientDescriptor;
 import org.terracotta.entity.EntityMessage;
@@ -24,8 +26,8 @@ import org.terracotta.entity.EntityResponse;
 import org.terracotta.entity.MessageCodecException;
 
 import java.nio.ByteBuffer;
-import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -35,6 +37,8 @@ import java.util.concurrent.atomic.AtomicInteger;
  */
 public class ClientCommunicatorServerManagerImpl<M extends EntityMessage, R extends EntityResponse> implements ClientCommunicatorServerManager<M, R> {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClientCommunicatorServerManagerImpl.class);
+
     private final ClientCommunicator clientCommunicator;
     private final ClientCommunicatorMessageFactory<M, R> clientCommunicatorMessageFactory;
     private final AtomicInteger requestSequence = new AtomicInteger(0);
@@ -48,21 +52,46 @@ public class ClientCommunicatorServerManagerImpl<M extends EntityMessage, R exte
     @Override
     public R sendWithAck(Set<ClientDescriptor> toClients, byte[] message, ClientDescriptor source) throws MessageCodecException {
         int requestSequenceNumber = requestSequence.getAndIncrement();
-        pendingRequests.putIfAbsent(requestSequenceNumber, new ClientRequestInfo(source, toClients));
-        for (ClientDescriptor connectedClient : toClients) {
-            clientCommunicator.sendNoResponse(connectedClient,
-                    clientCommunicatorMessageFactory.createEntityResponse(ClientCommunicatorRequestCodec.serialize(new ClientCommunicatorRequest(ClientCommunicatorRequestType.ACK, requestSequenceNumber, message))));
-        }
+        R requestComplete = clientCommunicatorMessageFactory.createEntityResponse(ClientCommunicatorRequestCodec.serialize(new ClientCommunicatorRequest(ClientCommunicatorRequestType.REQUEST_COMPLETE,
+                requestSequenceNumber, new byte[0])));
+        send(requestSequenceNumber, toClients, message).thenRun(() -> {
+            try {
+                clientCommunicator.sendNoResponse(source, requestComplete);
+            } catch (MessageCodecException e) {
+                LOGGER.warn("Unable to notify {} of the completion of request {}", source, requestSequenceNumber, e);
+            }
+        });
 
         return clientCommunicatorMessageFactory.createEntityResponse(ClientCommunicatorRequestCodec.serialize(new ClientCommunicatorRequest(ClientCommunicatorRequestType.CLIENT_WAIT, requestSequenceNumber, new byte[0])));
+    }
 
+    @Override
+    public CompletableFuture<Void> sendWithAckAsync(Set<ClientDescriptor> toClients, byte[] message) throws MessageCodecException {
+        return send(requestSequence.getAndIncrement(), toClients, message);
+    }
+
+    private CompletableFuture<Void> send(int requestSequenceNumber, Set<ClientDescriptor> toClients, byte[] message) throws MessageCodecException {
+        ClientRequestInfo clientRequestInfo = new ClientRequestInfo(toClients);
+        if (toClients.isEmpty()) {
+            clientRequestInfo.completion.complete(null);
+            return clientRequestInfo.completion;
+        }
+        pendingRequests.put(requestSequenceNumber, clientRequestInfo);
+        clientRequestInfo.completion.whenComplete((v, t) -> pendingRequests.remove(requestSequenceNumber));
+
+        // the same request is sent to all the clients: encode it only once
+        R request = clientCommunicatorMessageFactory.createEntityResponse(ClientCommunicatorRequestCodec.serialize(new ClientCommunicatorRequest(ClientCommunicatorRequestType.ACK, requestSequenceNumber, message)));
+        for (ClientDescriptor connectedClient : toClients) {
+            clientCommunicator.sendNoResponse(connectedClient, request);
+        }
+        return clientRequestInfo.completion;
     }
 
     @Override
     public void sendWithNoAck(Set<ClientDescriptor> toClients, byte[] message) throws MessageCodecException {
+        R request = clientCommunicatorMessageFactory.createEntityResponse(ClientCommunicatorRequestCodec.serialize(new ClientCommunicatorRequest(ClientCommunicatorRequestType.NO_ACK, -1, message)));
         for (ClientDescriptor connectedClient : toClients) {
-            clientCommunicator.sendNoResponse(connectedClient,
-                    clientCommunicatorMessageFactory.createEntityResponse(ClientCommunicatorRequestCodec.serialize(new ClientCommunicatorRequest(ClientCommunicatorRequestType.NO_ACK, -1, message))));
+            clientCommunicator.sendNoResponse(connectedClient, request);
         }
     }
 
@@ -72,49 +101,35 @@ public class ClientCommunicatorServerManagerImpl<M extends EntityMessage, R exte
         int requestSequenceNumber = buffer.getInt();
         ClientRequestInfo clientRequestInfo = pendingRequests.get(requestSequenceNumber);
         if(clientRequestInfo != null) {
-            clientRequestInfo.addAckForClient(client);
-            if (clientRequestInfo.isAckCompleted()) {
-                clientCommunicator.sendNoResponse(clientRequestInfo.getClientDescriptor(),
-                        clientCommunicatorMessageFactory.createEntityResponse(ClientCommunicatorRequestCodec.serialize(new ClientCommunicatorRequest(ClientCommunicatorRequestType.REQUEST_COMPLETE,
-                                requestSequenceNumber, new byte[0]))));
-
-                pendingRequests.remove(requestSequenceNumber);
-            }
+            clientRequestInfo.removeClient(client);
         }
     }
 
     @Override
     public void handleClientDisconnect(ClientDescriptor client) {
         for(ClientRequestInfo requestInfo : pendingRequests.values()) {
-            requestInfo.removeDisconnectedClient(client);
+            requestInfo.removeClient(client);
         }
     }
 
-
+    /**
+     * Counts down the clients a request still waits for, each client being counted once whether it acks or
+     * disconnects.
+     */
     private static class ClientRequestInfo {
-        private final ClientDescriptor clientDescriptor;
-        private final Set<ClientDescriptor> connectedClients;
-        private final Set<ClientDescriptor> ackedClients = new HashSet<>();
-
-        private ClientRequestInfo(ClientDescriptor clientDescriptor, Set<ClientDescriptor> connectedClients) {
-            this.clientDescriptor = clientDescriptor;
-            this.connectedClients = new HashSet<>(connectedClients);
-        }
+        private final Set<ClientDescriptor> pendingClients = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger pendingCount;
+        private final CompletableFuture<Void> completion = new CompletableFuture<>();
 
-        public ClientDescriptor getClientDescriptor() {
-            return clientDescriptor;
+        private ClientRequestInfo(Set<ClientDescriptor> connectedClients) {
+            this.pendingClients.addAll(connectedClients);
+            this.pendingCount = new AtomicInteger(pendingClients.size());
         }
 
-        public void addAckForClient(ClientDescriptor client) {
-            ackedClients.add(client);
-        }
-
-        public boolean isAckCompleted() {
-            return ackedClients.equals(connectedClients);
-        }
-
-        public void removeDisconnectedClient(ClientDescriptor client) {
-            connectedClients.remove(client);
+        void removeClient(ClientDescriptor client) {
+            if (pendingClients.remove(client) && pendingCount.decrementAndGet() == 0) {
+                completion.complete(null);
+            }
         }
     }
 }
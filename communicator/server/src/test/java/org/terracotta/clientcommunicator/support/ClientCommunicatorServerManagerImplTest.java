@@ -0,0 +1,180 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.clientcommunicator.support;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.terracotta.entity.ClientCommunicator;
+import org.terracotta.entity.ClientDescriptor;
+import org.terracotta.entity.EntityMessage;
+import org.terracotta.entity.EntityResponse;
+
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+public class ClientCommunicatorServerManagerImplTest {
+
+    private final ClientDescriptor source = newClientDescriptor();
+    private final ClientDescriptor client1 = newClientDescriptor();
+    private final ClientDescriptor client2 = newClientDescriptor();
+    private final List<ClientDescriptor> recipients = new ArrayList<>();
+    private final List<Response> responses = new ArrayList<>();
+    private final ClientCommunicatorServerManagerImpl<Message, Response> manager = new ClientCommunicatorServerManagerImpl<>(new ClientCommunicator() {
+        @Override
+        public void sendNoResponse(ClientDescriptor clientDescriptor, EntityResponse message) {
+            recipients.add(clientDescriptor);
+            responses.add((Response) message);
+        }
+
+        @Override
+        public Future<Void> send(ClientDescriptor clientDescriptor, EntityResponse message) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void closeClientConnection(ClientDescriptor clientDescriptor) {
+        }
+    }, new MessageFactory());
+
+    @Test
+    public void testAsyncSendCompletesOnceAllClientsAcked() throws Exception {
+        CompletableFuture<Void> completion = manager.sendWithAckAsync(clients(client1, client2), "msg".getBytes());
+
+        Assert.assertEquals(2, responses.size());
+        Assert.assertSame("the request is encoded once for all the clients", responses.get(0), responses.get(1));
+        ClientCommunicatorRequest request = ClientCommunicatorRequestCodec.deserialize(responses.get(0).bytes);
+        Assert.assertEquals(ClientCommunicatorRequestType.ACK, request.getRequestType());
+
+        manager.handleClientAck(client1, ack(request.getRequestSequenceNumber()));
+        manager.handleClientAck(client1, ack(request.getRequestSequenceNumber()));
+        Assert.assertFalse(completion.isDone());
+
+        manager.handleClientAck(client2, ack(request.getRequestSequenceNumber()));
+        Assert.assertTrue(completion.isDone());
+    }
+
+    @Test
+    public void testAsyncSendCompletesWhenPendingClientDisconnects() throws Exception {
+        CompletableFuture<Void> completion = manager.sendWithAckAsync(clients(client1, client2), "msg".getBytes());
+        int requestSequenceNumber = ClientCommunicatorRequestCodec.deserialize(responses.get(0).bytes).getRequestSequenceNumber();
+
+        manager.handleClientAck(client1, ack(requestSequenceNumber));
+        manager.handleClientDisconnect(client2);
+
+        Assert.assertTrue(completion.isDone());
+    }
+
+    @Test
+    public void testAsyncSendToNoClientIsComplete() throws Exception {
+        Assert.assertTrue(manager.sendWithAckAsync(clients(), "msg".getBytes()).isDone());
+        Assert.assertTrue(responses.isEmpty());
+    }
+
+    @Test
+    public void testPipelinedSendsCompleteIndependently() throws Exception {
+        CompletableFuture<Void> first = manager.sendWithAckAsync(clients(client1), "first".getBytes());
+        CompletableFuture<Void> second = manager.sendWithAckAsync(clients(client1), "second".getBytes());
+        int secondSequenceNumber = ClientCommunicatorRequestCodec.deserialize(responses.get(1).bytes).getRequestSequenceNumber();
+
+        manager.handleClientAck(client1, ack(secondSequenceNumber));
+
+        Assert.assertFalse(first.isDone());
+        Assert.assertTrue(second.isDone());
+    }
+
+    @Test
+    public void testSendWithAckNotifiesSourceOnCompletion() throws Exception {
+        Response wait = manager.sendWithAck(clients(client1), "msg".getBytes(), source);
+        ClientCommunicatorRequest waitRequest = ClientCommunicatorRequestCodec.deserialize(wait.bytes);
+        Assert.assertEquals(ClientCommunicatorRequestType.CLIENT_WAIT, waitRequest.getRequestType());
+
+        manager.handleClientAck(client1, ack(waitRequest.getRequestSequenceNumber()));
+
+        Assert.assertEquals(Arrays.asList(client1, source), recipients);
+        ClientCommunicatorRequest complete = ClientCommunicatorRequestCodec.deserialize(responses.get(1).bytes);
+        Assert.assertEquals(ClientCommunicatorRequestType.REQUEST_COMPLETE, complete.getRequestType());
+        Assert.assertEquals(waitRequest.getRequestSequenceNumber(), complete.getRequestSequenceNumber());
+    }
+
+    private static Set<ClientDescriptor> clients(ClientDescriptor... clients) {
+        return new HashSet<>(Arrays.asList(clients));
+    }
+
+    private static Message ack(int requestSequenceNumber) {
+        return new Message(ByteBuffer.allocate(4).putInt(requestSequenceNumber).array());
+    }
+
+    private static ClientDescriptor newClientDescriptor() {
+        return (ClientDescriptor) Proxy.newProxyInstance(ClientDescriptor.class.getClassLoader(), new Class<?>[] {ClientDescriptor.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "client@" + System.identityHashCode(proxy);
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    private static class Message implements EntityMessage {
+        private final byte[] bytes;
+
+        Message(byte[] bytes) {
+            this.bytes = bytes;
+        }
+    }
+
+    private static class Response implements EntityResponse {
+        private final byte[] bytes;
+
+        Response(byte[] bytes) {
+            this.bytes = bytes;
+        }
+    }
+
+    private static class MessageFactory implements ClientCommunicatorMessageFactory<Message, Response> {
+        @Override
+        public Message createEntityMessage(byte[] message) {
+            return new Message(message);
+        }
+
+        @Override
+        public byte[] extractBytesFromMessage(Message entityMessage) {
+            return entityMessage.bytes;
+        }
+
+        @Override
+        public Response createEntityResponse(byte[] message) {
+            return new Response(message);
+        }
+
+        @Override
+        public byte[] extractBytesFromResponse(Response entityResponse) {
+            return entityResponse.bytes;
+        }
+    }
+}
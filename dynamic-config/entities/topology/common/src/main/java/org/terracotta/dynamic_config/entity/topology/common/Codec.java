@@ -30,7 +30,9 @@ import org.terracotta.entity.MessageCodec;
 import org.terracotta.entity.MessageCodecException;
 import org.terracotta.runnel.Struct;
 import org.terracotta.runnel.decoding.StructDecoder;
+import org.terracotta.runnel.decoding.fields.EnumField;
 import org.terracotta.runnel.encoding.StructEncoder;
+import org.terracotta.runnel.metadata.FieldHandle;
 
 import java.nio.ByteBuffer;
 import java.time.LocalDate;
@@ -121,12 +123,15 @@ public class Codec implements MessageCodec<Message, Response> {
           .build())
       .build();
 
+  // resolved once: the type is accessed for every message and response
+  private final FieldHandle<EnumField<?>> typeField = struct.accessPlan().enm("type");
+
   @Override
   public byte[] encodeMessage(Message message) throws MessageCodecException {
     LOGGER.trace("encodeMessage({})", message);
     try {
       return struct.encoder()
-          .enm("type", message.getType())
+          .enm(typeField, message.getType())
           .encode()
           .array();
     } catch (RuntimeException e) {
@@ -137,7 +142,7 @@ public class Codec implements MessageCodec<Message, Response> {
   @Override
   public Message decodeMessage(byte[] bytes) throws MessageCodecException {
     try {
-      final Message message = new Message(struct.decoder(ByteBuffer.wrap(bytes)).<Type>enm("type").get());
+      final Message message = new Message(struct.decoder(ByteBuffer.wrap(bytes)).<Type>enm(typeField).get());
       LOGGER.trace("decodeMessage(): {}", message);
       return message;
     } catch (RuntimeException e) {
@@ -151,7 +156,7 @@ public class Codec implements MessageCodec<Message, Response> {
     try {
       Type type = response.getType();
       StructEncoder<Void> encoder = struct.encoder();
-      encoder.enm("type", type);
+      encoder.enm(typeField, type);
       switch (type) {
         case REQ_LICENSE: {
           License license = response.getPayload();
@@ -244,7 +249,7 @@ public class Codec implements MessageCodec<Message, Response> {
   public Response decodeResponse(byte[] bytes) throws MessageCodecException {
     try {
       StructDecoder<Void> decoder = struct.decoder(ByteBuffer.wrap(bytes));
-      Type type = decoder.<Type>enm("type").get();
+      Type type = decoder.<Type>enm(typeField).get();
       LOGGER.trace("decodeResponse({})", type);
       switch (type) {
         case REQ_LICENSE: {
@@ -60,6 +60,11 @@ class CleaningLeaseMaintainer implements LeaseMaintainer {
     return delegate.waitForLease(timeout, timeUnit);
   }
 
+  @Override
+  public LatencyHistogram getLeaseAcquisitionLatencies() {
+    return delegate.getLeaseAcquisitionLatencies();
+  }
+
   @Override
   public void close() throws IOException {
     closeResources();
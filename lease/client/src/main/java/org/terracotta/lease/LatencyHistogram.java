@@ -0,0 +1,132 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.lease;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of latencies, with buckets growing by powers of two from one microsecond up. Recording is thread-safe and
+ * does not allocate, and reads are weakly consistent with concurrent recordings.
+ */
+public final class LatencyHistogram {
+  private static final int BUCKET_COUNT = 40;
+
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+  private final AtomicLong count = new AtomicLong();
+  private final AtomicLong maximum = new AtomicLong();
+
+  void record(long latencyNanos) {
+    long latency = Math.max(0L, latencyNanos);
+    buckets.incrementAndGet(bucketOf(latency));
+    count.incrementAndGet();
+
+    long currentMaximum;
+    while (latency > (currentMaximum = maximum.get()) && !maximum.compareAndSet(currentMaximum, latency)) {
+      // retry
+    }
+  }
+
+  /**
+   * @return the number of latencies recorded
+   */
+  public long getCount() {
+    return count.get();
+  }
+
+  /**
+   * @param unit the unit of the returned value
+   * @return the highest latency recorded, or zero if none was
+   */
+  public long getMaximum(TimeUnit unit) {
+    return unit.convert(maximum.get(), TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Returns an upper bound of the given percentile of the recorded latencies, accurate to within a factor of two.
+   *
+   * @param percentile the percentile, between 0 and 100
+   * @param unit the unit of the returned value
+   * @return the upper bound of the bucket holding the percentile, or zero if no latency was recorded
+   */
+  public long getPercentile(double percentile, TimeUnit unit) {
+    if (percentile < 0 || percentile > 100) {
+      throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+    }
+    long[] counts = getBucketCounts();
+    long total = 0;
+    for (long bucketCount : counts) {
+      total += bucketCount;
+    }
+    if (total == 0) {
+      return 0L;
+    }
+
+    long rank = Math.max(1L, (long) Math.ceil(total * percentile / 100));
+    long seen = 0;
+    for (int i = 0; i < counts.length; i++) {
+      seen += counts[i];
+      if (seen >= rank) {
+        return unit.convert(Math.min(getBucketUpperBound(i), maximum.get()), TimeUnit.NANOSECONDS);
+      }
+    }
+    return getMaximum(unit);
+  }
+
+  /**
+   * @return the number of latencies recorded in each bucket, bucket {@code i} holding the latencies up to
+   * {@link #getBucketUpperBound(int)}
+   */
+  public long[] getBucketCounts() {
+    long[] counts = new long[BUCKET_COUNT];
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      counts[i] = buckets.get(i);
+    }
+    return counts;
+  }
+
+  /**
+   * @param bucket the index of a bucket
+   * @return the highest latency, in nanoseconds, held by the bucket
+   */
+  public static long getBucketUpperBound(int bucket) {
+    if (bucket == BUCKET_COUNT - 1) {
+      return Long.MAX_VALUE;
+    }
+    return TimeUnit.MICROSECONDS.toNanos(1L << bucket);
+  }
+
+  private static int bucketOf(long latencyNanos) {
+    long micros = (latencyNanos + 999) / 1000;
+    if (micros <= 1) {
+      return 0;
+    }
+    int bucket = 64 - Long.numberOfLeadingZeros(micros - 1);
+    return Math.min(bucket, BUCKET_COUNT - 1);
+  }
+
+  @Override
+  public String toString() {
+    return "LatencyHistogram{" +
+        "count=" + getCount() +
+        ", p50=" + getPercentile(50, TimeUnit.MICROSECONDS) + "us" +
+        ", p99=" + getPercentile(99, TimeUnit.MICROSECONDS) + "us" +
+        ", max=" + getMaximum(TimeUnit.MICROSECONDS) + "us" +
+        '}';
+  }
+}
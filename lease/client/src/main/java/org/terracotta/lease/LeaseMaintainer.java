@@ -53,6 +53,13 @@ public interface LeaseMaintainer extends Closeable {
    */
   boolean waitForLease(long timeout, TimeUnit timeUnit) throws InterruptedException;
 
+  /**
+   * Returns the latencies of the lease requests that this LeaseMaintainer made to the server and that were granted.
+   * The histogram keeps being updated as leases are renewed.
+   * @return the lease acquisition latencies of the connection
+   */
+  LatencyHistogram getLeaseAcquisitionLatencies();
+
   /**
    * Destroys this lease maintainer and closes all associated resources <em>without interacting with the server</em>
    * @throws IOException if an I/O error occurs
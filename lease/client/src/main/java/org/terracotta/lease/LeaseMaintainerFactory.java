@@ -24,6 +24,7 @@ import org.terracotta.exception.EntityNotFoundException;
 import org.terracotta.exception.EntityNotProvidedException;
 import org.terracotta.exception.EntityVersionMismatchException;
 
+import java.io.Closeable;
 import java.util.Properties;
 
 import static org.terracotta.lease.LeaseEntityConstants.ENTITY_NAME;
@@ -49,13 +50,12 @@ public class LeaseMaintainerFactory {
     LeaseMaintainerImpl leaseMaintainer = new LeaseMaintainerImpl(leaseAcquirer);
     leaseReconnectListener.setUnderlying(leaseMaintainer);
 
-    LeaseMaintenanceThread leaseMaintenanceThread = new LeaseMaintenanceThread(leaseMaintainer);
+    Closeable leaseMaintenance = LeaseMaintenanceScheduler.getSharedScheduler().schedule(leaseMaintainer);
     LeaseExpiryConnectionKillingThread leaseExpiryConnectionKillingThread = new LeaseExpiryConnectionKillingThread(leaseMaintainer, connection);
 
-    leaseMaintenanceThread.start();
     leaseExpiryConnectionKillingThread.start();
 
-    return new CleaningLeaseMaintainer(leaseMaintainer, connection, leaseMaintenanceThread, leaseExpiryConnectionKillingThread);
+    return new CleaningLeaseMaintainer(leaseMaintainer, connection, leaseMaintenance, leaseExpiryConnectionKillingThread);
   }
 
   private static LeaseAcquirer getLeaseAcquirer(Connection connection, LeaseReconnectListener leaseReconnectListener) {
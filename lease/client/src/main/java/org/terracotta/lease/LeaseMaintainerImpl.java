@@ -37,6 +37,7 @@ class LeaseMaintainerImpl implements LeaseMaintainer, LeaseReconnectListener {
   private final TimeSource timeSource;
   private final AtomicReference<LeaseInternal> currentLease;
   private final CountDownLatch hasLease;
+  private final LatencyHistogram leaseAcquisitionLatencies = new LatencyHistogram();
 
   LeaseMaintainerImpl(LeaseAcquirer leaseAcquirer) {
     this.leaseAcquirer = leaseAcquirer;
@@ -60,6 +61,11 @@ class LeaseMaintainerImpl implements LeaseMaintainer, LeaseReconnectListener {
     return hasLease.await(timeout, timeUnit);
   }
 
+  @Override
+  public LatencyHistogram getLeaseAcquisitionLatencies() {
+    return leaseAcquisitionLatencies;
+  }
+
   @Override
   public void close() throws IOException {
     leaseAcquirer.close();
@@ -75,6 +81,7 @@ class LeaseMaintainerImpl implements LeaseMaintainer, LeaseReconnectListener {
         long leaseRequestStartNanos = timeSource.nanoTime();
         long leaseLengthMillis = leaseAcquirer.acquireLease();
         long leaseRequestEndNanos = timeSource.nanoTime();
+        leaseAcquisitionLatencies.record(leaseRequestEndNanos - leaseRequestStartNanos);
 
         boolean updated = updateLease(lease, leaseRequestStartNanos, leaseRequestEndNanos, leaseLengthMillis);
         LOGGER.debug("Upodated lease {}", updated);
@@ -0,0 +1,263 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.lease;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.terracotta.exception.ConnectionClosedException;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Comparator.comparingLong;
+
+/**
+ * Refreshes the leases of all the connections of the JVM, instead of each connection running a thread of its own.
+ * <p>
+ * A single dispatcher thread wakes up once per tick and hands every refresh due before the next tick to a shared pool
+ * together, so that the lease round trips of the connections overlap. A refresh is therefore started up to one tick
+ * early, but never later than the wait computed by {@link LeaseMaintainerImpl#refreshLease()}. The pool keeps a few
+ * threads around and grows past them rather than queue a refresh behind one blocked on an unresponsive server. The
+ * dispatcher thread exits when no lease is left to maintain, and the pool threads once they are idle.
+ */
+class LeaseMaintenanceScheduler {
+  private static final Logger LOGGER = LoggerFactory.getLogger(LeaseMaintenanceScheduler.class);
+
+  static final long TICK_MILLIS = 100L;
+  private static final int CORE_REFRESH_THREADS = 4;
+  private static final long REFRESH_THREAD_KEEP_ALIVE_SECONDS = 60L;
+
+  private static LeaseMaintenanceScheduler shared;
+
+  private final TimeSource timeSource;
+  private final Executor refreshExecutor;
+  private final long tickNanos = TimeUnit.MILLISECONDS.toNanos(TICK_MILLIS);
+
+  // Guarded by this
+  private final PriorityQueue<Registration> waiting = new PriorityQueue<>(comparingLong(registration -> registration.deadline));
+  private int registrationCount;
+  private Thread dispatcher;
+
+  /**
+   * @return the scheduler shared by the connections of the JVM, running on the current {@link TimeSourceProvider} time
+   * source
+   */
+  static synchronized LeaseMaintenanceScheduler getSharedScheduler() {
+    TimeSource timeSource = TimeSourceProvider.getTimeSource();
+    if (shared == null || shared.timeSource != timeSource) {
+      shared = new LeaseMaintenanceScheduler(timeSource, createRefreshExecutor());
+    }
+    return shared;
+  }
+
+  LeaseMaintenanceScheduler(TimeSource timeSource, Executor refreshExecutor) {
+    this.timeSource = timeSource;
+    this.refreshExecutor = refreshExecutor;
+  }
+
+  /**
+   * Starts maintaining the lease of the given maintainer, refreshing it right away.
+   *
+   * @param leaseMaintainer the lease maintainer of a connection
+   * @return a handle that stops the maintenance when closed, interrupting any refresh in progress
+   */
+  Closeable schedule(LeaseMaintainerImpl leaseMaintainer) {
+    Registration registration = new Registration(leaseMaintainer);
+    synchronized (this) {
+      registrationCount++;
+      if (dispatcher == null) {
+        dispatcher = new Thread(this::dispatch, "LeaseMaintenanceScheduler");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+      }
+    }
+    refreshExecutor.execute(() -> refresh(registration));
+    return registration;
+  }
+
+  synchronized int getRegistrationCount() {
+    return registrationCount;
+  }
+
+  private void dispatch() {
+    while (true) {
+      List<Registration> due = new ArrayList<>();
+      synchronized (this) {
+        if (registrationCount == 0) {
+          dispatcher = null;
+          return;
+        }
+
+        long now = timeSource.nanoTime();
+        Registration next;
+        while ((next = waiting.peek()) != null && next.deadline - now < tickNanos) {
+          due.add(waiting.poll());
+        }
+      }
+
+      for (Registration registration : due) {
+        refreshExecutor.execute(() -> refresh(registration));
+      }
+
+      try {
+        timeSource.sleep(TICK_MILLIS);
+      } catch (InterruptedException e) {
+        // The dispatcher is never interrupted by this class; carry on so that leases are not lost
+        LOGGER.debug("Lease maintenance dispatcher interrupted");
+      }
+    }
+  }
+
+  private void refresh(Registration registration) {
+    if (!registration.start()) {
+      return;
+    }
+
+    long waitLength = TICK_MILLIS;
+    boolean maintain = true;
+    try {
+      waitLength = registration.leaseMaintainer.refreshLease();
+
+      if (LOGGER.isDebugEnabled()) {
+        LOGGER.debug("Lease refresh wait: " + waitLength);
+      }
+    } catch (InterruptedException e) {
+      // Either closed, in which case the registration is cancelled, or retried on the next tick
+    } catch (LeaseException | RuntimeException e) {
+      if (containsCause(e, ConnectionClosedException.class)) {
+        maintain = false;
+      } else {
+        LOGGER.error("Error obtaining lease", e);
+      }
+    } finally {
+      registration.finish();
+    }
+
+    if (maintain) {
+      reschedule(registration, waitLength);
+    } else {
+      cancel(registration);
+    }
+  }
+
+  private void reschedule(Registration registration, long waitLength) {
+    if (waitLength <= 0) {
+      if (!registration.isCancelled()) {
+        refreshExecutor.execute(() -> refresh(registration));
+      }
+      return;
+    }
+
+    synchronized (this) {
+      if (!registration.isCancelled()) {
+        registration.deadline = timeSource.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitLength);
+        waiting.add(registration);
+      }
+    }
+  }
+
+  private synchronized void cancel(Registration registration) {
+    if (registration.cancel()) {
+      waiting.remove(registration);
+      registrationCount--;
+    }
+  }
+
+  private static boolean containsCause(Throwable failure, Class<? extends Throwable> cause) {
+    Throwable intermediate = failure;
+    do {
+      if (cause.isInstance(intermediate)) {
+        return true;
+      }
+    } while ((intermediate = intermediate.getCause()) != null);
+
+    return false;
+  }
+
+  private static Executor createRefreshExecutor() {
+    AtomicInteger threadCount = new AtomicInteger();
+    ThreadFactory threadFactory = runnable -> {
+      Thread thread = new Thread(runnable, "LeaseMaintenanceThread-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(CORE_REFRESH_THREADS, Integer.MAX_VALUE,
+        REFRESH_THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new SynchronousQueue<>(), threadFactory);
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  private class Registration implements Closeable {
+    private final LeaseMaintainerImpl leaseMaintainer;
+
+    // Guarded by the scheduler
+    private long deadline;
+
+    // Guarded by this
+    private boolean cancelled;
+    private Thread refreshingThread;
+
+    Registration(LeaseMaintainerImpl leaseMaintainer) {
+      this.leaseMaintainer = leaseMaintainer;
+    }
+
+    synchronized boolean start() {
+      if (cancelled) {
+        return false;
+      }
+      refreshingThread = Thread.currentThread();
+      return true;
+    }
+
+    void finish() {
+      synchronized (this) {
+        refreshingThread = null;
+      }
+      // Clear an interrupt from close() that the refresh did not consume, as the pool thread is reused
+      Thread.interrupted();
+    }
+
+    synchronized boolean isCancelled() {
+      return cancelled;
+    }
+
+    synchronized boolean cancel() {
+      if (cancelled) {
+        return false;
+      }
+      cancelled = true;
+      if (refreshingThread != null) {
+        // The refresh may be in a blocking call
+        refreshingThread.interrupt();
+      }
+      return true;
+    }
+
+    @Override
+    public void close() {
+      LeaseMaintenanceScheduler.this.cancel(this);
+    }
+  }
+}
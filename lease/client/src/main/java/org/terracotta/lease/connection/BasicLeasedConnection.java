@@ -24,6 +24,7 @@ import org.terracotta.connection.ConnectionException;
 import org.terracotta.connection.entity.Entity;
 import org.terracotta.connection.entity.EntityRef;
 import org.terracotta.exception.EntityNotProvidedException;
+import org.terracotta.lease.LatencyHistogram;
 import org.terracotta.lease.LeaseMaintainer;
 import org.terracotta.lease.LeaseMaintainerFactory;
 
@@ -88,4 +89,11 @@ public class BasicLeasedConnection implements LeasedConnection {
   public boolean isValid() {
     return base.isValid();
   }
+
+  /**
+   * @return the latencies of the lease renewals of this connection
+   */
+  public LatencyHistogram getLeaseAcquisitionLatencies() {
+    return leaseMaintainer.getLeaseAcquisitionLatencies();
+  }
 }
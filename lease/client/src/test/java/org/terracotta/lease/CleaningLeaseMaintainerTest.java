@@ -28,6 +28,7 @@ import java.io.Closeable;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -79,6 +80,16 @@ public class CleaningLeaseMaintainerTest {
     verify(delegate).waitForLease(10, TimeUnit.SECONDS);
   }
 
+  @Test
+  public void delegatesGetLeaseAcquisitionLatencies() {
+    LatencyHistogram latencies = new LatencyHistogram();
+    when(delegate.getLeaseAcquisitionLatencies()).thenReturn(latencies);
+
+    CleaningLeaseMaintainer cleaner = new CleaningLeaseMaintainer(delegate, connection, thread1, thread2);
+    assertSame(latencies, cleaner.getLeaseAcquisitionLatencies());
+    verify(delegate).getLeaseAcquisitionLatencies();
+  }
+
   @Test
   public void closeClosesDelegateAndInterruptsThreads() throws Exception {
     CleaningLeaseMaintainer cleaner = new CleaningLeaseMaintainer(delegate, connection, thread1, thread2);
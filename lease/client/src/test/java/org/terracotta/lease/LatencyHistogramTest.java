@@ -0,0 +1,69 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.lease;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+public class LatencyHistogramTest {
+  @Test
+  public void emptyHistogram() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    assertEquals(0L, histogram.getCount());
+    assertEquals(0L, histogram.getMaximum(TimeUnit.NANOSECONDS));
+    assertEquals(0L, histogram.getPercentile(99, TimeUnit.NANOSECONDS));
+  }
+
+  @Test
+  public void latenciesGoInPowerOfTwoBuckets() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(500L);
+    histogram.record(TimeUnit.MICROSECONDS.toNanos(2));
+    histogram.record(TimeUnit.MICROSECONDS.toNanos(3));
+    histogram.record(TimeUnit.MICROSECONDS.toNanos(1000));
+
+    long[] counts = histogram.getBucketCounts();
+    assertEquals(1L, counts[0]);
+    assertEquals(1L, counts[1]);
+    assertEquals(1L, counts[2]);
+    assertEquals(1L, counts[10]);
+    assertEquals(TimeUnit.MICROSECONDS.toNanos(1024), LatencyHistogram.getBucketUpperBound(10));
+    assertEquals(4L, histogram.getCount());
+  }
+
+  @Test
+  public void percentilesAreBucketUpperBoundsCappedByTheMaximum() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 0; i < 99; i++) {
+      histogram.record(TimeUnit.MICROSECONDS.toNanos(100));
+    }
+    histogram.record(TimeUnit.MILLISECONDS.toNanos(3));
+
+    assertEquals(128L, histogram.getPercentile(50, TimeUnit.MICROSECONDS));
+    assertEquals(128L, histogram.getPercentile(99, TimeUnit.MICROSECONDS));
+    assertEquals(3000L, histogram.getPercentile(100, TimeUnit.MICROSECONDS));
+    assertEquals(3L, histogram.getMaximum(TimeUnit.MILLISECONDS));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void percentileOutOfRange() {
+    new LatencyHistogram().getPercentile(101, TimeUnit.MILLISECONDS);
+  }
+}
@@ -24,6 +24,7 @@ import org.mockito.junit.MockitoJUnitRunner;
 
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -154,6 +155,16 @@ public class LeaseMaintainerImplTest {
     assertFalse(lease2.isValidAndContiguous(lease2));
   }
 
+  @Test
+  public void leaseAcquisitionLatenciesAreRecorded() throws Exception {
+    refreshLease(leaseMaintainer, 0L, 2000L);
+    refreshLease(leaseMaintainer, 1000L, 1000L);
+
+    LatencyHistogram latencies = leaseMaintainer.getLeaseAcquisitionLatencies();
+    assertEquals(2L, latencies.getCount());
+    assertEquals(1000L, latencies.getMaximum(TimeUnit.MILLISECONDS));
+  }
+
   @Test(expected = InterruptedException.class)
   public void waitForLeaseWithoutALease() throws Exception {
     ThreadInterrupter.interruptIn(300L);
@@ -0,0 +1,158 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.lease;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.terracotta.exception.ConnectionClosedException;
+
+import java.io.Closeable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class LeaseMaintenanceSchedulerTest {
+  private final TestTimeSource timeSource = new TestTimeSource();
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+  private final LeaseMaintenanceScheduler scheduler = new LeaseMaintenanceScheduler(timeSource, executor);
+
+  @Mock
+  private LeaseMaintainerImpl leaseMaintainer1;
+
+  @Mock
+  private LeaseMaintainerImpl leaseMaintainer2;
+
+  @Before
+  public void before() {
+    TimeSourceProvider.setTimeSource(timeSource);
+  }
+
+  @After
+  public void after() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void refreshesRightAwayThenAfterTheWaitLength() throws Exception {
+    when(leaseMaintainer1.refreshLease()).thenReturn(2000L);
+
+    Closeable registration = scheduler.schedule(leaseMaintainer1);
+    verify(leaseMaintainer1, timeout(1000L).times(1)).refreshLease();
+
+    timeSource.tickMillis(1800L);
+    Thread.sleep(200L);
+    verify(leaseMaintainer1, times(1)).refreshLease();
+
+    timeSource.tickMillis(150L);
+    verify(leaseMaintainer1, timeout(1000L).times(2)).refreshLease();
+
+    registration.close();
+  }
+
+  @Test
+  public void refreshesImmediatelyIfZeroWaitLength() throws Exception {
+    when(leaseMaintainer1.refreshLease()).thenReturn(1000L, 0L, 1000L);
+
+    Closeable registration = scheduler.schedule(leaseMaintainer1);
+    verify(leaseMaintainer1, timeout(1000L).times(1)).refreshLease();
+
+    timeSource.tickMillis(1000L);
+    verify(leaseMaintainer1, timeout(1000L).times(3)).refreshLease();
+
+    registration.close();
+  }
+
+  @Test
+  public void refreshesDueInTheSameTickAreStartedTogether() throws Exception {
+    when(leaseMaintainer1.refreshLease()).thenReturn(2000L);
+    when(leaseMaintainer2.refreshLease()).thenReturn(1950L);
+
+    Closeable registration1 = scheduler.schedule(leaseMaintainer1);
+    Closeable registration2 = scheduler.schedule(leaseMaintainer2);
+    verify(leaseMaintainer1, timeout(1000L).times(1)).refreshLease();
+    verify(leaseMaintainer2, timeout(1000L).times(1)).refreshLease();
+
+    timeSource.tickMillis(1920L);
+    verify(leaseMaintainer1, timeout(1000L).times(2)).refreshLease();
+    verify(leaseMaintainer2, timeout(1000L).times(2)).refreshLease();
+
+    registration1.close();
+    registration2.close();
+  }
+
+  @Test
+  public void closedConnectionStopsTheMaintenance() throws Exception {
+    when(leaseMaintainer1.refreshLease()).thenThrow(new ConnectionClosedException("Connection closed"));
+
+    scheduler.schedule(leaseMaintainer1);
+    verify(leaseMaintainer1, timeout(1000L).times(1)).refreshLease();
+    waitForNoRegistration();
+
+    timeSource.tickMillis(1000L);
+    Thread.sleep(200L);
+    verify(leaseMaintainer1, times(1)).refreshLease();
+  }
+
+  @Test
+  public void closeInterruptsTheRefreshInProgress() throws Exception {
+    CountDownLatch refreshing = new CountDownLatch(1);
+    CountDownLatch interrupted = new CountDownLatch(1);
+    when(leaseMaintainer1.refreshLease()).then(invocation -> {
+      refreshing.countDown();
+      try {
+        new CountDownLatch(1).await();
+      } catch (InterruptedException e) {
+        interrupted.countDown();
+        throw e;
+      }
+      return 0L;
+    });
+
+    Closeable registration = scheduler.schedule(leaseMaintainer1);
+    assertTrue(refreshing.await(10, TimeUnit.SECONDS));
+    assertEquals(1, scheduler.getRegistrationCount());
+
+    registration.close();
+    assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+    assertEquals(0, scheduler.getRegistrationCount());
+
+    timeSource.tickMillis(1000L);
+    Thread.sleep(200L);
+    verify(leaseMaintainer1, times(1)).refreshLease();
+  }
+
+  private void waitForNoRegistration() throws InterruptedException {
+    long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (scheduler.getRegistrationCount() != 0) {
+      assertTrue(System.nanoTime() - end < 0);
+      Thread.sleep(10L);
+    }
+  }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.lease.service.monitor;
+
+import org.terracotta.entity.ClientDescriptor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A hashed timer wheel holding the valid leases ordered by expiry, so that checking for expired leases only touches the
+ * leases that are due rather than every lease.
+ * <p>
+ * Time is cut into ticks, and each lease is linked into the bucket of the tick in which it expires, which makes
+ * scheduling and cancelling a lease O(1). A lease expiring one or more revolutions of the wheel later shares its bucket
+ * with the leases of the earlier revolutions, and is left in place until its own revolution comes.
+ */
+class LeaseExpiryWheel {
+  private final long origin;
+  private final long tickNanos;
+  private final ValidLease[] buckets;
+  private final int mask;
+
+  // The first tick whose bucket may still hold leases due in that tick
+  private long currentTick;
+  private int size;
+
+  LeaseExpiryWheel(long origin, long tickNanos, int bucketCount) {
+    if (tickNanos <= 0) {
+      throw new IllegalArgumentException("Tick duration must be positive: " + tickNanos);
+    }
+    if (bucketCount <= 0 || Integer.bitCount(bucketCount) != 1) {
+      throw new IllegalArgumentException("Bucket count must be a power of two: " + bucketCount);
+    }
+    this.origin = origin;
+    this.tickNanos = tickNanos;
+    this.buckets = new ValidLease[bucketCount];
+    this.mask = bucketCount - 1;
+  }
+
+  synchronized void schedule(ClientDescriptor clientDescriptor, ValidLease lease) {
+    if (lease.bucket >= 0) {
+      throw new IllegalStateException("Lease is already scheduled: " + lease);
+    }
+    long tick = Math.max(tickOf(lease.getLeaseExpiry()), currentTick);
+    int bucket = (int) (tick & mask);
+
+    lease.clientDescriptor = clientDescriptor;
+    lease.bucket = bucket;
+    lease.previous = null;
+    lease.next = buckets[bucket];
+    if (lease.next != null) {
+      lease.next.previous = lease;
+    }
+    buckets[bucket] = lease;
+    size++;
+  }
+
+  /**
+   * Cancels the given lease, and schedules its replacement. Cancelling a lease that is not scheduled, because it has
+   * already been handed out by {@link #expire(long)}, is a no-op.
+   */
+  synchronized void reschedule(ValidLease currentLease, ClientDescriptor clientDescriptor, ValidLease newLease) {
+    cancel(currentLease);
+    schedule(clientDescriptor, newLease);
+  }
+
+  synchronized void cancel(ValidLease lease) {
+    if (lease.bucket < 0) {
+      return;
+    }
+    if (lease.previous == null) {
+      buckets[lease.bucket] = lease.next;
+    } else {
+      lease.previous.next = lease.next;
+    }
+    if (lease.next != null) {
+      lease.next.previous = lease.previous;
+    }
+    lease.previous = null;
+    lease.next = null;
+    lease.bucket = -1;
+    size--;
+  }
+
+  /**
+   * Removes and returns the leases that have expired by {@code now}, visiting only the buckets of the ticks that went
+   * by since the previous call, and the bucket of the current tick.
+   */
+  synchronized List<ValidLease> expire(long now) {
+    long nowTick = Math.max(tickOf(now), currentTick);
+    // Each bucket needs visiting at most once, however long it has been since the previous call
+    long lastTick = Math.min(nowTick, currentTick + mask);
+
+    List<ValidLease> expired = Collections.emptyList();
+    for (long tick = currentTick; tick <= lastTick; tick++) {
+      ValidLease lease = buckets[(int) (tick & mask)];
+      while (lease != null) {
+        ValidLease next = lease.next;
+        if (lease.isExpired(now)) {
+          if (expired.isEmpty()) {
+            expired = new ArrayList<>();
+          }
+          cancel(lease);
+          expired.add(lease);
+        }
+        lease = next;
+      }
+    }
+
+    currentTick = nowTick;
+    return expired;
+  }
+
+  synchronized int size() {
+    return size;
+  }
+
+  private long tickOf(long time) {
+    return Math.max(time - origin, 0L) / tickNanos;
+  }
+}
@@ -21,9 +21,12 @@ import org.terracotta.lease.TimeSource;
 /**
  * A thread that periodically triggers a check for expired leases. Interrupting the thread permanently stops the checks
  * and the thread dies.
+ * <p>
+ * A check only looks at the leases that are due, so checks are frequent enough to keep the delay between a lease
+ * expiring and its connection being closed short.
  */
 public class LeaseMonitorThread extends Thread {
-  private static final long LEASE_CHECK_INTERVAL_MILLIS = 200L;
+  static final long LEASE_CHECK_INTERVAL_MILLIS = 50L;
 
   private final TimeSource timeSource;
   private final LeaseState leaseState;
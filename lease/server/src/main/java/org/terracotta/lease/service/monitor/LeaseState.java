@@ -24,6 +24,7 @@ import org.terracotta.entity.StateDumpable;
 import org.terracotta.lease.TimeSource;
 import org.terracotta.lease.service.closer.ClientConnectionCloser;
 
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
@@ -31,25 +32,34 @@ import java.util.concurrent.TimeUnit;
 /**
  * The central component of the connection leasing code. This object holds the state of the leases for each client and
  * allows updates to that state in a thread-safe way.
+ * <p>
+ * Valid leases are also scheduled in a {@link LeaseExpiryWheel}, so that checking the leases only looks at the leases
+ * that are due to expire.
  */
 public class LeaseState implements StateDumpable {
   private static final Logger LOGGER = LoggerFactory.getLogger(LeaseState.class);
 
+  // With one tick per lease check, 4096 buckets cover the default lease length in a single revolution
+  private static final int EXPIRY_WHEEL_BUCKETS = 4096;
+
   private final TimeSource timeSource;
   private final ClientConnectionCloser clientConnectionCloser;
   private final ConcurrentHashMap<ClientDescriptor, Lease> leases = new ConcurrentHashMap<>();
+  private final LeaseExpiryWheel expiryWheel;
 
   public LeaseState(TimeSource timeSource, ClientConnectionCloser clientConnectionCloser) {
     this.timeSource = timeSource;
     this.clientConnectionCloser = clientConnectionCloser;
+    this.expiryWheel = new LeaseExpiryWheel(timeSource.nanoTime(),
+        TimeUnit.MILLISECONDS.toNanos(LeaseMonitorThread.LEASE_CHECK_INTERVAL_MILLIS), EXPIRY_WHEEL_BUCKETS);
   }
 
   public void disconnected(ClientDescriptor clientDescriptor) {
-    leases.remove(clientDescriptor);
+    cancel(leases.remove(clientDescriptor));
   }
 
   public void reconnecting(ClientDescriptor clientDescriptor) {
-    leases.put(clientDescriptor, new ReconnectionLease());
+    cancel(leases.put(clientDescriptor, new ReconnectionLease()));
   }
 
   public void reconnected(ClientDescriptor clientDescriptor, long leaseLength) {
@@ -62,6 +72,7 @@ public class LeaseState implements StateDumpable {
 
     ValidLease newLease = createLease(leaseLength);
     leases.put(clientDescriptor, newLease);
+    expiryWheel.schedule(clientDescriptor, newLease);
   }
 
   public boolean acquireLease(ClientDescriptor clientDescriptor, long leaseLength) {
@@ -73,6 +84,7 @@ public class LeaseState implements StateDumpable {
       if (currentLease == null) {
         Lease existingLease = leases.putIfAbsent(clientDescriptor, newLease);
         if (existingLease == null) {
+          expiryWheel.schedule(clientDescriptor, newLease);
           return true;
         }
       } else {
@@ -87,12 +99,21 @@ public class LeaseState implements StateDumpable {
 
         boolean replaced = leases.replace(clientDescriptor, currentLease, newLease);
         if (replaced) {
+          // Renewals racing on the same client may leave a superseded lease scheduled: the failed replace in
+          // expireLease() discards it when it comes due
+          expiryWheel.reschedule(currentValidLease, clientDescriptor, newLease);
           return true;
         }
       }
     }
   }
 
+  private void cancel(Lease lease) {
+    if (lease instanceof ValidLease) {
+      expiryWheel.cancel((ValidLease) lease);
+    }
+  }
+
   private ValidLease createLease(long leaseLength) {
     long leaseExpiry = timeSource.nanoTime() + TimeUnit.MILLISECONDS.toNanos(leaseLength);
     return new ValidLease(leaseExpiry);
@@ -102,48 +123,29 @@ public class LeaseState implements StateDumpable {
     LOGGER.debug("Checking leases");
     long now = timeSource.nanoTime();
 
-    // The iterator from ConcurrentHashMap.iterator() is guaranteed not to throw a ConcurrentModificationException
-    // We rely on that guarantee here because we may modify the leases map inside the iteration.
-    for (ClientDescriptor clientDescriptor : leases.keySet()) {
-      checkLease(clientDescriptor, now);
+    List<ValidLease> expiredLeases = expiryWheel.expire(now);
+    for (ValidLease lease : expiredLeases) {
+      expireLease(lease.clientDescriptor, lease);
     }
   }
 
-  private void checkLease(ClientDescriptor clientDescriptor, long now) {
-    while (true) {
-      Lease lease = leases.get(clientDescriptor);
-
-      if (lease == null) {
-        return; // Some other thread called checkLeases() and expired the lease
-      }
-
-      if (lease instanceof ExpiredLease) {
-        if (LOGGER.isTraceEnabled()) {
-          LOGGER.trace("Lease for client: " + clientDescriptor + " is an ExpiredLease");
-        }
-        return; // Some other thread is expiring this lease - leave it alone
-      }
-
-      if (!lease.isExpired(now)) {
-        if (LOGGER.isTraceEnabled()) {
-          LOGGER.trace("Lease for client: " + clientDescriptor + " is still valid: " + lease);
-        }
-        return; // The lease is still valid so no change needed
-      }
-
-      Lease expiredLease = new ExpiredLease();
-      boolean replaced = leases.replace(clientDescriptor, lease, expiredLease);
+  private void expireLease(ClientDescriptor clientDescriptor, ValidLease lease) {
+    Lease expiredLease = new ExpiredLease();
+    boolean replaced = leases.replace(clientDescriptor, lease, expiredLease);
 
-      if (replaced) {
-        LOGGER.info("Closing connection to client: " + clientDescriptor + " due to lease expiry");
-        clientConnectionCloser.closeClientConnection(clientDescriptor);
-        return;
-      }
-
-      // Otherwise loop because another thread updated the lease whilst we looked at it
+    if (replaced) {
+      LOGGER.info("Closing connection to client: " + clientDescriptor + " due to lease expiry");
+      clientConnectionCloser.closeClientConnection(clientDescriptor);
+    } else if (LOGGER.isTraceEnabled()) {
+      // Another thread renewed the lease, or the client went away, whilst the lease was expiring
+      LOGGER.trace("Lease for client: " + clientDescriptor + " was superseded before it expired: " + lease);
     }
   }
 
+  int scheduledLeaseCount() {
+    return expiryWheel.size();
+  }
+
   @Override
   public void addStateTo(StateDumpCollector stateDumpCollector) {
     for (Map.Entry<ClientDescriptor, Lease> entry : leases.entrySet()) {
@@ -16,16 +16,28 @@
  */
 package org.terracotta.lease.service.monitor;
 
+import org.terracotta.entity.ClientDescriptor;
+
 /**
  * Represents a lease that has been issued to a client. It may have expired, but if so, that has not been detected yet.
  */
 class ValidLease implements Lease {
   private final long leaseExpiry;
 
+  // Scheduling state, guarded by the LeaseExpiryWheel the lease is linked into
+  ClientDescriptor clientDescriptor;
+  ValidLease previous;
+  ValidLease next;
+  int bucket = -1;
+
   ValidLease(long leaseExpiry) {
     this.leaseExpiry = leaseExpiry;
   }
 
+  long getLeaseExpiry() {
+    return leaseExpiry;
+  }
+
   @Override
   public boolean isExpired(long now) {
     return leaseExpiry - now < 0;
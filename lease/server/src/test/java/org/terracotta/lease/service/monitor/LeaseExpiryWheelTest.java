@@ -0,0 +1,126 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.lease.service.monitor;
+
+import org.junit.Test;
+import org.terracotta.entity.ClientDescriptor;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.mockito.Mockito.mock;
+
+public class LeaseExpiryWheelTest {
+  private final ClientDescriptor clientDescriptor = mock(ClientDescriptor.class);
+
+  @Test(expected = IllegalArgumentException.class)
+  public void bucketCountMustBeAPowerOfTwo() {
+    new LeaseExpiryWheel(0L, 10L, 12);
+  }
+
+  @Test
+  public void onlyExpiredLeasesAreReturned() {
+    LeaseExpiryWheel wheel = new LeaseExpiryWheel(0L, 10L, 8);
+    ValidLease lease1 = schedule(wheel, 15L);
+    ValidLease lease2 = schedule(wheel, 17L);
+    ValidLease lease3 = schedule(wheel, 42L);
+
+    assertThat(wheel.expire(14L), is(empty()));
+    assertThat(wheel.expire(16L), contains(lease1));
+    assertThat(wheel.expire(16L), is(empty()));
+    assertThat(wheel.expire(41L), contains(lease2));
+    assertThat(wheel.expire(43L), contains(lease3));
+    assertThat(wheel.size(), is(0));
+    assertThat(lease1.clientDescriptor, is(sameInstance(clientDescriptor)));
+  }
+
+  @Test
+  public void leasesInLaterRevolutionsStayInTheirBucket() {
+    LeaseExpiryWheel wheel = new LeaseExpiryWheel(0L, 10L, 4);
+    ValidLease lease1 = schedule(wheel, 5L);
+    ValidLease lease2 = schedule(wheel, 45L);
+    ValidLease lease3 = schedule(wheel, 85L);
+
+    assertThat(wheel.expire(6L), contains(lease1));
+    assertThat(wheel.expire(46L), contains(lease2));
+    assertThat(wheel.size(), is(1));
+    assertThat(wheel.expire(86L), contains(lease3));
+  }
+
+  @Test
+  public void longPauseVisitsEveryBucketOnce() {
+    LeaseExpiryWheel wheel = new LeaseExpiryWheel(0L, 10L, 4);
+    ValidLease lease1 = schedule(wheel, 5L);
+    ValidLease lease2 = schedule(wheel, 25L);
+    ValidLease lease3 = schedule(wheel, 1000L);
+
+    List<ValidLease> expired = wheel.expire(500L);
+    assertThat(expired, containsInAnyOrder(lease1, lease2));
+    assertThat(wheel.expire(999L), is(empty()));
+    assertThat(wheel.expire(1001L), contains(lease3));
+  }
+
+  @Test
+  public void leaseExpiringInAPastTickIsCheckedOnTheNextExpiry() {
+    LeaseExpiryWheel wheel = new LeaseExpiryWheel(0L, 10L, 8);
+    assertThat(wheel.expire(55L), is(empty()));
+
+    ValidLease lease = schedule(wheel, 12L);
+    assertThat(wheel.expire(56L), contains(lease));
+  }
+
+  @Test
+  public void cancelledLeasesDoNotExpire() {
+    LeaseExpiryWheel wheel = new LeaseExpiryWheel(0L, 10L, 8);
+    ValidLease lease1 = schedule(wheel, 15L);
+    ValidLease lease2 = schedule(wheel, 15L);
+    ValidLease lease3 = schedule(wheel, 15L);
+
+    wheel.cancel(lease2);
+    wheel.cancel(lease2);
+    assertThat(wheel.size(), is(2));
+    assertThat(wheel.expire(16L), containsInAnyOrder(lease1, lease3));
+  }
+
+  @Test
+  public void rescheduleMovesTheExpiry() {
+    LeaseExpiryWheel wheel = new LeaseExpiryWheel(0L, 10L, 8);
+    ValidLease lease1 = schedule(wheel, 15L);
+    ValidLease lease2 = new ValidLease(35L);
+
+    wheel.reschedule(lease1, clientDescriptor, lease2);
+    assertThat(wheel.size(), is(1));
+    assertThat(wheel.expire(16L), is(empty()));
+    assertThat(wheel.expire(36L), contains(lease2));
+
+    // rescheduling a lease that already expired only schedules its replacement
+    ValidLease lease3 = new ValidLease(55L);
+    wheel.reschedule(lease2, clientDescriptor, lease3);
+    assertThat(wheel.size(), is(1));
+  }
+
+  private ValidLease schedule(LeaseExpiryWheel wheel, long expiry) {
+    ValidLease lease = new ValidLease(expiry);
+    wheel.schedule(clientDescriptor, lease);
+    return lease;
+  }
+}
@@ -43,12 +43,12 @@ public class LeaseMonitorThreadTest {
     assertTrue(leaseMonitorThread.isDaemon());
     leaseMonitorThread.start();
 
-    verify(timeSource, timeout(10_000L).times(1)).sleep(200L);
+    verify(timeSource, timeout(10_000L).times(1)).sleep(50L);
     verify(leaseState, atLeast(1)).checkLeases();
 
-    timeSource.tickMillis(200L);
+    timeSource.tickMillis(50L);
 
-    verify(timeSource, timeout(10_000L).times(1)).sleep(200L);
+    verify(timeSource, timeout(10_000L).times(1)).sleep(50L);
     verify(leaseState, atLeast(1)).checkLeases();
 
     leaseMonitorThread.interrupt();
@@ -141,6 +141,68 @@ public class LeaseStateTest {
     verify(clientConnectionCloser).closeClientConnection(clientDescriptor1);
   }
 
+  @Test
+  public void renewingALeaseReschedulesItsExpiry() {
+    assertTrue(leaseState.acquireLease(clientDescriptor1, 10L));
+    assertThat(leaseState.scheduledLeaseCount(), is(1));
+
+    for (int i = 0; i < 10; i++) {
+      timeSource.tickMillis(5L);
+      assertTrue(leaseState.acquireLease(clientDescriptor1, 10L));
+      leaseState.checkLeases();
+    }
+    assertThat(leaseState.scheduledLeaseCount(), is(1));
+    verifyNoMoreInteractions(clientConnectionCloser);
+
+    timeSource.tickMillis(15L);
+    leaseState.checkLeases();
+    verify(clientConnectionCloser).closeClientConnection(clientDescriptor1);
+    assertThat(leaseState.scheduledLeaseCount(), is(0));
+  }
+
+  @Test
+  public void shorterLeaseDoesNotReplaceTheCurrentOne() {
+    assertTrue(leaseState.acquireLease(clientDescriptor1, 50L));
+    assertTrue(leaseState.acquireLease(clientDescriptor1, 10L));
+
+    timeSource.tickMillis(20L);
+    leaseState.checkLeases();
+    verifyNoMoreInteractions(clientConnectionCloser);
+
+    timeSource.tickMillis(40L);
+    leaseState.checkLeases();
+    verify(clientConnectionCloser).closeClientConnection(clientDescriptor1);
+  }
+
+  @Test
+  public void disconnectingAndReconnectingCancelTheLeaseExpiry() {
+    assertTrue(leaseState.acquireLease(clientDescriptor1, 10L));
+    assertTrue(leaseState.acquireLease(clientDescriptor2, 10L));
+
+    leaseState.disconnected(clientDescriptor1);
+    leaseState.reconnecting(clientDescriptor2);
+    assertThat(leaseState.scheduledLeaseCount(), is(0));
+
+    timeSource.tickMillis(20L);
+    leaseState.checkLeases();
+    verifyNoMoreInteractions(clientConnectionCloser);
+  }
+
+  @Test
+  public void leasesExpireAfterALongPause() {
+    assertTrue(leaseState.acquireLease(clientDescriptor1, 10L));
+    assertTrue(leaseState.acquireLease(clientDescriptor2, 1_000_000L));
+
+    timeSource.tickMillis(500_000L);
+    leaseState.checkLeases();
+    verify(clientConnectionCloser).closeClientConnection(clientDescriptor1);
+    verifyNoMoreInteractions(clientConnectionCloser);
+
+    timeSource.tickMillis(500_001L);
+    leaseState.checkLeases();
+    verify(clientConnectionCloser).closeClientConnection(clientDescriptor2);
+  }
+
   @Test
   public void testStateDump() {
     MockStateDumpCollector stateDumper = new MockStateDumpCollector();
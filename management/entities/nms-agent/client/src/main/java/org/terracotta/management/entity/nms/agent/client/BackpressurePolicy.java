@@ -0,0 +1,42 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.management.entity.nms.agent.client;
+
+/**
+ * What an {@link OutboundQueue} does with statistics and notifications once it is full.
+ * <p>
+ * Capability exposures, tags and management call answers are never dropped.
+ */
+public enum BackpressurePolicy {
+
+  /**
+   * The statistics or notification being pushed is dropped
+   */
+  DROP_NEWEST,
+
+  /**
+   * The oldest queued statistics or notification is dropped to make room
+   */
+  DROP_OLDEST,
+
+  /**
+   * Pushed statistics are merged into the most recently queued statistics, replacing the ones having the same
+   * capability and context. Notifications, or statistics when none are queued, fall back to {@link #DROP_OLDEST}.
+   */
+  MERGE_STATISTICS
+
+}
@@ -39,15 +39,23 @@ import org.terracotta.management.registry.ManagementRegistry;
 import org.terracotta.voltron.proxy.MessageListener;
 import org.terracotta.voltron.proxy.client.EndpointListener;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.BiConsumer;
 import java.util.function.Supplier;
 
@@ -66,6 +74,16 @@ public class DefaultNmsAgentService implements EndpointListener, MessageListener
   private volatile NmsAgentEntity entity;
   private volatile ManagementRegistry registry;
   private volatile String[] previouslyExposedTags;
+  private volatile OutboundQueue outboundQueue;
+
+  // capabilities and context container last exposed to the current entity, used to only send the changes
+  private final Object exposureLock = new Object();
+  private Map<String, Capability> exposedCapabilities;
+  private ContextContainer exposedContextContainer;
+
+  private volatile long registryRefreshDelayMs;
+  private volatile ScheduledExecutorService registryRefreshScheduler;
+  private final AtomicBoolean registryRefreshScheduled = new AtomicBoolean();
 
   private long timeoutMs = 5000;
   private Executor managementCallExecutor = Runnable::run;
@@ -75,12 +93,12 @@ public class DefaultNmsAgentService implements EndpointListener, MessageListener
   private final ManagementProvider<?> managementProvider = new ManagementProviderAdapter<Object>(CAPABILITY_NAME, Object.class) {
     @Override
     public void register(Object managedObject) {
-      refreshManagementRegistry();
+      requestManagementRegistryRefresh();
     }
 
     @Override
     public void unregister(Object managedObject) {
-      refreshManagementRegistry();
+      requestManagementRegistryRefresh();
     }
   };
 
@@ -152,6 +170,12 @@ public class DefaultNmsAgentService implements EndpointListener, MessageListener
         registry.removeManagementProvider(managementProvider);
         this.registry = null;
       }
+      OutboundQueue outboundQueue = this.outboundQueue;
+      if (outboundQueue != null) {
+        // give a chance to the queued operations to be sent
+        outboundQueue.close(timeoutMs, TimeUnit.MILLISECONDS);
+        this.outboundQueue = null;
+      }
       flushEntity();
       closed = true;
     }
@@ -220,6 +244,42 @@ public class DefaultNmsAgentService implements EndpointListener, MessageListener
     return this;
   }
 
+  /**
+   * Switches this service to asynchronous mode: statistics, notifications and other operations sent to the server are
+   * queued and sent by a single thread, so that callers do not wait for the server.
+   * Statistics queued together are sent in one call.
+   *
+   * @param capacity the maximum number of queued operations before the policy applies
+   * @param policy   what to do with pushed statistics and notifications when the queue is full
+   */
+  public synchronized NmsAgentService setOutboundQueue(int capacity, BackpressurePolicy policy) {
+    OutboundQueue previous = this.outboundQueue;
+    this.outboundQueue = new OutboundQueue(capacity, policy, statistics -> runOperation(() -> getEntity().pushStatistics(null, statistics)));
+    if (previous != null) {
+      previous.close(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+    return this;
+  }
+
+  /**
+   * @return the queue used to send operations to the server when this service is asynchronous, exposing its metrics
+   */
+  public Optional<OutboundQueue> getOutboundQueue() {
+    return Optional.ofNullable(outboundQueue);
+  }
+
+  /**
+   * Delays the exposure of the management registry following a registration or un-registration in the bridged registry,
+   * so that all the changes happening within this delay are sent together.
+   *
+   * @param scheduler the scheduler used to expose the registry, or null to disable the delay
+   */
+  public NmsAgentService setRegistryRefreshDelay(long duration, TimeUnit unit, ScheduledExecutorService scheduler) {
+    this.registryRefreshScheduler = scheduler;
+    this.registryRefreshDelayMs = scheduler == null ? 0 : TimeUnit.MILLISECONDS.convert(duration, unit);
+    return this;
+  }
+
   public void setOnOperationError(BiConsumer<Operation, Throwable> onOperationError) {
     this.onOperationError = onOperationError;
   }
@@ -234,7 +294,58 @@ public class DefaultNmsAgentService implements EndpointListener, MessageListener
   @Override
   public void setCapabilities(ContextContainer contextContainer, Capability... capabilities) {
     LOGGER.trace("exposeManagementMetadata({})", contextContainer.getValue());
-    runOperation(() -> getEntity().exposeManagementMetadata(null, root, contextContainer, capabilities));
+    synchronized (exposureLock) {
+      Map<String, Capability> exposed = new LinkedHashMap<>();
+      for (Capability capability : capabilities) {
+        exposed.put(capability.getName(), capability);
+      }
+      exposedCapabilities = exposed;
+      exposedContextContainer = contextContainer;
+      submitOperation(() -> getEntity().exposeManagementMetadata(null, root, contextContainer, capabilities));
+    }
+  }
+
+  /**
+   * Only sends the capabilities that changed since the last exposure to the current entity
+   */
+  private void updateCapabilities(ContextContainer contextContainer, Collection<? extends Capability> capabilities) {
+    synchronized (exposureLock) {
+      Map<String, Capability> previous = exposedCapabilities;
+      if (previous == null) {
+        setCapabilities(contextContainer, capabilities);
+        return;
+      }
+      Map<String, Capability> exposed = new LinkedHashMap<>();
+      List<Capability> added = new ArrayList<>();
+      for (Capability capability : capabilities) {
+        exposed.put(capability.getName(), capability);
+        if (!capability.equals(previous.get(capability.getName()))) {
+          added.add(capability);
+        }
+      }
+      List<String> removed = new ArrayList<>();
+      for (String name : previous.keySet()) {
+        if (!exposed.containsKey(name)) {
+          removed.add(name);
+        }
+      }
+      if (added.isEmpty() && removed.isEmpty() && contextContainer.equals(exposedContextContainer)) {
+        return;
+      }
+      LOGGER.trace("updateManagementMetadata({}, {}, {})", contextContainer.getValue(), added.size(), removed);
+      exposedCapabilities = exposed;
+      exposedContextContainer = contextContainer;
+      Capability[] addedArray = added.toArray(new Capability[0]);
+      String[] removedArray = removed.toArray(new String[0]);
+      submitOperation(() -> getEntity().updateManagementMetadata(null, root, contextContainer, addedArray, removedArray));
+    }
+  }
+
+  private void resetExposedCapabilities() {
+    synchronized (exposureLock) {
+      exposedCapabilities = null;
+      exposedContextContainer = null;
+    }
   }
 
   @Override
@@ -245,7 +356,7 @@ public class DefaultNmsAgentService implements EndpointListener, MessageListener
   @Override
   public void setTags(String... tags) {
     LOGGER.trace("setTags({})", Arrays.asList(tags));
-    runOperation(() -> getEntity().exposeTags(null, tags));
+    submitOperation(() -> getEntity().exposeTags(null, tags));
     previouslyExposedTags = tags;
   }
 
@@ -255,7 +366,12 @@ public class DefaultNmsAgentService implements EndpointListener, MessageListener
       // ensure to send the notification with the root context
       notification.setContext(notification.getContext().with(root));
       LOGGER.trace("pushNotification({})", notification);
-      runOperation(() -> getEntity().pushNotification(null, notification));
+      OutboundQueue outboundQueue = this.outboundQueue;
+      if (outboundQueue == null) {
+        runOperation(() -> getEntity().pushNotification(null, notification));
+      } else {
+        outboundQueue.offerNotification(() -> runOperation(() -> getEntity().pushNotification(null, notification)));
+      }
     }
   }
 
@@ -272,13 +388,19 @@ public class DefaultNmsAgentService implements EndpointListener, MessageListener
         statistic.setContext(statistic.getContext().with(root));
       }
       LOGGER.trace("pushStatistics({})", statistics.length);
-      runOperation(() -> getEntity().pushStatistics(null, statistics));
+      OutboundQueue outboundQueue = this.outboundQueue;
+      if (outboundQueue == null) {
+        runOperation(() -> getEntity().pushStatistics(null, statistics));
+      } else {
+        outboundQueue.offerStatistics(statistics);
+      }
     }
   }
 
   @Override
   public void sendStates() {
     LOGGER.info("Sending management registry and tags to server");
+    resetExposedCapabilities();
     refreshManagementRegistry();
     if (previouslyExposedTags != null) {
       setTags(previouslyExposedTags);
@@ -289,6 +411,7 @@ public class DefaultNmsAgentService implements EndpointListener, MessageListener
   public void flushEntity() {
     NmsAgentEntity entity = this.entity;
     this.entity = null;
+    resetExposedCapabilities();
     if (entity != null) {
       LOGGER.trace("flushEntity()");
       entity.setEndpointListener(null);
@@ -299,7 +422,26 @@ public class DefaultNmsAgentService implements EndpointListener, MessageListener
     // expose the registry each time a new object is registered in the management registry
     if (isManagementRegistryBridged()) {
       ManagementRegistry registry = getRegistry();
-      setCapabilities(registry.getContextContainer(), registry.getCapabilities());
+      updateCapabilities(registry.getContextContainer(), registry.getCapabilities());
+    }
+  }
+
+  private void requestManagementRegistryRefresh() {
+    ScheduledExecutorService scheduler = registryRefreshScheduler;
+    if (scheduler == null || registryRefreshDelayMs <= 0) {
+      refreshManagementRegistry();
+    } else if (registryRefreshScheduled.compareAndSet(false, true)) {
+      try {
+        scheduler.schedule(() -> {
+          registryRefreshScheduled.set(false);
+          if (!isClosed()) {
+            refreshManagementRegistry();
+          }
+        }, registryRefreshDelayMs, TimeUnit.MILLISECONDS);
+      } catch (RejectedExecutionException e) {
+        registryRefreshScheduled.set(false);
+        refreshManagementRegistry();
+      }
     }
   }
 
@@ -319,7 +461,16 @@ public class DefaultNmsAgentService implements EndpointListener, MessageListener
     LOGGER.trace("answerManagementCall({}, {})", managementCallIdentifier, aReturn);
     // ensure to send the answer with the root context
     aReturn.setContext(aReturn.getContext().with(root));
-    runOperation(() -> getEntity().answerManagementCall(null, managementCallIdentifier, aReturn));
+    submitOperation(() -> getEntity().answerManagementCall(null, managementCallIdentifier, aReturn));
+  }
+
+  private void submitOperation(Supplier<Future<?>> op) {
+    OutboundQueue outboundQueue = this.outboundQueue;
+    if (outboundQueue == null) {
+      runOperation(op);
+    } else {
+      outboundQueue.offer(() -> runOperation(op));
+    }
   }
 
   protected void runOperation(Supplier<Future<?>> op) {
@@ -329,12 +480,15 @@ public class DefaultNmsAgentService implements EndpointListener, MessageListener
       } catch (InterruptedException e) {
         Thread.currentThread().interrupt();
       } catch (ExecutionException e) {
+        // the failed operation might have been an exposure: next one will send the whole registry
+        resetExposedCapabilities();
         if (containsCause(e, ConnectionClosedException.class) || containsCause(e, ConnectionShutdownException.class)) {
             flushEntity();
         }
         onOperationError.accept(() -> runOperation(op), e.getCause());
       } catch (TimeoutException | RuntimeException e) {
         // do not flush entity: these exception do not mean that the connection is broken
+        resetExposedCapabilities();
         onOperationError.accept(() -> runOperation(op), e);
       }
     }
@@ -372,6 +526,7 @@ public class DefaultNmsAgentService implements EndpointListener, MessageListener
 
     // needed before calling refreshManagementRegistry();
     this.entity = entity;
+    resetExposedCapabilities();
 
     // this will call again getEntity();
     refreshManagementRegistry();
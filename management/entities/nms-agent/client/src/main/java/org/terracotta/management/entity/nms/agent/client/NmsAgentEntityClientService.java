@@ -17,8 +17,8 @@
 package org.terracotta.management.entity.nms.agent.client;
 
 import org.terracotta.management.entity.nms.agent.NmsAgent;
+import org.terracotta.management.entity.nms.agent.NmsAgentCodec;
 import org.terracotta.management.model.message.Message;
-import org.terracotta.voltron.proxy.SerializationCodec;
 import org.terracotta.voltron.proxy.client.ProxyEntityClientService;
 
 /**
@@ -29,7 +29,7 @@ public class NmsAgentEntityClientService extends ProxyEntityClientService<NmsAge
   public NmsAgentEntityClientService() {
     //TODO: MATHIEU - PERF: https://github.com/Terracotta-OSS/terracotta-platform/issues/92
     super(NmsAgentEntity.class, NmsAgent.class, Void.class, new Class<?>[] {Message.class});
-    setCodec(new SerializationCodec());
+    setCodec(new NmsAgentCodec());
   }
 
 }
@@ -21,6 +21,7 @@ import org.terracotta.connection.entity.EntityRef;
 import org.terracotta.exception.EntityNotFoundException;
 import org.terracotta.exception.EntityNotProvidedException;
 import org.terracotta.exception.EntityVersionMismatchException;
+import org.terracotta.management.entity.nms.agent.NmsAgentVersion;
 
 import static java.util.Objects.requireNonNull;
 
@@ -49,7 +50,7 @@ public class NmsAgentEntityFactory {
 
   private EntityRef<NmsAgentEntity, Void, Object> getEntityRef() {
     try {
-      return connection.getEntityRef(NmsAgentEntity.class, 1, ENTITYNAME);
+      return connection.getEntityRef(NmsAgentEntity.class, NmsAgentVersion.LATEST.version(), ENTITYNAME);
     } catch (EntityNotProvidedException e) {
       throw new AssertionError(e);
     }
@@ -0,0 +1,377 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.management.entity.nms.agent.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.terracotta.management.model.stats.ContextualStatistics;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Bounded queue of outgoing management operations, drained by a single sender thread so that the threads pushing
+ * statistics and notifications never wait for a server round trip.
+ * <p>
+ * Operations are sent in the order they were queued. Consecutive statistics found in the queue when the sender wakes
+ * up are sent with one {@code pushStatistics} call.
+ */
+public final class OutboundQueue implements Closeable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(OutboundQueue.class);
+
+  private static final AtomicLong senderCount = new AtomicLong();
+
+  private final int capacity;
+  private final BackpressurePolicy policy;
+  private final Consumer<ContextualStatistics[]> statisticsSender;
+  private final Deque<Item> items = new ArrayDeque<>();
+  private final Thread sender;
+
+  private final AtomicLong dropped = new AtomicLong();
+  private final AtomicLong merged = new AtomicLong();
+  private final AtomicLong sent = new AtomicLong();
+  private final AtomicLong batches = new AtomicLong();
+  private final AtomicLong totalLatencyNanos = new AtomicLong();
+  private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+  private boolean closed;
+
+  OutboundQueue(int capacity, BackpressurePolicy policy, Consumer<ContextualStatistics[]> statisticsSender) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Bad capacity: " + capacity);
+    }
+    this.capacity = capacity;
+    this.policy = Objects.requireNonNull(policy);
+    this.statisticsSender = Objects.requireNonNull(statisticsSender);
+    this.sender = Executors.defaultThreadFactory().newThread(this::drain);
+    this.sender.setDaemon(true);
+    this.sender.setName("NmsAgentSender-" + senderCount.incrementAndGet());
+    this.sender.setUncaughtExceptionHandler((thread, err) -> LOGGER.error("UncaughtException in thread " + thread.getName() + ": " + err.getMessage(), err));
+    this.sender.start();
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+  public BackpressurePolicy getPolicy() {
+    return policy;
+  }
+
+  /**
+   * @return the number of operations waiting to be sent
+   */
+  public synchronized int getDepth() {
+    return items.size();
+  }
+
+  /**
+   * @return the number of statistics and operations dropped because the queue was full or closed
+   */
+  public long getDroppedCount() {
+    return dropped.get();
+  }
+
+  /**
+   * @return the number of statistics merged into already queued statistics because the queue was full
+   */
+  public long getMergedCount() {
+    return merged.get();
+  }
+
+  /**
+   * @return the number of queued operations that were sent
+   */
+  public long getSentCount() {
+    return sent.get();
+  }
+
+  /**
+   * @return the number of server calls made by the sender
+   */
+  public long getBatchCount() {
+    return batches.get();
+  }
+
+  /**
+   * @return the average time between queuing an operation and the end of the server call sending it
+   */
+  public long getAverageLatency(TimeUnit unit) {
+    long count = sent.get();
+    return count == 0 ? 0 : unit.convert(totalLatencyNanos.get() / count, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * @return the maximum time between queuing an operation and the end of the server call sending it
+   */
+  public long getMaxLatency(TimeUnit unit) {
+    return unit.convert(maxLatencyNanos.get(), TimeUnit.NANOSECONDS);
+  }
+
+  void offerStatistics(ContextualStatistics[] statistics) {
+    if (isSender()) {
+      statisticsSender.accept(statistics);
+    } else {
+      offer(new StatisticsItem(statistics));
+    }
+  }
+
+  void offerNotification(Runnable operation) {
+    if (isSender()) {
+      operation.run();
+    } else {
+      offer(new OperationItem(operation, true));
+    }
+  }
+
+  void offer(Runnable operation) {
+    if (isSender()) {
+      operation.run();
+    } else {
+      offer(new OperationItem(operation, false));
+    }
+  }
+
+  /**
+   * Operations triggered while sending (i.e. exposing the capabilities when a new entity is fetched) are sent
+   * right away, before the one being sent
+   */
+  private boolean isSender() {
+    return Thread.currentThread() == sender;
+  }
+
+  /**
+   * Stops accepting operations and gives the sender at most the given time to send the queued ones
+   */
+  void close(long timeout, TimeUnit unit) {
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      notifyAll();
+    }
+    if (!isSender()) {
+      try {
+        sender.join(unit.toMillis(timeout));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      if (sender.isAlive()) {
+        LOGGER.warn("Management operations still queued after {} {}: {} will be lost", timeout, unit, getDepth());
+        sender.interrupt();
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    close(0, TimeUnit.MILLISECONDS);
+  }
+
+  private synchronized void offer(Item item) {
+    if (closed) {
+      dropped.addAndGet(item.size());
+      return;
+    }
+    if (items.size() >= capacity && !makeRoom(item)) {
+      return;
+    }
+    items.addLast(item);
+    if (items.size() == 1) {
+      notifyAll();
+    }
+  }
+
+  /**
+   * @return true if the item still has to be queued
+   */
+  private boolean makeRoom(Item item) {
+    if (!item.droppable) {
+      // operations that cannot be dropped are queued anyway, but still take the place of a droppable one if there is any
+      dropOldest();
+      return true;
+    }
+    switch (policy) {
+      case DROP_NEWEST:
+        dropped.addAndGet(item.size());
+        return false;
+      case MERGE_STATISTICS:
+        if (item instanceof StatisticsItem) {
+          Iterator<Item> it = items.descendingIterator();
+          while (it.hasNext()) {
+            Item queued = it.next();
+            if (queued instanceof StatisticsItem) {
+              merged.addAndGet(((StatisticsItem) queued).merge((StatisticsItem) item));
+              return false;
+            }
+          }
+        }
+        return dropOldest();
+      case DROP_OLDEST:
+        return dropOldest();
+      default:
+        throw new AssertionError(policy);
+    }
+  }
+
+  private boolean dropOldest() {
+    for (Iterator<Item> it = items.iterator(); it.hasNext(); ) {
+      Item queued = it.next();
+      if (queued.droppable) {
+        it.remove();
+        dropped.addAndGet(queued.size());
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void drain() {
+    List<Item> batch = new ArrayList<>();
+    while (true) {
+      synchronized (this) {
+        while (items.isEmpty() && !closed) {
+          try {
+            wait();
+          } catch (InterruptedException e) {
+            return;
+          }
+        }
+        if (items.isEmpty()) {
+          return;
+        }
+        batch.addAll(items);
+        items.clear();
+      }
+      send(batch);
+      batch.clear();
+      if (Thread.currentThread().isInterrupted()) {
+        return;
+      }
+    }
+  }
+
+  private void send(List<Item> batch) {
+    List<ContextualStatistics> statistics = new ArrayList<>();
+    long oldestStatistics = 0;
+    int statisticsItems = 0;
+    for (Item item : batch) {
+      if (item instanceof StatisticsItem) {
+        if (statisticsItems++ == 0) {
+          oldestStatistics = item.queuedNanos;
+        }
+        statistics.addAll(((StatisticsItem) item).statistics);
+      } else {
+        if (statisticsItems > 0) {
+          sendStatistics(statistics, oldestStatistics, statisticsItems);
+          statistics.clear();
+          statisticsItems = 0;
+        }
+        try {
+          ((OperationItem) item).operation.run();
+        } catch (RuntimeException e) {
+          LOGGER.warn("Failed to send management operation: {}", e.getMessage(), e);
+        }
+        sent(1, item.queuedNanos);
+      }
+    }
+    if (statisticsItems > 0) {
+      sendStatistics(statistics, oldestStatistics, statisticsItems);
+    }
+  }
+
+  private void sendStatistics(List<ContextualStatistics> statistics, long oldest, int items) {
+    try {
+      statisticsSender.accept(statistics.toArray(new ContextualStatistics[0]));
+    } catch (RuntimeException e) {
+      LOGGER.warn("Failed to send statistics: {}", e.getMessage(), e);
+    }
+    sent(items, oldest);
+  }
+
+  private void sent(int items, long queuedNanos) {
+    long latency = System.nanoTime() - queuedNanos;
+    batches.incrementAndGet();
+    sent.addAndGet(items);
+    totalLatencyNanos.addAndGet(latency * items);
+    maxLatencyNanos.accumulateAndGet(latency, Math::max);
+  }
+
+  private abstract static class Item {
+    final long queuedNanos = System.nanoTime();
+    final boolean droppable;
+
+    Item(boolean droppable) {
+      this.droppable = droppable;
+    }
+
+    int size() {
+      return 1;
+    }
+  }
+
+  private static final class OperationItem extends Item {
+    final Runnable operation;
+
+    OperationItem(Runnable operation, boolean droppable) {
+      super(droppable);
+      this.operation = Objects.requireNonNull(operation);
+    }
+  }
+
+  private static final class StatisticsItem extends Item {
+    final List<ContextualStatistics> statistics;
+
+    StatisticsItem(ContextualStatistics[] statistics) {
+      super(true);
+      this.statistics = new ArrayList<>(statistics.length);
+      for (ContextualStatistics statistic : statistics) {
+        this.statistics.add(statistic);
+      }
+    }
+
+    @Override
+    int size() {
+      return statistics.size();
+    }
+
+    /**
+     * Adds the other statistics to this item, replacing the ones having the same capability and context.
+     *
+     * @return the number of statistics that were merged into this item
+     */
+    int merge(StatisticsItem other) {
+      for (ContextualStatistics statistic : other.statistics) {
+        statistics.removeIf(queued -> queued.getCapability().equals(statistic.getCapability()) && queued.getContext().equals(statistic.getContext()));
+        statistics.add(statistic);
+      }
+      return other.statistics.size();
+    }
+  }
+
+}
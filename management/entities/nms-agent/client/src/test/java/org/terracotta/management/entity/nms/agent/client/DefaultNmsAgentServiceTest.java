@@ -0,0 +1,275 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.management.entity.nms.agent.client;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.terracotta.management.model.capabilities.Capability;
+import org.terracotta.management.model.capabilities.DefaultCapability;
+import org.terracotta.management.model.capabilities.descriptors.Descriptor;
+import org.terracotta.management.model.capabilities.descriptors.StatisticDescriptor;
+import org.terracotta.management.model.context.Context;
+import org.terracotta.management.model.context.ContextContainer;
+import org.terracotta.management.model.notification.ContextualNotification;
+import org.terracotta.management.model.stats.ContextualStatistics;
+import org.terracotta.management.registry.DefaultManagementRegistry;
+import org.terracotta.management.registry.ManagementProviderAdapter;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+@RunWith(JUnit4.class)
+public class DefaultNmsAgentServiceTest {
+
+  // the calls received by the entity, as the method name followed by its arguments
+  private final List<List<Object>> calls = Collections.synchronizedList(new ArrayList<>());
+  private final CountDownLatch sending = new CountDownLatch(1);
+  private final CountDownLatch release = new CountDownLatch(1);
+  private volatile boolean blockNotifications;
+  private volatile boolean failNextCall;
+  private final DefaultNmsAgentService service = new DefaultNmsAgentService(Context.create("clientId", "client-1"), newEntity());
+
+  @After
+  public void tearDown() {
+    release.countDown();
+    service.close();
+  }
+
+  @Test
+  public void test_async_mode_does_not_wait_for_the_server() throws Exception {
+    ContextualStatistics a = statistics("a");
+    ContextualStatistics b = statistics("b");
+    service.setOutboundQueue(10, BackpressurePolicy.DROP_NEWEST);
+
+    blockNotifications = true;
+    service.pushNotification(new ContextualNotification(Context.create("id", "n0"), "N0"));
+    sending.await();
+
+    // the sender is blocked in the server call: these are queued
+    service.pushStatistics(a);
+    service.pushStatistics(b);
+    service.pushNotification(new ContextualNotification(Context.create("id", "n1"), "N1"));
+    assertThat(service.getOutboundQueue().get().getDepth(), equalTo(3));
+
+    release.countDown();
+    service.close();
+
+    assertThat(methods(), equalTo(Arrays.asList("pushNotification", "pushStatistics", "pushNotification")));
+    Object[] statistics = (Object[]) calls.get(1).get(2);
+    assertThat(statistics.length, equalTo(2));
+    assertThat(statistics[0], sameInstance(a));
+    assertThat(statistics[1], sameInstance(b));
+    assertThat(a.getContext().get("clientId"), equalTo("client-1"));
+  }
+
+  @Test
+  public void test_sync_mode_sends_right_away() throws Exception {
+    service.pushStatistics(statistics("a"));
+    service.pushNotification(new ContextualNotification(Context.create("id", "n0"), "N0"));
+
+    assertThat(service.getOutboundQueue().isPresent(), equalTo(false));
+    assertThat(methods(), equalTo(Arrays.asList("pushStatistics", "pushNotification")));
+  }
+
+  @Test
+  public void test_only_capability_changes_are_sent() throws Exception {
+    TestProvider strings = new TestProvider("Strings", String.class);
+    TestProvider integers = new TestProvider("Integers", Integer.class);
+    DefaultManagementRegistry registry = bridgedRegistry(strings, integers);
+
+    registry.register("a");
+    assertThat(methods(), equalTo(Arrays.asList("exposeManagementMetadata")));
+    assertThat(capabilityNames(calls.get(0).get(4)), equalTo(Arrays.asList("DiagnosticCalls", "Integers", "NmsAgentService", "Strings")));
+
+    registry.register(1);
+    assertThat(methods(), equalTo(Arrays.asList("exposeManagementMetadata", "updateManagementMetadata")));
+    assertThat(capabilityNames(calls.get(1).get(4)), equalTo(Arrays.asList("Integers")));
+    assertThat(Arrays.asList((String[]) calls.get(1).get(5)), equalTo(Collections.emptyList()));
+
+    registry.removeManagementProvider(integers);
+    registry.register("b");
+    assertThat(capabilityNames(calls.get(2).get(4)), equalTo(Arrays.asList("Strings")));
+    assertThat(Arrays.asList((String[]) calls.get(2).get(5)), equalTo(Arrays.asList("Integers")));
+
+    // nothing changed
+    registry.register(2L);
+    assertThat(calls.size(), equalTo(3));
+  }
+
+  @Test
+  public void test_whole_registry_is_sent_again_after_a_reset() throws Exception {
+    DefaultManagementRegistry registry = bridgedRegistry(new TestProvider("Strings", String.class));
+    registry.register("a");
+    calls.clear();
+
+    service.sendStates();
+    assertThat(methods(), equalTo(Arrays.asList("exposeManagementMetadata", "exposeTags")));
+    calls.clear();
+
+    // a failed exposure might not have reached the server
+    failNextCall = true;
+    registry.register("b");
+    registry.register("c");
+    assertThat(methods(), equalTo(Arrays.asList("updateManagementMetadata", "exposeManagementMetadata")));
+  }
+
+  @Test
+  public void test_registry_refreshes_are_debounced() throws Exception {
+    List<Runnable> scheduled = new ArrayList<>();
+    service.setRegistryRefreshDelay(1, TimeUnit.SECONDS, scheduler(scheduled));
+    TestProvider strings = new TestProvider("Strings", String.class);
+    DefaultManagementRegistry registry = bridgedRegistry(strings);
+    registry.register("a");
+    scheduled.remove(0).run();
+    calls.clear();
+
+    registry.register("b");
+    registry.register("c");
+    registry.unregister("a");
+    assertThat(scheduled.size(), equalTo(1));
+    assertThat(calls.size(), equalTo(0));
+
+    scheduled.remove(0).run();
+    assertThat(methods(), equalTo(Arrays.asList("updateManagementMetadata")));
+    assertThat(((Capability[]) calls.get(0).get(4))[0], equalTo(strings.getCapability()));
+
+    registry.register("d");
+    assertThat(scheduled.size(), equalTo(1));
+
+    // without a scheduler, each change is sent right away
+    service.setRegistryRefreshDelay(0, TimeUnit.SECONDS, null);
+    registry.register("e");
+    assertThat(methods(), equalTo(Arrays.asList("updateManagementMetadata", "updateManagementMetadata")));
+  }
+
+  /**
+   * @return a registry bridged with the service after the given providers, the entity being already created
+   */
+  private DefaultManagementRegistry bridgedRegistry(TestProvider... providers) {
+    service.setTags("tag");
+    DefaultManagementRegistry registry = new DefaultManagementRegistry(new ContextContainer("cacheManagerName", "cache-manager-1"));
+    for (TestProvider provider : providers) {
+      registry.addManagementProvider(provider);
+    }
+    service.setManagementRegistry(registry);
+    calls.clear();
+    return registry;
+  }
+
+  private static List<String> capabilityNames(Object capabilities) {
+    return Arrays.stream((Capability[]) capabilities)
+        .map(Capability::getName)
+        .collect(Collectors.toList());
+  }
+
+  private static ScheduledExecutorService scheduler(List<Runnable> scheduled) {
+    return (ScheduledExecutorService) Proxy.newProxyInstance(ScheduledExecutorService.class.getClassLoader(), new Class<?>[]{ScheduledExecutorService.class}, (proxy, method, args) -> {
+      if (method.getName().equals("schedule") && args[0] instanceof Runnable) {
+        scheduled.add((Runnable) args[0]);
+        return null;
+      }
+      throw new UnsupportedOperationException(method.getName());
+    });
+  }
+
+  private List<String> methods() {
+    synchronized (calls) {
+      return calls.stream()
+          .map(call -> (String) call.get(0))
+          .collect(Collectors.toList());
+    }
+  }
+
+  private NmsAgentEntity newEntity() {
+    return (NmsAgentEntity) Proxy.newProxyInstance(NmsAgentEntity.class.getClassLoader(), new Class<?>[]{NmsAgentEntity.class}, (proxy, method, args) -> {
+      if (!Future.class.equals(method.getReturnType())) {
+        // entity plumbing: listeners, close...
+        return null;
+      }
+      List<Object> call = new ArrayList<>();
+      call.add(method.getName());
+      if (args != null) {
+        call.addAll(Arrays.asList(args));
+      }
+      calls.add(call);
+      if (failNextCall) {
+        failNextCall = false;
+        CompletableFuture<Void> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IllegalStateException("failed"));
+        return failed;
+      }
+      if (blockNotifications && method.getName().equals("pushNotification")) {
+        blockNotifications = false;
+        sending.countDown();
+        release.await();
+      }
+      return CompletableFuture.completedFuture(null);
+    });
+  }
+
+  private static class TestProvider extends ManagementProviderAdapter<Object> {
+
+    private final List<Object> registered = new CopyOnWriteArrayList<>();
+
+    TestProvider(String name, Class<?> managedType) {
+      super(name, managedType);
+    }
+
+    @Override
+    public void register(Object managedObject) {
+      registered.add(managedObject);
+    }
+
+    @Override
+    public void unregister(Object managedObject) {
+      registered.remove(managedObject);
+    }
+
+    @Override
+    public Collection<Descriptor> getDescriptors() {
+      return registered.stream()
+          .map(o -> new StatisticDescriptor(String.valueOf(o), "GAUGE"))
+          .collect(Collectors.toList());
+    }
+
+    @Override
+    public Capability getCapability() {
+      return new DefaultCapability(getCapabilityName(), getCapabilityContext(), getDescriptors());
+    }
+  }
+
+  private static ContextualStatistics statistics(String id) {
+    return new ContextualStatistics("capability", Context.create("id", id), Collections.emptyMap());
+  }
+}
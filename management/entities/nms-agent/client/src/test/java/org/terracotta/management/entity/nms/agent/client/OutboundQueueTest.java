@@ -0,0 +1,219 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.management.entity.nms.agent.client;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.terracotta.management.model.context.Context;
+import org.terracotta.management.model.stats.ContextualStatistics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+@RunWith(JUnit4.class)
+public class OutboundQueueTest {
+
+  private final List<Object> sent = Collections.synchronizedList(new ArrayList<>());
+  private final CountDownLatch sending = new CountDownLatch(1);
+  private final CountDownLatch release = new CountDownLatch(1);
+  private OutboundQueue queue;
+
+  @After
+  public void tearDown() {
+    release.countDown();
+    if (queue != null) {
+      queue.close();
+    }
+  }
+
+  @Test
+  public void test_drop_newest() throws Exception {
+    ContextualStatistics a = statistics("a");
+    blockedQueue(2, BackpressurePolicy.DROP_NEWEST);
+
+    queue.offerStatistics(new ContextualStatistics[]{a});
+    queue.offerNotification(notification("n1"));
+    queue.offerNotification(notification("n2"));
+
+    assertThat(drain(), equalTo(Arrays.asList("block", Arrays.asList(a), "n1")));
+    assertThat(queue.getDroppedCount(), equalTo(1L));
+  }
+
+  @Test
+  public void test_drop_oldest() throws Exception {
+    ContextualStatistics a = statistics("a");
+    ContextualStatistics b = statistics("b");
+    blockedQueue(2, BackpressurePolicy.DROP_OLDEST);
+
+    queue.offerStatistics(new ContextualStatistics[]{a, b});
+    queue.offerNotification(notification("n1"));
+    queue.offerNotification(notification("n2"));
+
+    assertThat(drain(), equalTo(Arrays.asList("block", "n1", "n2")));
+    assertThat("all the statistics of the dropped push are counted", queue.getDroppedCount(), equalTo(2L));
+  }
+
+  @Test
+  public void test_merge_statistics() throws Exception {
+    ContextualStatistics a1 = statistics("a");
+    ContextualStatistics a2 = statistics("a");
+    ContextualStatistics b = statistics("b");
+    blockedQueue(2, BackpressurePolicy.MERGE_STATISTICS);
+
+    queue.offerStatistics(new ContextualStatistics[]{a1});
+    queue.offerNotification(notification("n1"));
+    queue.offerStatistics(new ContextualStatistics[]{a2, b});
+    // no statistics to merge a notification into: the oldest queued item is dropped
+    queue.offerNotification(notification("n2"));
+
+    List<Object> sent = drain();
+    assertThat(sent, equalTo(Arrays.asList("block", "n1", "n2")));
+    assertThat(queue.getMergedCount(), equalTo(2L));
+    assertThat(queue.getDroppedCount(), equalTo(2L));
+  }
+
+  @Test
+  public void test_merged_statistics_replace_the_queued_ones() throws Exception {
+    ContextualStatistics a1 = statistics("a");
+    ContextualStatistics a2 = statistics("a");
+    ContextualStatistics b = statistics("b");
+    blockedQueue(1, BackpressurePolicy.MERGE_STATISTICS);
+
+    queue.offerStatistics(new ContextualStatistics[]{a1});
+    queue.offerStatistics(new ContextualStatistics[]{a2, b});
+
+    List<Object> sent = drain();
+    assertThat(sent.size(), equalTo(2));
+    List<?> statistics = (List<?>) sent.get(1);
+    assertThat(statistics.size(), equalTo(2));
+    assertThat(statistics.get(0), sameInstance(a2));
+    assertThat(statistics.get(1), sameInstance(b));
+    assertThat(queue.getMergedCount(), equalTo(2L));
+    assertThat(queue.getDroppedCount(), equalTo(0L));
+  }
+
+  @Test
+  public void test_operations_that_cannot_be_dropped_are_kept_in_order() throws Exception {
+    blockedQueue(1, BackpressurePolicy.DROP_NEWEST);
+
+    queue.offerNotification(notification("n1"));
+    queue.offer(operation("op1"));
+    queue.offer(operation("op2"));
+    queue.offer(operation("op3"));
+
+    assertThat(queue.getDepth(), equalTo(3));
+    assertThat(drain(), equalTo(Arrays.asList("block", "op1", "op2", "op3")));
+    assertThat("the notification made room for the first operation", queue.getDroppedCount(), equalTo(1L));
+  }
+
+  @Test
+  public void test_statistics_are_coalesced_in_order() throws Exception {
+    ContextualStatistics a = statistics("a");
+    ContextualStatistics b = statistics("b");
+    ContextualStatistics c = statistics("c");
+    blockedQueue(10, BackpressurePolicy.DROP_NEWEST);
+
+    queue.offerStatistics(new ContextualStatistics[]{a});
+    queue.offerStatistics(new ContextualStatistics[]{b});
+    queue.offerNotification(notification("n1"));
+    queue.offerStatistics(new ContextualStatistics[]{c});
+
+    // statistics queued before a notification are sent before it
+    assertThat(drain(), equalTo(Arrays.asList("block", Arrays.asList(a, b), "n1", Arrays.asList(c))));
+  }
+
+  @Test
+  public void test_metrics() throws Exception {
+    blockedQueue(10, BackpressurePolicy.DROP_NEWEST);
+
+    queue.offerStatistics(new ContextualStatistics[]{statistics("a")});
+    queue.offerStatistics(new ContextualStatistics[]{statistics("b")});
+    queue.offerNotification(notification("n1"));
+    assertThat(queue.getDepth(), equalTo(3));
+    assertThat(queue.getSentCount(), equalTo(0L));
+
+    drain();
+
+    assertThat(queue.getDepth(), equalTo(0));
+    assertThat(queue.getSentCount(), equalTo(4L));
+    assertThat(queue.getBatchCount(), equalTo(3L));
+    assertThat(queue.getDroppedCount(), equalTo(0L));
+    assertThat(queue.getMaxLatency(TimeUnit.NANOSECONDS) >= queue.getAverageLatency(TimeUnit.NANOSECONDS), equalTo(true));
+    assertThat(queue.getMaxLatency(TimeUnit.NANOSECONDS) > 0, equalTo(true));
+  }
+
+  @Test
+  public void test_close_sends_the_queued_operations() throws Exception {
+    blockedQueue(10, BackpressurePolicy.DROP_NEWEST);
+
+    queue.offerNotification(notification("n1"));
+    queue.offer(operation("op1"));
+    release.countDown();
+    queue.close(5, TimeUnit.SECONDS);
+
+    assertThat(sent, equalTo(Arrays.asList("block", "n1", "op1")));
+
+    queue.offerNotification(notification("n2"));
+    queue.offer(operation("op2"));
+    queue.offerStatistics(new ContextualStatistics[]{statistics("a"), statistics("b")});
+
+    assertThat(sent.size(), equalTo(3));
+    assertThat("operations offered to a closed queue are dropped", queue.getDroppedCount(), equalTo(4L));
+  }
+
+  private void blockedQueue(int capacity, BackpressurePolicy policy) throws InterruptedException {
+    queue = new OutboundQueue(capacity, policy, statistics -> sent.add(Arrays.asList(statistics)));
+    queue.offer(() -> {
+      sent.add("block");
+      sending.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    sending.await();
+  }
+
+  private List<Object> drain() {
+    release.countDown();
+    queue.close(5, TimeUnit.SECONDS);
+    return sent;
+  }
+
+  private Runnable notification(String name) {
+    return () -> sent.add(name);
+  }
+
+  private Runnable operation(String name) {
+    return () -> sent.add(name);
+  }
+
+  private static ContextualStatistics statistics(String id) {
+    return new ContextualStatistics("capability", Context.create("id", id), Collections.emptyMap());
+  }
+}
@@ -0,0 +1,297 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.management.entity.nms.agent;
+
+import org.terracotta.management.model.capabilities.DefaultCapability;
+import org.terracotta.management.model.capabilities.context.CapabilityContext;
+import org.terracotta.management.model.capabilities.descriptors.CallDescriptor;
+import org.terracotta.management.model.capabilities.descriptors.Descriptor;
+import org.terracotta.management.model.capabilities.descriptors.StatisticDescriptor;
+import org.terracotta.management.model.context.Context;
+import org.terracotta.management.model.context.ContextContainer;
+import org.terracotta.management.model.context.Contextual;
+import org.terracotta.management.model.message.DefaultMessage;
+import org.terracotta.management.model.notification.ContextualNotification;
+import org.terracotta.management.model.stats.ContextualStatistics;
+import org.terracotta.management.sequence.BoundaryFlakeSequence;
+import org.terracotta.management.sequence.Sequence;
+import org.terracotta.statistics.Sample;
+import org.terracotta.statistics.StatisticType;
+import org.terracotta.statistics.registry.Statistic;
+import org.terracotta.voltron.proxy.BinaryCodec;
+import org.terracotta.voltron.proxy.BinaryCodec.ValueCodec;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.terracotta.voltron.proxy.BinaryCodec.readString;
+import static org.terracotta.voltron.proxy.BinaryCodec.writeString;
+
+/**
+ * The {@link ValueCodec}s of the management model types sent through the NMS and NMS agent entities: contexts,
+ * capabilities, statistics, notifications and messages. The values these types hold and which are not model types,
+ * like the sample values or the settings of a capability, are written with
+ * {@link BinaryCodec#writeValue(DataOutput, Object)}.
+ */
+public final class ManagementModelCodecs {
+
+  private static final ValueCodec<Context> CONTEXT = BinaryCodec.stringMapCodec(Context::create);
+
+  private static final ValueCodec<ContextContainer> CONTEXT_CONTAINER = new ValueCodec<ContextContainer>() {
+    @Override
+    public void encode(BinaryCodec codec, DataOutput output, ContextContainer value) throws IOException {
+      writeString(output, value.getName());
+      writeString(output, value.getValue());
+      output.writeInt(value.getSubContexts().size());
+      for (ContextContainer subContext : value.getSubContexts()) {
+        encode(codec, output, subContext);
+      }
+    }
+
+    @Override
+    public ContextContainer decode(BinaryCodec codec, DataInput input) throws IOException {
+      String name = readString(input);
+      String value = readString(input);
+      int size = input.readInt();
+      List<ContextContainer> subContexts = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        subContexts.add(decode(codec, input));
+      }
+      return new ContextContainer(name, value, subContexts);
+    }
+  };
+
+  private static final ValueCodec<StatisticDescriptor> STATISTIC_DESCRIPTOR = new ValueCodec<StatisticDescriptor>() {
+    @Override
+    public void encode(BinaryCodec codec, DataOutput output, StatisticDescriptor value) throws IOException {
+      writeString(output, value.getName());
+      writeString(output, value.getType());
+    }
+
+    @Override
+    public StatisticDescriptor decode(BinaryCodec codec, DataInput input) throws IOException {
+      return new StatisticDescriptor(readString(input), readString(input));
+    }
+  };
+
+  private static final ValueCodec<CallDescriptor> CALL_DESCRIPTOR = new ValueCodec<CallDescriptor>() {
+    @Override
+    public void encode(BinaryCodec codec, DataOutput output, CallDescriptor value) throws IOException {
+      writeString(output, value.getName());
+      writeString(output, value.getReturnType());
+      output.writeInt(value.getParameters().size());
+      for (CallDescriptor.Parameter parameter : value.getParameters()) {
+        writeString(output, parameter.getName());
+        writeString(output, parameter.getType());
+      }
+    }
+
+    @Override
+    public CallDescriptor decode(BinaryCodec codec, DataInput input) throws IOException {
+      String name = readString(input);
+      String returnType = readString(input);
+      int size = input.readInt();
+      List<CallDescriptor.Parameter> parameters = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        parameters.add(new CallDescriptor.Parameter(readString(input), readString(input)));
+      }
+      return new CallDescriptor(name, returnType, parameters);
+    }
+  };
+
+  private static final ValueCodec<DefaultCapability> CAPABILITY = new ValueCodec<DefaultCapability>() {
+    @Override
+    public void encode(BinaryCodec codec, DataOutput output, DefaultCapability value) throws IOException {
+      writeString(output, value.getName());
+      Collection<CapabilityContext.Attribute> attributes = value.getCapabilityContext().getAttributes();
+      output.writeInt(attributes.size());
+      for (CapabilityContext.Attribute attribute : attributes) {
+        writeString(output, attribute.getName());
+        output.writeBoolean(attribute.isRequired());
+      }
+      output.writeInt(value.getDescriptors().size());
+      for (Descriptor descriptor : value.getDescriptors()) {
+        // statistic and call descriptors are registered, settings fall back
+        codec.writeValue(output, descriptor);
+      }
+    }
+
+    @Override
+    public DefaultCapability decode(BinaryCodec codec, DataInput input) throws IOException {
+      String name = readString(input);
+      int size = input.readInt();
+      List<CapabilityContext.Attribute> attributes = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        attributes.add(new CapabilityContext.Attribute(readString(input), input.readBoolean()));
+      }
+      size = input.readInt();
+      List<Descriptor> descriptors = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        descriptors.add((Descriptor) codec.readValue(input));
+      }
+      return new DefaultCapability(name, new CapabilityContext(attributes), descriptors);
+    }
+  };
+
+  private static final ValueCodec<Statistic<?>> STATISTIC = new ValueCodec<Statistic<?>>() {
+    @Override
+    public void encode(BinaryCodec codec, DataOutput output, Statistic<?> value) throws IOException {
+      output.writeInt(value.getType().ordinal());
+      List<? extends Sample<?>> samples = value.getSamples();
+      output.writeInt(samples.size());
+      for (Sample<?> sample : samples) {
+        output.writeLong(sample.getTimestamp());
+        codec.writeValue(output, sample.getSample());
+      }
+    }
+
+    @Override
+    public Statistic<?> decode(BinaryCodec codec, DataInput input) throws IOException {
+      StatisticType type = StatisticType.values()[input.readInt()];
+      int size = input.readInt();
+      List<Sample<Serializable>> samples = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        long timestamp = input.readLong();
+        samples.add(new Sample<>(timestamp, (Serializable) codec.readValue(input)));
+      }
+      return new Statistic<>(type, samples);
+    }
+  };
+
+  private static final ValueCodec<ContextualStatistics> CONTEXTUAL_STATISTICS = new ValueCodec<ContextualStatistics>() {
+    @Override
+    public void encode(BinaryCodec codec, DataOutput output, ContextualStatistics value) throws IOException {
+      writeString(output, value.getCapability());
+      CONTEXT.encode(codec, output, value.getContext());
+      output.writeInt(value.size());
+      for (Map.Entry<String, Statistic<? extends Serializable>> entry : value.getStatistics().entrySet()) {
+        writeString(output, entry.getKey());
+        STATISTIC.encode(codec, output, entry.getValue());
+      }
+    }
+
+    @Override
+    public ContextualStatistics decode(BinaryCodec codec, DataInput input) throws IOException {
+      String capability = readString(input);
+      Context context = CONTEXT.decode(codec, input);
+      int size = input.readInt();
+      Map<String, Statistic<? extends Serializable>> statistics = new HashMap<>();
+      for (int i = 0; i < size; i++) {
+        statistics.put(readString(input), STATISTIC.decode(codec, input));
+      }
+      return new ContextualStatistics(capability, context, statistics);
+    }
+  };
+
+  private static final ValueCodec<ContextualNotification> CONTEXTUAL_NOTIFICATION = new ValueCodec<ContextualNotification>() {
+    @Override
+    public void encode(BinaryCodec codec, DataOutput output, ContextualNotification value) throws IOException {
+      CONTEXT.encode(codec, output, value.getContext());
+      writeString(output, value.getType());
+      output.writeInt(value.getAttributes().size());
+      for (Map.Entry<String, String> entry : value.getAttributes().entrySet()) {
+        writeString(output, entry.getKey());
+        writeString(output, entry.getValue());
+      }
+    }
+
+    @Override
+    public ContextualNotification decode(BinaryCodec codec, DataInput input) throws IOException {
+      Context context = CONTEXT.decode(codec, input);
+      String type = readString(input);
+      int size = input.readInt();
+      Map<String, String> attributes = new HashMap<>();
+      for (int i = 0; i < size; i++) {
+        attributes.put(readString(input), readString(input));
+      }
+      return new ContextualNotification(context, type, attributes);
+    }
+  };
+
+  private static final ValueCodec<BoundaryFlakeSequence> SEQUENCE = new ValueCodec<BoundaryFlakeSequence>() {
+    @Override
+    public void encode(BinaryCodec codec, DataOutput output, BoundaryFlakeSequence value) throws IOException {
+      output.write(value.toBytes());
+    }
+
+    @Override
+    public BoundaryFlakeSequence decode(BinaryCodec codec, DataInput input) throws IOException {
+      byte[] bytes = new byte[24];
+      input.readFully(bytes);
+      return BoundaryFlakeSequence.fromBytes(bytes);
+    }
+  };
+
+  private static final ValueCodec<DefaultMessage> MESSAGE = new ValueCodec<DefaultMessage>() {
+    @Override
+    public void encode(BinaryCodec codec, DataOutput output, DefaultMessage value) throws IOException {
+      codec.writeValue(output, value.getSequence());
+      writeString(output, value.getType());
+      List<Contextual> data = value.unwrap(Contextual.class);
+      output.writeInt(data.size());
+      for (Contextual contextual : data) {
+        codec.writeValue(output, contextual);
+      }
+    }
+
+    @Override
+    public DefaultMessage decode(BinaryCodec codec, DataInput input) throws IOException {
+      Sequence sequence = (Sequence) codec.readValue(input);
+      String type = readString(input);
+      int size = input.readInt();
+      Contextual[] data = new Contextual[size];
+      boolean statistics = true;
+      for (int i = 0; i < size; i++) {
+        data[i] = (Contextual) codec.readValue(input);
+        statistics &= data[i] instanceof ContextualStatistics;
+      }
+      if (statistics) {
+        // like the statistics messages fired by the servers
+        data = Arrays.copyOf(data, size, ContextualStatistics[].class);
+      }
+      return new DefaultMessage(sequence, type, data);
+    }
+  };
+
+  private ManagementModelCodecs() {
+  }
+
+  /**
+   * Registers the model types to the given codec. Both ends of an entity must register them, always in this order.
+   */
+  @SuppressWarnings("unchecked")
+  public static void register(BinaryCodec codec) {
+    codec.register(Context.class, CONTEXT);
+    codec.register(ContextContainer.class, CONTEXT_CONTAINER);
+    codec.register(StatisticDescriptor.class, STATISTIC_DESCRIPTOR);
+    codec.register(CallDescriptor.class, CALL_DESCRIPTOR);
+    codec.register(DefaultCapability.class, CAPABILITY);
+    codec.register((Class<Statistic<?>>) (Class<?>) Statistic.class, STATISTIC);
+    codec.register(ContextualStatistics.class, CONTEXTUAL_STATISTICS);
+    codec.register(ContextualNotification.class, CONTEXTUAL_NOTIFICATION);
+    codec.register(BoundaryFlakeSequence.class, SEQUENCE);
+    codec.register(DefaultMessage.class, MESSAGE);
+  }
+}
@@ -26,6 +26,7 @@ import org.terracotta.voltron.proxy.Async;
 import org.terracotta.voltron.proxy.ClientId;
 import org.terracotta.voltron.proxy.ConcurrencyStrategy;
 import org.terracotta.voltron.proxy.ExecutionStrategy;
+import org.terracotta.voltron.proxy.MethodId;
 
 import java.util.concurrent.Future;
 
@@ -64,6 +65,23 @@ public interface NmsAgent {
   @ExecutionStrategy(location = ACTIVE)
   Future<Void> exposeManagementMetadata(@ClientId Object clientDescriptor, Context root, ContextContainer contextContainer, Capability... capabilities);
 
+  /**
+   * Updates the management registry output previously exposed over this connection with
+   * {@link #exposeManagementMetadata(Object, Context, ContextContainer, Capability...)}.
+   * <p>
+   * Added in version 3 of the protocol, with a fixed id so that it does not change the ids of the existing methods.
+   *
+   * @param contextContainer output from Management registry
+   * @param added            the capabilities to add or replace (by name)
+   * @param removed          the names of the capabilities to remove
+   * @param clientDescriptor must be null, used only for implementation
+   */
+  @Async
+  @ConcurrencyStrategy(key = ConcurrencyStrategy.UNIVERSAL_KEY)
+  @ExecutionStrategy(location = ACTIVE)
+  @MethodId(6)
+  Future<Void> updateManagementMetadata(@ClientId Object clientDescriptor, Context root, ContextContainer contextContainer, Capability[] added, String[] removed);
+
   /**
    * Exposes client tags
    *
@@ -0,0 +1,38 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.management.entity.nms.agent;
+
+import org.terracotta.voltron.proxy.BinaryCodec;
+
+import java.util.regex.Pattern;
+
+/**
+ * The codec of the NMS agent entity messages, encoding the management model types directly.
+ *
+ * @see ManagementModelCodecs
+ */
+public class NmsAgentCodec extends BinaryCodec {
+
+  public NmsAgentCodec() {
+    ManagementModelCodecs.register(this);
+  }
+
+  public NmsAgentCodec(Pattern shadingPattern) {
+    super(shadingPattern);
+    ManagementModelCodecs.register(this);
+  }
+}
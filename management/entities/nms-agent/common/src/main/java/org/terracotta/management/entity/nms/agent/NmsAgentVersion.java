@@ -0,0 +1,41 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.management.entity.nms.agent;
+
+/**
+ * Versions of the NMS agent entity protocol:
+ * <ul>
+ * <li>1: messages encoded with Java serialization</li>
+ * <li>2: messages encoded with {@link NmsAgentCodec}</li>
+ * <li>3: capability changes sent with {@link NmsAgent#updateManagementMetadata}</li>
+ * </ul>
+ */
+public enum NmsAgentVersion {
+
+  LATEST(3L);
+
+  private final long version;
+
+  NmsAgentVersion(final long version) {
+    this.version = version;
+  }
+
+  public long version() {
+    return version;
+  }
+
+}
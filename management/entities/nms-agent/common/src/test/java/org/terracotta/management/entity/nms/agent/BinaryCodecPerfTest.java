@@ -0,0 +1,133 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.management.entity.nms.agent;
+
+import org.junit.Ignore;
+import org.junit.Test;
+import org.terracotta.management.model.capabilities.Capability;
+import org.terracotta.management.model.capabilities.DefaultCapability;
+import org.terracotta.management.model.capabilities.context.CapabilityContext;
+import org.terracotta.management.model.capabilities.descriptors.CallDescriptor;
+import org.terracotta.management.model.capabilities.descriptors.StatisticDescriptor;
+import org.terracotta.management.model.context.Context;
+import org.terracotta.management.model.context.ContextContainer;
+import org.terracotta.management.model.stats.ContextualStatistics;
+import org.terracotta.statistics.Sample;
+import org.terracotta.statistics.StatisticType;
+import org.terracotta.statistics.registry.Statistic;
+import org.terracotta.voltron.proxy.BinaryCodec;
+import org.terracotta.voltron.proxy.Codec;
+import org.terracotta.voltron.proxy.SerializationCodec;
+
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares the {@link SerializationCodec} with the {@link BinaryCodec} on arguments shaped like the ones of the
+ * calls of the NMS entities.
+ */
+public class BinaryCodecPerfTest {
+
+  @Test
+  @Ignore
+  public void compareManagementCall() {
+    Map<String, String> context = new LinkedHashMap<>();
+    context.put("consumerId", "42");
+    context.put("type", "OffHeapResource");
+    context.put("alias", "primary-server-resource");
+    context.put("instanceId", "cc2c8b2b-b3bd-4c76-b0bf-1c3a4e1ecf0a");
+    compare(new BinaryCodec(),
+        new Class<?>[]{Object.class, Map.class, String.class, String.class, String[].class, long.class},
+        new Object[]{null, context, "OffHeapResourceSettings", "getCapacity", new String[]{"tag1", "tag2"}, 123456789L});
+  }
+
+  @Test
+  @Ignore
+  public void comparePushStatistics() {
+    ContextualStatistics[] statistics = new ContextualStatistics[10];
+    for (int i = 0; i < statistics.length; i++) {
+      Map<String, Statistic<? extends Serializable>> stats = new LinkedHashMap<>();
+      stats.put("Cache:HitCount", new Statistic<>(StatisticType.COUNTER, new Sample<>(1_500_000_000_000L + i, 1000L + i)));
+      stats.put("Cache:MissCount", new Statistic<>(StatisticType.COUNTER, new Sample<>(1_500_000_000_000L + i, 10L + i)));
+      stats.put("Cache:HitRatio", new Statistic<>(StatisticType.RATIO, new Sample<>(1_500_000_000_000L + i, 0.99)));
+      stats.put("OnHeap:MappingCount", new Statistic<>(StatisticType.GAUGE, new Sample<>(1_500_000_000_000L + i, 500L)));
+      statistics[i] = new ContextualStatistics("StatisticsCapability", cacheContext(i), stats);
+    }
+    compare(new NmsAgentCodec(),
+        new Class<?>[]{Object.class, ContextualStatistics[].class},
+        new Object[]{null, statistics});
+  }
+
+  @Test
+  @Ignore
+  public void compareUpdateManagementMetadata() {
+    ContextContainer[] caches = new ContextContainer[10];
+    for (int i = 0; i < caches.length; i++) {
+      caches[i] = new ContextContainer("cacheName", "cache-" + i);
+    }
+    Capability[] capabilities = {
+        new DefaultCapability("StatisticsCapability",
+            new CapabilityContext(new CapabilityContext.Attribute("cacheManagerName", true), new CapabilityContext.Attribute("cacheName", true)),
+            new StatisticDescriptor("Cache:HitCount", "COUNTER"),
+            new StatisticDescriptor("Cache:MissCount", "COUNTER"),
+            new StatisticDescriptor("Cache:HitRatio", "RATIO"),
+            new StatisticDescriptor("OnHeap:MappingCount", "GAUGE")),
+        new DefaultCapability("ActionsCapability",
+            new CapabilityContext(new CapabilityContext.Attribute("cacheManagerName", true), new CapabilityContext.Attribute("cacheName", true)),
+            new CallDescriptor("clear", "void"),
+            new CallDescriptor("get", "java.lang.Object", new CallDescriptor.Parameter("key", "java.lang.Object")),
+            new CallDescriptor("put", "void", new CallDescriptor.Parameter("key", "java.lang.Object"), new CallDescriptor.Parameter("value", "java.lang.Object")))
+    };
+    compare(new NmsAgentCodec(),
+        new Class<?>[]{Object.class, Context.class, ContextContainer.class, Capability[].class, String[].class},
+        new Object[]{null, Context.create("instanceId", "cc2c8b2b-b3bd-4c76-b0bf-1c3a4e1ecf0a"), new ContextContainer("cacheManagerName", "my-cm-1", caches), capabilities, new String[0]});
+  }
+
+  private static Context cacheContext(int i) {
+    return Context.create("instanceId", "cc2c8b2b-b3bd-4c76-b0bf-1c3a4e1ecf0a")
+        .with("cacheManagerName", "my-cm-1")
+        .with("cacheName", "cache-" + i);
+  }
+
+  private static void compare(Codec binaryCodec, Class<?>[] types, Object[] args) {
+    int messages = 100_000;
+    Codec serializationCodec = new SerializationCodec();
+    System.out.println("serialization: " + serializationCodec.encode(types, args).length + " bytes/message, binary: " + binaryCodec.encode(types, args).length + " bytes/message");
+
+    for (int j = 0; j < 20; j++) {
+      long checksum = 0;
+
+      long st = System.nanoTime();
+      for (int i = 0; i < messages; i++) {
+        checksum += serializationCodec.decode(types, serializationCodec.encode(types, args)).length;
+      }
+      long serializationNanos = System.nanoTime() - st;
+
+      st = System.nanoTime();
+      for (int i = 0; i < messages; i++) {
+        checksum -= binaryCodec.decode(types, binaryCodec.encode(types, args)).length;
+      }
+      long binaryNanos = System.nanoTime() - st;
+
+      if (checksum != 0) {
+        throw new AssertionError("Codecs decoded different values");
+      }
+      System.out.println(j + ". serialization: " + (serializationNanos / messages) + "ns/message, binary: " + (binaryNanos / messages) + "ns/message");
+    }
+  }
+}
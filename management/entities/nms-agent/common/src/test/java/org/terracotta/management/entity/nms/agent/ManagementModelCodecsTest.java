@@ -0,0 +1,131 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.management.entity.nms.agent;
+
+import org.junit.Test;
+import org.terracotta.management.model.capabilities.Capability;
+import org.terracotta.management.model.capabilities.DefaultCapability;
+import org.terracotta.management.model.capabilities.context.CapabilityContext;
+import org.terracotta.management.model.capabilities.descriptors.CallDescriptor;
+import org.terracotta.management.model.capabilities.descriptors.Settings;
+import org.terracotta.management.model.capabilities.descriptors.StatisticDescriptor;
+import org.terracotta.management.model.context.Context;
+import org.terracotta.management.model.context.ContextContainer;
+import org.terracotta.management.model.message.DefaultMessage;
+import org.terracotta.management.model.message.Message;
+import org.terracotta.management.model.notification.ContextualNotification;
+import org.terracotta.management.model.stats.ContextualStatistics;
+import org.terracotta.management.sequence.BoundaryFlakeSequenceGenerator;
+import org.terracotta.management.sequence.Sequence;
+import org.terracotta.statistics.Sample;
+import org.terracotta.statistics.StatisticType;
+import org.terracotta.statistics.registry.Statistic;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertArrayEquals;
+
+public class ManagementModelCodecsTest {
+
+  private final NmsAgentCodec codec = new NmsAgentCodec();
+
+  @Test
+  public void testStatistics() {
+    Map<String, Statistic<? extends Serializable>> stats = new LinkedHashMap<>();
+    stats.put("Cache:HitCount", new Statistic<>(StatisticType.COUNTER, Arrays.asList(new Sample<>(1L, 10L), new Sample<>(2L, 20L))));
+    stats.put("Cache:HitRatio", new Statistic<>(StatisticType.RATIO, new Sample<>(3L, 0.5)));
+    stats.put("Cache:Empty", new Statistic<>(StatisticType.GAUGE));
+    ContextualStatistics statistics = new ContextualStatistics("StatisticsCapability", Context.create("cacheName", "cache-1"), stats);
+
+    ContextualStatistics[] decoded = codec.decode(ContextualStatistics[].class, codec.encode(ContextualStatistics[].class, new ContextualStatistics[]{statistics}));
+
+    assertThat(decoded.length, is(1));
+    assertStatistics(decoded[0], statistics);
+  }
+
+  @Test
+  public void testManagementMetadata() {
+    Class<?>[] types = {Context.class, ContextContainer.class, Capability[].class, String[].class};
+    Settings settings = new Settings();
+    settings.set("alias", "cm");
+    settings.set("count", 2);
+    Object[] values = {
+        Context.create("instanceId", "123"),
+        new ContextContainer("cacheManagerName", "cm", new ContextContainer("cacheName", "cache-1"), new ContextContainer("cacheName", "cache-2")),
+        new Capability[]{
+            new DefaultCapability("StatisticsCapability", new CapabilityContext(new CapabilityContext.Attribute("cacheName", true)),
+                new StatisticDescriptor("Cache:HitCount", "COUNTER")),
+            new DefaultCapability("ActionsCapability", new CapabilityContext(new CapabilityContext.Attribute("cacheName", false)),
+                new CallDescriptor("get", "java.lang.Object", new CallDescriptor.Parameter("key", "java.lang.Object")), settings)
+        },
+        new String[]{"removed"}
+    };
+
+    assertArrayEquals(values, codec.decode(types, codec.encode(types, values)));
+  }
+
+  @Test
+  public void testNotificationMessage() {
+    Sequence sequence = new BoundaryFlakeSequenceGenerator().next();
+    Map<String, String> attributes = new LinkedHashMap<>();
+    attributes.put("key", "value");
+    ContextualNotification notification = new ContextualNotification(Context.create("cacheName", "cache-1"), "CACHE_ADDED", attributes);
+    Message message = new DefaultMessage(sequence, "NOTIFICATION", notification);
+
+    assertThat(codec.decode(Message.class, codec.encode(Message.class, message)), is(message));
+    assertThat(codec.decode(ContextualNotification.class, codec.encode(ContextualNotification.class, notification)), is(notification));
+  }
+
+  @Test
+  public void testStatisticsMessage() {
+    Map<String, Statistic<? extends Serializable>> stats = new LinkedHashMap<>();
+    stats.put("Cache:HitCount", new Statistic<>(StatisticType.COUNTER, new Sample<>(1L, 10L)));
+    ContextualStatistics statistics = new ContextualStatistics("StatisticsCapability", Context.create("cacheName", "cache-1"), stats);
+    Message message = new DefaultMessage(new BoundaryFlakeSequenceGenerator().next(), "STATISTICS", statistics);
+
+    Message decoded = codec.decode(Message.class, codec.encode(Message.class, message));
+
+    assertThat(decoded.getSequence(), is(message.getSequence()));
+    assertThat(decoded.getType(), is("STATISTICS"));
+    List<ContextualStatistics> data = decoded.unwrap(ContextualStatistics.class);
+    assertThat(data.size(), is(1));
+    assertStatistics(data.get(0), statistics);
+  }
+
+  private static void assertStatistics(ContextualStatistics actual, ContextualStatistics expected) {
+    assertThat(actual.getCapability(), is(expected.getCapability()));
+    assertThat(actual.getContext(), is(expected.getContext()));
+    assertThat(actual.getStatistics().keySet(), is(expected.getStatistics().keySet()));
+    for (Map.Entry<String, Statistic<? extends Serializable>> entry : expected.getStatistics().entrySet()) {
+      Statistic<? extends Serializable> statistic = actual.getStatistics().get(entry.getKey());
+      assertThat(statistic.getType(), is(entry.getValue().getType()));
+      List<? extends Sample<?>> samples = statistic.getSamples();
+      List<? extends Sample<?>> expectedSamples = entry.getValue().getSamples();
+      assertThat(samples.size(), is(expectedSamples.size()));
+      for (int i = 0; i < samples.size(); i++) {
+        assertThat(samples.get(i).getTimestamp(), is(expectedSamples.get(i).getTimestamp()));
+        assertThat(samples.get(i).getSample(), is(expectedSamples.get(i).getSample()));
+      }
+    }
+  }
+}
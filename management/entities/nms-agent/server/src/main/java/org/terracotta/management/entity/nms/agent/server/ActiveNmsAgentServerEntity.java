@@ -90,6 +90,14 @@ class ActiveNmsAgentServerEntity extends ActiveProxiedServerEntity<Void, Reconne
     return CompletableFuture.completedFuture(null);
   }
 
+  @Override
+  public Future<Void> updateManagementMetadata(@ClientId Object caller, Context root, ContextContainer contextContainer, Capability[] added, String[] removed) {
+    if (clientMonitoringService != null && contextContainer != null && added != null && removed != null) {
+      clientMonitoringService.updateManagementRegistry((ClientDescriptor) caller, root, contextContainer, added, removed);
+    }
+    return CompletableFuture.completedFuture(null);
+  }
+
   @Override
   public Future<Void> exposeTags(@ClientId Object caller, String... tags) {
     if (clientMonitoringService != null && tags != null) {
@@ -23,11 +23,12 @@ import org.terracotta.entity.ConfigurationException;
 import org.terracotta.entity.ServiceException;
 import org.terracotta.entity.ServiceRegistry;
 import org.terracotta.management.entity.nms.agent.NmsAgent;
+import org.terracotta.management.entity.nms.agent.NmsAgentCodec;
+import org.terracotta.management.entity.nms.agent.NmsAgentVersion;
 import org.terracotta.management.entity.nms.agent.ReconnectData;
 import org.terracotta.management.model.message.Message;
 import org.terracotta.management.service.monitoring.ClientMonitoringService;
 import org.terracotta.management.service.monitoring.ClientMonitoringServiceConfiguration;
-import org.terracotta.voltron.proxy.SerializationCodec;
 import org.terracotta.voltron.proxy.server.Messenger;
 import org.terracotta.voltron.proxy.server.ProxyServerEntityService;
 
@@ -36,7 +37,7 @@ import static java.util.regex.Pattern.compile;
 /**
  * @author Mathieu Carbou
  */
-@PermanentEntity(type = "org.terracotta.management.entity.nms.agent.client.NmsAgentEntity", name = "NmsAgent", version = 1)
+@PermanentEntity(type = "org.terracotta.management.entity.nms.agent.client.NmsAgentEntity", name = "NmsAgent", version = 3)
 public class NmsAgentEntityServerService extends ProxyServerEntityService<Void, Void, ReconnectData, Messenger> {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(NmsAgentEntityServerService.class);
@@ -44,7 +45,7 @@ public class NmsAgentEntityServerService extends ProxyServerEntityService<Void,
   public NmsAgentEntityServerService() {
     //TODO: MATHIEU - PERF: https://github.com/Terracotta-OSS/terracotta-platform/issues/92
     super(NmsAgent.class, Void.class, new Class<?>[]{Message.class}, null, ReconnectData.class, null);
-    setCodec(new SerializationCodec(compile("^(?:org\\.ehcache\\.shadow|com\\.terracottatech\\.shadow)\\.(org\\.terracotta\\.statistics\\..*)$")));
+    setCodec(new NmsAgentCodec(compile("^(?:org\\.ehcache\\.shadow|com\\.terracottatech\\.shadow)\\.(org\\.terracotta\\.statistics\\..*)$")));
   }
 
   @Override
@@ -67,7 +68,7 @@ public class NmsAgentEntityServerService extends ProxyServerEntityService<Void,
 
   @Override
   public long getVersion() {
-    return 1;
+    return NmsAgentVersion.LATEST.version();
   }
 
   @Override
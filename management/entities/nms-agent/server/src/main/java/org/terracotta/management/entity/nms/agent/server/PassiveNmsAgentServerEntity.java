@@ -37,6 +37,11 @@ class PassiveNmsAgentServerEntity extends PassiveProxiedServerEntity implements
     throw new UnsupportedOperationException("Cannot be called on a passive server");
   }
 
+  @Override
+  public Future<Void> updateManagementMetadata(@ClientId Object clientDescriptor, Context root, ContextContainer contextContainer, Capability[] added, String[] removed) {
+    throw new UnsupportedOperationException("Cannot be called on a passive server");
+  }
+
   @Override
   public Future<Void> exposeTags(@ClientId Object clientDescriptor, String... tags) {
     throw new UnsupportedOperationException("Cannot be called on a passive server");
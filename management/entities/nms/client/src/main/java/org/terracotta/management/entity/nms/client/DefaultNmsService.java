@@ -24,6 +24,7 @@ import org.terracotta.management.model.cluster.Cluster;
 import org.terracotta.management.model.context.Context;
 import org.terracotta.management.model.message.ManagementCallMessage;
 import org.terracotta.management.model.message.Message;
+import org.terracotta.management.model.message.MessageSubscription;
 
 import java.io.Closeable;
 import java.util.ArrayList;
@@ -124,6 +125,12 @@ public class DefaultNmsService implements NmsService, Closeable {
     return get(entity.readTopology());
   }
 
+  @Override
+  public void subscribe(MessageSubscription... subscriptions) throws TimeoutException, InterruptedException, ExecutionException {
+    LOGGER.trace("subscribe({})", (Object) subscriptions);
+    get(entity.subscribe(null, subscriptions));
+  }
+
   @Override
   public Message waitForMessage() throws InterruptedException {
     Optional<Message> o = incomingMessageQueue.take();
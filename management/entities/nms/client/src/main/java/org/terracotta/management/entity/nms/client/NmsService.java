@@ -20,6 +20,7 @@ import org.terracotta.management.model.call.Parameter;
 import org.terracotta.management.model.cluster.Cluster;
 import org.terracotta.management.model.context.Context;
 import org.terracotta.management.model.message.Message;
+import org.terracotta.management.model.message.MessageSubscription;
 
 import java.util.ArrayList;
 import java.util.Comparator;
@@ -40,6 +41,12 @@ public interface NmsService {
 
   Cluster readTopology() throws TimeoutException, InterruptedException, ExecutionException;
 
+  /**
+   * Only receive the notifications and statistics matching one of these subscriptions, or all of them if no subscription is given.
+   * Management call answers are always received.
+   */
+  void subscribe(MessageSubscription... subscriptions) throws TimeoutException, InterruptedException, ExecutionException;
+
   /**
    * Wait for a message to arrive in the queue
    */
@@ -19,10 +19,12 @@ package org.terracotta.management.entity.nms;
 import org.terracotta.management.model.call.Parameter;
 import org.terracotta.management.model.cluster.Cluster;
 import org.terracotta.management.model.context.Context;
+import org.terracotta.management.model.message.MessageSubscription;
 import org.terracotta.voltron.proxy.Async;
 import org.terracotta.voltron.proxy.ClientId;
 import org.terracotta.voltron.proxy.ConcurrencyStrategy;
 import org.terracotta.voltron.proxy.ExecutionStrategy;
+import org.terracotta.voltron.proxy.MethodId;
 
 import java.util.concurrent.Future;
 
@@ -46,4 +48,16 @@ public interface Nms {
   @ExecutionStrategy(location = ACTIVE)
   Future<String> call(@ClientId Object callerDescriptor, Context context, String capabilityName, String methodName, Class<?> returnType, Parameter... parameters);
 
+  /**
+   * Replaces the notifications and statistics this client wants to receive. Without any subscription, all are received.
+   * Subscriptions are not kept on fail-over: the client then receives all messages again.
+   * <p>
+   * Added in version 3 of the protocol, with a fixed id so that it does not change the ids of the existing methods.
+   */
+  @Async
+  @ConcurrencyStrategy(key = ConcurrencyStrategy.UNIVERSAL_KEY)
+  @ExecutionStrategy(location = ACTIVE)
+  @MethodId(2)
+  Future<Void> subscribe(@ClientId Object callerDescriptor, MessageSubscription... subscriptions);
+
 }
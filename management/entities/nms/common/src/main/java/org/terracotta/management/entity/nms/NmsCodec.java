@@ -0,0 +1,39 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.management.entity.nms;
+
+import org.terracotta.management.entity.nms.agent.ManagementModelCodecs;
+import org.terracotta.voltron.proxy.BinaryCodec;
+
+import java.util.regex.Pattern;
+
+/**
+ * The codec of the NMS entity messages, encoding the management model types directly.
+ *
+ * @see ManagementModelCodecs
+ */
+public class NmsCodec extends BinaryCodec {
+
+  public NmsCodec() {
+    ManagementModelCodecs.register(this);
+  }
+
+  public NmsCodec(Pattern shadingPattern) {
+    super(shadingPattern);
+    ManagementModelCodecs.register(this);
+  }
+}
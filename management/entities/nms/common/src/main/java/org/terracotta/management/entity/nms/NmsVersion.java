@@ -17,11 +17,18 @@
 package org.terracotta.management.entity.nms;
 
 /**
+ * Versions of the NMS entity protocol:
+ * <ul>
+ * <li>1: messages encoded with Java serialization</li>
+ * <li>2: messages encoded with {@link NmsCodec}</li>
+ * <li>3: message subscriptions sent with {@link Nms#subscribe(Object, org.terracotta.management.model.message.MessageSubscription...)}</li>
+ * </ul>
+ *
  * @author Mathieu Carbou
  */
 public enum NmsVersion {
 
-  LATEST(1L);
+  LATEST(3L);
 
   private final long version;
 
@@ -33,6 +33,7 @@ import org.terracotta.management.model.cluster.Stripe;
 import org.terracotta.management.model.context.Context;
 import org.terracotta.management.model.context.Contextual;
 import org.terracotta.management.model.message.Message;
+import org.terracotta.management.model.message.MessageSubscription;
 import org.terracotta.management.registry.CapabilityManagementSupport;
 import org.terracotta.management.registry.CombiningCapabilityManagementSupport;
 import org.terracotta.management.service.monitoring.EntityManagementRegistry;
@@ -42,6 +43,8 @@ import org.terracotta.management.service.monitoring.SharedEntityManagementRegist
 import org.terracotta.voltron.proxy.ClientId;
 import org.terracotta.voltron.proxy.server.ActiveProxiedServerEntity;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
@@ -114,6 +117,12 @@ class ActiveNmsServerEntity extends ActiveProxiedServerEntity<Void, Void, NmsCal
     return CompletableFuture.completedFuture(managementService.sendManagementCallRequest((ClientDescriptor) callerDescriptor, context, capabilityName, methodName, returnType, parameters));
   }
 
+  @Override
+  public Future<Void> subscribe(@ClientId Object callerDescriptor, MessageSubscription... subscriptions) {
+    managementService.subscribe((ClientDescriptor) callerDescriptor, Arrays.asList(subscriptions));
+    return CompletableFuture.completedFuture(null);
+  }
+
   private Cluster readCluster() {
     return managementService.readTopology();
   }
@@ -153,6 +162,20 @@ class ActiveNmsServerEntity extends ActiveProxiedServerEntity<Void, Void, NmsCal
     fireMessage(Message.class, message, false);
   }
 
+  @Override
+  public void sendMessageToClients(Message message, Collection<ClientDescriptor> excluded) {
+    ClientDescriptor[] to = getClients().stream()
+        .filter(client -> !excluded.contains(client))
+        .toArray(ClientDescriptor[]::new);
+    if (to.length > 0) {
+      LOGGER.trace("[{}] sendMessageToClients({}, {})", consumerId, message, to.length);
+      // add stripe info to the message
+      addStripeName(message);
+      // send message
+      fireMessage(Message.class, message, to);
+    }
+  }
+
   @Override
   public void sendMessageToClient(Message message, ClientDescriptor to) {
     if (getClients().contains(to)) {
@@ -165,10 +188,13 @@ class ActiveNmsServerEntity extends ActiveProxiedServerEntity<Void, Void, NmsCal
   }
 
   private void addStripeName(Message message) {
-    message.unwrap(Contextual.class)
-        .stream()
-        .filter(contextual -> !contextual.getContext().contains(Client.KEY))
-        .forEach(contextual -> contextual.setContext(contextual.getContext().with(Stripe.KEY, stripeName)));
+    // the same message is sent by all the NMS entities of this server: only the first one needs to update the contexts
+    for (Contextual contextual : message.unwrap(Contextual.class)) {
+      Context context = contextual.getContext();
+      if (!context.contains(Client.KEY) && !context.contains(Stripe.KEY, stripeName)) {
+        contextual.setContext(context.with(Stripe.KEY, stripeName));
+      }
+    }
   }
 
 }
@@ -24,6 +24,7 @@ import org.terracotta.entity.ConfigurationException;
 import org.terracotta.entity.ServiceException;
 import org.terracotta.entity.ServiceRegistry;
 import org.terracotta.management.entity.nms.Nms;
+import org.terracotta.management.entity.nms.NmsCodec;
 import org.terracotta.management.entity.nms.NmsConfig;
 import org.terracotta.management.entity.nms.NmsVersion;
 import org.terracotta.management.model.message.Message;
@@ -32,7 +33,6 @@ import org.terracotta.management.service.monitoring.ManagementService;
 import org.terracotta.management.service.monitoring.ManagementServiceConfiguration;
 import org.terracotta.management.service.monitoring.ServerManagementRegistryConfiguration;
 import org.terracotta.management.service.monitoring.SharedEntityManagementRegistry;
-import org.terracotta.voltron.proxy.SerializationCodec;
 import org.terracotta.voltron.proxy.server.ProxyServerEntityService;
 
 import java.util.Objects;
@@ -48,7 +48,7 @@ public class NmsEntityServerService extends ProxyServerEntityService<NmsConfig,
 
   public NmsEntityServerService() {
     super(Nms.class, NmsConfig.class, new Class<?>[]{Message.class}, null, null, NmsCallback.class);
-    setCodec(new SerializationCodec(compile("^(?:org\\.ehcache\\.shadow|com\\.terracottatech\\.shadow)\\.(org\\.terracotta\\.statistics\\..*)$")));
+    setCodec(new NmsCodec(compile("^(?:org\\.ehcache\\.shadow|com\\.terracottatech\\.shadow)\\.(org\\.terracotta\\.statistics\\..*)$")));
   }
 
   @Override
@@ -26,6 +26,7 @@ import org.terracotta.management.model.call.Parameter;
 import org.terracotta.management.model.cluster.Cluster;
 import org.terracotta.management.model.cluster.Server;
 import org.terracotta.management.model.context.Context;
+import org.terracotta.management.model.message.MessageSubscription;
 import org.terracotta.management.registry.CapabilityManagementSupport;
 import org.terracotta.management.registry.CombiningCapabilityManagementSupport;
 import org.terracotta.management.service.monitoring.EntityManagementRegistry;
@@ -103,4 +104,9 @@ class PassiveNmsServerEntity extends PassiveProxiedServerEntity implements Nms,
     throw new UnsupportedOperationException("Cannot be called on a passive server");
   }
 
+  @Override
+  public Future<Void> subscribe(@ClientId Object callerDescriptor, MessageSubscription... subscriptions) {
+    throw new UnsupportedOperationException("Cannot be called on a passive server");
+  }
+
 }
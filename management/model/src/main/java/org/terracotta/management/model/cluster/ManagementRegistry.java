@@ -82,6 +82,27 @@ public final class ManagementRegistry implements Serializable {
     return this;
   }
 
+  /**
+   * Adds a capability, or replaces the one having the same name at its current position
+   */
+  public ManagementRegistry putCapability(Capability capability) {
+    if (getCapability(capability.getName()).isPresent()) {
+      List<Capability> replaced = capabilities.stream()
+          .map(existing -> existing.getName().equals(capability.getName()) ? capability : existing)
+          .collect(Collectors.toList());
+      capabilities.clear();
+      capabilities.addAll(replaced);
+    } else {
+      capabilities.add(capability);
+    }
+    return this;
+  }
+
+  public ManagementRegistry removeCapability(String capabilityName) {
+    capabilities.removeIf(capability -> capability.getName().equals(capabilityName));
+    return this;
+  }
+
   public Collection<Capability> getCapabilities() {
     return capabilities;
   }
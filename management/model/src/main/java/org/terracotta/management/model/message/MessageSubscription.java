@@ -0,0 +1,179 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.management.model.message;
+
+import org.terracotta.management.model.call.ContextualCall;
+import org.terracotta.management.model.call.ContextualReturn;
+import org.terracotta.management.model.context.Context;
+import org.terracotta.management.model.context.Contextual;
+import org.terracotta.management.model.stats.ContextualStatistics;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Describes the messages a subscriber is interested in. A message matches when its type is one of the subscribed types,
+ * and when one of its contextual objects has one of the subscribed capabilities and a context matching all the subscribed
+ * context entries. An empty set of types or capabilities, or no context entry, matches everything.
+ * <p>
+ * Only statistics, calls and call returns have a capability: a subscription to some capabilities does not match notifications.
+ * <p>
+ * Subscriptions are immutable: the {@code with*} methods return new ones.
+ */
+public final class MessageSubscription implements Serializable {
+
+  private static final long serialVersionUID = 1;
+
+  private static final MessageSubscription ALL = new MessageSubscription(Collections.emptySet(), Collections.emptySet(), Collections.emptyMap());
+
+  private final Set<String> types;
+  private final Set<String> capabilities;
+  // a null value means that the context only needs to contain the key
+  private final Map<String, String> context;
+
+  private MessageSubscription(Set<String> types, Set<String> capabilities, Map<String, String> context) {
+    this.types = types;
+    this.capabilities = capabilities;
+    this.context = context;
+  }
+
+  public Set<String> getTypes() {
+    return Collections.unmodifiableSet(types);
+  }
+
+  public Set<String> getCapabilities() {
+    return Collections.unmodifiableSet(capabilities);
+  }
+
+  public Map<String, String> getContext() {
+    return Collections.unmodifiableMap(context);
+  }
+
+  public MessageSubscription withTypes(String... types) {
+    Set<String> set = new LinkedHashSet<>(this.types);
+    set.addAll(Arrays.asList(types));
+    return new MessageSubscription(set, capabilities, context);
+  }
+
+  public MessageSubscription withCapabilities(String... capabilities) {
+    Set<String> set = new LinkedHashSet<>(this.capabilities);
+    set.addAll(Arrays.asList(capabilities));
+    return new MessageSubscription(types, set, context);
+  }
+
+  /**
+   * @return a subscription also requiring the context to contain this key
+   */
+  public MessageSubscription withContext(String key) {
+    return withContext0(Objects.requireNonNull(key), null);
+  }
+
+  /**
+   * @return a subscription also requiring the context to contain this key with this value
+   */
+  public MessageSubscription withContext(String key, String value) {
+    return withContext0(Objects.requireNonNull(key), Objects.requireNonNull(value));
+  }
+
+  private MessageSubscription withContext0(String key, String value) {
+    Map<String, String> map = new LinkedHashMap<>(this.context);
+    map.put(key, value);
+    return new MessageSubscription(types, capabilities, map);
+  }
+
+  public boolean matchesType(String type) {
+    return types.isEmpty() || types.contains(type);
+  }
+
+  public boolean matches(Message message) {
+    if (!matchesType(message.getType())) {
+      return false;
+    }
+    if (capabilities.isEmpty() && context.isEmpty()) {
+      return true;
+    }
+    for (Contextual contextual : message.unwrap(Contextual.class)) {
+      if (matches(contextual)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  public boolean matches(Contextual contextual) {
+    if (!capabilities.isEmpty() && !capabilities.contains(getCapability(contextual))) {
+      return false;
+    }
+    Context ctx = contextual.getContext();
+    for (Map.Entry<String, String> entry : context.entrySet()) {
+      if (entry.getValue() == null ? !ctx.contains(entry.getKey()) : !ctx.contains(entry.getKey(), entry.getValue())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    MessageSubscription that = (MessageSubscription) o;
+    return types.equals(that.types) && capabilities.equals(that.capabilities) && context.equals(that.context);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(types, capabilities, context);
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder sb = new StringBuilder("MessageSubscription{");
+    sb.append("types=").append(types);
+    sb.append(", capabilities=").append(capabilities);
+    sb.append(", context=").append(context);
+    sb.append('}');
+    return sb.toString();
+  }
+
+  /**
+   * @return a subscription to all messages, to refine with the {@code with*} methods
+   */
+  public static MessageSubscription all() {
+    return ALL;
+  }
+
+  private static String getCapability(Contextual contextual) {
+    if (contextual instanceof ContextualStatistics) {
+      return ((ContextualStatistics) contextual).getCapability();
+    }
+    if (contextual instanceof ContextualCall) {
+      return ((ContextualCall<?>) contextual).getCapability();
+    }
+    if (contextual instanceof ContextualReturn) {
+      return ((ContextualReturn<?>) contextual).getCapability();
+    }
+    return null;
+  }
+
+}
@@ -75,6 +75,14 @@ public class DelegatingStatistic<T extends Serializable> implements Statistic<T>
   }
 
   public static <U extends Serializable> org.terracotta.statistics.registry.Statistic<U> convertStats(Statistic<U> statistic) {
+    if (statistic instanceof DelegatingStatistic) {
+      // already backed by a statistic of the right type: no need to copy its samples
+      return ((DelegatingStatistic<U>) statistic).delegate;
+    }
+    if (statistic instanceof SampleSeries.SeriesStatistic) {
+      // a view over a series: its samples are only copied if the statistic is serialized
+      return ((SampleSeries.SeriesStatistic<U>) statistic).asRegistryStatistic();
+    }
     return new org.terracotta.statistics.registry.Statistic<>(convert(statistic.getType()), list(statistic.getSamples()));
   }
 
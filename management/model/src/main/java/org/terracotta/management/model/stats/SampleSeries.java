@@ -0,0 +1,297 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.management.model.stats;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.RandomAccess;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.LongSupplier;
+
+/**
+ * A series of samples kept in fixed-size primitive ring buffers, holding the last {@code capacity} recorded samples.
+ * <p>
+ * Samples are recorded in timestamp order. Statistics returned by {@link #since(long)} are views over the buffers and
+ * not copies: they must be consumed before {@code capacity} more samples are recorded, which is the case when the
+ * series is sized to hold the samples recorded between two collects. Reading a sample that was overwritten in the
+ * meantime throws a {@link ConcurrentModificationException}.
+ *
+ * @param <T> {@link Long} or {@link Double}, depending on how the series was created
+ */
+public final class SampleSeries<T extends Serializable> {
+
+  private final StatisticType type;
+  private final boolean doubles;
+  private final long[] timestamps;
+  // raw values, or raw bits of the values for a series of doubles
+  private final long[] values;
+  // readers do not block the writer: they validate their reads against the write stamp instead
+  private final StampedLock lock = new StampedLock();
+  // number of samples ever recorded, only written under the write lock
+  private volatile long recorded;
+
+  private SampleSeries(StatisticType type, boolean doubles, int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Bad capacity: " + capacity);
+    }
+    this.type = Objects.requireNonNull(type);
+    this.doubles = doubles;
+    this.timestamps = new long[capacity];
+    this.values = new long[capacity];
+  }
+
+  public static SampleSeries<Long> ofLongs(StatisticType type, int capacity) {
+    return new SampleSeries<>(type, false, capacity);
+  }
+
+  public static SampleSeries<Double> ofDoubles(StatisticType type, int capacity) {
+    return new SampleSeries<>(type, true, capacity);
+  }
+
+  public StatisticType getType() {
+    return type;
+  }
+
+  public int capacity() {
+    return timestamps.length;
+  }
+
+  public int size() {
+    return (int) Math.min(recorded, timestamps.length);
+  }
+
+  public void record(long timestamp, long value) {
+    if (doubles) {
+      throw new IllegalArgumentException("Not a series of longs");
+    }
+    write(timestamp, value);
+  }
+
+  public void record(long timestamp, double value) {
+    if (!doubles) {
+      throw new IllegalArgumentException("Not a series of doubles");
+    }
+    write(timestamp, Double.doubleToRawLongBits(value));
+  }
+
+  /**
+   * Records a sample timestamped when the series is written, so that concurrent samplers keep the samples in order.
+   */
+  void sample(LongSupplier timeSource, long value) {
+    if (doubles) {
+      throw new IllegalArgumentException("Not a series of longs");
+    }
+    long stamp = lock.writeLock();
+    try {
+      doWrite(timeSource.getAsLong(), value);
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * @param since the timestamp from which samples are wanted, inclusive
+   * @return a view over the samples recorded at or after the given time
+   */
+  public Statistic<T> since(long since) {
+    long stamp = lock.tryOptimisticRead();
+    long end = recorded;
+    long start = search(since, end);
+    if (!lock.validate(stamp)) {
+      // a sample was recorded during the search and might have overwritten a searched slot
+      stamp = lock.readLock();
+      try {
+        end = recorded;
+        start = search(since, end);
+      } finally {
+        lock.unlockRead(stamp);
+      }
+    }
+    return new SeriesStatistic<>(this, start, end);
+  }
+
+  private long search(long since, long end) {
+    long low = Math.max(0, end - timestamps.length);
+    long high = end;
+    // timestamps never decrease, so a binary search finds the first wanted sample
+    while (low < high) {
+      long mid = (low + high) >>> 1;
+      if (timestamps[slot(mid)] < since) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  private void write(long timestamp, long value) {
+    long stamp = lock.writeLock();
+    try {
+      doWrite(timestamp, value);
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  private void doWrite(long timestamp, long value) {
+    long count = recorded;
+    if (count > 0 && timestamp < timestamps[slot(count - 1)]) {
+      throw new IllegalArgumentException("Sample at " + timestamp + " recorded after sample at " + timestamps[slot(count - 1)]);
+    }
+    int slot = slot(count);
+    timestamps[slot] = timestamp;
+    values[slot] = value;
+    recorded = count + 1;
+  }
+
+  private int slot(long index) {
+    return (int) (index % timestamps.length);
+  }
+
+  /**
+   * Reads the sample recorded at the given index, checking that its slot was not overwritten.
+   */
+  private <S> S read(long index, SampleFactory<T, S> factory) {
+    long stamp = lock.tryOptimisticRead();
+    long count = recorded;
+    long timestamp = timestamps[slot(index)];
+    long value = values[slot(index)];
+    if (!lock.validate(stamp)) {
+      stamp = lock.readLock();
+      try {
+        count = recorded;
+        timestamp = timestamps[slot(index)];
+        value = values[slot(index)];
+      } finally {
+        lock.unlockRead(stamp);
+      }
+    }
+    if (index < count - timestamps.length) {
+      throw new ConcurrentModificationException("Sample " + index + " was overwritten: only the last " + timestamps.length + " samples are kept");
+    }
+    return factory.create(timestamp, value(value));
+  }
+
+  @SuppressWarnings("unchecked")
+  private T value(long value) {
+    return (T) (doubles ? (Object) Double.longBitsToDouble(value) : (Object) value);
+  }
+
+  @FunctionalInterface
+  private interface SampleFactory<T, S> {
+    S create(long timestamp, T value);
+  }
+
+  static final class SeriesStatistic<T extends Serializable> implements Statistic<T> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient SampleSeries<T> series;
+    private final long start;
+    private final long end;
+
+    SeriesStatistic(SampleSeries<T> series, long start, long end) {
+      this.series = series;
+      this.start = start;
+      this.end = end;
+    }
+
+    @Override
+    public StatisticType getType() {
+      return series.type;
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return start == end;
+    }
+
+    @Override
+    public List<Sample<T>> getSamples() {
+      return new SampleList<>(series, start, end, DelegatingSample::new);
+    }
+
+    @Override
+    public Optional<T> getLatestSampleValue() {
+      return getLatestSample().map(Sample::getSample);
+    }
+
+    @Override
+    public Optional<Sample<T>> getLatestSample() {
+      return isEmpty() ? Optional.empty() : Optional.of(series.read(end - 1, DelegatingSample::new));
+    }
+
+    /**
+     * @return this view as a statistic of the statistics library, still not copying the samples
+     */
+    org.terracotta.statistics.registry.Statistic<T> asRegistryStatistic() {
+      return new org.terracotta.statistics.registry.Statistic<>(StatisticType.convert(getType()),
+          new SampleList<>(series, start, end, org.terracotta.statistics.Sample::new));
+    }
+
+    // views are not serialized, their samples are
+    private Object writeReplace() {
+      return new DelegatingStatistic<>(getType(), new ArrayList<>(getSamples()));
+    }
+
+    @Override
+    public String toString() {
+      return "Statistic{type=" + getType() + ", samples=" + getSamples() + '}';
+    }
+  }
+
+  private static final class SampleList<T extends Serializable, S> extends AbstractList<S> implements RandomAccess, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient SampleSeries<T> series;
+    private final transient SampleFactory<T, S> factory;
+    private final long start;
+    private final long end;
+
+    SampleList(SampleSeries<T> series, long start, long end, SampleFactory<T, S> factory) {
+      this.series = series;
+      this.start = start;
+      this.end = end;
+      this.factory = factory;
+    }
+
+    @Override
+    public S get(int index) {
+      if (index < 0 || index >= size()) {
+        throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size());
+      }
+      return series.read(start + index, factory);
+    }
+
+    @Override
+    public int size() {
+      return (int) (end - start);
+    }
+
+    // views are not serialized, their samples are
+    private Object writeReplace() {
+      return new ArrayList<>(this);
+    }
+  }
+}
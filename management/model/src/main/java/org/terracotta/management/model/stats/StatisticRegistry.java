@@ -28,6 +28,7 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BinaryOperator;
 import java.util.function.LongSupplier;
 
@@ -39,8 +40,32 @@ import static java.util.stream.Collectors.toMap;
 @SuppressFBWarnings("NM_SAME_SIMPLE_NAME_AS_SUPERCLASS")
 public class StatisticRegistry extends org.terracotta.statistics.registry.StatisticRegistry {
 
+  private final Map<String, SampleSeries<?>> series = new ConcurrentHashMap<>();
+  // series sampled each time they are collected
+  private final Map<String, Runnable> samplers = new ConcurrentHashMap<>();
+  private final LongSupplier timeSource;
+
   public StatisticRegistry(Object contextObject, LongSupplier timeSource) {
     super(contextObject, timeSource);
+    this.timeSource = timeSource;
+  }
+
+  /**
+   * Registers a series of samples recorded by the caller, collected along with the other statistics of this registry
+   * without copying its samples.
+   */
+  public void registerSeries(String fullStatName, SampleSeries<?> sampleSeries) {
+    series.put(fullStatName, sampleSeries);
+  }
+
+  /**
+   * Registers a gauge sampled into a series each time it is collected, so that the last {@code capacity} samples are
+   * kept in primitive buffers and collected without copying.
+   */
+  public void registerSampledGauge(String fullStatName, int capacity, LongSupplier gauge) {
+    SampleSeries<Long> sampleSeries = SampleSeries.ofLongs(org.terracotta.management.model.stats.StatisticType.GAUGE, capacity);
+    samplers.put(fullStatName, () -> sampleSeries.sample(timeSource, gauge.getAsLong()));
+    registerSeries(fullStatName, sampleSeries);
   }
 
   public Collection<StatisticDescriptor> getDescriptors() {
@@ -50,13 +75,17 @@ public class StatisticRegistry extends org.terracotta.statistics.registry.Statis
       StatisticType type = entry.getValue().type();
       descriptors.add(new StatisticDescriptor(fullStatName, type.name()));
     }
+    for (Map.Entry<String, SampleSeries<?>> entry : series.entrySet()) {
+      descriptors.add(new StatisticDescriptor(entry.getKey(), entry.getValue().getType().name()));
+    }
     return descriptors;
   }
 
   @SuppressWarnings("rawtypes")
   public static Map<String, Statistic<? extends Serializable>> collect(StatisticRegistry registry, Collection<String> statisticNames, long since) {
+    Map<String, Statistic<? extends Serializable>> statistics;
     if (statisticNames == null || statisticNames.isEmpty()) {
-      return registry.queryStatistics(since)
+      statistics = registry.queryStatistics(since)
           .entrySet()
           .stream()
           .filter(e -> !e.getValue().isEmpty())
@@ -77,11 +106,36 @@ public class StatisticRegistry extends org.terracotta.statistics.registry.Statis
             }
           })
           .collect(toMap(Map.Entry::getKey, Map.Entry::getValue, throwingMerger(), TreeMap::new));
+      for (Map.Entry<String, SampleSeries<?>> entry : registry.series.entrySet()) {
+        addNonEmpty(statistics, entry.getKey(), registry.sample(entry.getKey(), entry.getValue()).since(since));
+      }
     } else {
-      return statisticNames.stream()
+      statistics = statisticNames.stream()
+          .filter(name -> !registry.series.containsKey(name))
           .map(name -> new AbstractMap.SimpleEntry<>(name, registry.queryStatistic(name, since)))
           .filter(e -> e.getValue().isPresent() && !e.getValue().get().isEmpty())
           .collect(toMap(Map.Entry::getKey, e -> new DelegatingStatistic<>(e.getValue().get()), throwingMerger(), TreeMap::new));
+      for (String name : statisticNames) {
+        SampleSeries<?> sampleSeries = registry.series.get(name);
+        if (sampleSeries != null) {
+          addNonEmpty(statistics, name, registry.sample(name, sampleSeries).since(since));
+        }
+      }
+    }
+    return statistics;
+  }
+
+  private SampleSeries<?> sample(String name, SampleSeries<?> sampleSeries) {
+    Runnable sampler = samplers.get(name);
+    if (sampler != null) {
+      sampler.run();
+    }
+    return sampleSeries;
+  }
+
+  private static void addNonEmpty(Map<String, Statistic<? extends Serializable>> statistics, String name, Statistic<? extends Serializable> statistic) {
+    if (!statistic.isEmpty()) {
+      statistics.put(name, statistic);
     }
   }
 
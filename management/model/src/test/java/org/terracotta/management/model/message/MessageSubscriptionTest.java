@@ -0,0 +1,74 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.management.model.message;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.terracotta.management.model.context.Context;
+import org.terracotta.management.model.notification.ContextualNotification;
+import org.terracotta.management.model.stats.ContextualStatistics;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class MessageSubscriptionTest {
+
+  private final Message notification = new DefaultMessage(null, "NOTIFICATION", new ContextualNotification(Context.create("cacheName", "cache1"), "CACHE_CLEARED"));
+  private final Message statistics = new DefaultMessage(null, "STATISTICS", new ContextualStatistics("CacheStatistics", Context.create("cacheName", "cache2"), Collections.emptyMap()));
+
+  @Test
+  public void test_all() {
+    assertTrue(MessageSubscription.all().matches(notification));
+    assertTrue(MessageSubscription.all().matches(statistics));
+  }
+
+  @Test
+  public void test_types() {
+    MessageSubscription subscription = MessageSubscription.all().withTypes("STATISTICS");
+    assertFalse(subscription.matches(notification));
+    assertTrue(subscription.matches(statistics));
+  }
+
+  @Test
+  public void test_capabilities() {
+    assertTrue(MessageSubscription.all().withCapabilities("CacheStatistics").matches(statistics));
+    assertFalse(MessageSubscription.all().withCapabilities("OtherStatistics").matches(statistics));
+    // notifications have no capability
+    assertFalse(MessageSubscription.all().withCapabilities("CacheStatistics").matches(notification));
+  }
+
+  @Test
+  public void test_context() {
+    assertTrue(MessageSubscription.all().withContext("cacheName").matches(notification));
+    assertTrue(MessageSubscription.all().withContext("cacheName", "cache1").matches(notification));
+    assertFalse(MessageSubscription.all().withContext("cacheName", "cache1").matches(statistics));
+    assertFalse(MessageSubscription.all().withContext("cacheName").withContext("other").matches(statistics));
+  }
+
+  @Test
+  public void test_equality() {
+    assertEquals(
+        MessageSubscription.all().withTypes("STATISTICS").withContext("cacheName", "cache1"),
+        MessageSubscription.all().withContext("cacheName", "cache1").withTypes("STATISTICS"));
+  }
+
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.management.model.stats;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(JUnit4.class)
+public class SampleSeriesTest {
+
+  @Test
+  public void test_since() {
+    SampleSeries<Long> series = SampleSeries.ofLongs(StatisticType.COUNTER, 8);
+    for (long i = 1; i <= 5; i++) {
+      series.record(i * 10, i);
+    }
+
+    assertEquals(asList(1L, 2L, 3L, 4L, 5L), values(series.since(0)));
+    assertEquals(asList(3L, 4L, 5L), values(series.since(30)));
+    assertEquals(asList(4L, 5L), values(series.since(31)));
+    assertTrue(series.since(51).isEmpty());
+    assertEquals(5L, (long) series.since(0).getLatestSampleValue().get());
+    assertEquals(50L, series.since(0).getLatestSample().get().getTimestamp());
+    assertEquals(StatisticType.COUNTER, series.since(0).getType());
+  }
+
+  @Test
+  public void test_keeps_last_samples() {
+    SampleSeries<Double> series = SampleSeries.ofDoubles(StatisticType.GAUGE, 3);
+    for (int i = 1; i <= 5; i++) {
+      series.record(i, i / 2d);
+    }
+
+    assertEquals(3, series.size());
+    assertEquals(asList(1.5, 2d, 2.5), values(series.since(0)));
+    assertEquals(asList(2d, 2.5), values(series.since(4)));
+  }
+
+  @Test
+  public void test_samples_must_be_ordered() {
+    SampleSeries<Long> series = SampleSeries.ofLongs(StatisticType.COUNTER, 3);
+    series.record(10, 1L);
+    try {
+      series.record(9, 2L);
+      fail();
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      series.record(11, 2d);
+      fail();
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    assertEquals(asList(1L), values(series.since(0)));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void test_serialized_views_hold_their_samples() throws Exception {
+    SampleSeries<Long> series = SampleSeries.ofLongs(StatisticType.COUNTER, 3);
+    series.record(10, 1L);
+    series.record(20, 2L);
+
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+      oos.writeObject(series.since(15));
+    }
+    Statistic<Long> statistic;
+    try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray()))) {
+      statistic = (Statistic<Long>) ois.readObject();
+    }
+
+    assertFalse(statistic.isEmpty());
+    assertEquals(asList(2L), values(statistic));
+    assertEquals(StatisticType.COUNTER, statistic.getType());
+  }
+
+  @Test
+  public void test_overwritten_samples_are_not_read() {
+    SampleSeries<Long> series = SampleSeries.ofLongs(StatisticType.COUNTER, 3);
+    series.record(10, 1L);
+    series.record(20, 2L);
+    Statistic<Long> view = series.since(0);
+
+    series.record(30, 3L);
+    assertEquals(asList(1L, 2L), values(view));
+
+    series.record(40, 4L);
+    try {
+      values(view);
+      fail();
+    } catch (ConcurrentModificationException e) {
+      // expected: the first sample was overwritten
+    }
+    assertEquals(2L, (long) view.getLatestSampleValue().get());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void test_converted_views_are_not_copied() throws Exception {
+    SampleSeries<Long> series = SampleSeries.ofLongs(StatisticType.COUNTER, 2);
+    series.record(10, 1L);
+    series.record(20, 2L);
+
+    org.terracotta.statistics.registry.Statistic<Long> statistic = DelegatingStatistic.convertStats(series.since(15));
+    assertEquals(org.terracotta.statistics.StatisticType.COUNTER, statistic.getType());
+    assertEquals(2L, (long) statistic.getLatestSampleValue().get());
+
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+      oos.writeObject(statistic);
+    }
+
+    // the view reads through the buffers, the serialized statistic holds its samples
+    series.record(30, 3L);
+    series.record(40, 4L);
+    try {
+      statistic.getLatestSample();
+      fail();
+    } catch (ConcurrentModificationException e) {
+      // expected
+    }
+    try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray()))) {
+      statistic = (org.terracotta.statistics.registry.Statistic<Long>) ois.readObject();
+    }
+    assertEquals(2L, (long) statistic.getLatestSampleValue().get());
+  }
+
+  @Test
+  public void test_sampled_gauges_are_sampled_on_collect() {
+    AtomicLong time = new AtomicLong(10);
+    AtomicLong gauge = new AtomicLong(1);
+    StatisticRegistry registry = new StatisticRegistry(this, time::get);
+    registry.registerSampledGauge("Gauge", 4, gauge::get);
+
+    assertEquals(asList(1L), values(collect(registry, Collections.emptyList(), 0, "Gauge")));
+
+    time.set(20);
+    gauge.set(2);
+    assertEquals(asList(1L, 2L), values(collect(registry, Collections.singletonList("Gauge"), 0, "Gauge")));
+
+    time.set(30);
+    gauge.set(3);
+    assertEquals(asList(3L), values(collect(registry, Collections.emptyList(), 25, "Gauge")));
+    assertEquals(StatisticType.GAUGE, collect(registry, Collections.emptyList(), 25, "Gauge").getType());
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Statistic<Long> collect(StatisticRegistry registry, List<String> names, long since, String name) {
+    return (Statistic<Long>) StatisticRegistry.collect(registry, names, since).get(name);
+  }
+
+  private static <T extends Serializable> List<T> values(Statistic<T> statistic) {
+    return statistic.getSamples().stream().map(Sample::getSample).collect(Collectors.toList());
+  }
+}
@@ -32,10 +32,14 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * @author Mathieu Carbou
@@ -45,16 +49,25 @@ public abstract class AbstractManagementProvider<T> implements ManagementProvide
   protected static final Comparator<StatisticDescriptor> STATISTIC_DESCRIPTOR_COMPARATOR = Comparator.comparing(StatisticDescriptor::getName);
 
   private final Queue<ExposedObject<T>> exposedObjects = new ConcurrentLinkedQueue<>();
+  // exposed objects indexed by the values of their required context attributes, so that a context can be resolved
+  // without scanning all of them. Exposed objects whose context does not hold all these attributes are not indexed.
+  private final ConcurrentMap<List<String>, Queue<ExposedObject<T>>> exposedObjectsByContext = new ConcurrentHashMap<>();
+  private final Queue<ExposedObject<T>> unindexedExposedObjects = new ConcurrentLinkedQueue<>();
+  private final AtomicLong exposedObjectsVersion = new AtomicLong();
 
   private final String capabilityName;
   private final Class<? extends T> managedType;
   private final CapabilityContext capabilityContext;
+  private final String[] requiredAttributeNames;
 
   @SuppressFBWarnings("CT_CONSTRUCTOR_THROW")
   public AbstractManagementProvider(Class<? extends T> managedType) {
     this.managedType = managedType;
     this.capabilityName = buildCapabilityName();
     this.capabilityContext = buildCapabilityContext();
+    this.requiredAttributeNames = capabilityContext.getRequiredAttributes().stream()
+        .map(CapabilityContext.Attribute::getName)
+        .toArray(String[]::new);
   }
 
   @Override
@@ -81,6 +94,8 @@ public abstract class AbstractManagementProvider<T> implements ManagementProvide
   public void register(T managedObject) {
     ExposedObject<T> exposedObject = wrap(managedObject);
     this.exposedObjects.add(exposedObject);
+    index(exposedObject);
+    exposedObjectsVersion.incrementAndGet();
   }
 
   @Override
@@ -88,6 +103,8 @@ public abstract class AbstractManagementProvider<T> implements ManagementProvide
     for (ExposedObject<T> exposedObject : exposedObjects) {
       if (exposedObject.getTarget().equals(managedObject)) {
         if (this.exposedObjects.remove(exposedObject)) {
+          unindex(exposedObject);
+          exposedObjectsVersion.incrementAndGet();
           dispose(exposedObject);
           return;
         }
@@ -98,7 +115,10 @@ public abstract class AbstractManagementProvider<T> implements ManagementProvide
   @Override
   public void close() {
     while (!exposedObjects.isEmpty()) {
-      dispose(exposedObjects.poll());
+      ExposedObject<T> exposedObject = exposedObjects.poll();
+      unindex(exposedObject);
+      exposedObjectsVersion.incrementAndGet();
+      dispose(exposedObject);
     }
   }
 
@@ -163,13 +183,26 @@ public abstract class AbstractManagementProvider<T> implements ManagementProvide
     return exposedObjects;
   }
 
+  @Override
+  public long getExposedObjectsVersion() {
+    return exposedObjectsVersion.get();
+  }
+
   protected abstract ExposedObject<T> wrap(T managedObject);
 
   protected ExposedObject<T> findExposedObject(Context context) {
     if (!getCapabilityContext().isValid(context)) {
       return null;
     }
-    for (ExposedObject<T> exposedObject : exposedObjects) {
+    Queue<ExposedObject<T>> candidates = exposedObjectsByContext.get(indexKey(context));
+    if (candidates != null) {
+      for (ExposedObject<T> exposedObject : candidates) {
+        if (context.contains(exposedObject.getContext())) {
+          return exposedObject;
+        }
+      }
+    }
+    for (ExposedObject<T> exposedObject : unindexedExposedObjects) {
       if (context.contains(exposedObject.getContext())) {
         return exposedObject;
       }
@@ -186,4 +219,38 @@ public abstract class AbstractManagementProvider<T> implements ManagementProvide
     }
     return null;
   }
+
+  private void index(ExposedObject<T> exposedObject) {
+    List<String> key = indexKey(exposedObject.getContext());
+    if (key == null) {
+      unindexedExposedObjects.add(exposedObject);
+    } else {
+      exposedObjectsByContext.computeIfAbsent(key, k -> new ConcurrentLinkedQueue<>()).add(exposedObject);
+    }
+  }
+
+  private void unindex(ExposedObject<T> exposedObject) {
+    List<String> key = indexKey(exposedObject.getContext());
+    if (key == null) {
+      unindexedExposedObjects.remove(exposedObject);
+    } else {
+      exposedObjectsByContext.computeIfPresent(key, (k, candidates) -> {
+        candidates.remove(exposedObject);
+        return candidates.isEmpty() ? null : candidates;
+      });
+    }
+  }
+
+  // the values of the required context attributes, or null if the context does not hold all of them
+  private List<String> indexKey(Context context) {
+    List<String> key = new ArrayList<>(requiredAttributeNames.length);
+    for (String name : requiredAttributeNames) {
+      String value = context == null ? null : context.get(name);
+      if (value == null) {
+        return null;
+      }
+      key.add(value);
+    }
+    return key;
+  }
 }
@@ -24,10 +24,10 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 import static org.terracotta.management.model.stats.DelegatingStatistic.convertStats;
 
@@ -96,25 +96,12 @@ public final class DefaultStatisticQuery implements StatisticQuery {
     return new DefaultResultSet<>(contextualStatistics);
   }
 
-  @SuppressWarnings("rawtypes")
   private static Map<String, Statistic<? extends Serializable>> getMap(Map<String, org.terracotta.management.model.stats.Statistic<? extends Serializable>> map) {
-    return map.entrySet().stream().map(x -> new Map.Entry<String, Statistic<? extends Serializable>>() {
-
-      @Override
-      public String getKey() {
-        return x.getKey();
-      }
-
-      @Override
-      public Statistic<? extends Serializable> getValue() {
-        return convertStats(x.getValue());
-      }
-
-      @Override
-      public Statistic<? extends Serializable> setValue(Statistic<? extends Serializable> value) {
-        throw new UnsupportedOperationException();
-      }
-    }).collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    Map<String, Statistic<? extends Serializable>> statistics = new HashMap<>((int) (map.size() / 0.75f) + 1);
+    for (Map.Entry<String, org.terracotta.management.model.stats.Statistic<? extends Serializable>> entry : map.entrySet()) {
+      statistics.put(entry.getKey(), convertStats(entry.getValue()));
+    }
+    return statistics;
   }
 
 }
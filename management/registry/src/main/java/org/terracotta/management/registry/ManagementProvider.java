@@ -126,5 +126,13 @@ public interface ManagementProvider<T> {
 
   Collection<ExposedObject<T>> getExposedObjects();
 
+  /**
+   * @return a version changing each time an object is registered or unregistered, so that callers can cache what they
+   * derive from the exposed objects, or -1 if the provider does not track it
+   */
+  default long getExposedObjectsVersion() {
+    return -1;
+  }
+
   ExposedObject<T> findExposedObject(T managedObject);
 }
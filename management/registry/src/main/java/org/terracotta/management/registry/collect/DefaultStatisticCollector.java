@@ -25,11 +25,18 @@ import org.terracotta.management.registry.CapabilityManagementSupport;
 import org.terracotta.management.registry.ExposedObject;
 import org.terracotta.management.registry.ManagementProvider;
 import org.terracotta.management.registry.ResultSet;
+import org.terracotta.statistics.registry.Statistic;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
@@ -47,6 +54,12 @@ public class DefaultStatisticCollector implements StatisticCollector {
   private final ScheduledExecutorService scheduledExecutorService;
   private final Runnable runnable;
 
+  // Only accessed by the collecting task, which never runs concurrently with itself.
+  // Contexts of the statistic providers per capability, reused until a provider registers or unregisters an object
+  private final Map<String, ProviderContexts> contexts = new HashMap<>();
+  // Latest statistic values pushed per capability and context, when only pushing the changes
+  private final Map<String, Map<Context, Map<String, Serializable>>> pushedValues = new HashMap<>();
+
   private volatile boolean running;
   private ScheduledFuture<?> task;
   private long intervalMs;
@@ -56,6 +69,18 @@ public class DefaultStatisticCollector implements StatisticCollector {
                                    ScheduledExecutorService scheduledExecutorService,
                                    final Collector collector,
                                    LongSupplier systemTimeSupplier) {
+    this(managementRegistry, scheduledExecutorService, collector, systemTimeSupplier, false);
+  }
+
+  /**
+   * @param changesOnly if true, each collect only pushes the statistics whose latest value changed since they were
+   *                    last pushed, and skips the contexts without any such statistic
+   */
+  public DefaultStatisticCollector(final CapabilityManagementSupport managementRegistry,
+                                   ScheduledExecutorService scheduledExecutorService,
+                                   final Collector collector,
+                                   LongSupplier systemTimeSupplier,
+                                   boolean changesOnly) {
 
     this.scheduledExecutorService = Objects.requireNonNull(scheduledExecutorService);
 
@@ -66,18 +91,11 @@ public class DefaultStatisticCollector implements StatisticCollector {
       try {
         if (running) {
           Collection<ContextualStatistics> statistics = new ArrayList<>();
+          Map<String, Map<Context, Map<String, Serializable>>> changedValues = changesOnly ? new HashMap<>() : null;
 
           for (String capabilityName : managementRegistry.getCapabilityNames()) {
 
-            Set<Context> allContexts = new LinkedHashSet<>();
-
-            for (ManagementProvider<?> managementProvider : managementRegistry.getManagementProvidersByCapability(capabilityName)) {
-              if (managementProvider.getClass().isAnnotationPresent(StatisticProvider.class)) {
-                for (ExposedObject<?> exposedObject : managementProvider.getExposedObjects()) {
-                  allContexts.add(exposedObject.getContext());
-                }
-              }
-            }
+            Set<Context> allContexts = getContexts(capabilityName, managementRegistry.getManagementProvidersByCapability(capabilityName));
 
             if (!allContexts.isEmpty()) {
               CapabilityManagement capabilityManagement = managementRegistry.withCapability(capabilityName);
@@ -88,7 +106,12 @@ public class DefaultStatisticCollector implements StatisticCollector {
                   .build()
                   .execute();
               for (ContextualStatistics contextualStatistics : resultSet) {
-                statistics.add(contextualStatistics);
+                if (changesOnly) {
+                  contextualStatistics = changes(capabilityName, contextualStatistics, changedValues);
+                }
+                if (contextualStatistics != null) {
+                  statistics.add(contextualStatistics);
+                }
               }
             }
           }
@@ -100,6 +123,12 @@ public class DefaultStatisticCollector implements StatisticCollector {
             // Thus, if any exception occurs (such as temporary network failure),
             // the next sending of stat will contain the samples of the last collect.
             lastCollectTime = systemTimeSupplier.getAsLong();
+
+            // for the same reason, the pushed values are only recorded once the collector has been called
+            if (changesOnly) {
+              changedValues.forEach((capabilityName, values) -> values.forEach((context, changed) ->
+                  pushedValues.computeIfAbsent(capabilityName, c -> new HashMap<>()).computeIfAbsent(context, c -> new HashMap<>()).putAll(changed)));
+            }
           }
         }
       } catch (RuntimeException e) {
@@ -108,6 +137,40 @@ public class DefaultStatisticCollector implements StatisticCollector {
     };
   }
 
+  private Set<Context> getContexts(String capabilityName, Collection<ManagementProvider<?>> managementProviders) {
+    ProviderContexts providerContexts = contexts.get(capabilityName);
+    if (providerContexts == null || !providerContexts.isCurrent(managementProviders)) {
+      providerContexts = new ProviderContexts(managementProviders);
+      contexts.put(capabilityName, providerContexts);
+      Map<Context, Map<String, Serializable>> values = pushedValues.get(capabilityName);
+      if (values != null) {
+        values.keySet().retainAll(providerContexts.contexts);
+      }
+    }
+    return providerContexts.contexts;
+  }
+
+  /**
+   * Keeps the statistics which latest value differs from the one last pushed, recording their value in changedValues
+   */
+  private ContextualStatistics changes(String capabilityName, ContextualStatistics statistics, Map<String, Map<Context, Map<String, Serializable>>> changedValues) {
+    Map<String, Serializable> pushed = pushedValues.getOrDefault(capabilityName, Collections.emptyMap()).getOrDefault(statistics.getContext(), Collections.emptyMap());
+    Map<String, Statistic<? extends Serializable>> changed = new HashMap<>();
+    Map<String, Serializable> values = new HashMap<>();
+    for (Map.Entry<String, Statistic<? extends Serializable>> entry : statistics.getStatistics().entrySet()) {
+      Optional<? extends Serializable> value = entry.getValue().getLatestSampleValue();
+      if (value.isPresent() && !value.get().equals(pushed.get(entry.getKey()))) {
+        changed.put(entry.getKey(), entry.getValue());
+        values.put(entry.getKey(), value.get());
+      }
+    }
+    if (changed.isEmpty()) {
+      return null;
+    }
+    changedValues.computeIfAbsent(capabilityName, c -> new HashMap<>()).put(statistics.getContext(), values);
+    return changed.size() == statistics.size() ? statistics : new ContextualStatistics(capabilityName, statistics.getContext(), changed);
+  }
+
   @Override
   public synchronized void startStatisticCollector(long interval, TimeUnit unit) {
     if (interval <= 0) {
@@ -154,4 +217,44 @@ public class DefaultStatisticCollector implements StatisticCollector {
     return running;
   }
 
+  private static final class ProviderContexts {
+    private final List<ManagementProvider<?>> providers;
+    private final long[] versions;
+    private final Set<Context> contexts = new LinkedHashSet<>();
+
+    ProviderContexts(Collection<ManagementProvider<?>> managementProviders) {
+      this.providers = new ArrayList<>(managementProviders.size());
+      for (ManagementProvider<?> managementProvider : managementProviders) {
+        if (managementProvider.getClass().isAnnotationPresent(StatisticProvider.class)) {
+          providers.add(managementProvider);
+        }
+      }
+      this.versions = new long[providers.size()];
+      for (int i = 0; i < versions.length; i++) {
+        // read the version before the exposed objects so that a concurrent registration invalidates these contexts
+        versions[i] = providers.get(i).getExposedObjectsVersion();
+        for (ExposedObject<?> exposedObject : providers.get(i).getExposedObjects()) {
+          contexts.add(exposedObject.getContext());
+        }
+      }
+    }
+
+    boolean isCurrent(Collection<ManagementProvider<?>> managementProviders) {
+      int i = 0;
+      for (ManagementProvider<?> managementProvider : managementProviders) {
+        if (managementProvider.getClass().isAnnotationPresent(StatisticProvider.class)) {
+          if (i == versions.length || providers.get(i) != managementProvider) {
+            return false;
+          }
+          long version = managementProvider.getExposedObjectsVersion();
+          if (version == -1 || version != versions[i]) {
+            return false;
+          }
+          i++;
+        }
+      }
+      return i == versions.length;
+    }
+  }
+
 }
@@ -83,6 +83,84 @@ public class ActionProviderTest {
     assertThat(next.isRequired(), is(true));
   }
 
+  @Test
+  public void testSupports() throws Exception {
+    MyObject cache1 = new MyObject("cache-manager-0", "cache-1");
+    managementProvider.register(new MyObject("cache-manager-0", "cache-0"));
+    managementProvider.register(cache1);
+
+    Context context = Context.empty()
+        .with("instanceId", "instance-0")
+        .with("cacheManagerName", "cache-manager-0");
+
+    assertThat(managementProvider.supports(context.with("cacheName", "cache-1")), is(true));
+    assertThat(managementProvider.supports(context.with("cacheName", "cache-1").with("other", "value")), is(true));
+    assertThat(managementProvider.supports(context.with("cacheName", "cache-2")), is(false));
+    assertThat(managementProvider.supports(context), is(false));
+
+    managementProvider.unregister(cache1);
+
+    assertThat(managementProvider.supports(context.with("cacheName", "cache-1")), is(false));
+    assertThat(managementProvider.supports(context.with("cacheName", "cache-0")), is(true));
+  }
+
+  @Test
+  public void testSupports_exposedObjectWithoutAllRequiredAttributes() throws Exception {
+    // not indexed because its context lacks cacheName: it matches any cache of its cache manager
+    MyObject cacheManager = new MyObject("cache-manager-0", null) {
+      @Override
+      public Context getContext() {
+        return Context.empty().with("instanceId", "instance-0").with("cacheManagerName", "cache-manager-0");
+      }
+    };
+    managementProvider.register(new MyObject("cache-manager-1", "cache-0"));
+    managementProvider.register(cacheManager);
+
+    Context context = Context.empty()
+        .with("instanceId", "instance-0")
+        .with("cacheManagerName", "cache-manager-0");
+
+    assertThat(managementProvider.supports(context.with("cacheName", "cache-0")), is(true));
+    assertThat(managementProvider.supports(context.with("cacheName", "cache-1")), is(true));
+    assertThat(managementProvider.supports(context.with("cacheManagerName", "cache-manager-2").with("cacheName", "cache-0")), is(false));
+    assertThat(managementProvider.supports(context), is(false));
+
+    managementProvider.unregister(cacheManager);
+
+    assertThat(managementProvider.supports(context.with("cacheName", "cache-0")), is(false));
+    assertThat(managementProvider.supports(context.with("cacheManagerName", "cache-manager-1").with("cacheName", "cache-0")), is(true));
+  }
+
+  @Test
+  public void testSupports_indexStaysConsistentOnRemoval() throws Exception {
+    // two exposed objects sharing the same index entry
+    MyObject first = new MyObject("cache-manager-0", "cache-0");
+    MyObject second = new MyObject("cache-manager-0", "cache-0");
+    managementProvider.register(first);
+    managementProvider.register(second);
+
+    Context context = Context.empty()
+        .with("instanceId", "instance-0")
+        .with("cacheManagerName", "cache-manager-0")
+        .with("cacheName", "cache-0");
+
+    managementProvider.unregister(first);
+    assertThat(managementProvider.supports(context), is(true));
+
+    managementProvider.unregister(first);
+    assertThat(managementProvider.supports(context), is(true));
+
+    managementProvider.unregister(second);
+    assertThat(managementProvider.supports(context), is(false));
+
+    managementProvider.register(first);
+    assertThat(managementProvider.supports(context), is(true));
+
+    managementProvider.close();
+    assertThat(managementProvider.supports(context), is(false));
+    assertThat(managementProvider.getExposedObjects().isEmpty(), is(true));
+  }
+
   @Test
   public void testCollectStatistics() throws Exception {
     try {
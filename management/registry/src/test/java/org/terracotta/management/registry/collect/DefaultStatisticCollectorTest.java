@@ -0,0 +1,176 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.management.registry.collect;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.terracotta.management.model.context.Context;
+import org.terracotta.management.model.stats.ContextualStatistics;
+import org.terracotta.management.registry.DefaultManagementRegistry;
+import org.terracotta.management.registry.DefaultStatisticsExposedObject;
+import org.terracotta.management.registry.DefaultStatisticsManagementProvider;
+import org.terracotta.management.registry.Named;
+import org.terracotta.management.registry.RequiredContext;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.terracotta.statistics.ValueStatistics.gauge;
+
+@RunWith(JUnit4.class)
+public class DefaultStatisticCollectorTest {
+
+  private final AtomicLong time = new AtomicLong();
+  private final List<Collection<ContextualStatistics>> collected = new ArrayList<>();
+  private final DefaultManagementRegistry registry = new DefaultManagementRegistry();
+  private final ManualExecutor executor = new ManualExecutor();
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testCollectsAllStatisticsByDefault() throws Exception {
+    Counter a = new Counter("a");
+    registry.addManagementProvider(new CounterStatisticsProvider(time::incrementAndGet));
+    registry.register(a);
+    start(false);
+
+    executor.tick();
+    executor.tick();
+
+    assertThat(collected.size(), equalTo(2));
+    assertThat(values(collected.get(1)).toString(), equalTo("{a={Value=0}}"));
+  }
+
+  @Test
+  public void testCollectsOnlyChangedStatistics() throws Exception {
+    Counter a = new Counter("a");
+    Counter b = new Counter("b");
+    registry.addManagementProvider(new CounterStatisticsProvider(time::incrementAndGet));
+    registry.register(a);
+    registry.register(b);
+    start(true);
+
+    executor.tick();
+    assertThat(values(collected.get(0)).toString(), equalTo("{a={Value=0}, b={Value=0}}"));
+
+    executor.tick();
+    assertThat(collected.size(), equalTo(1));
+
+    a.value.incrementAndGet();
+    executor.tick();
+    assertThat(values(collected.get(1)).toString(), equalTo("{a={Value=1}}"));
+
+    // newly registered objects are collected without any registry refresh
+    registry.register(new Counter("c"));
+    executor.tick();
+    assertThat(values(collected.get(2)).toString(), equalTo("{c={Value=0}}"));
+  }
+
+  @Test
+  public void testChangesAreCollectedAgainWhenCollectorFailed() throws Exception {
+    Counter a = new Counter("a");
+    registry.addManagementProvider(new CounterStatisticsProvider(time::incrementAndGet));
+    registry.register(a);
+    DefaultStatisticCollector statisticCollector = new DefaultStatisticCollector(registry, executor, statistics -> {
+      if (collected.isEmpty()) {
+        collected.add(null);
+        throw new IllegalStateException("network failure");
+      }
+      collected.add(statistics);
+    }, time::incrementAndGet, true);
+    statisticCollector.startStatisticCollector(1, TimeUnit.HOURS);
+
+    executor.tick();
+    executor.tick();
+
+    assertThat(values(collected.get(1)).toString(), equalTo("{a={Value=0}}"));
+  }
+
+  private void start(boolean changesOnly) {
+    new DefaultStatisticCollector(registry, executor, collected::add, time::incrementAndGet, changesOnly)
+        .startStatisticCollector(1, TimeUnit.HOURS);
+  }
+
+  private static Map<String, Map<String, Object>> values(Collection<ContextualStatistics> statistics) {
+    Map<String, Map<String, Object>> values = new TreeMap<>();
+    for (ContextualStatistics statistic : statistics) {
+      values.put(statistic.getContext().get("counterName"), new TreeMap<>(statistic.getLatestSampleValues()));
+    }
+    return values;
+  }
+
+  public static class Counter {
+    final String name;
+    final AtomicLong value = new AtomicLong();
+
+    Counter(String name) {
+      this.name = name;
+    }
+  }
+
+  @Named("CounterStatistics")
+  @RequiredContext(@Named("counterName"))
+  @StatisticProvider
+  static class CounterStatisticsProvider extends DefaultStatisticsManagementProvider<Counter> {
+    CounterStatisticsProvider(LongSupplier timeSource) {
+      super(Counter.class, timeSource);
+    }
+
+    @Override
+    protected DefaultStatisticsExposedObject<Counter> wrap(Counter counter) {
+      DefaultStatisticsExposedObject<Counter> exposedObject = new DefaultStatisticsExposedObject<>(counter, timeSource, Context.create("counterName", counter.name));
+      exposedObject.getStatisticRegistry().registerStatistic("Value", gauge(counter.value::get));
+      return exposedObject;
+    }
+  }
+
+  /**
+   * Captures the collecting task so that the test runs each collect itself
+   */
+  private static class ManualExecutor extends ScheduledThreadPoolExecutor {
+    private Runnable task;
+
+    ManualExecutor() {
+      super(1);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+      task = command;
+      return schedule(() -> { }, 1, TimeUnit.DAYS);
+    }
+
+    void tick() {
+      task.run();
+    }
+  }
+}
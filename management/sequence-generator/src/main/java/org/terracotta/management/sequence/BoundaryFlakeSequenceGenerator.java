@@ -82,6 +82,58 @@ public final class BoundaryFlakeSequenceGenerator implements SequenceGenerator {
 
   @Override
   public Sequence next() {
+    long update = nextTimeAndSeq();
+    return new BoundaryFlakeSequence(
+        update >>> SEQ_BITLENGTH,
+        nodeId,
+        instanceId | (update & SEQ_BITMASK));
+  }
+
+  /**
+   * Generates the next sequence without allocating any object: the timestamp, node id and sequence id are written
+   * in this order at {@code buffer[offset]}, {@code buffer[offset + 1]} and {@code buffer[offset + 2]}.
+   */
+  public void next(long[] buffer, int offset) {
+    long update = nextTimeAndSeq();
+    buffer[offset] = update >>> SEQ_BITLENGTH;
+    buffer[offset + 1] = nodeId;
+    buffer[offset + 2] = instanceId | (update & SEQ_BITMASK);
+  }
+
+  /**
+   * Reserves a contiguous block of sequences with a single CAS. The block is meant to be consumed by only one thread
+   * (i.e. kept in a thread local), so that the threads generating a lot of sequences do not contend on the generator.
+   * <p>
+   * All the sequences of a block share the same millisecond, so the block can contain less than {@code count}
+   * sequences if there are not enough sequences left in the current millisecond. It contains at least one sequence.
+   * <p>
+   * This only pays off for callers generating many sequences within a millisecond: a block kept longer hands out
+   * sequences with an outdated timestamp, so callers needing current timestamps should use {@link #next()}.
+   */
+  public SequenceBlock reserve(int count) {
+    if (count < 1) {
+      throw new IllegalArgumentException("Invalid count: " + count);
+    }
+    while (true) {
+      long min = timeSource.getTimestamp() << SEQ_BITLENGTH;
+      long max = min + SEQ_BITMASK;
+      for (long current = timeAndSeq.get(), first = Math.max(min, current + 1);
+           first < max;
+           current = timeAndSeq.get(), first = Math.max(min, current + 1)) {
+        long last = Math.min(first + count - 1, max - 1);
+        if (timeAndSeq.compareAndSet(current, last)) {
+          return new SequenceBlock(
+              first >>> SEQ_BITLENGTH,
+              nodeId,
+              instanceId,
+              first & SEQ_BITMASK,
+              (last & SEQ_BITMASK) + 1);
+        }
+      }
+    }
+  }
+
+  private long nextTimeAndSeq() {
     while (true) {
       long min = timeSource.getTimestamp() << SEQ_BITLENGTH;
       long max = min + SEQ_BITMASK;
@@ -89,10 +141,7 @@ public final class BoundaryFlakeSequenceGenerator implements SequenceGenerator {
            update < max;
            current = timeAndSeq.get(), update = Math.max(min, current + 1)) {
         if (timeAndSeq.compareAndSet(current, update)) {
-          return new BoundaryFlakeSequence(
-              update >>> SEQ_BITLENGTH,
-              nodeId,
-              instanceId | (update & SEQ_BITMASK));
+          return update;
         }
       }
     }
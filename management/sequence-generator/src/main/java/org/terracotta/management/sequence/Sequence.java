@@ -31,6 +31,14 @@ public interface Sequence extends Comparable<Sequence>, Serializable {
 
   long getSequenceId();
 
+  /**
+   * @return the timestamp and the sequence number within this millisecond packed in a long, which is unique and
+   * increasing for the generator that generated this sequence
+   */
+  default long toLocalId() {
+    return (getTimestamp() << Defaults.SEQ_BITLENGTH) | (getSequenceId() & Defaults.SEQ_BITMASK);
+  }
+
   String toHexString();
 
   byte[] toBytes();
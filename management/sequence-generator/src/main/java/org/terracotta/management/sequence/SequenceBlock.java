@@ -0,0 +1,80 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.management.sequence;
+
+import java.util.NoSuchElementException;
+
+/**
+ * A contiguous block of sequences reserved by {@link BoundaryFlakeSequenceGenerator#reserve(int)}.
+ * <p>
+ * This class is not thread-safe: a block is meant to be used as a cursor by only one thread.
+ */
+public final class SequenceBlock {
+
+  private final long timestamp;
+  private final long nodeId;
+  private final long instanceId;
+  private final long end;
+  private long next;
+
+  SequenceBlock(long timestamp, long nodeId, long instanceId, long first, long end) {
+    this.timestamp = timestamp;
+    this.nodeId = nodeId;
+    this.instanceId = instanceId;
+    this.next = first;
+    this.end = end;
+  }
+
+  public long getTimestamp() {
+    return timestamp;
+  }
+
+  public int remaining() {
+    return (int) (end - next);
+  }
+
+  public boolean hasNext() {
+    return next < end;
+  }
+
+  public Sequence next() {
+    return new BoundaryFlakeSequence(timestamp, nodeId, instanceId | nextSeq());
+  }
+
+  /**
+   * Writes the next sequence of this block without allocating any object: the timestamp, node id and sequence id
+   * are written in this order at {@code buffer[offset]}, {@code buffer[offset + 1]} and {@code buffer[offset + 2]}.
+   */
+  public void next(long[] buffer, int offset) {
+    long seq = nextSeq();
+    buffer[offset] = timestamp;
+    buffer[offset + 1] = nodeId;
+    buffer[offset + 2] = instanceId | seq;
+  }
+
+  private long nextSeq() {
+    if (next >= end) {
+      throw new NoSuchElementException();
+    }
+    return next++;
+  }
+
+  @Override
+  public String toString() {
+    return "SequenceBlock{timestamp=" + timestamp + ", remaining=" + remaining() + '}';
+  }
+}
@@ -18,60 +18,104 @@ package org.terracotta.management.sequence.perf;
 
 import org.terracotta.management.sequence.BoundaryFlakeSequenceGenerator;
 import org.terracotta.management.sequence.NodeIdSource;
+import org.terracotta.management.sequence.SequenceBlock;
 import org.terracotta.management.sequence.TimeSource;
 
 import java.util.Arrays;
 import java.util.concurrent.CyclicBarrier;
 
 /**
+ * Measures the generation throughput of {@link BoundaryFlakeSequenceGenerator} with one thread and then with all
+ * the available processors contending on the same generator, for each generation scenario:
+ * <ul>
+ * <li>next: one {@link org.terracotta.management.sequence.Sequence} allocated per sequence</li>
+ * <li>next-primitive: each sequence written in a long triplet</li>
+ * <li>reserve-N: each thread reserves blocks of N sequences and writes them in a long triplet</li>
+ * </ul>
+ * Each measure is preceded by a warmup round.
+ * <p>
  * TIP: run with: -ea -server -Xmx512M -Xms512M -verbose:gc
  *
  * @author Mathieu Carbou
  */
 public class PerfTest {
 
+  private static final int ROUNDS = 10;
+  private static final int ROUND_DURATION_MS = 1000;
+
   private static final BoundaryFlakeSequenceGenerator generator = new BoundaryFlakeSequenceGenerator(TimeSource.BEST, NodeIdSource.BEST);
 
   public static void main(String[] args) throws InterruptedException {
-    {
-      int[] counts = new int[10];
-      for (int i = 0; i < counts.length; i++) {
-        counts[i] = genMs(1000);
-      }
-      System.out.println("Number of generated sequence per ms: " + toStat(counts) + "\n" + Arrays.toString(counts));
-    }
-    {
-      final CyclicBarrier barrier = new CyclicBarrier(Runtime.getRuntime().availableProcessors());
-      final int[][] counts = new int[barrier.getParties()][];
-      Thread[] threads = new Thread[barrier.getParties()];
-      for (int i = 0; i < barrier.getParties(); i++) {
-        final int tid = i;
-        counts[i] = new int[10];
-        threads[i] = new Thread("thread-" + tid) {
+    Scenario[] scenarios = {
+        new Scenario("next") {
           @Override
-          public void run() {
-            try {
-              barrier.await();
-            } catch (Exception ignored) {
-              return;
-            }
-            for (int i = 0; i < counts[tid].length; i++) {
-              counts[tid][i] = genMs(1000);
-            }
+          long generate(long[] buffer) {
+            return generator.next().getTimestamp();
           }
-        };
-        threads[i].start();
-      }
-      for (Thread thread : threads) {
-        thread.join();
+        },
+        new Scenario("next-primitive") {
+          @Override
+          long generate(long[] buffer) {
+            generator.next(buffer, 0);
+            return buffer[0];
+          }
+        },
+        new ReserveScenario(16),
+        new ReserveScenario(256),
+    };
+    int threads = Runtime.getRuntime().availableProcessors();
+    for (Scenario scenario : scenarios) {
+      run(scenario, 1);
+      if (threads > 1) {
+        run(scenario, threads);
       }
-      for (int i = 0; i < counts.length; i++) {
-        System.out.println("{thread-" + i + "}\nNumber of generated sequence per ms: " + toStat(counts[i]) + "\n" + Arrays.toString(counts[i]));
+    }
+  }
+
+  private static void run(Scenario scenario, int threadCount) throws InterruptedException {
+    // warmup
+    measure(scenario, threadCount);
+    int[][] counts = measure(scenario, threadCount);
+    int[] total = new int[ROUNDS];
+    for (int[] threadCounts : counts) {
+      for (int i = 0; i < ROUNDS; i++) {
+        total[i] += threadCounts[i];
       }
     }
+    System.out.println("{" + scenario.name + ", threads=" + threadCount + "}\nNumber of generated sequence per ms: " + toStat(total) + "\n" + Arrays.toString(total));
+  }
+
+  private static int[][] measure(final Scenario scenario, int threadCount) throws InterruptedException {
+    final CyclicBarrier barrier = new CyclicBarrier(threadCount);
+    final int[][] counts = new int[threadCount][];
+    Thread[] threads = new Thread[threadCount];
+    for (int i = 0; i < threadCount; i++) {
+      final int tid = i;
+      counts[i] = new int[ROUNDS];
+      threads[i] = new Thread("thread-" + tid) {
+        @Override
+        public void run() {
+          try {
+            barrier.await();
+          } catch (Exception ignored) {
+            return;
+          }
+          long[] buffer = new long[3];
+          for (int i = 0; i < ROUNDS; i++) {
+            counts[tid][i] = genMs(scenario, buffer, ROUND_DURATION_MS);
+          }
+        }
+      };
+      threads[i].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    return counts;
   }
 
   private static Stat toStat(int[] counts) {
+    counts = counts.clone();
     Arrays.sort(counts);
     int mean = 0;
     for (long count : counts) {
@@ -80,15 +124,49 @@ public class PerfTest {
     return new Stat(counts[0], counts[counts.length - 1], mean / counts.length);
   }
 
-  private static int genMs(int durationMs) {
+  private static int genMs(Scenario scenario, long[] buffer, int durationMs) {
     int n = 0;
     long time = System.currentTimeMillis();
-    while (generator.next().getTimestamp() - time < durationMs) {
+    while (scenario.generate(buffer) - time < durationMs) {
       n++;
     }
     return n / durationMs;
   }
 
+  abstract static class Scenario {
+    final String name;
+
+    Scenario(String name) {
+      this.name = name;
+    }
+
+    /**
+     * @return the timestamp of the generated sequence
+     */
+    abstract long generate(long[] buffer);
+  }
+
+  static class ReserveScenario extends Scenario {
+    final int blockSize;
+    final ThreadLocal<SequenceBlock> blocks = new ThreadLocal<>();
+
+    ReserveScenario(int blockSize) {
+      super("reserve-" + blockSize);
+      this.blockSize = blockSize;
+    }
+
+    @Override
+    long generate(long[] buffer) {
+      SequenceBlock block = blocks.get();
+      if (block == null || !block.hasNext()) {
+        block = generator.reserve(blockSize);
+        blocks.set(block);
+      }
+      block.next(buffer, 0);
+      return buffer[0];
+    }
+  }
+
   static class Stat {
     final int mean;
     final int min;
@@ -102,7 +180,7 @@ public class PerfTest {
 
     @Override
     public String toString() {
-      return "min=" + mean + ", max=" + max + ", mean=" + mean;
+      return "min=" + min + ", max=" + max + ", mean=" + mean;
     }
   }
 }
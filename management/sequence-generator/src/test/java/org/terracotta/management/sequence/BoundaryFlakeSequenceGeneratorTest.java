@@ -26,6 +26,7 @@ import java.net.URL;
 import java.net.URLClassLoader;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.NoSuchElementException;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.CyclicBarrier;
@@ -33,6 +34,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 import static java.lang.Long.toHexString;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.terracotta.management.sequence.Defaults.readMacAddress;
 import static org.terracotta.management.sequence.Defaults.readPID;
@@ -76,6 +78,62 @@ public class BoundaryFlakeSequenceGeneratorTest {
     assertEquals(sequence, BoundaryFlakeSequence.fromHexString(sequence.toHexString()));
   }
 
+  @Test
+  public void test_local_id() {
+    final long now = System.currentTimeMillis();
+    BoundaryFlakeSequenceGenerator generator = new BoundaryFlakeSequenceGenerator(new TimeSource.Fixed(now), NodeIdSource.MAC_PID);
+
+    Sequence first = generator.next();
+    Sequence second = generator.next();
+
+    assertEquals(now, first.toLocalId() >>> Defaults.SEQ_BITLENGTH);
+    assertEquals(first.getSequenceId() & Defaults.SEQ_BITMASK, first.toLocalId() & Defaults.SEQ_BITMASK);
+    assertEquals(first.toLocalId() + 1, second.toLocalId());
+  }
+
+  @Test
+  public void test_reserve() {
+    final long now = System.currentTimeMillis();
+    BoundaryFlakeSequenceGenerator generator = new BoundaryFlakeSequenceGenerator(new TimeSource.Fixed(now), NodeIdSource.MAC_PID);
+
+    SequenceBlock block = generator.reserve(3);
+    assertEquals(3, block.remaining());
+    assertEquals(now, block.getTimestamp());
+
+    Sequence first = block.next();
+    long[] buffer = new long[4];
+    block.next(buffer, 1);
+    Sequence third = block.next();
+    assertFalse(block.hasNext());
+
+    assertEquals(generator.getInstanceId(), first.getSequenceId());
+    assertEquals(now, buffer[1]);
+    assertEquals(generator.getNodeId(), buffer[2]);
+    assertEquals(first.getSequenceId() + 1, buffer[3]);
+    assertEquals(first.getSequenceId() + 2, third.getSequenceId());
+
+    // the generator continues after the reserved block
+    generator.next(buffer, 0);
+    assertEquals(first.getSequenceId() + 3, buffer[2]);
+    assertEquals(first.getSequenceId() + 4, generator.next().getSequenceId());
+  }
+
+  @Test(expected = NoSuchElementException.class)
+  public void test_reserve_exhausted() {
+    BoundaryFlakeSequenceGenerator generator = new BoundaryFlakeSequenceGenerator(new TimeSource.Fixed(System.currentTimeMillis()), NodeIdSource.MAC_PID);
+    SequenceBlock block = generator.reserve(1);
+    block.next();
+    block.next();
+  }
+
+  @Test
+  public void test_reserve_is_capped_to_the_current_millisecond() {
+    BoundaryFlakeSequenceGenerator generator = new BoundaryFlakeSequenceGenerator(new TimeSource.Fixed(System.currentTimeMillis()), NodeIdSource.MAC_PID);
+    generator.next();
+    SequenceBlock block = generator.reserve(Integer.MAX_VALUE);
+    assertEquals(Defaults.SEQ_BITMASK - 1, block.remaining());
+  }
+
   private static String pad(int length, char character, String string) {
     char[] padding = new char[length - string.length()];
     Arrays.fill(padding, character);
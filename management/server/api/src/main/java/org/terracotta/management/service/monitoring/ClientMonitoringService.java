@@ -62,6 +62,16 @@ public interface ClientMonitoringService extends Closeable {
    */
   void exposeManagementRegistry(ClientDescriptor caller, Context root, ContextContainer contextContainer, Capability... capabilities);
 
+  /**
+   * Updates the management registry previously exposed by the client identified by a client descriptor
+   * <p>
+   * Can be called from active entity only
+   *
+   * @param added   the capabilities to add or replace (by name)
+   * @param removed the names of the capabilities to remove
+   */
+  void updateManagementRegistry(ClientDescriptor caller, Context root, ContextContainer contextContainer, Capability[] added, String[] removed);
+
   /**
    * Answer a management call we received and executed
    * <p>
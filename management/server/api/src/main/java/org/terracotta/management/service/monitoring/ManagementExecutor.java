@@ -21,6 +21,8 @@ import org.terracotta.management.model.call.ContextualCall;
 import org.terracotta.management.model.call.ContextualReturn;
 import org.terracotta.management.model.message.Message;
 
+import java.util.Collection;
+
 /**
  * Responsible to execute a management call on a server and set back the result by calling
  * {@link EntityMonitoringService#answerManagementCall(String, ContextualReturn)}.
@@ -40,4 +42,12 @@ public interface ManagementExecutor {
   void sendMessageToClients(Message message);
 
   void sendMessageToClient(Message message, ClientDescriptor to);
+
+  /**
+   * Sends a message to the clients, except the ones that are not interested in it.
+   * Implementations not able to target some clients can send it to all of them.
+   */
+  default void sendMessageToClients(Message message, Collection<ClientDescriptor> excluded) {
+    sendMessageToClients(message);
+  }
 }
@@ -17,12 +17,17 @@
 package org.terracotta.management.service.monitoring;
 
 import java.io.Closeable;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 import org.terracotta.entity.ClientDescriptor;
 import org.terracotta.entity.CommonServerEntity;
 import org.terracotta.management.model.call.Parameter;
 import org.terracotta.management.model.cluster.Cluster;
 import org.terracotta.management.model.context.Context;
+import org.terracotta.management.model.message.MessageSubscription;
+import org.terracotta.management.model.notification.ContextualNotification;
 
 /**
  * Class used by the active NMS Entity to monitor the stripe and send management calls
@@ -42,6 +47,24 @@ public interface ManagementService extends Closeable {
    */
   Cluster readTopology();
 
+  /**
+   * @return the current topology along with its version. The returned cluster is shared and must not be mutated.
+   * <p>
+   * Can be called from active entity only
+   */
+  TopologySnapshot readTopologySnapshot();
+
+  /**
+   * Reads the topology changes applied after a given version, as the notifications that were fired for them, in order.
+   * The version reached after these changes is {@code sinceVersion + changes.size()}.
+   * <p>
+   * Can be called from active entity only
+   *
+   * @param sinceVersion the version of a previously read {@link TopologySnapshot}
+   * @return the changes, or nothing if they are not tracked anymore and the whole topology must be read again
+   */
+  Optional<List<ContextualNotification>> readTopologyChanges(long sinceVersion);
+
   /**
    * Request a management call from an entity client to another client of the same entity
    * <p>
@@ -51,6 +74,14 @@ public interface ManagementService extends Closeable {
    */
   String sendManagementCallRequest(ClientDescriptor caller, Context context, String capabilityName, String methodName, Class<?> returnType, Parameter... parameters);
 
+  /**
+   * Replaces the notifications and statistics a client of the entity is interested in. Clients that did not subscribe
+   * receive all of them, and so does a client subscribing with an empty collection.
+   * <p>
+   * Can be called from active entity only
+   */
+  void subscribe(ClientDescriptor subscriber, Collection<MessageSubscription> subscriptions);
+
   /**
    * Closes this service from {@link CommonServerEntity#destroy()}
    */
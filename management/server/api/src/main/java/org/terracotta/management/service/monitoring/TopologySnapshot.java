@@ -0,0 +1,58 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.management.service.monitoring;
+
+import org.terracotta.management.model.cluster.Cluster;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * An immutable view of the topology at a given version.
+ * <p>
+ * The version is increased by one for each topology change, so that the changes applied after a snapshot can be read
+ * with {@link ManagementService#readTopologyChanges(long)}.
+ */
+public final class TopologySnapshot implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final long version;
+  private final Cluster cluster;
+
+  public TopologySnapshot(long version, Cluster cluster) {
+    this.version = version;
+    this.cluster = Objects.requireNonNull(cluster);
+  }
+
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * @return the topology at this version. You must not apply any mutation to the returned object since it is shared
+   * by all the readers of this version.
+   */
+  public Cluster getCluster() {
+    return cluster;
+  }
+
+  @Override
+  public String toString() {
+    return "TopologySnapshot{version=" + version + '}';
+  }
+}
@@ -47,16 +47,16 @@ public class AbstractExposedStatistics<T extends AliasBinding> extends AliasBind
   }
 
   public <U extends Serializable> Optional<Statistic<U>> queryStatistic(String fullStatisticName, long since) {
-    return statisticRegistry.queryStatistic(fullStatisticName, since);
+    return getStatisticRegistry().queryStatistic(fullStatisticName, since);
   }
 
   public Map<String, Statistic<? extends Serializable>> queryStatistics(long since) {
-    return statisticRegistry.queryStatistics(since);
+    return getStatisticRegistry().queryStatistics(since);
   }
 
   @Override
   public Collection<? extends StatisticDescriptor> getDescriptors() {
-    return statisticRegistry.getDescriptors();
+    return getStatisticRegistry().getDescriptors();
   }
 
 }
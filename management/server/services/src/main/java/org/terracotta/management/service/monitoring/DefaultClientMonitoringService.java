@@ -98,6 +98,17 @@ class DefaultClientMonitoringService implements ClientMonitoringService, Topolog
 
   }
 
+  @Override
+  public void updateManagementRegistry(ClientDescriptor from, Context root, ContextContainer contextContainer, Capability[] added, String[] removed) {
+    if (LOGGER.isTraceEnabled()) {
+      List<String> names = Stream.of(added).map(Capability::getName).collect(Collectors.toList());
+      LOGGER.trace("[{}] updateManagementRegistry({}, {}, {})", consumerId, from, names, Arrays.toString(removed));
+    }
+    topologyService.willUpdateClientManagementRegistry(consumerId, from, root, contextContainer, added, removed);
+    topologyService.getClientIdentifier(consumerId, from)
+        .thenAccept(clientIdentifier -> manageableClients.put(clientIdentifier, from));
+  }
+
   @Override
   public void answerManagementCall(ClientDescriptor caller, String managementCallIdentifier, ContextualReturn<?> contextualReturn) {
     LOGGER.trace("[{}] answerManagementCall({}, {})", consumerId, managementCallIdentifier, contextualReturn);
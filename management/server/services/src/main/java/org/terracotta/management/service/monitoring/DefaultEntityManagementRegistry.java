@@ -31,12 +31,15 @@ import org.terracotta.management.service.monitoring.registry.provider.Monitoring
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.TreeSet;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
@@ -52,6 +55,8 @@ class DefaultEntityManagementRegistry implements EntityManagementRegistry, Topol
   private final TimeSource timeSource;
   private final ContextContainer contextContainer;
   private final List<ManagementProvider<?>> managementProviders = new CopyOnWriteArrayList<>();
+  // there is at most one provider per capability
+  private final ConcurrentMap<String, ManagementProvider<?>> managementProvidersByCapability = new ConcurrentHashMap<>();
   private final CompletableFuture<?> onEntityPromotionCompleted = new CompletableFuture<>();
   private final CompletableFuture<?> onEntityCreated = new CompletableFuture<>();
   private final CompletableFuture<?> onClose = new CompletableFuture<>();
@@ -89,11 +94,8 @@ class DefaultEntityManagementRegistry implements EntityManagementRegistry, Topol
   @Override
   public boolean addManagementProvider(ManagementProvider<?> provider) {
     LOGGER.trace("[{}] addManagementProvider({}) active={}", consumerId, provider.getClass().getSimpleName(), monitoringService.isActiveEntityService());
-    String name = provider.getCapabilityName();
-    for (ManagementProvider<?> managementProvider : managementProviders) {
-      if (managementProvider.getCapabilityName().equals(name)) {
-        return false;
-      }
+    if (managementProvidersByCapability.putIfAbsent(provider.getCapabilityName(), provider) != null) {
+      return false;
     }
     boolean added = managementProviders.add(provider);
     if (added) {
@@ -107,7 +109,9 @@ class DefaultEntityManagementRegistry implements EntityManagementRegistry, Topol
 
   @Override
   public void removeManagementProvider(ManagementProvider<?> provider) {
-    managementProviders.remove(provider);
+    if (managementProviders.remove(provider)) {
+      managementProvidersByCapability.remove(provider.getCapabilityName(), provider);
+    }
   }
 
   @Override
@@ -136,13 +140,8 @@ class DefaultEntityManagementRegistry implements EntityManagementRegistry, Topol
 
   @Override
   public List<ManagementProvider<?>> getManagementProvidersByCapability(String capabilityName) {
-    List<ManagementProvider<?>> allProviders = new ArrayList<>();
-    for (ManagementProvider<?> provider : managementProviders) {
-      if (provider.getCapabilityName().equals(capabilityName)) {
-        allProviders.add(provider);
-      }
-    }
-    return allProviders;
+    ManagementProvider<?> provider = managementProvidersByCapability.get(capabilityName);
+    return provider == null ? Collections.emptyList() : Collections.singletonList(provider);
   }
 
   @SuppressWarnings({"unchecked", "rawtypes"})
@@ -207,6 +206,7 @@ class DefaultEntityManagementRegistry implements EntityManagementRegistry, Topol
       LOGGER.info("[{}] Closing {} entity management registry", consumerId, monitoringService.isActiveEntityService() ? "active" : "passive");
       managementProviders.forEach(ManagementProvider::close);
       managementProviders.clear();
+      managementProvidersByCapability.clear();
       onClose.complete(null);
     }
   }
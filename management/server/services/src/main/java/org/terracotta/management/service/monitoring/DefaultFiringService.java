@@ -16,17 +16,32 @@
  */
 package org.terracotta.management.service.monitoring;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.terracotta.entity.ClientDescriptor;
 import org.terracotta.management.model.call.ContextualCall;
 import org.terracotta.management.model.call.ContextualReturn;
 import org.terracotta.management.model.cluster.Client;
+import org.terracotta.management.model.context.Context;
 import org.terracotta.management.model.message.DefaultManagementCallMessage;
 import org.terracotta.management.model.message.DefaultMessage;
+import org.terracotta.management.model.message.Message;
+import org.terracotta.management.model.message.MessageSubscription;
 import org.terracotta.management.model.notification.ContextualNotification;
 import org.terracotta.management.model.stats.ContextualStatistics;
+import org.terracotta.management.sequence.Sequence;
 import org.terracotta.management.sequence.SequenceGenerator;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
@@ -34,10 +49,15 @@ import java.util.concurrent.CopyOnWriteArrayList;
  */
 class DefaultFiringService implements FiringService {
 
+  private static final Logger LOGGER = LoggerFactory.getLogger(DefaultFiringService.class);
+
   private final SequenceGenerator sequenceGenerator;
   private final List<DefaultManagementService> managementServices = new CopyOnWriteArrayList<>();
   private final List<DefaultClientMonitoringService> clientMonitoringServices = new CopyOnWriteArrayList<>();
 
+  // rebuilt lazily when management services or their subscriptions change
+  private volatile RoutingTable routingTable;
+
   DefaultFiringService(SequenceGenerator sequenceGenerator) {
     this.sequenceGenerator = Objects.requireNonNull(sequenceGenerator);
   }
@@ -45,17 +65,23 @@ class DefaultFiringService implements FiringService {
   @Override
   public void fireNotification(ContextualNotification notification) {
     DefaultMessage message = new DefaultMessage(sequenceGenerator.next(), "NOTIFICATION", notification);
-    managementServices.forEach(managementService -> managementService.onMessageToSend(message));
+    RoutingTable routingTable = getRoutingTable();
+    routingTable.route(message, routingTable.routes);
   }
 
   @Override
   public void fireStatistics(ContextualStatistics[] statistics) {
     DefaultMessage message = new DefaultMessage(sequenceGenerator.next(), "STATISTICS", statistics);
-    managementServices.forEach(managementService -> managementService.onMessageToSend(message));
+    RoutingTable routingTable = getRoutingTable();
+    routingTable.route(message, routingTable.getStatisticsRoutes(statistics));
   }
 
   @Override
   public void fireManagementCallAnswer(String managementCallIdentifier, ContextualReturn<?> answer) {
+    if (managementServices.stream().noneMatch(managementService -> managementService.isTracked(managementCallIdentifier))) {
+      LOGGER.debug("Discarding the answer of management call {}: caller gone or call expired", managementCallIdentifier);
+      return;
+    }
     DefaultManagementCallMessage message = new DefaultManagementCallMessage(managementCallIdentifier, sequenceGenerator.next(), "MANAGEMENT_CALL_RETURN", answer);
     managementServices.forEach(managementService -> managementService.onMessageToSend(message));
   }
@@ -70,6 +96,25 @@ class DefaultFiringService implements FiringService {
     }
   }
 
+  /**
+   * @return a new identifier for a management call: the node id followed by the local id of a sequence, as 32 hex
+   * digits, so that it stays unique across servers and fail-overs
+   */
+  String nextManagementCallIdentifier() {
+    Sequence sequence = sequenceGenerator.next();
+    char[] identifier = new char[32];
+    writeHex(identifier, 0, sequence.getNodeId());
+    writeHex(identifier, 16, sequence.toLocalId());
+    return new String(identifier);
+  }
+
+  private static void writeHex(char[] chars, int offset, long value) {
+    for (int i = 15; i >= 0; i--) {
+      chars[offset + i] = Character.forDigit((int) (value & 0xF), 16);
+      value >>>= 4;
+    }
+  }
+
   void addClientMonitoringService(DefaultClientMonitoringService clientMonitoringService) {
     clientMonitoringServices.add(clientMonitoringService);
   }
@@ -80,9 +125,145 @@ class DefaultFiringService implements FiringService {
 
   void addManagementService(DefaultManagementService managementService) {
     managementServices.add(managementService);
+    invalidateRoutes();
   }
 
   void removeManagementService(DefaultManagementService managementService) {
     managementServices.remove(managementService);
+    invalidateRoutes();
+  }
+
+  synchronized void invalidateRoutes() {
+    routingTable = null;
+  }
+
+  private RoutingTable getRoutingTable() {
+    RoutingTable table = routingTable;
+    if (table == null) {
+      synchronized (this) {
+        table = routingTable;
+        if (table == null) {
+          table = new RoutingTable(managementServices);
+          routingTable = table;
+        }
+      }
+    }
+    return table;
+  }
+
+  private static final class Route {
+    final DefaultManagementService managementService;
+    final boolean all;
+    final Map<ClientDescriptor, List<MessageSubscription>> subscriptionsByClient;
+    final Set<MessageSubscription> subscriptions = new HashSet<>();
+
+    Route(DefaultManagementService managementService) {
+      this.managementService = managementService;
+      this.all = managementService.isInterestedInAllMessages();
+      this.subscriptionsByClient = managementService.getSubscriptionsByClient();
+      subscriptionsByClient.values().forEach(subscriptions::addAll);
+    }
+
+    /**
+     * @return the clients of this snapshot whose subscriptions do not match, so that a client subscribing after the
+     * table was built is not excluded based on subscriptions the table has not evaluated
+     */
+    Collection<ClientDescriptor> getUninterestedClients(Set<MessageSubscription> matched) {
+      Collection<ClientDescriptor> excluded = new ArrayList<>();
+      for (Map.Entry<ClientDescriptor, List<MessageSubscription>> entry : subscriptionsByClient.entrySet()) {
+        if (Collections.disjoint(entry.getValue(), matched)) {
+          excluded.add(entry.getKey());
+        }
+      }
+      return excluded;
+    }
+  }
+
+  /**
+   * The management services to forward the messages to, with the distinct subscriptions of their clients indexed by
+   * message type so that each of them is evaluated at most once per message.
+   */
+  private static final class RoutingTable {
+    final List<Route> routes = new ArrayList<>();
+    final Map<String, List<Route>> routesByCollectorId = new HashMap<>();
+    final Map<String, List<MessageSubscription>> subscriptionsByType = new HashMap<>();
+    final List<MessageSubscription> subscriptionsForAllTypes = new ArrayList<>();
+
+    RoutingTable(Collection<DefaultManagementService> managementServices) {
+      Set<MessageSubscription> subscriptions = new LinkedHashSet<>();
+      for (DefaultManagementService managementService : managementServices) {
+        Route route = new Route(managementService);
+        routes.add(route);
+        routesByCollectorId.computeIfAbsent(String.valueOf(managementService.getConsumerId()), cid -> new ArrayList<>(1)).add(route);
+        subscriptions.addAll(route.subscriptions);
+      }
+      for (MessageSubscription subscription : subscriptions) {
+        if (subscription.getTypes().isEmpty()) {
+          subscriptionsForAllTypes.add(subscription);
+        } else {
+          for (String type : subscription.getTypes()) {
+            subscriptionsByType.computeIfAbsent(type, t -> new ArrayList<>()).add(subscription);
+          }
+        }
+      }
+    }
+
+    /**
+     * The statistic collector collects all statistics from the shared management registry (entities)
+     * plus 1 management entity (which contains this collector).
+     * So we only route the statistics collected by the collector of a NMS entity to this entity, plus the client statistics to all.
+     */
+    Collection<Route> getStatisticsRoutes(ContextualStatistics[] statistics) {
+      Set<String> collectorIds = new HashSet<>();
+      for (ContextualStatistics statistic : statistics) {
+        Context context = statistic.getContext();
+        if (context.contains(Client.KEY)) {
+          return routes;
+        }
+        String collectorId = context.get("collectorId");
+        if (collectorId != null) {
+          collectorIds.add(collectorId);
+        }
+      }
+      if (collectorIds.size() == 1) {
+        return routesByCollectorId.getOrDefault(collectorIds.iterator().next(), Collections.emptyList());
+      }
+      List<Route> selected = new ArrayList<>();
+      for (String collectorId : collectorIds) {
+        selected.addAll(routesByCollectorId.getOrDefault(collectorId, Collections.emptyList()));
+      }
+      return selected;
+    }
+
+    void route(Message message, Collection<Route> routes) {
+      Set<MessageSubscription> matched = null;
+      for (Route route : routes) {
+        if (route.subscriptions.isEmpty()) {
+          route.managementService.onMessageToSend(message);
+        } else {
+          if (matched == null) {
+            matched = match(message);
+          }
+          if (route.all || !Collections.disjoint(route.subscriptions, matched)) {
+            route.managementService.onMessageToSend(message, route.getUninterestedClients(matched));
+          }
+        }
+      }
+    }
+
+    private Set<MessageSubscription> match(Message message) {
+      Set<MessageSubscription> matched = new HashSet<>();
+      for (MessageSubscription subscription : subscriptionsByType.getOrDefault(message.getType(), Collections.emptyList())) {
+        if (subscription.matches(message)) {
+          matched.add(subscription);
+        }
+      }
+      for (MessageSubscription subscription : subscriptionsForAllTypes) {
+        if (subscription.matches(message)) {
+          matched.add(subscription);
+        }
+      }
+      return matched;
+    }
   }
 }
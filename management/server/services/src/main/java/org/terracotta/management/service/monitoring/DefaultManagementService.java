@@ -27,17 +27,25 @@ import org.terracotta.management.model.cluster.Cluster;
 import org.terracotta.management.model.cluster.Server;
 import org.terracotta.management.model.cluster.ServerEntity;
 import org.terracotta.management.model.context.Context;
-import org.terracotta.management.model.context.Contextual;
 import org.terracotta.management.model.message.ManagementCallMessage;
 import org.terracotta.management.model.message.Message;
+import org.terracotta.management.model.message.MessageSubscription;
+import org.terracotta.management.model.notification.ContextualNotification;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.UUID;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * @author Mathieu Carbou
@@ -46,17 +54,34 @@ class DefaultManagementService implements ManagementService, TopologyEventListen
 
   private static final Logger LOGGER = LoggerFactory.getLogger(DefaultManagementService.class);
 
+  // calls not answered within this time are forgotten
+  static final long DEFAULT_PENDING_CALL_TIMEOUT_MS = TimeUnit.MINUTES.toMillis(5);
+
   private final long consumerId;
   private final DefaultFiringService firingService;
   private final TopologyService topologyService;
-  private final Map<ClientDescriptor, Collection<String>> managementCallRequests = new ConcurrentHashMap<>();
+  private final long pendingCallTimeoutNanos;
+
+  // management call identifier -> pending call, plus the identifiers of each caller to forget them on unfetch
+  private final ConcurrentMap<String, PendingCall> pendingCalls = new ConcurrentHashMap<>();
+  private final ConcurrentMap<ClientDescriptor, Set<String>> pendingCallsByCaller = new ConcurrentHashMap<>();
+  private final AtomicLong nextEviction = new AtomicLong(System.nanoTime());
+
+  // clients having fetched this entity and the subscriptions of those that subscribed
+  private final Set<ClientDescriptor> fetchedClients = ConcurrentHashMap.newKeySet();
+  private final ConcurrentMap<ClientDescriptor, List<MessageSubscription>> subscriptions = new ConcurrentHashMap<>();
 
   private volatile ManagementExecutor managementExecutor;
 
   DefaultManagementService(long consumerId, TopologyService topologyService, DefaultFiringService firingService) {
+    this(consumerId, topologyService, firingService, DEFAULT_PENDING_CALL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+  }
+
+  DefaultManagementService(long consumerId, TopologyService topologyService, DefaultFiringService firingService, long pendingCallTimeout, TimeUnit unit) {
     this.consumerId = consumerId;
     this.topologyService = Objects.requireNonNull(topologyService);
     this.firingService = Objects.requireNonNull(firingService);
+    this.pendingCallTimeoutNanos = unit.toNanos(pendingCallTimeout);
 
     topologyService.addTopologyEventListener(this);
     firingService.addManagementService(this);
@@ -74,11 +99,23 @@ class DefaultManagementService implements ManagementService, TopologyEventListen
     return topologyService.getClusterCopy();
   }
 
+  @Override
+  public TopologySnapshot readTopologySnapshot() {
+    LOGGER.trace("[{}] readTopologySnapshot()", consumerId);
+    return topologyService.getTopologySnapshot();
+  }
+
+  @Override
+  public Optional<List<ContextualNotification>> readTopologyChanges(long sinceVersion) {
+    LOGGER.trace("[{}] readTopologyChanges({})", consumerId, sinceVersion);
+    return topologyService.getTopologyChangesSince(sinceVersion);
+  }
+
   @Override
   public String sendManagementCallRequest(ClientDescriptor caller, final Context context, String capabilityName, String methodName, Class<?> returnType, Parameter... parameters) {
     LOGGER.trace("[{}] sendManagementCallRequest({}, {}, {})", consumerId, context, capabilityName, methodName);
 
-    String managementCallIdentifier = UUID.randomUUID().toString();
+    String managementCallIdentifier = firingService.nextManagementCallIdentifier();
     Context fullContext = null;
 
     if (context.contains(Client.KEY)) {
@@ -114,39 +151,81 @@ class DefaultManagementService implements ManagementService, TopologyEventListen
   @Override
   public void onBecomeActive(String serverName) {
     LOGGER.trace("[{}] onBecomeActive()", this.consumerId);
-    managementCallRequests.clear();
+    clearPendingCalls();
+    subscriptions.clear();
+    firingService.invalidateRoutes();
   }
 
   @Override
   public void onUnfetch(long consumerId, ClientDescriptor clientDescriptor) {
     if (consumerId == this.consumerId) {
-      if (managementCallRequests.remove(clientDescriptor) != null) {
+      boolean routed = fetchedClients.remove(clientDescriptor);
+      if (subscriptions.remove(clientDescriptor) != null || routed) {
+        firingService.invalidateRoutes();
+      }
+      Set<String> identifiers = pendingCallsByCaller.remove(clientDescriptor);
+      if (identifiers != null) {
         LOGGER.trace("[{}] onUnfetch({})", this.consumerId, clientDescriptor);
+        identifiers.forEach(pendingCalls::remove);
       }
+      evictExpiredCalls(System.nanoTime());
     }
   }
 
+  @Override
+  public void subscribe(ClientDescriptor subscriber, Collection<MessageSubscription> subscriptions) {
+    LOGGER.trace("[{}] subscribe({}, {})", consumerId, subscriber, subscriptions);
+    if (subscriptions.isEmpty()) {
+      this.subscriptions.remove(subscriber);
+    } else {
+      this.subscriptions.put(subscriber, new ArrayList<>(subscriptions));
+    }
+    firingService.invalidateRoutes();
+  }
+
+  @Override
+  public void onFetch(long consumerId, ClientDescriptor clientDescriptor) {
+    if (consumerId == this.consumerId && fetchedClients.add(clientDescriptor)) {
+      firingService.invalidateRoutes();
+    }
+  }
+
+  long getConsumerId() {
+    return consumerId;
+  }
+
+  /**
+   * @return true if some clients of this entity did not subscribe and want all the messages
+   */
+  boolean isInterestedInAllMessages() {
+    return fetchedClients.isEmpty() || !subscriptions.keySet().containsAll(fetchedClients);
+  }
+
+  /**
+   * @return a copy of the subscriptions of the clients of this entity
+   */
+  Map<ClientDescriptor, List<MessageSubscription>> getSubscriptionsByClient() {
+    return new HashMap<>(subscriptions);
+  }
+
   void onMessageToSend(Message message) {
+    onMessageToSend(message, Collections.emptyList());
+  }
+
+  /**
+   * @param excluded the clients whose subscriptions do not match this message
+   */
+  void onMessageToSend(Message message, Collection<ClientDescriptor> excluded) {
     switch (message.getType()) {
 
       case "NOTIFICATION":
-        if (managementExecutor != null) {
-          managementExecutor.sendMessageToClients(message);
-        }
-        break;
-
       case "STATISTICS":
+        // statistics are routed by DefaultFiringService to the NMS entity owning their collector
         if (managementExecutor != null) {
-          String cid = "" + consumerId;
-          // The statistic collector collects all statistics from the shared management registry (entities)
-          // plus 1 management entity (which contains this collector).
-          // Here, we only accept groups of stats that are collected by the collector that have the same
-          // consumerId (same NMS entity)
-          boolean accepted = message.unwrap(Contextual.class).stream()
-              .map(Contextual::getContext)
-              .anyMatch(context -> context.contains(Client.KEY) || context.contains("collectorId", cid));
-          if (accepted) {
+          if (excluded.isEmpty()) {
             managementExecutor.sendMessageToClients(message);
+          } else {
+            managementExecutor.sendMessageToClients(message, excluded);
           }
         }
         break;
@@ -177,33 +256,71 @@ class DefaultManagementService implements ManagementService, TopologyEventListen
   }
 
   private void track(ClientDescriptor caller, String managementCallIdentifier) {
-    managementCallRequests
-        .computeIfAbsent(caller, clientDescriptor -> new ConcurrentSkipListSet<>())
-        .add(managementCallIdentifier);
+    long now = System.nanoTime();
+    evictExpiredCalls(now);
+    pendingCallsByCaller.compute(caller, (clientDescriptor, identifiers) -> {
+      Set<String> set = identifiers == null ? ConcurrentHashMap.newKeySet() : identifiers;
+      set.add(managementCallIdentifier);
+      return set;
+    });
+    // a caller unfetching concurrently can get its identifiers back here: they are evicted once the call times out
+    pendingCalls.put(managementCallIdentifier, new PendingCall(caller, now + pendingCallTimeoutNanos));
   }
 
   private Optional<ClientDescriptor> unTrack(String managementCallIdentifier) {
-    for (Map.Entry<ClientDescriptor, Collection<String>> entry : managementCallRequests.entrySet()) {
-      if (entry.getValue().remove(managementCallIdentifier)) {
-        return Optional.of(entry.getKey());
-      }
+    PendingCall pendingCall = pendingCalls.remove(managementCallIdentifier);
+    if (pendingCall == null) {
+      return Optional.empty();
     }
-    return Optional.empty();
+    forget(pendingCall.caller, managementCallIdentifier);
+    return Optional.of(pendingCall.caller);
+  }
+
+  boolean isTracked(String managementCallIdentifier) {
+    return pendingCalls.containsKey(managementCallIdentifier);
   }
 
-  private boolean isTracked(String managementCallIdentifier) {
-    for (Map.Entry<ClientDescriptor, Collection<String>> entry : managementCallRequests.entrySet()) {
-      if (entry.getValue().contains(managementCallIdentifier)) {
-        return true;
+  /**
+   * Forgets the calls that were not answered in time, at most once per timeout period
+   */
+  private void evictExpiredCalls(long now) {
+    long next = nextEviction.get();
+    if (now - next < 0 || !nextEviction.compareAndSet(next, now + pendingCallTimeoutNanos)) {
+      return;
+    }
+    for (Iterator<Map.Entry<String, PendingCall>> it = pendingCalls.entrySet().iterator(); it.hasNext(); ) {
+      Map.Entry<String, PendingCall> entry = it.next();
+      PendingCall pendingCall = entry.getValue();
+      if (now - pendingCall.deadline >= 0) {
+        LOGGER.trace("[{}] evicting unanswered management call {} from {}", consumerId, entry.getKey(), pendingCall.caller);
+        it.remove();
+        forget(pendingCall.caller, entry.getKey());
       }
     }
-    return false;
+  }
+
+  private void forget(ClientDescriptor caller, String managementCallIdentifier) {
+    pendingCallsByCaller.computeIfPresent(caller, (clientDescriptor, identifiers) -> {
+      identifiers.remove(managementCallIdentifier);
+      return identifiers.isEmpty() ? null : identifiers;
+    });
+  }
+
+  private void clearPendingCalls() {
+    pendingCalls.clear();
+    pendingCallsByCaller.clear();
+  }
+
+  int getPendingCallCount() {
+    return pendingCalls.size();
   }
 
   @Override
   public void close() {
     LOGGER.info("[{}] Closing management service", this.consumerId);
-    managementCallRequests.clear();
+    clearPendingCalls();
+    subscriptions.clear();
+    fetchedClients.clear();
     topologyService.removeTopologyEventListener(this);
     firingService.removeManagementService(this);
   }
@@ -216,4 +333,14 @@ class DefaultManagementService implements ManagementService, TopologyEventListen
     return sb.toString();
   }
 
+  private static final class PendingCall {
+    final ClientDescriptor caller;
+    final long deadline;
+
+    PendingCall(ClientDescriptor caller, long deadline) {
+      this.caller = caller;
+      this.deadline = deadline;
+    }
+  }
+
 }
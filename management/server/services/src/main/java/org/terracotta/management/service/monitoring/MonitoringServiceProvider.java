@@ -214,4 +214,12 @@ public class MonitoringServiceProvider implements ServiceProvider, Closeable {
 
     throw new IllegalStateException("Unable to provide service " + serviceType.getName() + " to consumerID: " + consumerID);
   }
+
+  TopologyService getTopologyService() {
+    return topologyService;
+  }
+
+  DefaultFiringService getFiringService() {
+    return firingService;
+  }
 }
@@ -32,6 +32,7 @@ import org.terracotta.management.model.cluster.ServerEntity;
 import org.terracotta.management.model.cluster.ServerEntityIdentifier;
 import org.terracotta.management.model.cluster.Stripe;
 import org.terracotta.management.model.context.Context;
+import org.terracotta.management.model.context.ContextContainer;
 import org.terracotta.management.model.notification.ContextualNotification;
 import org.terracotta.management.model.stats.ContextualStatistics;
 import org.terracotta.monitoring.PlatformConnectedClient;
@@ -44,10 +45,14 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -57,6 +62,7 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -77,6 +83,7 @@ import static org.terracotta.management.service.monitoring.Notification.SERVER_S
 class TopologyService implements PlatformListener {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(TopologyService.class);
+  static final int MAX_TRACKED_CHANGES = 1024;
 
   private final Cluster cluster;
   private final Stripe stripe;
@@ -88,7 +95,12 @@ class TopologyService implements PlatformListener {
   private final PlatformConfiguration platformConfiguration;
   private final List<TopologyEventListener> topologyEventListeners = new CopyOnWriteArrayList<>();
 
+  // topology changes tracked to be able to read them since a version, the last one being the current version
+  private final Deque<ContextualNotification> changes = new ArrayDeque<>(MAX_TRACKED_CHANGES + 1);
+  private final AtomicLong version = new AtomicLong();
+
   private volatile Server currentActive;
+  private volatile TopologySnapshot snapshot;
 
   TopologyService(FiringService firingService, PlatformConfiguration platformConfiguration) {
     this.firingService = Objects.requireNonNull(firingService);
@@ -98,6 +110,7 @@ class TopologyService implements PlatformListener {
       platformConfiguration.getExtendedConfiguration(org.terracotta.dynamic_config.api.service.TopologyService.class)
         .iterator().next();
     this.cluster.addStripe(stripe = Stripe.create(dcTopologyService.getRuntimeNodeContext().getStripe().getName()));
+    this.snapshot = new TopologySnapshot(version.get(), copy(cluster));
   }
 
   // ================================================
@@ -135,7 +148,7 @@ class TopologyService implements PlatformListener {
       attrs.put("buildId", server.getBuildId());
       attrs.put("state", server.getState().toString());
 
-      firingService.fireNotification(new ContextualNotification(server.getContext(), SERVER_JOINED.name(), attrs));
+      fireTopologyChange(new ContextualNotification(server.getContext(), SERVER_JOINED.name(), attrs));
 
       serverStateChanged(self, new ServerState("ACTIVE", now, now));
     }
@@ -165,7 +178,7 @@ class TopologyService implements PlatformListener {
       attrs.put("buildId", server.getBuildId());
       attrs.put("state", server.getState().toString());
 
-      firingService.fireNotification(new ContextualNotification(server.getContext(), SERVER_JOINED.name(), attrs));
+      fireTopologyChange(new ContextualNotification(server.getContext(), SERVER_JOINED.name(), attrs));
     }
   }
 
@@ -187,7 +200,7 @@ class TopologyService implements PlatformListener {
       attrs.put("buildId", null);
       attrs.put("state", server.getState().toString());
 
-      firingService.fireNotification(new ContextualNotification(context, SERVER_LEFT.name(), attrs));
+      fireTopologyChange(new ContextualNotification(context, SERVER_LEFT.name(), attrs));
     });
   }
 
@@ -211,7 +224,7 @@ class TopologyService implements PlatformListener {
         ServerEntity entity = ServerEntity.create(identifier).setConsumerId(platformEntity.consumerID);
 
         if (server.addServerEntity(entity)) {
-          firingService.fireNotification(new ContextualNotification(entity.getContext(), SERVER_ENTITY_CREATED.name()));
+          fireTopologyChange(new ContextualNotification(entity.getContext(), SERVER_ENTITY_CREATED.name()));
 
           whenServerEntity(platformEntity.consumerID, sender.getServerName()).complete(entity);
 
@@ -267,7 +280,7 @@ class TopologyService implements PlatformListener {
             topologyEventListeners.forEach(listener -> listener.onEntityDestroyed(platformEntity.consumerID));
           }
 
-          firingService.fireNotification(new ContextualNotification(context, SERVER_ENTITY_DESTROYED.name()));
+          fireTopologyChange(new ContextualNotification(context, SERVER_ENTITY_DESTROYED.name()));
         });
     }
   }
@@ -286,7 +299,7 @@ class TopologyService implements PlatformListener {
             cluster.addClient(client);
 
             if (client.addConnection(Connection.create(clientIdentifier.getConnectionUid(), getActiveServer(), endpoint))) {
-                firingService.fireNotification(new ContextualNotification(server.getContext(), CLIENT_CONNECTED.name(), client.getContext()));
+                fireTopologyChange(new ContextualNotification(server.getContext(), CLIENT_CONNECTED.name(), client.getContext()));
             }
         });
     }
@@ -303,7 +316,7 @@ class TopologyService implements PlatformListener {
             cluster.getClient(clientIdentifier)
               .ifPresent(client -> {
                 client.addProperty(key, value);
-                  firingService.fireNotification(new ContextualNotification(client.getContext(), Notification.CLIENT_PROPERTY_ADDED.name(), Collections.singletonMap(key, value)));
+                  fireTopologyChange(new ContextualNotification(client.getContext(), Notification.CLIENT_PROPERTY_ADDED.name(), Collections.singletonMap(key, value)));
               });
         });
     }
@@ -321,7 +334,7 @@ class TopologyService implements PlatformListener {
               .ifPresent(client -> {
                 Context clientContext = client.getContext();
                 client.remove();
-                  firingService.fireNotification(new ContextualNotification(server.getContext(), CLIENT_DISCONNECTED.name(), clientContext));
+                  fireTopologyChange(new ContextualNotification(server.getContext(), CLIENT_DISCONNECTED.name(), clientContext));
               });
         });
     }
@@ -340,7 +353,7 @@ class TopologyService implements PlatformListener {
         .ifPresent(connection -> currentActive.getServerEntity(platformEntity.name, platformEntity.typeName)
           .ifPresent(entity -> {
             connection.fetchServerEntity(platformEntity.name, platformEntity.typeName);
-            firingService.fireNotification(new ContextualNotification(entity.getContext(), SERVER_ENTITY_FETCHED.name(), client.getContext()));
+            fireTopologyChange(new ContextualNotification(entity.getContext(), SERVER_ENTITY_FETCHED.name(), client.getContext()));
             whenFetchClient(platformEntity.consumerID, clientDescriptor).complete(client);
             topologyEventListeners.forEach(listener -> listener.onFetch(platformEntity.consumerID, clientDescriptor));
           })));
@@ -362,7 +375,7 @@ class TopologyService implements PlatformListener {
             .ifPresent(connection -> {
               entityFetches.get(platformEntity.consumerID).remove(clientDescriptor);
               if (connection.unfetchServerEntity(platformEntity.name, platformEntity.typeName)) {
-                firingService.fireNotification(new ContextualNotification(entity.getContext(), SERVER_ENTITY_UNFETCHED.name(), client.getContext()));
+                fireTopologyChange(new ContextualNotification(entity.getContext(), SERVER_ENTITY_UNFETCHED.name(), client.getContext()));
               }
               topologyEventListeners.forEach(listener -> listener.onUnfetch(platformEntity.consumerID, clientDescriptor));
             })));
@@ -397,7 +410,7 @@ class TopologyService implements PlatformListener {
         server.setBuildId(null).setVersion(null);
       }
 
-      firingService.fireNotification(new ContextualNotification(server.getContext(), SERVER_STATE_CHANGED.name(), attrs));
+      fireTopologyChange(new ContextualNotification(server.getContext(), SERVER_STATE_CHANGED.name(), attrs));
     });
   }
 
@@ -440,7 +453,33 @@ class TopologyService implements PlatformListener {
     whenFetchClient(consumerId, clientDescriptor).executeOrDelay("client-registry", client -> {
       if (!newRegistry.equals(client.getManagementRegistry().orElse(null))) {
         client.setManagementRegistry(newRegistry);
-        firingService.fireNotification(new ContextualNotification(client.getContext(), Notification.CLIENT_REGISTRY_AVAILABLE.name()));
+        fireTopologyChange(new ContextualNotification(client.getContext(), Notification.CLIENT_REGISTRY_AVAILABLE.name()));
+      }
+    });
+  }
+
+  /**
+   * Records registry changes that need to be applied in future (or now) when the client will have arrived.
+   * Changes are applied in order onto the registry of the client, or onto a new one if it has none yet.
+   */
+  void willUpdateClientManagementRegistry(long consumerId, ClientDescriptor clientDescriptor, Context root, ContextContainer contextContainer, Capability[] added, String[] removed) {
+    LOGGER.trace("[{}] willUpdateClientManagementRegistry({}, {}, {})", consumerId, clientDescriptor, added.length, removed.length);
+
+    whenFetchClient(consumerId, clientDescriptor).executeOrDelay(client -> {
+      ManagementRegistry current = client.getManagementRegistry().orElse(null);
+      ManagementRegistry registry = ManagementRegistry.create(root, contextContainer);
+      if (current != null) {
+        registry.setCapabilities(current.getCapabilities());
+      }
+      for (String name : removed) {
+        registry.removeCapability(name);
+      }
+      for (Capability capability : added) {
+        registry.putCapability(capability);
+      }
+      if (!registry.equals(current)) {
+        client.setManagementRegistry(registry);
+        fireTopologyChange(new ContextualNotification(client.getContext(), Notification.CLIENT_REGISTRY_AVAILABLE.name()));
       }
     });
   }
@@ -456,7 +495,7 @@ class TopologyService implements PlatformListener {
       Set<String> newTags = new HashSet<>(Arrays.asList(tags));
       if (!currtags.equals(newTags)) {
         client.setTags(tags);
-        firingService.fireNotification(new ContextualNotification(client.getContext(), Notification.CLIENT_TAGS_UPDATED.name()));
+        fireTopologyChange(new ContextualNotification(client.getContext(), Notification.CLIENT_TAGS_UPDATED.name()));
       }
     });
   }
@@ -504,7 +543,7 @@ class TopologyService implements PlatformListener {
     whenServerEntity(consumerId, serverName).executeOrDelay("entity-registry", serverEntity -> {
       if (!newRegistry.equals(serverEntity.getManagementRegistry().orElse(null))) {
         serverEntity.setManagementRegistry(newRegistry);
-        firingService.fireNotification(new ContextualNotification(serverEntity.getContext(), Notification.ENTITY_REGISTRY_AVAILABLE.name()));
+        fireTopologyChange(new ContextualNotification(serverEntity.getContext(), Notification.ENTITY_REGISTRY_AVAILABLE.name()));
       }
     });
   }
@@ -539,7 +578,46 @@ class TopologyService implements PlatformListener {
         .map(Client::getContext);
   }
 
-  synchronized Cluster getClusterCopy() {
+  Cluster getClusterCopy() {
+    return getTopologySnapshot().getCluster();
+  }
+
+  /**
+   * Returns the snapshot of the current topology version, only copying the topology on the first read after a change.
+   */
+  TopologySnapshot getTopologySnapshot() {
+    TopologySnapshot snapshot = this.snapshot;
+    if (snapshot.getVersion() == version.get()) {
+      return snapshot;
+    }
+    synchronized (this) {
+      long current = version.get();
+      snapshot = this.snapshot;
+      if (snapshot.getVersion() != current) {
+        snapshot = new TopologySnapshot(current, copy(cluster));
+        this.snapshot = snapshot;
+      }
+      return snapshot;
+    }
+  }
+
+  Optional<List<ContextualNotification>> getTopologyChangesSince(long sinceVersion) {
+    synchronized (changes) {
+      long current = version.get();
+      if (sinceVersion < current - changes.size() || sinceVersion > current) {
+        return Optional.empty();
+      }
+      List<ContextualNotification> since = new ArrayList<>((int) (current - sinceVersion));
+      Iterator<ContextualNotification> iterator = changes.descendingIterator();
+      for (long v = current; v > sinceVersion; v--) {
+        since.add(iterator.next());
+      }
+      Collections.reverse(since);
+      return Optional.of(since);
+    }
+  }
+
+  private static Cluster copy(Cluster cluster) {
     try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
       try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
         oos.writeObject(cluster);
@@ -579,6 +657,17 @@ class TopologyService implements PlatformListener {
     return isServerActive(getServerName());
   }
 
+  private void fireTopologyChange(ContextualNotification notification) {
+    synchronized (changes) {
+      changes.addLast(notification);
+      if (changes.size() > MAX_TRACKED_CHANGES) {
+        changes.removeFirst();
+      }
+      version.incrementAndGet();
+    }
+    firingService.fireNotification(notification);
+  }
+
   private ExecutionChain<Client> whenFetchClient(long consumerId, ClientDescriptor clientDescriptor) {
     ConcurrentMap<ClientDescriptor, ExecutionChain<Client>> fetches = entityFetches.computeIfAbsent(consumerId, cid -> new ConcurrentHashMap<>());
     return fetches.computeIfAbsent(clientDescriptor, key -> new ExecutionChain<>());
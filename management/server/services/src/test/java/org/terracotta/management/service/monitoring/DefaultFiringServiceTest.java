@@ -0,0 +1,205 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.management.service.monitoring;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.terracotta.entity.ClientDescriptor;
+import org.terracotta.entity.ClientSourceId;
+import org.terracotta.management.model.cluster.Client;
+import org.terracotta.management.model.context.Context;
+import org.terracotta.management.model.message.Message;
+import org.terracotta.management.model.message.MessageSubscription;
+import org.terracotta.management.model.notification.ContextualNotification;
+import org.terracotta.management.model.stats.ContextualStatistics;
+import org.terracotta.management.sequence.BoundaryFlakeSequenceGenerator;
+import org.terracotta.management.sequence.NodeIdSource;
+import org.terracotta.management.sequence.TimeSource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+@RunWith(JUnit4.class)
+public class DefaultFiringServiceTest {
+
+  static final MessageSubscription CACHE_1 = MessageSubscription.all().withTypes("NOTIFICATION").withContext("cacheName", "cache-1");
+  static final MessageSubscription CACHE_2 = MessageSubscription.all().withTypes("NOTIFICATION").withContext("cacheName", "cache-2");
+  static final MessageSubscription CACHE_3 = MessageSubscription.all().withTypes("NOTIFICATION").withContext("cacheName", "cache-3");
+
+  ClientDescriptor a = new FakeDesc("a");
+  ClientDescriptor b = new FakeDesc("b");
+  ClientDescriptor c = new FakeDesc("c");
+
+  DefaultFiringService firingService = new DefaultFiringService(new BoundaryFlakeSequenceGenerator(TimeSource.BEST, NodeIdSource.BEST));
+  TopologyService topologyService = new TopologyService(firingService, new MyPlatformConfiguration("server-1", "localhost", 9510));
+  DefaultManagementService service1 = new DefaultManagementService(1, topologyService, firingService);
+  DefaultManagementService service2 = new DefaultManagementService(2, topologyService, firingService);
+  RecordingExecutor executor1 = new RecordingExecutor();
+  RecordingExecutor executor2 = new RecordingExecutor();
+
+  @Before
+  public void setUp() {
+    service1.setManagementExecutor(executor1);
+    service2.setManagementExecutor(executor2);
+  }
+
+  @Test
+  public void test_messages_reach_all_services_without_subscriptions() {
+    service1.onFetch(1, a);
+
+    firingService.fireNotification(notification("cache-1"));
+
+    assertThat(executor1.exclusions, equalTo(Collections.singletonList(Collections.emptySet())));
+    assertThat(executor2.exclusions, equalTo(Collections.singletonList(Collections.emptySet())));
+  }
+
+  @Test
+  public void test_uninterested_clients_are_excluded() {
+    service1.onFetch(1, a);
+    service1.onFetch(1, b);
+    service1.subscribe(a, Collections.singletonList(CACHE_1));
+    service1.subscribe(b, Collections.singletonList(CACHE_2));
+
+    firingService.fireNotification(notification("cache-1"));
+    firingService.fireNotification(notification("cache-2"));
+    // all clients subscribed and none is interested
+    firingService.fireNotification(notification("cache-3"));
+
+    assertThat(executor1.exclusions, equalTo(Arrays.asList(set(b), set(a))));
+    assertThat(executor2.exclusions.size(), equalTo(3));
+  }
+
+  @Test
+  public void test_routes_are_invalidated_on_fetch_unfetch_and_subscribe() {
+    service1.onFetch(1, a);
+    service1.onFetch(1, b);
+    service1.subscribe(a, Collections.singletonList(CACHE_1));
+    service1.subscribe(b, Collections.singletonList(CACHE_2));
+
+    firingService.fireNotification(notification("cache-3"));
+    assertThat(executor1.exclusions, equalTo(Collections.emptyList()));
+
+    // a client without subscription wants all the messages
+    service1.onFetch(1, c);
+    firingService.fireNotification(notification("cache-3"));
+    assertThat(executor1.exclusions, equalTo(Collections.singletonList(set(a, b))));
+
+    service1.onUnfetch(1, c);
+    firingService.fireNotification(notification("cache-3"));
+    assertThat(executor1.exclusions.size(), equalTo(1));
+
+    service1.subscribe(b, Arrays.asList(CACHE_2, CACHE_3));
+    firingService.fireNotification(notification("cache-3"));
+    assertThat(executor1.exclusions, equalTo(Arrays.asList(set(a, b), set(a))));
+
+    // an unsubscribed client receives all the messages again
+    service1.subscribe(a, Collections.emptyList());
+    firingService.fireNotification(notification("cache-2"));
+    assertThat(executor1.exclusions, equalTo(Arrays.asList(set(a, b), set(a), Collections.emptySet())));
+  }
+
+  @Test
+  public void test_statistics_are_routed_to_their_collector() {
+    firingService.fireStatistics(new ContextualStatistics[]{statistics(Context.create("collectorId", "1"))});
+    assertThat(executor1.exclusions.size(), equalTo(1));
+    assertThat(executor2.exclusions.size(), equalTo(0));
+
+    firingService.fireStatistics(new ContextualStatistics[]{statistics(Context.create("collectorId", "1")), statistics(Context.create("collectorId", "2"))});
+    assertThat(executor1.exclusions.size(), equalTo(2));
+    assertThat(executor2.exclusions.size(), equalTo(1));
+
+    firingService.fireStatistics(new ContextualStatistics[]{statistics(Context.create("collectorId", "3"))});
+    assertThat(executor1.exclusions.size(), equalTo(2));
+    assertThat(executor2.exclusions.size(), equalTo(1));
+
+    // client statistics are sent to all
+    firingService.fireStatistics(new ContextualStatistics[]{statistics(Context.create("collectorId", "1").with(Client.KEY, "client"))});
+    assertThat(executor1.exclusions.size(), equalTo(3));
+    assertThat(executor2.exclusions.size(), equalTo(2));
+  }
+
+  private static ContextualNotification notification(String cacheName) {
+    return new ContextualNotification(Context.create("cacheName", cacheName), "TYPE");
+  }
+
+  private static ContextualStatistics statistics(Context context) {
+    return new ContextualStatistics("capability", context, Collections.emptyMap());
+  }
+
+  private static Collection<ClientDescriptor> set(ClientDescriptor... clients) {
+    return new HashSet<>(Arrays.asList(clients));
+  }
+
+  private static final class RecordingExecutor extends ManagementExecutorAdapter {
+    final List<Collection<ClientDescriptor>> exclusions = new ArrayList<>();
+
+    @Override
+    public void sendMessageToClients(Message message) {
+      exclusions.add(Collections.emptySet());
+    }
+
+    @Override
+    public void sendMessageToClients(Message message, Collection<ClientDescriptor> excluded) {
+      exclusions.add(new HashSet<>(excluded));
+    }
+  }
+
+  private static final class FakeDesc implements ClientDescriptor {
+    private final String id;
+
+    FakeDesc(String id) {
+      this.id = id;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      FakeDesc that = (FakeDesc) o;
+      return id.equals(that.id);
+    }
+
+    @Override
+    public boolean isValidClient() {
+      return true;
+    }
+
+    @Override
+    public int hashCode() {
+      return id.hashCode();
+    }
+
+    @Override
+    public String toString() {
+      return id;
+    }
+
+    @Override
+    public ClientSourceId getSourceId() {
+      return null;
+    }
+  }
+}
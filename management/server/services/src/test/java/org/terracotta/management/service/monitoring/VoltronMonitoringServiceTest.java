@@ -30,6 +30,7 @@ import org.terracotta.entity.ServiceRegistry;
 import org.terracotta.json.DefaultJsonFactory;
 import org.terracotta.json.Json;
 import org.terracotta.management.model.call.ContextualReturn;
+import org.terracotta.management.model.capabilities.Capability;
 import org.terracotta.management.model.capabilities.DefaultCapability;
 import org.terracotta.management.model.capabilities.context.CapabilityContext;
 import org.terracotta.management.model.capabilities.descriptors.CallDescriptor;
@@ -56,11 +57,15 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
@@ -227,6 +232,49 @@ public class VoltronMonitoringServiceTest {
     assertThat(notificationTypes(messages), equalTo(Arrays.asList("SERVER_ENTITY_DESTROYED")));
   }
 
+  @Test
+  public void test_topology_snapshots_are_versioned() throws Exception {
+    TopologySnapshot before = managementService.readTopologySnapshot();
+    assertThat(managementService.readTopologySnapshot(), sameInstance(before));
+    assertThat(managementService.readTopologyChanges(before.getVersion()).get().size(), equalTo(0));
+
+    activePlatformListener.addNode(active, ENTITIES_PATH, "entity-2", new PlatformEntity("entityType", "entityName-2", 2, true));
+
+    TopologySnapshot after = managementService.readTopologySnapshot();
+    assertThat(after.getVersion(), equalTo(before.getVersion() + 1));
+    assertThat(after.getCluster(), not(sameInstance(before.getCluster())));
+    assertThat(managementService.readTopology(), sameInstance(after.getCluster()));
+    assertThat(managementService.readTopologyChanges(before.getVersion()).get().stream()
+        .map(ContextualNotification::getType)
+        .collect(Collectors.toList()), equalTo(Arrays.asList("SERVER_ENTITY_CREATED")));
+    assertThat(managementService.readTopologyChanges(after.getVersion() + 1).isPresent(), equalTo(false));
+  }
+
+  @Test
+  public void test_topology_changes_are_evicted_past_the_log_capacity() throws Exception {
+    TopologySnapshot before = managementService.readTopologySnapshot();
+    String[] clientNodePath = Arrays.copyOf(CLIENTS_PATH, CLIENTS_PATH.length + 1);
+    clientNodePath[CLIENTS_PATH.length] = "client-1";
+
+    int changes = TopologyService.MAX_TRACKED_CHANGES + 2;
+    for (int i = 0; i < changes; i++) {
+      activePlatformListener.addNode(active, clientNodePath, "property-" + i, "value-" + i);
+    }
+
+    long current = managementService.readTopologySnapshot().getVersion();
+    assertThat(current, equalTo(before.getVersion() + changes));
+
+    // a reader that fell behind the oldest retained change must read the whole topology again
+    assertThat(managementService.readTopologyChanges(before.getVersion()).isPresent(), equalTo(false));
+    assertThat(managementService.readTopologyChanges(current - TopologyService.MAX_TRACKED_CHANGES - 1).isPresent(), equalTo(false));
+
+    List<ContextualNotification> retained = managementService.readTopologyChanges(current - TopologyService.MAX_TRACKED_CHANGES).get();
+    assertThat(retained.size(), equalTo(TopologyService.MAX_TRACKED_CHANGES));
+    assertThat(retained.get(0).getAttributes(), equalTo(Collections.singletonMap("property-2", "value-2")));
+    assertThat(retained.get(retained.size() - 1).getAttributes(), equalTo(Collections.singletonMap("property-" + (changes - 1), "value-" + (changes - 1))));
+    assertThat(managementService.readTopologyChanges(current).get().size(), equalTo(0));
+  }
+
   @Test
   public void test_fetch_entity() throws Exception {
     activePlatformListener.addNode(active, FETCHED_PATH, "fetch-1-1", new PlatformClientFetchedEntity("client-1", "entity-1", new FakeDesc("1-1")));
@@ -312,6 +360,26 @@ public class VoltronMonitoringServiceTest {
     assertThat(notificationTypes(messages), equalTo(Arrays.asList("CLIENT_REGISTRY_AVAILABLE")));
   }
 
+  @Test
+  public void test_update_registry_on_client() throws Exception {
+    test_expose_registry_on_client();
+    ContextContainer contextContainer = new ContextContainer("ctName", "ctValue");
+    DefaultCapability other = new DefaultCapability("otherCapability", new CapabilityContext(), new CallDescriptor("otherMethod", "java.lang.String"));
+
+    clientMonitoringService.updateManagementRegistry(new FakeDesc("1-1"), Context.empty(), contextContainer, new Capability[]{other}, new String[0]);
+    assertThat(clientCapabilities(), equalTo(Arrays.asList("capabilityName", "otherCapability")));
+
+    clientMonitoringService.updateManagementRegistry(new FakeDesc("1-1"), Context.empty(), contextContainer, new Capability[0], new String[]{"capabilityName"});
+    assertThat(clientCapabilities(), equalTo(Arrays.asList("otherCapability")));
+
+    // no change
+    clientMonitoringService.updateManagementRegistry(new FakeDesc("1-1"), Context.empty(), contextContainer, new Capability[]{other}, new String[]{"capabilityName"});
+    assertThat(clientCapabilities(), equalTo(Arrays.asList("otherCapability")));
+
+    List<Message> messages = messages();
+    assertThat(notificationTypes(messages), equalTo(Arrays.asList("CLIENT_REGISTRY_AVAILABLE", "CLIENT_REGISTRY_AVAILABLE")));
+  }
+
   @Test
   public void test_expose_registry_on_active_entity() throws Exception {
     activeEntityMonitoringService.exposeManagementRegistry(
@@ -415,11 +483,13 @@ public class VoltronMonitoringServiceTest {
         "capabilityName",
         "myMethod",
         Void.TYPE);
+    assertThat(((DefaultManagementService) managementService).getPendingCallCount(), equalTo(1));
 
     clientMonitoringService.answerManagementCall(
         new FakeDesc("2-1"),
         id,
         ContextualReturn.notExecuted("capabilityName", Context.empty(), "methodName"));
+    assertThat(((DefaultManagementService) managementService).getPendingCallCount(), equalTo(0));
 
     verify(clientCommunicator, times(1)).sendNoResponse(eq(new FakeDesc("2-1")), any(EntityResponse.class));
     verifyNoMoreInteractions(clientCommunicator);
@@ -429,6 +499,47 @@ public class VoltronMonitoringServiceTest {
     verifyNoMoreInteractions(managementExecutor);
   }
 
+  @Test
+  public void test_unanswered_management_calls_are_evicted() throws Exception {
+    ManagementExecutor executor = mock(ManagementExecutor.class);
+    DefaultManagementService service = new DefaultManagementService(1, activeServiceProvider.getTopologyService(), activeServiceProvider.getFiringService(), 1, TimeUnit.MILLISECONDS);
+    service.setManagementExecutor(executor);
+
+    activePlatformListener.addNode(active, FETCHED_PATH, "fetch-1-1", new PlatformClientFetchedEntity("client-1", "entity-1", new FakeDesc("1-1")));
+    activePlatformListener.addNode(active, CLIENTS_PATH, "client-2", new PlatformConnectedClient("uuid-2", "name", InetAddress.getByName("localhost"), 1235, InetAddress.getByName("localhost"), 5679, 222));
+    activePlatformListener.addNode(active, FETCHED_PATH, "fetch-2-1", new PlatformClientFetchedEntity("client-2", "entity-1", new FakeDesc("2-1")));
+
+    clientMonitoringService.exposeManagementRegistry(
+        new FakeDesc("2-1"),
+        Context.empty(),
+        new ContextContainer("ctName", "ctValue"),
+        new DefaultCapability("capabilityName", new CapabilityContext(), new CallDescriptor("myMethod", "java.lang.String")));
+    Context target = Context.create(Client.KEY, ClientIdentifier.create(222L, InetAddress.getByName("localhost").getHostAddress(), "name", "uuid-2").toString());
+
+    String expired = service.sendManagementCallRequest(new FakeDesc("1-1"), target, "capabilityName", "myMethod", Void.TYPE);
+    Thread.sleep(10);
+    String pending = service.sendManagementCallRequest(new FakeDesc("1-1"), target, "capabilityName", "myMethod", Void.TYPE);
+    assertThat(expired, not(equalTo(pending)));
+    assertThat(service.getPendingCallCount(), equalTo(1));
+
+    // a late answer is discarded
+    clientMonitoringService.answerManagementCall(new FakeDesc("2-1"), expired, ContextualReturn.notExecuted("capabilityName", Context.empty(), "methodName"));
+    verify(executor, times(0)).sendMessageToClient(any(Message.class), eq(new FakeDesc("1-1")));
+
+    clientMonitoringService.answerManagementCall(new FakeDesc("2-1"), pending, ContextualReturn.notExecuted("capabilityName", Context.empty(), "methodName"));
+    verify(executor, times(1)).sendMessageToClient(any(Message.class), eq(new FakeDesc("1-1")));
+    assertThat(service.getPendingCallCount(), equalTo(0));
+
+    // a caller whose fetch was not seen yet is tracked too
+    String early = service.sendManagementCallRequest(new FakeDesc("3-1"), target, "capabilityName", "myMethod", Void.TYPE);
+    assertThat(early.length(), equalTo(32));
+    assertThat(service.getPendingCallCount(), equalTo(1));
+    clientMonitoringService.answerManagementCall(new FakeDesc("2-1"), early, ContextualReturn.notExecuted("capabilityName", Context.empty(), "methodName"));
+    verify(executor, times(1)).sendMessageToClient(any(Message.class), eq(new FakeDesc("3-1")));
+
+    service.close();
+  }
+
   private void assertTopologyEquals(String file) {
     if (!file.startsWith("/")) {
       file = "/" + file;
@@ -445,6 +556,15 @@ public class VoltronMonitoringServiceTest {
     assertEquals(expected, sampled);
   }
 
+  private List<String> clientCapabilities() {
+    return managementService.readTopology().clientStream()
+        .map(Client::getManagementRegistry)
+        .filter(Optional::isPresent)
+        .flatMap(registry -> registry.get().getCapabilities().stream())
+        .map(Capability::getName)
+        .collect(Collectors.toList());
+  }
+
   private List<Message> messages() {
     List<Message> messages = new ArrayList<>();
     buffer.drainTo(messages);
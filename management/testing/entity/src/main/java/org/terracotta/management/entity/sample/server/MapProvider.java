@@ -76,12 +76,12 @@ public class MapProvider implements ServiceProvider, Closeable {
         LOGGER.trace("getService({}, {})", consumerID, configuration);
         return serviceType.cast(caches.computeIfAbsent(mapConfiguration.getName(), s -> {
           // just to mimic some allocation
-          offHeapResource.reserve(12 * 1024 * 1024);
+          offHeapResource.forConsumer(String.valueOf(consumerID)).reserve(12 * 1024 * 1024);
           return new ConcurrentHashMap<>();
         }));
 
       } else if (configuration instanceof MapRelease) {
-        offHeapResource.release(12 * 1024 * 1024);
+        offHeapResource.forConsumer(String.valueOf(consumerID)).release(12 * 1024 * 1024);
         return null;
 
       } else {
@@ -24,6 +24,7 @@ import org.terracotta.management.registry.RequiredContext;
 import org.terracotta.management.registry.collect.StatisticProvider;
 import org.terracotta.management.service.monitoring.registry.provider.AbstractExposedStatistics;
 import org.terracotta.management.service.monitoring.registry.provider.AbstractStatisticsManagementProvider;
+import org.terracotta.statistics.ValueStatistic;
 
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.terracotta.statistics.ValueStatistics.gauge;
@@ -48,12 +49,16 @@ public class DataRootStatisticsManagementProvider extends AbstractStatisticsMana
   }
 
   private static class DataRootBindingExposedStatistics extends AbstractExposedStatistics<DataRootBinding> {
+
+    // disk usage sampled on each collect, kept for the collectors reading less often
+    private static final int DISK_USAGE_SAMPLES = 64;
+
     DataRootBindingExposedStatistics(Context context, DataRootBinding binding, StatisticRegistry statisticRegistry,
                                      final DataDirsConfigImpl dataRootConfig, String serverName) {
       super(context.with("type", "DataRoot").with("server", serverName), binding, statisticRegistry);
 
-      getStatisticRegistry().registerStatistic("DataRoot:TotalDiskUsage",
-          memoize(10, SECONDS, gauge(() -> dataRootConfig.getDiskUsageByRootIdentifierForServer(binding.getAlias(), serverName))));
+      ValueStatistic<Long> diskUsage = memoize(10, SECONDS, gauge(() -> dataRootConfig.getDiskUsageByRootIdentifierForServer(binding.getAlias(), serverName)));
+      getStatisticRegistry().registerSampledGauge("DataRoot:TotalDiskUsage", DISK_USAGE_SAMPLES, diskUsage::value);
     }
   }
 }
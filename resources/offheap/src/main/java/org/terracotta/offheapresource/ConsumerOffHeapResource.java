@@ -0,0 +1,92 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.offheapresource;
+
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * A view of an {@link OffHeapResourceImpl} accounting the reservations and releases made through it to a consumer in
+ * the resource's {@link OffHeapReservationLedger}.
+ */
+final class ConsumerOffHeapResource implements OffHeapResource {
+
+  private final String consumer;
+  private final OffHeapResourceImpl resource;
+  private final OffHeapReservationLedger ledger;
+
+  ConsumerOffHeapResource(String consumer, OffHeapResourceImpl resource, OffHeapReservationLedger ledger) {
+    this.consumer = consumer;
+    this.resource = resource;
+    this.ledger = ledger;
+  }
+
+  @Override
+  public boolean reserve(long size) throws IllegalArgumentException {
+    if (resource.reserve(size)) {
+      ledger.account(consumer, size);
+      return true;
+    }
+    return false;
+  }
+
+  @Override
+  public void release(long size) throws IllegalArgumentException {
+    resource.release(size);
+    ledger.account(consumer, -size);
+  }
+
+  @Override
+  public long available() {
+    return resource.available();
+  }
+
+  @Override
+  public long capacity() {
+    return resource.capacity();
+  }
+
+  /**
+   * The capacity is the one of the whole resource, which cannot be changed from the view of one of its consumers.
+   *
+   * @throws UnsupportedOperationException always
+   */
+  @Override
+  public boolean setCapacity(long size) throws IllegalArgumentException {
+    throw new UnsupportedOperationException("The capacity of offheap resource cannot be changed by consumer " + consumer);
+  }
+
+  @Override
+  public void addUsageListener(UUID listenerUUID, float threshold, Consumer<OffHeapUsageEvent> consumer) {
+    resource.addUsageListener(listenerUUID, threshold, consumer);
+  }
+
+  @Override
+  public void removeUsageListener(UUID listenerUUID) throws IllegalArgumentException {
+    resource.removeUsageListener(listenerUUID);
+  }
+
+  @Override
+  public OffHeapResource forConsumer(String consumer) {
+    return resource.forConsumer(consumer);
+  }
+
+  @Override
+  public String toString() {
+    return "ConsumerOffHeapResource{consumer='" + consumer + "', reserved=" + ledger.getReserved(consumer) + '}';
+  }
+}
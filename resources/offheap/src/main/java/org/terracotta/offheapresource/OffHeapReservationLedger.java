@@ -0,0 +1,225 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.offheapresource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.Comparator.comparingLong;
+
+/**
+ * Accounts the reservations made on an {@link OffHeapResource} by each of its consumers, for the consumers reserving
+ * through {@link OffHeapResource#forConsumer(String)}. Each consumer has its own striped counter, so that accounting a
+ * reservation or a release has a constant cost, and the amounts are only summed up when read.
+ * <p>
+ * A consumer having released everything it reserved, like when its entity is destroyed, is not evicted by the release
+ * itself but by the next {@link #evictReleasedConsumers() sweep}, which the resource runs on its notifier and the
+ * management statistics run when collected.
+ */
+public final class OffHeapReservationLedger {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(OffHeapReservationLedger.class);
+
+  /**
+   * Listens to the consumers appearing in and disappearing from a ledger. Listeners are called on the notifier of the
+   * resource, after the change: a listener depending on the order of the calls must check the current state of the
+   * ledger.
+   */
+  public interface ConsumerListener {
+    /**
+     * Called when a consumer not holding any reservation reserves.
+     */
+    void consumerAdded(String consumer);
+
+    /**
+     * Called when a consumer having released everything it reserved is evicted.
+     */
+    void consumerRemoved(String consumer);
+  }
+
+  private final ConcurrentHashMap<String, Account> accounts = new ConcurrentHashMap<>();
+  private final Queue<Account> evictedAccounts = new ConcurrentLinkedQueue<>();
+  private final List<ConsumerListener> consumerListeners = new CopyOnWriteArrayList<>();
+  private final Executor notifier;
+
+  /**
+   * @param notifier executor on which the consumer listeners are called
+   */
+  public OffHeapReservationLedger(Executor notifier) {
+    this.notifier = notifier;
+  }
+
+  void account(String consumer, long size) {
+    while (true) {
+      Account account = accounts.get(consumer);
+      if (account == null) {
+        account = open(consumer);
+      }
+      account.reserved.add(size);
+      if (!account.evicted) {
+        return;
+      }
+      // the account was evicted concurrently: the size goes to the consumer's next account, and the next sweep
+      // checks the evicted account again in case its eviction missed something
+      account.reserved.add(-size);
+      evictedAccounts.add(account);
+    }
+  }
+
+  private Account open(String consumer) {
+    Account account = new Account(consumer);
+    Account existing = accounts.putIfAbsent(consumer, account);
+    if (existing != null) {
+      return existing;
+    }
+    notifier.execute(() -> {
+      for (ConsumerListener consumerListener : consumerListeners) {
+        try {
+          consumerListener.consumerAdded(consumer);
+        } catch (RuntimeException e) {
+          LOGGER.warn("Consumer listener failed on consumer \"{}\" added", consumer, e);
+        }
+      }
+    });
+    return account;
+  }
+
+  /**
+   * Evicts the consumers not holding any reservation anymore.
+   * <p>
+   * An account is flagged as evicted before its sum is checked and it is removed: what was accounted before is seen by
+   * the check, and what is accounted after sees the flag and moves to a new account. Such a move, when in progress, can
+   * make the check see a zero sum whilst the account still holds a reservation: the moving accounting then queues the
+   * account, and the next sweep moves what it still holds to the consumer's current account.
+   */
+  public synchronized void evictReleasedConsumers() {
+    for (Account evicted; (evicted = evictedAccounts.poll()) != null; ) {
+      long remaining = evicted.reserved.sum();
+      if (remaining != 0) {
+        evicted.reserved.add(-remaining);
+        account(evicted.consumer, remaining);
+      }
+    }
+
+    accounts.forEach((consumer, account) -> {
+      if (account.reserved.sum() != 0) {
+        return;
+      }
+      account.evicted = true;
+      if (account.reserved.sum() != 0) {
+        account.evicted = false;
+        return;
+      }
+      accounts.remove(consumer, account);
+      notifier.execute(() -> {
+        for (ConsumerListener consumerListener : consumerListeners) {
+          try {
+            consumerListener.consumerRemoved(consumer);
+          } catch (RuntimeException e) {
+            LOGGER.warn("Consumer listener failed on consumer \"{}\" removed", consumer, e);
+          }
+        }
+      });
+    });
+  }
+
+  /**
+   * @param consumer a consumer of the resource
+   * @return the size currently reserved by the consumer, zero if it does not hold any reservation
+   */
+  public long getReserved(String consumer) {
+    Account account = accounts.get(consumer);
+    return account == null ? 0L : account.reserved.sum();
+  }
+
+  /**
+   * @return the sizes currently reserved by all the consumers holding reservations made through the ledger
+   */
+  public Map<String, Long> getReservations() {
+    Map<String, Long> reservations = new HashMap<>();
+    accounts.forEach((consumer, account) -> {
+      long reserved = account.reserved.sum();
+      if (reserved != 0) {
+        reservations.put(consumer, reserved);
+      }
+    });
+    return Collections.unmodifiableMap(reservations);
+  }
+
+  /**
+   * @param n the maximum number of consumers to return
+   * @return the {@code n} consumers having the largest reservations, largest first
+   */
+  public List<Map.Entry<String, Long>> getTopConsumers(int n) {
+    if (n <= 0) {
+      return Collections.emptyList();
+    }
+    PriorityQueue<Map.Entry<String, Long>> top = new PriorityQueue<>(comparingLong(Map.Entry::getValue));
+    accounts.forEach((consumer, account) -> {
+      long reserved = account.reserved.sum();
+      if (reserved == 0) {
+        return;
+      }
+      top.add(new AbstractMap.SimpleImmutableEntry<>(consumer, reserved));
+      if (top.size() > n) {
+        top.poll();
+      }
+    });
+    List<Map.Entry<String, Long>> largestFirst = new ArrayList<>(top.size());
+    while (!top.isEmpty()) {
+      largestFirst.add(top.poll());
+    }
+    Collections.reverse(largestFirst);
+    return largestFirst;
+  }
+
+  public void addConsumerListener(ConsumerListener consumerListener) {
+    consumerListeners.add(consumerListener);
+  }
+
+  public void removeConsumerListener(ConsumerListener consumerListener) {
+    consumerListeners.remove(consumerListener);
+  }
+
+  boolean isEmpty() {
+    return accounts.isEmpty();
+  }
+
+  private static final class Account {
+    final String consumer;
+    final LongAdder reserved = new LongAdder();
+    volatile boolean evicted;
+
+    Account(String consumer) {
+      this.consumer = consumer;
+    }
+  }
+}
@@ -77,4 +77,19 @@ public interface OffHeapResource {
   void addUsageListener(UUID listenerUUID, float threshold, Consumer<OffHeapUsageEvent> consumer);
 
   void removeUsageListener(UUID listenerUUID) throws IllegalArgumentException;
+
+  /**
+   * Returns a view of this resource reserving and releasing from it, while accounting the reserved size to the given
+   * consumer, such as the consumer id of an entity. Consumers reserving through such views can then be told apart in
+   * the management statistics and state dumps of the resource.
+   * <p>
+   * Sizes must be released through a view of the consumer they were reserved for, and the capacity of the resource
+   * cannot be changed through such a view. Resources not keeping track of their consumers return themselves.
+   *
+   * @param consumer the identity of the consumer
+   * @return a view of this resource for the consumer
+   */
+  default OffHeapResource forConsumer(String consumer) {
+    return this;
+  }
 }
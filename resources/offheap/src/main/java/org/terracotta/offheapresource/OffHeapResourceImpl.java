@@ -24,15 +24,30 @@ import org.terracotta.tripwire.TripwireFactory;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.function.Consumer;
 
 /**
  * An implementation of {@link OffHeapResource}.
+ * <p>
+ * Reservations are accounted in per-thread stripes holding small credits taken from a shared pool of free space, so
+ * that concurrent reservations and releases mostly update their own stripe without allocating. A stripe goes back to
+ * the shared pool when its credit runs out or grows too large, and a reservation the shared pool cannot satisfy first
+ * returns the credits of all the stripes to it, so that a reservation only fails when the resource is really full.
+ * <p>
+ * Usage thresholds are evaluated, and usage listeners fired, on a notifier thread. Reservations and releases only
+ * signal it when the resource usage gets close to a threshold or when the shared pool changes. The consumers having
+ * released everything they reserved are evicted from the ledger on the notifier thread too.
  */
 final class OffHeapResourceImpl implements OffHeapResource, AutoCloseable {
 
@@ -43,6 +58,19 @@ final class OffHeapResourceImpl implements OffHeapResource, AutoCloseable {
   private static final String OFFHEAP_WARN_KEY = "offheap.warn";
   private static final String DEFAULT_MESSAGE = "Offheap allocation for resource \"{}\" reached {}%, you may run out of memory if allocation continues.";
   private static final Properties MESSAGE_PROPERTIES;
+  private static final int MAX_STRIPES = 64;
+  // Spreads the stripes 128 bytes apart to keep them on separate cache lines
+  private static final int STRIPE_SPACING = 16;
+  // A stripe holds at most twice 1/64th of its share of the capacity, so that stripes hold at most 1/32nd of it
+  private static final int CREDIT_FRACTION = 64;
+  private static final ExecutorService SHARED_NOTIFIER = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "OffHeapUsageNotifier");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  private static final int TOP_CONSUMERS_ON_WARNING = 5;
+
   private final Map<UUID, OffHeapUsageListener> listenerMap = new ConcurrentHashMap<>();
 
   static {
@@ -66,12 +94,26 @@ final class OffHeapResourceImpl implements OffHeapResource, AutoCloseable {
     }
   }
 
-  private final AtomicReference<OffHeapResourceState> state;
   private final String identifier;
   private final CapacityChangeHandler onCapacityChanged;
+  private final OffHeapReservationLedger ledger;
   private final OffHeapResourceBinding managementBinding;
   private final MemoryMonitor monitor;
 
+  private final int stripeMask;
+  private final AtomicLongArray credits;
+  private final AtomicLong free;
+  private volatile long capacity;
+  private volatile long creditChunk;
+
+  private final Executor notifier;
+  private final Runnable usageEvaluation = this::evaluateUsage;
+  private final AtomicBoolean evaluationPending = new AtomicBoolean();
+  // Used sizes, as seen from the shared pool, outside of which no threshold can be crossed
+  private volatile long risingWatermark = Long.MAX_VALUE;
+  private volatile long fallingWatermark = Long.MIN_VALUE;
+  private volatile boolean closed;
+
   /**
    * Creates a resource of the given initial size.
    *
@@ -82,13 +124,34 @@ final class OffHeapResourceImpl implements OffHeapResource, AutoCloseable {
    * @throws IllegalArgumentException if the size is negative
    */
   OffHeapResourceImpl(String identifier, long size, Consumer<OffHeapUsageEvent> onReservationThresholdReached, CapacityChangeHandler onCapacityChanged) throws IllegalArgumentException {
+    this(identifier, size, onReservationThresholdReached, onCapacityChanged, SHARED_NOTIFIER);
+  }
+
+  /**
+   * Creates a resource of the given initial size.
+   *
+   * @param identifier
+   * @param size size of the resource
+   * @param onReservationThresholdReached event consumer - will receive events regarding usage thresholds
+   * @param onCapacityChanged event consumer - will receive an event when the capacity changes
+   * @param notifier executor on which usage thresholds are evaluated and usage listeners fired
+   * @throws IllegalArgumentException if the size is negative
+   */
+  OffHeapResourceImpl(String identifier, long size, Consumer<OffHeapUsageEvent> onReservationThresholdReached, CapacityChangeHandler onCapacityChanged, Executor notifier) throws IllegalArgumentException {
     this.onCapacityChanged = onCapacityChanged;
-    this.managementBinding = new OffHeapResourceBinding(identifier, this);
+    this.ledger = new OffHeapReservationLedger(notifier);
+    this.managementBinding = new OffHeapResourceBinding(identifier, this, ledger);
     if (size < 0) {
       throw new IllegalArgumentException("Resource size cannot be negative");
     }
 
-    this.state = new AtomicReference<>(new OffHeapResourceState(size));
+    int stripes = Math.min(MAX_STRIPES, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1));
+    this.stripeMask = stripes - 1;
+    this.credits = new AtomicLongArray(stripes * STRIPE_SPACING);
+    this.free = new AtomicLong(size);
+    this.capacity = size;
+    this.creditChunk = creditChunk(size);
+    this.notifier = notifier;
     this.identifier = identifier;
     monitor = TripwireFactory.createMemoryMonitor(identifier);
     monitor.register();
@@ -124,8 +187,18 @@ final class OffHeapResourceImpl implements OffHeapResource, AutoCloseable {
     return managementBinding;
   }
 
+  public OffHeapReservationLedger getLedger() {
+    return ledger;
+  }
+
+  @Override
+  public OffHeapResource forConsumer(String consumer) {
+    return new ConsumerOffHeapResource(consumer, this, ledger);
+  }
+
   @Override
   public void close() {
+    closed = true;
     monitor.unregister();
   }
 
@@ -139,64 +212,28 @@ final class OffHeapResourceImpl implements OffHeapResource, AutoCloseable {
       throw new IllegalArgumentException("Reservation size cannot be negative");
     }
 
-    while (true) {
-      OffHeapResourceState currentState = state.get();
-      OffHeapResourceState newState = currentState.reserve(size);
-
-      if (newState.isOverflowed()) {
-        return false;
-      }
-
-      if (state.compareAndSet(currentState, newState)) {
-        stateUpdated(currentState, newState);
+    int stripe = stripe();
+    long credit;
+    while ((credit = credits.get(stripe)) >= size) {
+      if (credits.compareAndSet(stripe, credit, credit - size)) {
+        checkWatermarks();
         return true;
       }
     }
-  }
 
-  private void stateUpdated(OffHeapResourceState prevState, OffHeapResourceState newState) {
-    long capacity = newState.getCapacity();
-    long used = newState.getUsed();
-    long prevUsed = prevState.getUsed();
-    long prevCapacity = prevState.getCapacity();
-
-    if (used > prevUsed || capacity < prevCapacity) {
-      // check for rising event.
-      float occupancy = (used * 1.0f) / capacity;
-      OffHeapUsageEvent offHeapUsageEvent = null;
-      for (OffHeapUsageListener offHeapUsageListener : listenerMap.values()) {
-        if (!offHeapUsageListener.isFired() && (Float.compare(offHeapUsageListener.getThreshold(), occupancy) <= 0)) {
-          if (offHeapUsageEvent == null) {
-            offHeapUsageEvent = new OffHeapUsageEventImpl(used, newState.getRemaining(), capacity, OffHeapUsageEventType.RISING);
-          }
-          if (Float.compare(offHeapUsageListener.getThreshold(), 0.9f) == 0) {
-            LOGGER.warn(MESSAGE_PROPERTIES.getProperty(OFFHEAP_WARN_KEY), identifier, (used * 100L) / capacity);
-          } else if (Float.compare(offHeapUsageListener.getThreshold(), 0.75f) == 0) {
-            LOGGER.info(MESSAGE_PROPERTIES.getProperty(OFFHEAP_INFO_KEY), identifier, (used * 100L) / capacity);
-          }
-          offHeapUsageListener.getConsumer().accept(offHeapUsageEvent);
-          offHeapUsageListener.setFiringStatus(true);
-        }
-      }
-    } else if (used < prevUsed || capacity > prevCapacity) {
-      // check for falling event.
-      float occupancy = (used * 1.0f) / capacity;
-      OffHeapUsageEvent offHeapUsageEvent = null;
-      for (OffHeapUsageListener offHeapUsageListener : listenerMap.values()) {
-        if (offHeapUsageListener.isFired() && (Float.compare(offHeapUsageListener.getThreshold(), occupancy) > 0)) {
-          if (offHeapUsageEvent == null) {
-            offHeapUsageEvent = new OffHeapUsageEventImpl(used, newState.getRemaining(), capacity, OffHeapUsageEventType.FALLING);
-          }
-          if (Float.compare(offHeapUsageListener.getThreshold(), 0.75f) == 0) {
-            LOGGER.info(MESSAGE_PROPERTIES.getProperty(OFFHEAP_INFO_KEY), identifier, (used * 100L) / capacity);
-          }
-          offHeapUsageListener.getConsumer().accept(offHeapUsageEvent);
-          offHeapUsageListener.setFiringStatus(false);
-        }
+    // Take a new credit for the stripe along with the reservation, or only the reservation if that does not fit
+    long chunk = creditChunk;
+    if (size <= Long.MAX_VALUE - chunk && takeFree(size + chunk)) {
+      credits.addAndGet(stripe, chunk);
+    } else if (!takeFree(size)) {
+      // Reconcile: what the stripes hold may be what the reservation is missing
+      reclaimCredits();
+      if (!takeFree(size)) {
+        return false;
       }
     }
-
-    monitor.sample(capacity - used, used);
+    signalUsageChange();
+    return true;
   }
 
   /**
@@ -209,28 +246,34 @@ final class OffHeapResourceImpl implements OffHeapResource, AutoCloseable {
       throw new IllegalArgumentException("Released size cannot be negative");
     }
 
-    while (true) {
-      OffHeapResourceState currentState = state.get();
-      OffHeapResourceState newState = currentState.release(size);
-
-      if (state.compareAndSet(currentState, newState)) {
-        stateUpdated(currentState, newState);
-        return;
-      }
+    int stripe = stripe();
+    long credit = credits.addAndGet(stripe, size);
+    long chunk = creditChunk;
+    if (credit > 2 * chunk && credits.compareAndSet(stripe, credit, chunk)) {
+      free.addAndGet(credit - chunk);
+      signalUsageChange();
+    } else {
+      checkWatermarks();
     }
   }
 
   /**
    * {@inheritDoc}
+   * <p>
+   * The remaining size is weakly consistent with the reservations and releases in progress.
    */
   @Override
   public long available() {
-    return state.get().getRemaining();
+    long available = free.get();
+    for (int i = 0; i <= stripeMask; i++) {
+      available += credits.get(i * STRIPE_SPACING);
+    }
+    return available;
   }
 
   @Override
   public long capacity() {
-    return state.get().getCapacity();
+    return capacity;
   }
 
   @Override
@@ -239,36 +282,32 @@ final class OffHeapResourceImpl implements OffHeapResource, AutoCloseable {
       throw new IllegalArgumentException("New capacity size cannot be negative");
     }
 
-    while (true) {
-      OffHeapResourceState currentState = state.get();
-      OffHeapResourceState newState = currentState.withCapacity(size);
-
-      if (newState.isOverflowed()) {
-        return false;
-      }
-
-      if (state.compareAndSet(currentState, newState)) {
-        onCapacityChanged.onCapacityChanged(this, currentState.getCapacity(), newState.getCapacity());
-        stateUpdated(currentState, newState);
-        return true;
+    long previousCapacity;
+    synchronized (this) {
+      previousCapacity = capacity;
+      long delta = size - previousCapacity;
+      if (delta < 0) {
+        reclaimCredits();
+        if (!takeFree(-delta)) {
+          return false;
+        }
+      } else {
+        free.addAndGet(delta);
       }
+      capacity = size;
+      creditChunk = creditChunk(size);
     }
+
+    onCapacityChanged.onCapacityChanged(this, previousCapacity, size);
+    signalUsageChange();
+    return true;
   }
 
   @Override
   public void addUsageListener(UUID listenerUUID, float threshold, Consumer<OffHeapUsageEvent> consumer) {
-    OffHeapUsageListener offHeapUsageListener = new OffHeapUsageListener(threshold, consumer);
-    listenerMap.put(listenerUUID, offHeapUsageListener);
-    // check for rising event if current usage already is above threshold.
-    OffHeapResourceState offHeapResourceState = state.get();
-    long used = offHeapResourceState.used;
-    long capacity = offHeapResourceState.capacity;
-    float occupancy = (used * 1.0f) / capacity;
-    if ((Float.compare(offHeapUsageListener.getThreshold(), occupancy) <= 0)) {
-      OffHeapUsageEvent offHeapUsageEvent = new OffHeapUsageEventImpl(used, offHeapResourceState.getRemaining(), capacity, OffHeapUsageEventType.RISING);
-      offHeapUsageListener.getConsumer().accept(offHeapUsageEvent);
-      offHeapUsageListener.setFiringStatus(true);
-    }
+    listenerMap.put(listenerUUID, new OffHeapUsageListener(threshold, consumer));
+    // the notifier fires a rising event if current usage already is above threshold
+    signalUsageChange();
   }
 
   @Override
@@ -276,48 +315,128 @@ final class OffHeapResourceImpl implements OffHeapResource, AutoCloseable {
     if (listenerMap.remove(listenerUUID) == null) {
       throw new IllegalArgumentException("Unknown listener: " + listenerUUID);
     }
+    signalUsageChange();
   }
 
-  private static class OffHeapResourceState {
-    private final long capacity;
-    private final long used;
+  private int stripe() {
+    long id = Thread.currentThread().getId();
+    int hash = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+    return ((hash ^ (hash >>> 16)) & stripeMask) * STRIPE_SPACING;
+  }
 
-    public OffHeapResourceState(long capacity) {
-      this.capacity = capacity;
-      this.used = 0;
+  private boolean takeFree(long size) {
+    while (true) {
+      long currentFree = free.get();
+      if (currentFree < size) {
+        return false;
+      }
+      if (free.compareAndSet(currentFree, currentFree - size)) {
+        return true;
+      }
     }
+  }
 
-    private OffHeapResourceState(long capacity, long used) {
-      this.capacity = capacity;
-      this.used = used;
+  private void reclaimCredits() {
+    for (int i = 0; i <= stripeMask; i++) {
+      long credit = credits.getAndSet(i * STRIPE_SPACING, 0L);
+      if (credit != 0) {
+        free.addAndGet(credit);
+      }
     }
+  }
 
-    public long getCapacity() {
-      return capacity;
-    }
+  private long creditChunk(long capacity) {
+    return capacity / ((long) CREDIT_FRACTION * (stripeMask + 1));
+  }
 
-    public long getUsed() {
-      return used;
+  private void checkWatermarks() {
+    long usedFromPool = capacity - free.get();
+    if (usedFromPool >= risingWatermark || usedFromPool <= fallingWatermark) {
+      signalUsageChange();
     }
+  }
 
-    public long getRemaining() {
-      return capacity - used;
+  private void signalUsageChange() {
+    if (evaluationPending.compareAndSet(false, true)) {
+      notifier.execute(usageEvaluation);
     }
+  }
 
-    public boolean isOverflowed() {
-      return used > capacity;
+  private void notifyListener(OffHeapUsageListener offHeapUsageListener, OffHeapUsageEvent offHeapUsageEvent) {
+    try {
+      offHeapUsageListener.getConsumer().accept(offHeapUsageEvent);
+    } catch (RuntimeException e) {
+      LOGGER.warn("Offheap usage listener for resource \"{}\" failed", identifier, e);
     }
+  }
 
-    public OffHeapResourceState reserve(long size) {
-      return new OffHeapResourceState(capacity, used + size);
+  private static long percentUsed(long used, long capacity) {
+    return capacity == 0 ? 100L : (used * 100L) / capacity;
+  }
+
+  private void evaluateUsage() {
+    evaluationPending.set(false);
+    if (closed) {
+      return;
     }
+    ledger.evictReleasedConsumers();
 
-    public OffHeapResourceState release(long size) {
-      return new OffHeapResourceState(capacity, used - size);
+    long capacity = this.capacity;
+    long available = available();
+    long used = capacity - available;
+    float occupancy = (used * 1.0f) / capacity;
+    OffHeapUsageEvent risingEvent = null;
+    OffHeapUsageEvent fallingEvent = null;
+    float lowestUnfired = Float.POSITIVE_INFINITY;
+    float highestFired = Float.NEGATIVE_INFINITY;
+
+    for (OffHeapUsageListener offHeapUsageListener : listenerMap.values()) {
+      float threshold = offHeapUsageListener.getThreshold();
+      if (!offHeapUsageListener.isFired() && Float.compare(threshold, occupancy) <= 0) {
+        // rising event
+        if (risingEvent == null) {
+          risingEvent = new OffHeapUsageEventImpl(used, capacity - used, capacity, OffHeapUsageEventType.RISING);
+        }
+        if (Float.compare(threshold, 0.9f) == 0) {
+          LOGGER.warn(MESSAGE_PROPERTIES.getProperty(OFFHEAP_WARN_KEY), identifier, percentUsed(used, capacity));
+          List<Map.Entry<String, Long>> topConsumers = ledger.getTopConsumers(TOP_CONSUMERS_ON_WARNING);
+          if (!topConsumers.isEmpty()) {
+            LOGGER.warn("Largest consumers of offheap resource \"{}\": {}", identifier, topConsumers);
+          }
+        } else if (Float.compare(threshold, 0.75f) == 0) {
+          LOGGER.info(MESSAGE_PROPERTIES.getProperty(OFFHEAP_INFO_KEY), identifier, percentUsed(used, capacity));
+        }
+        notifyListener(offHeapUsageListener, risingEvent);
+        offHeapUsageListener.setFiringStatus(true);
+      } else if (offHeapUsageListener.isFired() && Float.compare(threshold, occupancy) > 0) {
+        // falling event
+        if (fallingEvent == null) {
+          fallingEvent = new OffHeapUsageEventImpl(used, capacity - used, capacity, OffHeapUsageEventType.FALLING);
+        }
+        if (Float.compare(threshold, 0.75f) == 0) {
+          LOGGER.info(MESSAGE_PROPERTIES.getProperty(OFFHEAP_INFO_KEY), identifier, percentUsed(used, capacity));
+        }
+        notifyListener(offHeapUsageListener, fallingEvent);
+        offHeapUsageListener.setFiringStatus(false);
+      }
+
+      if (offHeapUsageListener.isFired()) {
+        highestFired = Math.max(highestFired, threshold);
+      } else {
+        lowestUnfired = Math.min(lowestUnfired, threshold);
+      }
     }
 
-    public OffHeapResourceState withCapacity(long newCapacity) {
-      return new OffHeapResourceState(newCapacity, used);
+    // What the stripes hold is used as seen from the shared pool, but may not really be used
+    long slack = 2 * creditChunk * (stripeMask + 1) + 1;
+    risingWatermark = lowestUnfired == Float.POSITIVE_INFINITY ? Long.MAX_VALUE : (long) (lowestUnfired * (double) capacity) - slack;
+    fallingWatermark = highestFired == Float.NEGATIVE_INFINITY ? Long.MIN_VALUE : (long) (highestFired * (double) capacity) + slack;
+
+    monitor.sample(capacity - used, used);
+
+    if (available() != available) {
+      // the usage changed whilst being evaluated, and may have been checked against the previous watermarks
+      checkWatermarks();
     }
   }
 }
@@ -35,6 +35,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -50,6 +51,7 @@ import static org.terracotta.offheapresource.OffHeapResourceIdentifier.identifie
  */
 public class OffHeapResourcesProvider implements OffHeapResources, ManageableServerComponent, StateDumpable, AutoCloseable {
   private static final Logger LOGGER = LoggerFactory.getLogger(OffHeapResourcesProvider.class);
+  private static final int TOP_CONSUMERS_IN_STATE_DUMP = 10;
 
   private final Map<OffHeapResourceIdentifier, OffHeapResourceImpl> resources = new ConcurrentHashMap<>();
   private final Collection<EntityManagementRegistry> registries = new CopyOnWriteArrayList<>();
@@ -118,6 +120,13 @@ public class OffHeapResourcesProvider implements OffHeapResources, ManageableSer
       StateDumpCollector offHeapDump = dump.subStateDumpCollector(identifier.getName());
       offHeapDump.addState("capacity", String.valueOf(resource.capacity()));
       offHeapDump.addState("available", String.valueOf(resource.available()));
+      List<Map.Entry<String, Long>> topConsumers = entry.getValue().getLedger().getTopConsumers(TOP_CONSUMERS_IN_STATE_DUMP);
+      if (!topConsumers.isEmpty()) {
+        StateDumpCollector consumersDump = offHeapDump.subStateDumpCollector("topConsumers");
+        for (Map.Entry<String, Long> consumer : topConsumers) {
+          consumersDump.addState(consumer.getKey(), String.valueOf(consumer.getValue()));
+        }
+      }
     }
   }
 
@@ -17,12 +17,24 @@
 package org.terracotta.offheapresource.management;
 
 import org.terracotta.management.service.monitoring.registry.provider.AliasBinding;
+import org.terracotta.offheapresource.OffHeapReservationLedger;
 import org.terracotta.offheapresource.OffHeapResource;
 
 public class OffHeapResourceBinding extends AliasBinding {
 
+  private final OffHeapReservationLedger ledger;
+
   public OffHeapResourceBinding(String identifier, OffHeapResource offHeapResource) {
+    this(identifier, offHeapResource, new OffHeapReservationLedger(Runnable::run));
+  }
+
+  public OffHeapResourceBinding(String identifier, OffHeapResource offHeapResource, OffHeapReservationLedger ledger) {
     super(identifier, offHeapResource);
+    this.ledger = ledger;
+  }
+
+  public OffHeapReservationLedger getLedger() {
+    return ledger;
   }
 
   @Override
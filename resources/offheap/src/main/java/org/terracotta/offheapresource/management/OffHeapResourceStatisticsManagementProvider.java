@@ -17,13 +17,24 @@
 package org.terracotta.offheapresource.management;
 
 import org.terracotta.management.model.context.Context;
+import org.terracotta.management.registry.ExposedObject;
 import org.terracotta.management.registry.Named;
 import org.terracotta.management.registry.RequiredContext;
 import org.terracotta.management.registry.collect.StatisticProvider;
+import org.terracotta.management.model.stats.Statistic;
 import org.terracotta.management.model.stats.StatisticRegistry;
 import org.terracotta.management.service.monitoring.registry.provider.AbstractExposedStatistics;
 import org.terracotta.management.service.monitoring.registry.provider.AbstractStatisticsManagementProvider;
+import org.terracotta.offheapresource.OffHeapReservationLedger;
 
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.terracotta.statistics.ValueStatistics.gauge;
 import static org.terracotta.statistics.registry.ValueStatisticDescriptor.descriptor;
 
 @Named("OffHeapResourceStatistics")
@@ -37,14 +48,77 @@ public class OffHeapResourceStatisticsManagementProvider extends AbstractStatist
 
   @Override
   protected AbstractExposedStatistics<OffHeapResourceBinding> internalWrap(Context context, OffHeapResourceBinding managedObject, StatisticRegistry statisticRegistry) {
-    return new OffHeapResourceBindingExposedStatistics(context, managedObject, statisticRegistry);
+    return new OffHeapResourceBindingExposedStatistics(context, managedObject, statisticRegistry, () -> getStatisticRegistry(managedObject));
+  }
+
+  @Override
+  public Map<String, Statistic<? extends Serializable>> collectStatistics(Context context, Collection<String> statisticNames, long since) {
+    ExposedObject<OffHeapResourceBinding> exposedObject = findExposedObject(context);
+    if (exposedObject != null) {
+      // the consumers evicted here are unregistered by the listener, on the notifier of the resource
+      exposedObject.getTarget().getLedger().evictReleasedConsumers();
+    }
+    return super.collectStatistics(context, statisticNames, since);
   }
 
-  private static class OffHeapResourceBindingExposedStatistics extends AbstractExposedStatistics<OffHeapResourceBinding> {
-    OffHeapResourceBindingExposedStatistics(Context context, OffHeapResourceBinding binding, StatisticRegistry statisticRegistry) {
+  private static class OffHeapResourceBindingExposedStatistics extends AbstractExposedStatistics<OffHeapResourceBinding> implements OffHeapReservationLedger.ConsumerListener {
+
+    private final OffHeapReservationLedger ledger;
+    private final Supplier<StatisticRegistry> statisticRegistryFactory;
+    // guarded by this
+    private final Set<String> registeredConsumers = new HashSet<>();
+    private volatile StatisticRegistry statisticRegistry;
+
+    OffHeapResourceBindingExposedStatistics(Context context, OffHeapResourceBinding binding, StatisticRegistry statisticRegistry, Supplier<StatisticRegistry> statisticRegistryFactory) {
       super(context.with("type", "OffHeapResource"), binding, statisticRegistry);
+      this.ledger = binding.getLedger();
+      this.statisticRegistryFactory = statisticRegistryFactory;
+      this.statisticRegistry = registerStatistics(statisticRegistry);
+
+      // consumers changing after this point are registered or unregistered by the listener, on the notifier thread
+      ledger.addConsumerListener(this);
+      synchronized (this) {
+        ledger.getReservations().keySet().forEach(this::registerConsumerStatistic);
+      }
+    }
+
+    @Override
+    public synchronized void consumerAdded(String consumer) {
+      // the consumer might already be gone if it was removed concurrently
+      if (ledger.getReserved(consumer) != 0) {
+        registerConsumerStatistic(consumer);
+      }
+    }
+
+    @Override
+    public synchronized void consumerRemoved(String consumer) {
+      if (registeredConsumers.contains(consumer)) {
+        // statistics cannot be unregistered: the registry is rebuilt with the consumers still holding reservations
+        registeredConsumers.clear();
+        statisticRegistry = registerStatistics(statisticRegistryFactory.get());
+        ledger.getReservations().keySet().forEach(this::registerConsumerStatistic);
+      }
+    }
+
+    private static StatisticRegistry registerStatistics(StatisticRegistry statisticRegistry) {
+      statisticRegistry.registerStatistic("AllocatedMemory", descriptor("allocatedMemory", "tier", "OffHeapResource"));
+      return statisticRegistry;
+    }
+
+    private void registerConsumerStatistic(String consumer) {
+      if (registeredConsumers.add(consumer)) {
+        statisticRegistry.registerStatistic("ConsumerAllocatedMemory:" + consumer, gauge(() -> ledger.getReserved(consumer)));
+      }
+    }
+
+    @Override
+    protected StatisticRegistry getStatisticRegistry() {
+      return statisticRegistry;
+    }
 
-      getStatisticRegistry().registerStatistic("AllocatedMemory", descriptor("allocatedMemory", "tier", "OffHeapResource"));
+    @Override
+    public void close() {
+      ledger.removeConsumerListener(this);
     }
   }
 
@@ -0,0 +1,186 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.offheapresource;
+
+import org.junit.Test;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.core.Is.is;
+
+public class OffHeapReservationLedgerTest {
+
+  @Test
+  public void testReservationsAreAccountedPerConsumer() {
+    OffHeapResourceImpl resource = new OffHeapResourceImpl("id", 100);
+    OffHeapReservationLedger ledger = resource.getLedger();
+
+    OffHeapResource a = resource.forConsumer("a");
+    OffHeapResource b = resource.forConsumer("b");
+    assertThat(a.reserve(30), is(true));
+    assertThat(b.reserve(20), is(true));
+    assertThat(a.reserve(10), is(true));
+    assertThat(b.reserve(60), is(false));
+
+    assertThat(ledger.getReserved("a"), is(40L));
+    assertThat(ledger.getReserved("b"), is(20L));
+    assertThat(ledger.getReserved("c"), is(0L));
+    assertThat(resource.available(), is(40L));
+
+    a.release(25);
+    assertThat(ledger.getReserved("a"), is(15L));
+    assertThat(resource.available(), is(65L));
+    assertThat(a.available(), is(65L));
+    assertThat(a.capacity(), is(100L));
+  }
+
+  @Test
+  public void testConsumersAreEvictedOnceEverythingIsReleased() {
+    OffHeapResourceImpl resource = new OffHeapResourceImpl("id", 100);
+    OffHeapReservationLedger ledger = resource.getLedger();
+
+    resource.forConsumer("a").reserve(30);
+    resource.forConsumer("b").reserve(20);
+    resource.forConsumer("a").release(10);
+    assertThat(ledger.getReservations().keySet(), containsInAnyOrder("a", "b"));
+
+    resource.forConsumer("a").release(20);
+    assertThat(ledger.getReservations().keySet(), containsInAnyOrder("b"));
+    assertThat(ledger.getReserved("a"), is(0L));
+
+    resource.forConsumer("b").release(20);
+    assertThat(ledger.getReservations().isEmpty(), is(true));
+    ledger.evictReleasedConsumers();
+    assertThat(ledger.isEmpty(), is(true));
+    assertThat(resource.available(), is(100L));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testConsumersCannotChangeTheCapacity() {
+    OffHeapResourceImpl resource = new OffHeapResourceImpl("id", 100);
+    resource.forConsumer("a").setCapacity(200);
+  }
+
+  @Test
+  public void testTopConsumers() {
+    OffHeapResourceImpl resource = new OffHeapResourceImpl("id", 1000);
+    OffHeapReservationLedger ledger = resource.getLedger();
+
+    assertThat(ledger.getTopConsumers(3), is(emptyList()));
+
+    resource.forConsumer("a").reserve(10);
+    resource.forConsumer("b").reserve(40);
+    resource.forConsumer("c").reserve(30);
+    resource.forConsumer("d").reserve(20);
+
+    assertThat(ledger.getTopConsumers(2), is(asList(entry("b", 40L), entry("c", 30L))));
+    assertThat(ledger.getTopConsumers(10), is(asList(entry("b", 40L), entry("c", 30L), entry("d", 20L), entry("a", 10L))));
+    assertThat(ledger.getTopConsumers(0), is(emptyList()));
+
+    resource.forConsumer("b").release(40);
+    assertThat(ledger.getTopConsumers(1), is(asList(entry("c", 30L))));
+  }
+
+  @Test
+  public void testConsumerListenerIsCalledWhenConsumersAppearAndDisappear() {
+    OffHeapResourceImpl resource = new OffHeapResourceImpl("id", 100, p -> {}, (r, o, n) -> {}, Runnable::run);
+    OffHeapReservationLedger ledger = resource.getLedger();
+    List<String> events = new ArrayList<>();
+    OffHeapReservationLedger.ConsumerListener consumerListener = new OffHeapReservationLedger.ConsumerListener() {
+      @Override
+      public void consumerAdded(String consumer) {
+        events.add("+" + consumer);
+      }
+
+      @Override
+      public void consumerRemoved(String consumer) {
+        events.add("-" + consumer);
+      }
+    };
+    ledger.addConsumerListener(consumerListener);
+
+    resource.forConsumer("a").reserve(1);
+    resource.forConsumer("a").reserve(1);
+    resource.forConsumer("b");
+    resource.forConsumer("a").release(1);
+    ledger.evictReleasedConsumers();
+    assertThat(events, is(asList("+a")));
+    resource.forConsumer("a").release(1);
+    ledger.evictReleasedConsumers();
+    resource.forConsumer("a").reserve(1);
+    assertThat(events, is(asList("+a", "-a", "+a")));
+
+    ledger.removeConsumerListener(consumerListener);
+    resource.forConsumer("c").reserve(1);
+    assertThat(events, is(asList("+a", "-a", "+a")));
+    assertThat(ledger.getReservations().keySet(), containsInAnyOrder("a", "c"));
+  }
+
+  @Test
+  public void testReservationsRacingWithEvictionsAreNotLost() throws Exception {
+    OffHeapResourceImpl resource = new OffHeapResourceImpl("id", 1_000_000);
+    OffHeapReservationLedger ledger = resource.getLedger();
+    AtomicBoolean running = new AtomicBoolean(true);
+    Thread evictor = new Thread(() -> {
+      while (running.get()) {
+        ledger.evictReleasedConsumers();
+      }
+    });
+    evictor.start();
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+        OffHeapResource consumer = resource.forConsumer("c" + (i % 2));
+        futures.add(executor.submit(() -> {
+          for (int j = 0; j < 100_000; j++) {
+            consumer.reserve(10);
+            consumer.release(10);
+          }
+          consumer.reserve(10);
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+      running.set(false);
+      evictor.join();
+    }
+
+    ledger.evictReleasedConsumers();
+    assertThat(ledger.getReserved("c0"), is(20L));
+    assertThat(ledger.getReserved("c1"), is(20L));
+  }
+
+  private static Map.Entry<String, Long> entry(String consumer, long reserved) {
+    return new AbstractMap.SimpleImmutableEntry<>(consumer, reserved);
+  }
+}
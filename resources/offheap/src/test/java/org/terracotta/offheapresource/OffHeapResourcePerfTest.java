@@ -0,0 +1,100 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.offheapresource;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Measures the throughput of {@link OffHeapResourceImpl} reservations and releases from a varying number of threads,
+ * each thread allocating and freeing pages like a storage engine does, in a resource that is 70% used.
+ */
+public class OffHeapResourcePerfTest {
+
+  private static final long SIZE = 1L << 30;
+  private static final long PAGE_SIZE = 4096L;
+  private static final int PAGES_PER_THREAD = 64;
+
+  @Test
+  @Ignore
+  public void contendedReservations() throws Exception {
+    for (int round = 0; round < 5; round++) {
+      for (int threads : new int[] {1, 2, 4, 8, 16, 32}) {
+        long operations = run(threads, 20_000_000 / threads / PAGES_PER_THREAD * PAGES_PER_THREAD);
+        System.out.println(round + ". threads: " + threads + ", " + operations + " reservations+releases/s");
+      }
+    }
+  }
+
+  private static long run(int threads, int operationsPerThread) throws Exception {
+    OffHeapResourceImpl resource = new OffHeapResourceImpl("perf", SIZE);
+    long used = SIZE * 7 / 10;
+    if (!resource.reserve(used)) {
+      throw new AssertionError("Reservation failed");
+    }
+    CountDownLatch start = new CountDownLatch(1);
+    List<Thread> workers = new ArrayList<>(threads);
+
+    for (int t = 0; t < threads; t++) {
+      Thread worker = new Thread(() -> {
+        // each thread keeps half of its pages, and allocates and frees the other half in turn
+        reserve(resource, PAGES_PER_THREAD / 2);
+        try {
+          start.await();
+        } catch (InterruptedException e) {
+          throw new AssertionError(e);
+        }
+        for (int i = 0; i < operationsPerThread; i++) {
+          if ((i / (PAGES_PER_THREAD / 2)) % 2 == 0) {
+            reserve(resource, 1);
+          } else {
+            resource.release(PAGE_SIZE);
+          }
+        }
+        resource.release((PAGES_PER_THREAD / 2) * PAGE_SIZE);
+      });
+      worker.start();
+      workers.add(worker);
+    }
+
+    Thread.sleep(100L);
+    long st = System.nanoTime();
+    start.countDown();
+    for (Thread worker : workers) {
+      worker.join();
+    }
+    long nanos = System.nanoTime() - st;
+
+    resource.close();
+    if (resource.available() != SIZE - used) {
+      throw new AssertionError("Leaked reservations: " + (SIZE - used - resource.available()));
+    }
+    return (long) threads * operationsPerThread * 1_000_000_000L / nanos;
+  }
+
+  private static void reserve(OffHeapResource resource, int pages) {
+    for (int i = 0; i < pages; i++) {
+      if (!resource.reserve(PAGE_SIZE)) {
+        throw new AssertionError("Reservation failed");
+      }
+    }
+  }
+}
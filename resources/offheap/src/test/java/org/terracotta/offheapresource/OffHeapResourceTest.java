@@ -21,11 +21,21 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 
@@ -161,4 +171,150 @@ public class OffHeapResourceTest {
     assertThat(ohr.available(), is(6L));
     verifyNoMoreInteractions(onCapacityChange);
   }
+
+  @Test
+  public void testThresholdEvents() {
+    List<OffHeapUsageEvent> events = new ArrayList<>();
+    OffHeapResourceImpl ohr = new OffHeapResourceImpl(identifier, 100L, events::add, onCapacityChange, Runnable::run);
+
+    assertThat(ohr.reserve(74L), is(true));
+    assertThat(events.size(), is(0));
+
+    assertThat(ohr.reserve(1L), is(true));
+    assertThat(events.size(), is(1));
+    assertThat(events.get(0).getEventType(), is(OffHeapUsageEventType.RISING));
+    assertThat(events.get(0).getUsed(), is(75L));
+
+    assertThat(ohr.reserve(20L), is(true));
+    assertThat(events.size(), is(2));
+    assertThat(events.get(1).getEventType(), is(OffHeapUsageEventType.RISING));
+    assertThat(events.get(1).getAvailable(), is(5L));
+
+    ohr.release(6L);
+    assertThat(events.size(), is(3));
+    assertThat(events.get(2).getEventType(), is(OffHeapUsageEventType.FALLING));
+
+    ohr.release(80L);
+    assertThat(events.size(), is(4));
+    assertThat(events.get(3).getEventType(), is(OffHeapUsageEventType.FALLING));
+    assertThat(events.get(3).getUsed(), is(9L));
+  }
+
+  @Test
+  public void testThresholdEventsOnCapacityChange() {
+    List<OffHeapUsageEvent> events = new ArrayList<>();
+    OffHeapResourceImpl ohr = new OffHeapResourceImpl(identifier, 100L, events::add, onCapacityChange, Runnable::run);
+
+    assertThat(ohr.reserve(60L), is(true));
+    assertThat(ohr.setCapacity(80L), is(true));
+    assertThat(events.size(), is(1));
+    assertThat(events.get(0).getEventType(), is(OffHeapUsageEventType.RISING));
+
+    assertThat(ohr.setCapacity(200L), is(true));
+    assertThat(events.size(), is(2));
+    assertThat(events.get(1).getEventType(), is(OffHeapUsageEventType.FALLING));
+  }
+
+  @Test
+  public void testListenerAddedAboveThresholdFires() {
+    OffHeapResourceImpl ohr = new OffHeapResourceImpl(identifier, 100L, onThresholdChange, onCapacityChange, Runnable::run);
+    assertThat(ohr.reserve(50L), is(true));
+
+    List<OffHeapUsageEvent> events = new ArrayList<>();
+    UUID listener = UUID.randomUUID();
+    ohr.addUsageListener(listener, 0.5f, events::add);
+    assertThat(events.size(), is(1));
+    assertThat(events.get(0).getEventType(), is(OffHeapUsageEventType.RISING));
+
+    ohr.removeUsageListener(listener);
+    ohr.release(50L);
+    assertThat(events.size(), is(1));
+  }
+
+  @Test
+  public void testThresholdEventsAreFiredOffTheReservingThread() throws Exception {
+    OffHeapResourceImpl ohr = new OffHeapResourceImpl(identifier, 100L, onThresholdChange, onCapacityChange);
+    Thread reservingThread = Thread.currentThread();
+    AtomicBoolean firedOnReservingThread = new AtomicBoolean();
+    CountDownLatch fired = new CountDownLatch(1);
+    ohr.addUsageListener(UUID.randomUUID(), 0.5f, event -> {
+      firedOnReservingThread.set(Thread.currentThread() == reservingThread);
+      fired.countDown();
+    });
+
+    assertThat(ohr.reserve(80L), is(true));
+    assertTrue(fired.await(10, TimeUnit.SECONDS));
+    assertThat(firedOnReservingThread.get(), is(false));
+    verify(onThresholdChange, timeout(10_000L).times(1)).accept(argThat(event -> event.getEventType() == OffHeapUsageEventType.RISING));
+  }
+
+  @Test
+  public void testReservationReclaimsTheCreditsOfOtherThreads() throws Exception {
+    long size = 1L << 30;
+    OffHeapResourceImpl ohr = new OffHeapResourceImpl(identifier, size, onThresholdChange, onCapacityChange, Runnable::run);
+
+    // leave credits behind in the stripes of other threads
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < 16; i++) {
+      Thread thread = new Thread(() -> {
+        for (int j = 0; j < 100; j++) {
+          assertTrue(ohr.reserve(4096L));
+        }
+        for (int j = 0; j < 99; j++) {
+          ohr.release(4096L);
+        }
+      });
+      thread.start();
+      threads.add(thread);
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    long reserved = 16 * 4096L;
+    assertThat(ohr.available(), is(size - reserved));
+    assertThat(ohr.reserve(size - reserved), is(true));
+    assertThat(ohr.available(), is(0L));
+    assertThat(ohr.reserve(1L), is(false));
+  }
+
+  @Test
+  public void testConcurrentReservationsNeverExceedCapacity() throws Exception {
+    long size = 1L << 20;
+    OffHeapResourceImpl ohr = new OffHeapResourceImpl(identifier, size, onThresholdChange, onCapacityChange, Runnable::run);
+    AtomicLong reserved = new AtomicLong();
+    AtomicLong maximum = new AtomicLong();
+
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      Thread thread = new Thread(() -> {
+        List<Long> reservations = new ArrayList<>();
+        for (int j = 0; j < 100_000; j++) {
+          long reservation = 1L + (j * 7919L) % 8192L;
+          if (ohr.reserve(reservation)) {
+            maximum.accumulateAndGet(reserved.addAndGet(reservation), Math::max);
+            reservations.add(reservation);
+          }
+          if (reservations.size() > 20 || (j % 3 == 0 && !reservations.isEmpty())) {
+            long release = reservations.remove(reservations.size() - 1);
+            reserved.addAndGet(-release);
+            ohr.release(release);
+          }
+        }
+        for (long release : reservations) {
+          reserved.addAndGet(-release);
+          ohr.release(release);
+        }
+      });
+      thread.start();
+      threads.add(thread);
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    assertTrue(maximum.get() <= size);
+    assertThat(ohr.available(), is(size));
+    assertThat(ohr.reserve(size), is(true));
+  }
 }
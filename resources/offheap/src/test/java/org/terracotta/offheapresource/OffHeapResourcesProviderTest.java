@@ -36,6 +36,7 @@ import org.junit.Test;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import org.terracotta.entity.StateDumpCollector;
 import org.terracotta.management.service.monitoring.EntityManagementRegistry;
 import org.terracotta.management.service.monitoring.EntityMonitoringService;
 import static org.terracotta.offheapresource.OffHeapResourceIdentifier.identifier;
@@ -73,6 +74,31 @@ public class OffHeapResourcesProviderTest {
     assertThat(valueStatistic.value(), equalTo(0L));
   }
 
+  @Test
+  public void testStateDumpListsTheTopConsumers() {
+    when(resourceConfig.getName()).thenReturn("foo");
+    when(resourceConfig.getUnit()).thenReturn(MemoryUnit.MB);
+    when(resourceConfig.getValue()).thenReturn(BigInteger.valueOf(2));
+    when(configuration.getResource()).thenReturn(singletonList(resourceConfig));
+
+    OffHeapResourcesProvider provider = OffHeapResourceConfigurationParser.toOffHeapResourcesProvider(configuration);
+    OffHeapResource offHeapResource = provider.getOffHeapResource(identifier("foo"));
+    offHeapResource.forConsumer("1").reserve(1024);
+    offHeapResource.forConsumer("2").reserve(2048);
+
+    StateDumpCollector dump = mock(StateDumpCollector.class);
+    StateDumpCollector offHeapDump = mock(StateDumpCollector.class);
+    StateDumpCollector consumersDump = mock(StateDumpCollector.class);
+    when(dump.subStateDumpCollector("foo")).thenReturn(offHeapDump);
+    when(offHeapDump.subStateDumpCollector("topConsumers")).thenReturn(consumersDump);
+
+    provider.addStateTo(dump);
+
+    verify(offHeapDump).addState("available", String.valueOf(2L * 1024 * 1024 - 3072));
+    verify(consumersDump).addState("1", "1024");
+    verify(consumersDump).addState("2", "2048");
+  }
+
   @Test
   public void testInitializeWithValidConfig() {
     when(resourceConfig.getName()).thenReturn("foo");
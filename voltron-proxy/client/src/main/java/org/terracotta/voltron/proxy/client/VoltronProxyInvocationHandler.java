@@ -68,6 +68,8 @@ class VoltronProxyInvocationHandler implements InvocationHandler {
   private final EntityClientEndpoint<ProxyEntityMessage, ProxyEntityResponse> entityClientEndpoint;
   private final ExecutorService handler;
   private final ConcurrentMap<Class<?>, CopyOnWriteArrayList<MessageListener<?>>> listeners;
+  // the proxied methods, bound once for all the invocations
+  private final ConcurrentMap<Method, MethodDescriptor> methodDescriptors = new ConcurrentHashMap<>();
 
   private volatile EndpointListener endpointListener;
 
@@ -83,18 +85,16 @@ class VoltronProxyInvocationHandler implements InvocationHandler {
 
       entityClientEndpoint.setDelegate(new EndpointDelegate<ProxyEntityResponse>() {
 
-        @SuppressWarnings({"unchecked", "rawtypes"})
         @Override
         public void handleMessage(ProxyEntityResponse response) {
           try {
             handler.execute(() -> {
-              final Class<?> aClass = response.getResponseType();
-              try {
-                for (MessageListener messageListener : listeners.get(aClass)) {
-                  messageListener.onMessage(response.getResponse());
+              if (response.getMessageType() == MessageType.BATCH) {
+                for (ProxyEntityResponse batchedResponse : response.getBatchedResponses()) {
+                  fireResponse(batchedResponse);
                 }
-              } catch (Exception e) {
-                LOGGER.warn("Error handling incoming server message {}: {}", aClass, e.getMessage(), e);
+              } else {
+                fireResponse(response);
               }
             });
           } catch (RejectedExecutionException e) {
@@ -127,9 +127,46 @@ class VoltronProxyInvocationHandler implements InvocationHandler {
     }
   }
 
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private void fireResponse(ProxyEntityResponse response) {
+    final Class<?> aClass = response.getResponseType();
+    try {
+      for (MessageListener messageListener : listeners.get(aClass)) {
+        messageListener.onMessage(response.getResponse());
+      }
+    } catch (Exception e) {
+      LOGGER.warn("Error handling incoming server message {}: {}", aClass, e.getMessage(), e);
+    }
+  }
+
   @Override
   public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+    MethodDescriptor methodDescriptor = methodDescriptors.get(method);
+    if (methodDescriptor == null) {
+      methodDescriptor = invokeNonProxiedMethod(method, args);
+      if (methodDescriptor == null) {
+        return null;
+      }
+    }
+
+    final Invocation<ProxyEntityResponse> builder = entityClientEndpoint.message(new ProxyEntityMessage(methodDescriptor, args, MessageType.MESSAGE));
+
+    if (methodDescriptor.isAsync()) {
+      return new ProxiedInvokeFuture<>(builder.invoke());
+    } else {
+      try {
+        return getResponse(builder.invoke().get());
+      } catch (ExecutionException e) {
+        throw e.getCause();
+      }
+    }
+  }
 
+  /**
+   * Handles the methods of the proxy that are not sent to the server entity, or returns the descriptor of the method
+   * to send.
+   */
+  private MethodDescriptor invokeNonProxiedMethod(final Method method, final Object[] args) {
     if (close.equals(method)) {
       handler.shutdown();
       entityClientEndpoint.close();
@@ -150,19 +187,7 @@ class VoltronProxyInvocationHandler implements InvocationHandler {
       return null;
     }
 
-    final MethodDescriptor methodDescriptor = MethodDescriptor.of(method);
-
-    final Invocation<ProxyEntityResponse> builder = entityClientEndpoint.message(new ProxyEntityMessage(methodDescriptor, args, MessageType.MESSAGE));
-
-    if (methodDescriptor.isAsync()) {
-      return new ProxiedInvokeFuture<>(builder.invoke());
-    } else {
-      try {
-        return getResponse(builder.invoke().get());
-      } catch (ExecutionException e) {
-        throw e.getCause();
-      }
-    }
+    return methodDescriptors.computeIfAbsent(method, MethodDescriptor::of);
   }
 
   private static Object getResponse(ProxyEntityResponse proxyEntityResponse) throws EntityUserException {
@@ -0,0 +1,567 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.voltron.proxy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A compact binary {@link Codec} driven by the declared parameter and return types of the proxied methods.
+ * <p>
+ * Values of a primitive declared type are written as is, without any tag. Other values are written with a one byte
+ * tag followed by their content: Strings, boxed primitives, byte arrays, enums and arrays of the declared type, the
+ * common JDK lists, sets and maps and the types registered with {@link #register(Class, ValueCodec)} are encoded
+ * directly, while any other value falls back to the given codec, which defaults to a {@link SerializationCodec}.
+ * <p>
+ * Encoded buffers start with a marker byte, so that buffers encoded by the fallback codec alone, like the ones sent by
+ * peers still using a {@link SerializationCodec}, are decoded by the fallback codec. For the same reason, a single
+ * {@code null} value is encoded as an empty buffer and a single value falling back is encoded by the fallback codec
+ * only.
+ * <p>
+ * Both ends must register the same types, in the same order, before the codec is used.
+ */
+public class BinaryCodec implements Codec {
+
+  /**
+   * Encodes and decodes the values of a registered type.
+   */
+  public interface ValueCodec<T> {
+    void encode(BinaryCodec codec, DataOutput output, T value) throws IOException;
+
+    T decode(BinaryCodec codec, DataInput input) throws IOException;
+  }
+
+  /**
+   * A {@link ValueCodec} for a map type of strings, like a context. Strings are written as length-prefixed UTF-8, so
+   * their length is not limited. The entries are decoded in their encoding order and given to the factory.
+   */
+  public static <T extends Map<String, String>> ValueCodec<T> stringMapCodec(Function<? super Map<String, String>, ? extends T> factory) {
+    Objects.requireNonNull(factory);
+    return new ValueCodec<T>() {
+      @Override
+      public void encode(BinaryCodec codec, DataOutput output, T value) throws IOException {
+        output.writeInt(value.size());
+        for (Map.Entry<String, String> entry : value.entrySet()) {
+          writeString(output, entry.getKey());
+          writeString(output, entry.getValue());
+        }
+      }
+
+      @Override
+      public T decode(BinaryCodec codec, DataInput input) throws IOException {
+        int size = input.readInt();
+        Map<String, String> map = new LinkedHashMap<>(capacity(size));
+        for (int i = 0; i < size; i++) {
+          map.put(readString(input), readString(input));
+        }
+        return factory.apply(map);
+      }
+    };
+  }
+
+  // never the first byte of a Java serialization stream (0xACED)
+  private static final byte MARKER = 0x42;
+
+  private static final byte NULL = 0;
+  private static final byte FALSE = 1;
+  private static final byte TRUE = 2;
+  private static final byte BYTE = 3;
+  private static final byte SHORT = 4;
+  private static final byte CHAR = 5;
+  private static final byte INT = 6;
+  private static final byte LONG = 7;
+  private static final byte FLOAT = 8;
+  private static final byte DOUBLE = 9;
+  private static final byte STRING = 10;
+  private static final byte BYTE_ARRAY = 11;
+  private static final byte ENUM = 12;
+  private static final byte ARRAY = 13;
+  private static final byte LIST = 14;
+  private static final byte SET = 15;
+  private static final byte MAP = 16;
+  private static final byte REGISTERED = 17;
+  private static final byte FALLBACK = 18;
+
+  private static final Map<Class<?>, Byte> BUILT_IN_TAGS = new HashMap<>();
+
+  static {
+    BUILT_IN_TAGS.put(Byte.class, BYTE);
+    BUILT_IN_TAGS.put(Short.class, SHORT);
+    BUILT_IN_TAGS.put(Character.class, CHAR);
+    BUILT_IN_TAGS.put(Integer.class, INT);
+    BUILT_IN_TAGS.put(Long.class, LONG);
+    BUILT_IN_TAGS.put(Float.class, FLOAT);
+    BUILT_IN_TAGS.put(Double.class, DOUBLE);
+    BUILT_IN_TAGS.put(String.class, STRING);
+    BUILT_IN_TAGS.put(byte[].class, BYTE_ARRAY);
+    // only the collections that can be decoded as an ArrayList, a LinkedHashSet or a LinkedHashMap without losing
+    // anything else than their mutability: sorted or concurrent collections fall back
+    for (Class<?> listType : Arrays.asList(ArrayList.class, LinkedList.class, Arrays.asList().getClass(),
+        Collections.emptyList().getClass(), Collections.singletonList(null).getClass(),
+        Collections.unmodifiableList(new ArrayList<>()).getClass(), Collections.unmodifiableList(new LinkedList<>()).getClass())) {
+      BUILT_IN_TAGS.put(listType, LIST);
+    }
+    for (Class<?> setType : Arrays.asList(HashSet.class, LinkedHashSet.class, Collections.emptySet().getClass(),
+        Collections.singleton(null).getClass(), Collections.unmodifiableSet(new HashSet<>()).getClass())) {
+      BUILT_IN_TAGS.put(setType, SET);
+    }
+    for (Class<?> mapType : Arrays.asList(HashMap.class, LinkedHashMap.class, Collections.emptyMap().getClass(),
+        Collections.singletonMap(null, null).getClass(), Collections.unmodifiableMap(new HashMap<>()).getClass())) {
+      BUILT_IN_TAGS.put(mapType, MAP);
+    }
+  }
+
+  private static final class Registration {
+    private final int id;
+    private final ValueCodec<Object> valueCodec;
+
+    private Registration(int id, ValueCodec<Object> valueCodec) {
+      this.id = id;
+      this.valueCodec = valueCodec;
+    }
+  }
+
+  private final Codec fallback;
+  private final Map<Class<?>, Registration> registrationsByType = new ConcurrentHashMap<>();
+  private final List<Registration> registrationsById = new CopyOnWriteArrayList<>();
+
+  public BinaryCodec() {
+    this(new SerializationCodec());
+  }
+
+  /**
+   * @param shadingPattern the shading pattern of the {@link SerializationCodec} values fall back to
+   */
+  public BinaryCodec(Pattern shadingPattern) {
+    this(new SerializationCodec(shadingPattern));
+  }
+
+  public BinaryCodec(Codec fallback) {
+    this.fallback = Objects.requireNonNull(fallback);
+  }
+
+  /**
+   * Registers a type to be encoded directly, instead of falling back. Only values of that exact type are encoded with
+   * the given codec.
+   *
+   * @return this codec
+   */
+  @SuppressWarnings("unchecked")
+  public synchronized <T> BinaryCodec register(Class<T> type, ValueCodec<? super T> valueCodec) {
+    if (registrationsByType.containsKey(type) || BUILT_IN_TAGS.containsKey(type)) {
+      throw new IllegalArgumentException("Type already registered: " + type.getName());
+    }
+    Registration registration = new Registration(registrationsById.size(), (ValueCodec<Object>) valueCodec);
+    registrationsById.add(registration);
+    registrationsByType.put(type, registration);
+    return this;
+  }
+
+  @Override
+  public byte[] encode(Class<?> type, Object value) {
+    if (value == null) {
+      return new byte[0];
+    }
+    if (!type.isPrimitive() && fallsBack(type, value)) {
+      return fallback.encode(type, value);
+    }
+    ByteArrayOutputStream bout = new ByteArrayOutputStream();
+    DataOutputStream output = new DataOutputStream(bout);
+    try {
+      output.writeByte(MARKER);
+      writeValue(output, type, value);
+      output.close();
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+    return bout.toByteArray();
+  }
+
+  @Override
+  public byte[] encode(Class<?>[] types, Object[] values) {
+    if (values == null) {
+      values = new Object[0];
+    }
+    if (types.length != values.length) {
+      throw new IllegalArgumentException();
+    }
+    ByteArrayOutputStream bout = new ByteArrayOutputStream();
+    DataOutputStream output = new DataOutputStream(bout);
+    try {
+      output.writeByte(MARKER);
+      for (int i = 0; i < types.length; i++) {
+        writeValue(output, types[i], values[i]);
+      }
+      output.close();
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+    return bout.toByteArray();
+  }
+
+  @Override
+  public <T> T decode(Class<T> type, byte[] buffer) {
+    return decode(type, buffer, 0, buffer.length);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public <T> T decode(Class<T> type, byte[] buffer, int offset, int len) {
+    if (len == 0 || buffer.length == 0) {
+      return null;
+    }
+    if (buffer[offset] != MARKER) {
+      return fallback.decode(type, buffer, offset, len);
+    }
+    try {
+      Object value = readValue(input(buffer, offset, len), type);
+      return type.isPrimitive() ? (T) value : type.cast(value);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  @Override
+  public Object[] decode(Class<?>[] types, byte[] buffer) {
+    return decode(types, buffer, 0, buffer.length);
+  }
+
+  @Override
+  public Object[] decode(Class<?>[] types, byte[] buffer, int offset, int len) {
+    if (len > 0 && buffer[offset] != MARKER) {
+      return fallback.decode(types, buffer, offset, len);
+    }
+    Object[] values = new Object[types.length];
+    if (len == 0) {
+      return values;
+    }
+    try {
+      DataInputStream input = input(buffer, offset, len);
+      for (int i = 0; i < types.length; i++) {
+        Object value = readValue(input, types[i]);
+        values[i] = types[i].isPrimitive() ? value : types[i].cast(value);
+      }
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+    return values;
+  }
+
+  /**
+   * Writes a value which declared type is unknown, to be used by {@link ValueCodec}s for the values they contain.
+   */
+  public void writeValue(DataOutput output, Object value) throws IOException {
+    writeValue(output, Object.class, value);
+  }
+
+  /**
+   * Reads a value written by {@link #writeValue(DataOutput, Object)}.
+   */
+  public Object readValue(DataInput input) throws IOException {
+    return readValue(input, Object.class);
+  }
+
+  private void writeValue(DataOutput output, Class<?> declaredType, Object value) throws IOException {
+    if (declaredType.isPrimitive() && declaredType != void.class) {
+      writePrimitive(output, declaredType, value);
+      return;
+    }
+    if (value == null) {
+      output.writeByte(NULL);
+      return;
+    }
+
+    Class<?> type = value.getClass();
+    Byte tag = BUILT_IN_TAGS.get(type);
+    if (tag != null) {
+      output.writeByte(tag);
+      switch (tag) {
+        case BYTE:
+        case SHORT:
+        case CHAR:
+        case INT:
+        case LONG:
+        case FLOAT:
+        case DOUBLE:
+          writePrimitive(output, primitiveType(tag), value);
+          return;
+        case STRING:
+          writeString(output, (String) value);
+          return;
+        case BYTE_ARRAY:
+          byte[] bytes = (byte[]) value;
+          output.writeInt(bytes.length);
+          output.write(bytes);
+          return;
+        case LIST:
+        case SET:
+          Collection<?> collection = (Collection<?>) value;
+          output.writeInt(collection.size());
+          for (Object element : collection) {
+            writeValue(output, Object.class, element);
+          }
+          return;
+        case MAP:
+          Map<?, ?> map = (Map<?, ?>) value;
+          output.writeInt(map.size());
+          for (Map.Entry<?, ?> entry : map.entrySet()) {
+            writeValue(output, Object.class, entry.getKey());
+            writeValue(output, Object.class, entry.getValue());
+          }
+          return;
+        default:
+          throw new AssertionError(tag);
+      }
+    }
+    if (type == Boolean.class) {
+      output.writeByte((Boolean) value ? TRUE : FALSE);
+      return;
+    }
+    // the declared type tells which enum or array type to decode into
+    if (type == declaredType && type.isEnum()) {
+      output.writeByte(ENUM);
+      output.writeInt(((Enum<?>) value).ordinal());
+      return;
+    }
+    if (type == declaredType && type.isArray() && !type.getComponentType().isPrimitive()) {
+      Object[] array = (Object[]) value;
+      output.writeByte(ARRAY);
+      output.writeInt(array.length);
+      for (Object element : array) {
+        writeValue(output, type.getComponentType(), element);
+      }
+      return;
+    }
+    Registration registration = registrationsByType.get(type);
+    if (registration != null) {
+      output.writeByte(REGISTERED);
+      output.writeInt(registration.id);
+      registration.valueCodec.encode(this, output, value);
+      return;
+    }
+
+    byte[] encoded = fallback.encode(Object.class, value);
+    output.writeByte(FALLBACK);
+    output.writeInt(encoded.length);
+    output.write(encoded);
+  }
+
+  private Object readValue(DataInput input, Class<?> declaredType) throws IOException {
+    if (declaredType.isPrimitive() && declaredType != void.class) {
+      return readPrimitive(input, declaredType);
+    }
+
+    byte tag = input.readByte();
+    switch (tag) {
+      case NULL:
+        return null;
+      case FALSE:
+        return Boolean.FALSE;
+      case TRUE:
+        return Boolean.TRUE;
+      case BYTE:
+      case SHORT:
+      case CHAR:
+      case INT:
+      case LONG:
+      case FLOAT:
+      case DOUBLE:
+        return readPrimitive(input, primitiveType(tag));
+      case STRING:
+        return readString(input);
+      case BYTE_ARRAY: {
+        byte[] bytes = new byte[input.readInt()];
+        input.readFully(bytes);
+        return bytes;
+      }
+      case ENUM:
+        return declaredType.getEnumConstants()[input.readInt()];
+      case ARRAY: {
+        Class<?> componentType = declaredType.getComponentType();
+        int length = input.readInt();
+        Object[] array = (Object[]) Array.newInstance(componentType, length);
+        for (int i = 0; i < length; i++) {
+          array[i] = readValue(input, componentType);
+        }
+        return array;
+      }
+      case LIST: {
+        int size = input.readInt();
+        List<Object> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+          list.add(readValue(input, Object.class));
+        }
+        return list;
+      }
+      case SET: {
+        int size = input.readInt();
+        Set<Object> set = new LinkedHashSet<>(capacity(size));
+        for (int i = 0; i < size; i++) {
+          set.add(readValue(input, Object.class));
+        }
+        return set;
+      }
+      case MAP: {
+        int size = input.readInt();
+        Map<Object, Object> map = new LinkedHashMap<>(capacity(size));
+        for (int i = 0; i < size; i++) {
+          map.put(readValue(input, Object.class), readValue(input, Object.class));
+        }
+        return map;
+      }
+      case REGISTERED: {
+        int id = input.readInt();
+        if (id < 0 || id >= registrationsById.size()) {
+          throw new IOException("Unknown registered type: " + id);
+        }
+        return registrationsById.get(id).valueCodec.decode(this, input);
+      }
+      case FALLBACK: {
+        byte[] encoded = new byte[input.readInt()];
+        input.readFully(encoded);
+        return fallback.decode(Object.class, encoded);
+      }
+      default:
+        throw new IOException("Unknown tag: " + tag);
+    }
+  }
+
+  private boolean fallsBack(Class<?> declaredType, Object value) {
+    Class<?> type = value.getClass();
+    return !BUILT_IN_TAGS.containsKey(type)
+        && type != Boolean.class
+        && !(type == declaredType && (type.isEnum() || type.isArray() && !type.getComponentType().isPrimitive()))
+        && !registrationsByType.containsKey(type);
+  }
+
+  private static void writePrimitive(DataOutput output, Class<?> type, Object value) throws IOException {
+    if (type == int.class) {
+      output.writeInt((Integer) value);
+    } else if (type == long.class) {
+      output.writeLong((Long) value);
+    } else if (type == boolean.class) {
+      output.writeBoolean((Boolean) value);
+    } else if (type == double.class) {
+      output.writeDouble((Double) value);
+    } else if (type == float.class) {
+      output.writeFloat((Float) value);
+    } else if (type == byte.class) {
+      output.writeByte((Byte) value);
+    } else if (type == short.class) {
+      output.writeShort((Short) value);
+    } else if (type == char.class) {
+      output.writeChar((Character) value);
+    } else {
+      throw new AssertionError(type);
+    }
+  }
+
+  private static Object readPrimitive(DataInput input, Class<?> type) throws IOException {
+    if (type == int.class) {
+      return input.readInt();
+    } else if (type == long.class) {
+      return input.readLong();
+    } else if (type == boolean.class) {
+      return input.readBoolean();
+    } else if (type == double.class) {
+      return input.readDouble();
+    } else if (type == float.class) {
+      return input.readFloat();
+    } else if (type == byte.class) {
+      return input.readByte();
+    } else if (type == short.class) {
+      return input.readShort();
+    } else if (type == char.class) {
+      return input.readChar();
+    } else {
+      throw new AssertionError(type);
+    }
+  }
+
+  private static Class<?> primitiveType(byte tag) {
+    switch (tag) {
+      case BYTE:
+        return byte.class;
+      case SHORT:
+        return short.class;
+      case CHAR:
+        return char.class;
+      case INT:
+        return int.class;
+      case LONG:
+        return long.class;
+      case FLOAT:
+        return float.class;
+      case DOUBLE:
+        return double.class;
+      default:
+        throw new AssertionError(tag);
+    }
+  }
+
+  /**
+   * Writes a non-null string as length-prefixed UTF-8, to be used by {@link ValueCodec}s for the strings they contain.
+   */
+  public static void writeString(DataOutput output, String value) throws IOException {
+    byte[] bytes = value.getBytes(UTF_8);
+    output.writeInt(bytes.length);
+    output.write(bytes);
+  }
+
+  /**
+   * Reads a string written by {@link #writeString(DataOutput, String)}.
+   */
+  public static String readString(DataInput input) throws IOException {
+    byte[] bytes = new byte[input.readInt()];
+    input.readFully(bytes);
+    return new String(bytes, UTF_8);
+  }
+
+  private static int capacity(int size) {
+    return size < 3 ? size + 1 : (int) (size / 0.75f + 1.0f);
+  }
+
+  private static DataInputStream input(byte[] buffer, int offset, int len) {
+    // skips the marker
+    return new DataInputStream(new ByteArrayInputStream(buffer, offset + 1, len - 1));
+  }
+}
@@ -17,8 +17,10 @@
 package org.terracotta.voltron.proxy;
 
 import java.lang.reflect.Method;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.SortedSet;
@@ -26,6 +28,7 @@ import java.util.TreeSet;
 
 import static java.util.Arrays.asList;
 import static java.util.Collections.unmodifiableMap;
+import static java.util.stream.Collectors.toList;
 
 /**
  * @author Alex Snaps
@@ -51,7 +54,16 @@ public class CommonProxyFactory {
     final HashMap<Byte, MethodDescriptor> map = new HashMap<>();
     byte index = 0;
     for (final MethodDescriptor method : methods) {
-      map.put(index++, method);
+      if (getMethodId(method) == null) {
+        map.put(index++, method);
+      }
+    }
+    for (final MethodDescriptor method : getMethodsWithId(methods)) {
+      byte id = getMethodId(method).value();
+      MethodDescriptor existing = map.putIfAbsent(id, method);
+      if (existing != null) {
+        throw new IllegalArgumentException("Id " + id + " of " + method + " is already used by " + existing);
+      }
     }
     return map;
   }
@@ -63,9 +75,10 @@ public class CommonProxyFactory {
   public static Map<Class<?>, Byte> createResponseTypeMappings(Class<?> proxyType, Class<?>[] events) {
     final HashMap<Class<?>, Byte> map = new HashMap<>();
     byte index = 0;
-    for (MethodDescriptor m : getSortedMethods(proxyType)) {
+    SortedSet<MethodDescriptor> methods = getSortedMethods(proxyType);
+    for (MethodDescriptor m : methods) {
       Class<?> responseType = m.getMessageType();
-      if (!map.containsKey(responseType)) {
+      if (getMethodId(m) == null && !map.containsKey(responseType)) {
         map.put(responseType, index++);
       }
     }
@@ -76,9 +89,27 @@ public class CommonProxyFactory {
         }
       }
     }
+    // methods having an id come last so that their response types do not change the ids of the existing ones
+    for (MethodDescriptor m : getMethodsWithId(methods)) {
+      Class<?> responseType = m.getMessageType();
+      if (!map.containsKey(responseType)) {
+        map.put(responseType, index++);
+      }
+    }
     return unmodifiableMap(map);
   }
 
+  private static MethodId getMethodId(MethodDescriptor method) {
+    return method.getMethod().getAnnotation(MethodId.class);
+  }
+
+  private static List<MethodDescriptor> getMethodsWithId(Collection<MethodDescriptor> methods) {
+    return methods.stream()
+        .filter(method -> getMethodId(method) != null)
+        .sorted(Comparator.comparing(method -> getMethodId(method).value()))
+        .collect(toList());
+  }
+
   private static SortedSet<MethodDescriptor> getSortedMethods(final Class<?> type) {
     SortedSet<MethodDescriptor> methods = new TreeSet<>(METHOD_COMPARATOR);
 
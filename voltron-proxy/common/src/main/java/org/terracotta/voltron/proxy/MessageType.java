@@ -23,5 +23,5 @@ import com.tc.classloader.CommonComponent;
  */
 @CommonComponent
 public enum MessageType {
-  MESSAGE, SYNC, MESSENGER, ERROR
+  MESSAGE, SYNC, MESSENGER, ERROR, BATCH
 }
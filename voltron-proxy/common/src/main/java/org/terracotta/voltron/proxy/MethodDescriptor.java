@@ -17,10 +17,14 @@
 package org.terracotta.voltron.proxy;
 
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Array;
 import java.lang.reflect.GenericArrayType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.lang.reflect.TypeVariable;
@@ -38,9 +42,14 @@ public final class MethodDescriptor {
   private final Method method;
   private final ExecutionStrategy.Location location;
   private final int concurrencyKey;
+  private final int clientIdParameterIndex;
+  // (Object target, Object[] args) -> Object, or null when the method cannot be bound
+  private final MethodHandle invoker;
 
   private MethodDescriptor(Method method) {
     this.method = method;
+    this.invoker = bind(method);
+    this.clientIdParameterIndex = findClientIdParameter(method);
 
     // @Async
     async = method.getAnnotation(Async.class) != null;
@@ -66,6 +75,13 @@ public final class MethodDescriptor {
     concurrencyKey = concurrencyStrategy == null ? ConcurrencyStrategy.MANAGEMENT_KEY : concurrencyStrategy.key();
   }
 
+  /**
+   * @return the index of the parameter annotated with {@link ClientId}, or -1 if there is none
+   */
+  public int getClientIdParameterIndex() {
+    return clientIdParameterIndex;
+  }
+
   public int getConcurrencyKey() {
     return concurrencyKey;
   }
@@ -117,7 +133,16 @@ public final class MethodDescriptor {
   }
 
   public Object invoke(Object target, Object... args) throws IllegalAccessException, IllegalArgumentException, InvocationTargetException {
-    Object ret = method.invoke(target, args);
+    Object ret;
+    if (invoker == null) {
+      ret = method.invoke(target, args);
+    } else {
+      try {
+        ret = (Object) invoker.invokeExact(target, args);
+      } catch (Throwable t) {
+        throw new InvocationTargetException(t);
+      }
+    }
     if (async) {
       try {
         ret = ((Future<?>) ret).get();
@@ -135,6 +160,33 @@ public final class MethodDescriptor {
     return method;
   }
 
+  private static MethodHandle bind(Method method) {
+    if (Modifier.isStatic(method.getModifiers())) {
+      return null;
+    }
+    try {
+      int parameterCount = method.getParameterCount();
+      return MethodHandles.publicLookup().unreflect(method).asFixedArity()
+          .asType(MethodType.genericMethodType(parameterCount + 1))
+          .asSpreader(Object[].class, parameterCount);
+    } catch (IllegalAccessException e) {
+      // not public: stays invoked through reflection
+      return null;
+    }
+  }
+
+  private static int findClientIdParameter(Method method) {
+    Annotation[][] parameterAnnotations = method.getParameterAnnotations();
+    for (int i = 0; i < parameterAnnotations.length; i++) {
+      for (Annotation annotation : parameterAnnotations[i]) {
+        if (annotation.annotationType() == ClientId.class) {
+          return i;
+        }
+      }
+    }
+    return -1;
+  }
+
   private static Class<?> determineRawType(Type type) {
     if (type instanceof Class<?>) {
       return (Class<?>) type;
@@ -19,7 +19,6 @@ package org.terracotta.voltron.proxy;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import org.terracotta.entity.EntityMessage;
 
-import java.lang.annotation.Annotation;
 import java.lang.reflect.InvocationTargetException;
 
 /**
@@ -49,16 +48,9 @@ public class ProxyEntityMessage implements EntityMessage {
   }
 
   public Object invoke(final Object target, final Object clientDescriptor) throws InvocationTargetException, IllegalAccessException {
-    if (clientDescriptor != null) {
-      final Annotation[][] allAnnotations = method.getParameterAnnotations();
-      for (int i = 0; i < allAnnotations.length; i++) {
-        for (Annotation parameterAnnotation : allAnnotations[i]) {
-          if (parameterAnnotation.annotationType() == ClientId.class) {
-            args[i] = clientDescriptor;
-            break;
-          }
-        }
-      }
+    int clientIdParameterIndex = method.getClientIdParameterIndex();
+    if (clientDescriptor != null && clientIdParameterIndex >= 0) {
+      args[clientIdParameterIndex] = clientDescriptor;
     }
 
     return method.invoke(target, args);
@@ -20,6 +20,10 @@ import com.tc.classloader.CommonComponent;
 import org.terracotta.entity.EntityResponse;
 import org.terracotta.entity.EntityUserException;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * @author cdennis
  */
@@ -46,10 +50,20 @@ public final class ProxyEntityResponse implements EntityResponse {
     return response(MessageType.ERROR, EntityUserException.class, error);
   }
 
+  /**
+   * Groups several responses in a single one, to be sent as a single message and handled in order by the receiver.
+   */
+  public static ProxyEntityResponse batch(List<ProxyEntityResponse> responses) {
+    return response(MessageType.BATCH, List.class, Collections.unmodifiableList(new ArrayList<>(responses)));
+  }
+
   private final MessageType messageType;
   private final Class<?> responseType;
   private final Object response;
 
+  // the encoding of this response, kept so that a response sent to several clients is only encoded once
+  private volatile byte[] encoded;
+
   private ProxyEntityResponse(MessageType messageType, Class<?> responseType, Object response) {
     this.messageType = messageType;
     this.responseType = responseType;
@@ -67,4 +81,23 @@ public final class ProxyEntityResponse implements EntityResponse {
   public Object getResponse() {
     return response;
   }
+
+  /**
+   * @return the responses grouped in this batch response
+   */
+  @SuppressWarnings("unchecked")
+  public List<ProxyEntityResponse> getBatchedResponses() {
+    if (messageType != MessageType.BATCH) {
+      throw new IllegalStateException("Not a batch response: " + messageType);
+    }
+    return (List<ProxyEntityResponse>) response;
+  }
+
+  byte[] getEncoded() {
+    return encoded;
+  }
+
+  void setEncoded(byte[] encoded) {
+    this.encoded = encoded;
+  }
 }
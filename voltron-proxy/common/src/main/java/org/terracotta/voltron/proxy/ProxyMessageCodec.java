@@ -22,8 +22,10 @@ import org.terracotta.entity.MessageCodecException;
 
 import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
-import java.lang.annotation.Annotation;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -76,19 +78,45 @@ public class ProxyMessageCodec implements MessageCodec<ProxyEntityMessage, Proxy
     return codec;
   }
 
+  /**
+   * Encodes a response, only once for a response sent to several clients: the encoded bytes are kept by the response
+   * and must not be modified.
+   */
   @Override
   public byte[] encodeResponse(ProxyEntityResponse r) throws MessageCodecException {
     if (r == null) {
       return new byte[0];
     }
+    byte[] encoded = r.getEncoded();
+    if (encoded == null) {
+      encoded = doEncodeResponse(r);
+      r.setEncoded(encoded);
+    }
+    return encoded;
+  }
+
+  private byte[] doEncodeResponse(ProxyEntityResponse r) throws MessageCodecException {
     MessageType messageType = r.getMessageType();
     ByteArrayOutputStream byteOut = new ByteArrayOutputStream();
     DataOutputStream output = new DataOutputStream(byteOut);
     try {
       output.writeByte(messageType.ordinal());
-      output.writeByte(messageType == MessageType.ERROR ? 0 : getMessageTypeIdentifier(r));
-      output.write(codec.encode(r.getResponseType(), r.getResponse()));
+      if (messageType == MessageType.BATCH) {
+        output.writeByte(0);
+        List<ProxyEntityResponse> responses = r.getBatchedResponses();
+        output.writeInt(responses.size());
+        for (ProxyEntityResponse response : responses) {
+          byte[] encoded = encodeResponse(response);
+          output.writeInt(encoded.length);
+          output.write(encoded);
+        }
+      } else {
+        output.writeByte(messageType == MessageType.ERROR ? 0 : getMessageTypeIdentifier(r));
+        output.write(codec.encode(r.getResponseType(), r.getResponse()));
+      }
       output.close();
+    } catch (MessageCodecException e) {
+      throw e;
     } catch (Exception e) {
       throw new MessageCodecException("Error encoding ProxyEntityResponse", e);
     }
@@ -102,6 +130,9 @@ public class ProxyMessageCodec implements MessageCodec<ProxyEntityMessage, Proxy
     }
     try {
       MessageType messageType = MessageType.values()[buffer[0]];
+      if (messageType == MessageType.BATCH) {
+        return decodeBatchResponse(buffer);
+      }
       Class<?> responseType = messageType == MessageType.ERROR ? EntityUserException.class : getResponseType(messageType, buffer[1]);
       Object o = codec.decode(responseType, buffer, 2, buffer.length - 2);
       return ProxyEntityResponse.response(messageType, responseType, o);
@@ -110,6 +141,18 @@ public class ProxyMessageCodec implements MessageCodec<ProxyEntityMessage, Proxy
     }
   }
 
+  private ProxyEntityResponse decodeBatchResponse(byte[] buffer) throws MessageCodecException {
+    ByteBuffer input = ByteBuffer.wrap(buffer, 2, buffer.length - 2);
+    int count = input.getInt();
+    List<ProxyEntityResponse> responses = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      byte[] encoded = new byte[input.getInt()];
+      input.get(encoded);
+      responses.add(decodeResponse(encoded));
+    }
+    return ProxyEntityResponse.batch(responses);
+  }
+
   @Override
   public byte[] encodeMessage(ProxyEntityMessage message) throws MessageCodecException {
     try {
@@ -118,14 +161,9 @@ public class ProxyMessageCodec implements MessageCodec<ProxyEntityMessage, Proxy
       Byte methodIdentifier = getMethodIdentifier(message);
 
       Object[] args = message.getArguments();
-      final Annotation[][] parameterAnnotations = method.getParameterAnnotations();
-      for (int i = 0, parameterAnnotationsLength = parameterAnnotations.length; i < parameterAnnotationsLength; i++) {
-        final Annotation[] parameterAnnotation = parameterAnnotations[i];
-        for (Annotation annotation : parameterAnnotation) {
-          if (annotation.annotationType() == ClientId.class) {
-            args[i] = null;
-          }
-        }
+      int clientIdParameterIndex = method.getClientIdParameterIndex();
+      if (clientIdParameterIndex >= 0) {
+        args[clientIdParameterIndex] = null;
       }
 
       ByteArrayOutputStream byteOut = new ByteArrayOutputStream();
@@ -0,0 +1,189 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.voltron.proxy;
+
+import org.junit.Test;
+import org.terracotta.AvailableClass;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsInstanceOf.instanceOf;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.fail;
+
+public class BinaryCodecTest {
+
+  private final BinaryCodec codec = new BinaryCodec();
+
+  @Test
+  public void testPrimitivesAndStrings() {
+    Class<?>[] types = {int.class, long.class, boolean.class, double.class, char.class, String.class, Integer.class, Object.class};
+    Object[] values = {42, -1L, true, 0.5d, 'x', "\u00e9t\u00e9", null, 3.0f};
+
+    assertArrayEquals(values, codec.decode(types, codec.encode(types, values)));
+  }
+
+  @Test
+  public void testSingleValues() {
+    assertThat(codec.decode(int.class, codec.encode(int.class, 0xACED)), is(0xACED));
+    assertThat(codec.decode(String.class, codec.encode(String.class, "foo")), is("foo"));
+    assertThat(codec.decode(Boolean.class, codec.encode(Boolean.class, false)), is(false));
+    assertThat(codec.decode(Void.class, codec.encode(Void.class, null)), is(nullValue()));
+    assertThat(codec.decode(void.class, codec.encode(void.class, null)), is(nullValue()));
+    assertArrayEquals(new byte[]{1, 2, 3}, codec.decode(byte[].class, codec.encode(byte[].class, new byte[]{1, 2, 3})));
+  }
+
+  @Test
+  public void testCollections() {
+    List<Object> list = new ArrayList<>(asList("a", 1L, null, Collections.singletonList("b")));
+    Set<String> set = new LinkedHashSet<>(asList("c", "a", "b"));
+    Map<String, Object> map = new HashMap<>();
+    map.put("k", Collections.singletonMap("n", asList(1, 2)));
+    map.put("e", Collections.emptySet());
+
+    Class<?>[] types = {List.class, Set.class, Map.class, Collection.class};
+    Object[] decoded = codec.decode(types, codec.encode(types, new Object[]{list, set, map, Collections.unmodifiableList(list)}));
+
+    assertThat(decoded[0], is(list));
+    assertThat(decoded[1], is(set));
+    assertThat(new ArrayList<>((Set<?>) decoded[1]), is(asList("c", "a", "b")));
+    assertThat(decoded[2], is(map));
+    assertThat(decoded[3], is(list));
+  }
+
+  @Test
+  public void testEnumsAndArraysOfTheDeclaredType() {
+    Class<?>[] types = {TimeUnit.class, String[].class, Object.class};
+    Object[] values = {TimeUnit.SECONDS, new String[]{"a", null, "b"}, TimeUnit.DAYS};
+
+    Object[] decoded = codec.decode(types, codec.encode(types, values));
+
+    assertThat(decoded[0], is(TimeUnit.SECONDS));
+    assertArrayEquals((String[]) values[1], (String[]) decoded[1]);
+    assertThat(decoded[2], is(TimeUnit.DAYS));
+  }
+
+  @Test
+  public void testUnknownTypesFallBack() {
+    TreeMap<String, String> sorted = new TreeMap<>(Collections.singletonMap("a", "b"));
+    Class<?>[] types = {AvailableClass.class, Map.class};
+
+    Object[] decoded = codec.decode(types, codec.encode(types, new Object[]{new AvailableClass("foo"), sorted}));
+
+    assertThat(((AvailableClass) decoded[0]).string, is("foo"));
+    assertThat(decoded[1], instanceOf(TreeMap.class));
+    assertThat(decoded[1], is(sorted));
+  }
+
+  @Test
+  public void testRegisteredTypes() {
+    BinaryCodec codec = new BinaryCodec().register(AvailableClass.class, new AvailableClassCodec());
+    BinaryCodec otherEnd = new BinaryCodec().register(AvailableClass.class, new AvailableClassCodec());
+
+    byte[] encoded = codec.encode(AvailableClass.class, new AvailableClass("foo"));
+
+    assertThat(encoded.length < new SerializationCodec().encode(AvailableClass.class, new AvailableClass("foo")).length, is(true));
+    assertThat(otherEnd.decode(AvailableClass.class, encoded).string, is("foo"));
+    assertThat(((AvailableClass) otherEnd.decode(new Class<?>[]{Object.class}, codec.encode(new Class<?>[]{Object.class}, new Object[]{new AvailableClass("bar")}))[0]).string, is("bar"));
+  }
+
+  @Test
+  public void testStringMapCodec() {
+    BinaryCodec codec = new BinaryCodec().register(StringMap.class, BinaryCodec.stringMapCodec(StringMap::new));
+    char[] chars = new char[70_000];
+    Arrays.fill(chars, '\u00e9');
+    StringMap map = new StringMap(Collections.singletonMap("a", "b"));
+    map.put("long", new String(chars));
+    map.put("", "");
+
+    StringMap decoded = codec.decode(StringMap.class, codec.encode(StringMap.class, map));
+
+    assertThat(decoded, is(map));
+    assertThat(new ArrayList<>(decoded.keySet()), is(asList("a", "long", "")));
+  }
+
+  @Test
+  public void testTypesCannotBeRegisteredTwice() {
+    BinaryCodec codec = new BinaryCodec().register(AvailableClass.class, new AvailableClassCodec());
+    try {
+      codec.register(AvailableClass.class, new AvailableClassCodec());
+      fail();
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      codec.register(String.class, null);
+      fail();
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testSerializedBuffersAreDecoded() {
+    SerializationCodec serializationCodec = new SerializationCodec();
+    Class<?>[] types = {String.class, int.class};
+
+    assertArrayEquals(new Object[]{"foo", 1}, codec.decode(types, serializationCodec.encode(types, new Object[]{"foo", 1})));
+    assertThat(codec.decode(List.class, serializationCodec.encode(List.class, Arrays.asList("a", "b"))), is(asList("a", "b")));
+  }
+
+  @Test
+  public void testNullsAndFallingBackValuesAreReadableBySerializationCodecs() {
+    SerializationCodec serializationCodec = new SerializationCodec();
+
+    assertThat(serializationCodec.decode(Void.class, codec.encode(Void.class, null)), is(nullValue()));
+    assertThat(serializationCodec.decode(AvailableClass.class, codec.encode(AvailableClass.class, new AvailableClass("foo"))).string, is("foo"));
+  }
+
+  @SuppressWarnings("serial")
+  private static class StringMap extends LinkedHashMap<String, String> {
+    StringMap(Map<String, String> map) {
+      super(map);
+    }
+  }
+
+  private static class AvailableClassCodec implements BinaryCodec.ValueCodec<AvailableClass> {
+    @Override
+    public void encode(BinaryCodec codec, DataOutput output, AvailableClass value) throws IOException {
+      codec.writeValue(output, value.string);
+    }
+
+    @Override
+    public AvailableClass decode(BinaryCodec codec, DataInput input) throws IOException {
+      return new AvailableClass((String) codec.readValue(input));
+    }
+  }
+}
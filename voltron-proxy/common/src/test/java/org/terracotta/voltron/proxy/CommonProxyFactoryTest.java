@@ -21,6 +21,7 @@ import org.junit.Test;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Future;
 
 import static org.hamcrest.CoreMatchers.equalTo;
@@ -55,6 +56,50 @@ public class CommonProxyFactoryTest {
     }
   }
 
+  @Test
+  public void test_method_ids() throws Throwable {
+    Map<Byte, MethodDescriptor> before = CommonProxyFactory.createMethodMappings(Entity.class);
+    Map<Byte, MethodDescriptor> after = CommonProxyFactory.createMethodMappings(EvolvedEntity.class);
+
+    assertThat(after.size(), equalTo(before.size() + 2));
+    for (Map.Entry<Byte, MethodDescriptor> entry : before.entrySet()) {
+      assertThat(after.get(entry.getKey()).toGenericString(), equalTo(entry.getValue().toGenericString().replace("$Entity", "$EvolvedEntity")));
+    }
+    assertThat(after.get((byte) 5).getMethod().getName(), equalTo("added"));
+    assertThat(after.get((byte) 2).getMethod().getName(), equalTo("addedFirst"));
+
+    Map<Class<?>, Byte> beforeResponses = CommonProxyFactory.createResponseTypeMappings(Entity.class, new Class<?>[]{Long.class});
+    Map<Class<?>, Byte> afterResponses = CommonProxyFactory.createResponseTypeMappings(EvolvedEntity.class, new Class<?>[]{Long.class});
+    for (Map.Entry<Class<?>, Byte> entry : beforeResponses.entrySet()) {
+      assertThat(afterResponses.get(entry.getKey()), equalTo(entry.getValue()));
+    }
+    assertThat(afterResponses.get(Boolean.class), equalTo((byte) 3));
+    assertThat(afterResponses.get(Double.class), equalTo((byte) 4));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void test_method_ids_must_be_unique() throws Throwable {
+    CommonProxyFactory.createMethodMappings(ConflictingEntity.class);
+  }
+
+  interface Entity {
+    @Async Future<String> a();
+    @Async Future<Integer> b();
+  }
+
+  interface EvolvedEntity {
+    // declared first to check that ids do not depend on the declaration order or on the generic strings
+    @MethodId(5) @Async Future<Double> added();
+    @Async Future<String> a();
+    @Async Future<Integer> b();
+    @MethodId(2) @Async Future<Boolean> addedFirst();
+  }
+
+  interface ConflictingEntity {
+    @Async Future<String> a();
+    @MethodId(0) @Async Future<String> b();
+  }
+
   @SuppressWarnings("rawtypes")
   interface AsyncEntity<V> {
     @Async Future<String> test1();
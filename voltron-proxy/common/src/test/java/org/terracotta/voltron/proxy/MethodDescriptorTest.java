@@ -0,0 +1,126 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.voltron.proxy;
+
+import org.junit.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.junit.Assert.fail;
+
+public class MethodDescriptorTest {
+
+  private final Target target = new Target();
+
+  @Test
+  public void testInvoke() throws Exception {
+    assertThat(MethodDescriptor.of(Service.class.getMethod("add", int.class, long.class)).invoke(target, 1, 2L), is(3L));
+    assertThat(MethodDescriptor.of(Service.class.getMethod("concat", Object.class, String[].class)).invoke(target, "a", new String[]{"b", "c"}), is("abc"));
+  }
+
+  @Test
+  public void testInvokeWithoutArguments() throws Exception {
+    MethodDescriptor methodDescriptor = MethodDescriptor.of(Service.class.getMethod("run"));
+
+    assertThat(methodDescriptor.invoke(target), is(nullValue()));
+    assertThat(methodDescriptor.invoke(target, (Object[]) null), is(nullValue()));
+    assertThat(target.runs, is(2));
+  }
+
+  @Test
+  public void testAsyncInvocationsReturnTheFutureValue() throws Exception {
+    assertThat(MethodDescriptor.of(Service.class.getMethod("async")).invoke(target), is("done"));
+  }
+
+  @Test
+  public void testExceptionsAreWrapped() throws Exception {
+    MethodDescriptor methodDescriptor = MethodDescriptor.of(Service.class.getMethod("fail"));
+    try {
+      methodDescriptor.invoke(target);
+      fail();
+    } catch (InvocationTargetException e) {
+      assertThat(e.getTargetException(), sameInstance(target.failure));
+    }
+  }
+
+  @Test
+  public void testClientIdParameterIndex() throws Exception {
+    assertThat(MethodDescriptor.of(Service.class.getMethod("concat", Object.class, String[].class)).getClientIdParameterIndex(), is(0));
+    assertThat(MethodDescriptor.of(Service.class.getMethod("add", int.class, long.class)).getClientIdParameterIndex(), is(-1));
+  }
+
+  @Test
+  public void testClientIdIsInjected() throws Exception {
+    MethodDescriptor methodDescriptor = MethodDescriptor.of(Service.class.getMethod("concat", Object.class, String[].class));
+    ProxyEntityMessage message = new ProxyEntityMessage(methodDescriptor, new Object[]{null, new String[]{"b"}}, MessageType.MESSAGE);
+
+    assertThat(message.invoke(target, "client"), is("clientb"));
+  }
+
+  public interface Service {
+    long add(int a, long b);
+
+    String concat(@ClientId Object client, String... strings);
+
+    void run();
+
+    @Async
+    Future<String> async();
+
+    void fail();
+  }
+
+  private static class Target implements Service {
+    private final IllegalStateException failure = new IllegalStateException();
+    private int runs;
+
+    @Override
+    public long add(int a, long b) {
+      return a + b;
+    }
+
+    @Override
+    public String concat(Object client, String... strings) {
+      StringBuilder sb = new StringBuilder(String.valueOf(client));
+      for (String string : strings) {
+        sb.append(string);
+      }
+      return sb.toString();
+    }
+
+    @Override
+    public void run() {
+      runs++;
+    }
+
+    @Override
+    public Future<String> async() {
+      return CompletableFuture.completedFuture("done");
+    }
+
+    @Override
+    public void fail() {
+      throw failure;
+    }
+  }
+}
@@ -140,6 +140,8 @@ public abstract class ActiveProxiedServerEntity<S, R, M extends Messenger> imple
 
   protected final <T> void fireMessage(Class<T> type, T message, ClientDescriptor... clients) {entityInvoker.fireMessage(type, message, clients);}
 
+  protected final <T> void fireMessages(Class<T> type, Collection<? extends T> messages, boolean echo) {entityInvoker.fireMessages(type, messages, echo);}
+
   protected final Collection<ClientDescriptor> getClients() {return entityInvoker.getClients();}
 
   protected final S getSynchronizer() {
@@ -18,6 +18,8 @@ package org.terracotta.voltron.proxy.server;
 
 import org.terracotta.entity.ClientDescriptor;
 
+import java.util.Collection;
+
 /**
  * @author Alex Snaps
  */
@@ -26,4 +28,14 @@ public interface MessageFiring {
   <T> void fireMessage(Class<T> type, T message, boolean echo);
 
   <T> void fireMessage(Class<T> type, T message, ClientDescriptor[] clients);
+
+  /**
+   * Fires several messages, which clients handle in order. Implementations may send them in a single frame per client,
+   * which clients older than batch support cannot decode.
+   */
+  default <T> void fireMessages(Class<T> type, Collection<? extends T> messages, boolean echo) {
+    for (T message : messages) {
+      fireMessage(type, message, echo);
+    }
+  }
 }
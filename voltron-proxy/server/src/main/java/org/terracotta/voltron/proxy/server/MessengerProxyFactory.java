@@ -21,8 +21,11 @@ import org.terracotta.voltron.proxy.MessageType;
 import org.terracotta.voltron.proxy.MethodDescriptor;
 import org.terracotta.voltron.proxy.ProxyEntityMessage;
 
+import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author Mathieu Carbou
@@ -31,11 +34,12 @@ class MessengerProxyFactory {
 
   static <T extends Messenger> T createProxy(Class<T> messengerType, IEntityMessenger<ProxyEntityMessage, ?> entityMessenger) {
     Objects.requireNonNull(messengerType);
+    Map<Method, MethodDescriptor> methodDescriptors = new ConcurrentHashMap<>();
     return messengerType.cast(Proxy.newProxyInstance(
         messengerType.getClassLoader(),
         new Class<?>[]{messengerType},
         (proxy, method, args) -> {
-          MethodDescriptor methodDescriptor = MethodDescriptor.of(method);
+          MethodDescriptor methodDescriptor = methodDescriptors.computeIfAbsent(method, MethodDescriptor::of);
           ProxyEntityMessage proxyEntityMessage = new ProxyEntityMessage(methodDescriptor, args, MessageType.MESSENGER);
           entityMessenger.messageSelf(proxyEntityMessage);
           return null;
@@ -30,6 +30,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -39,7 +40,8 @@ class ProxyInvoker<T> implements MessageFiring {
 
   private final T target;
   private final Set<ClientDescriptor> clients = Collections.synchronizedSet(new HashSet<>());
-  private final ThreadLocal<InvocationContext> invocationContext = new ThreadLocal<>();
+  // one mutable context per thread, so that invocations do not have to allocate and remove one each time
+  private final ThreadLocal<InvocationContext> invocationContext = ThreadLocal.withInitial(InvocationContext::new);
 
   private Set<Class<?>> messageTypes;
   private ClientCommunicator clientCommunicator;
@@ -50,8 +52,10 @@ class ProxyInvoker<T> implements MessageFiring {
 
   ProxyEntityResponse invoke(ActiveInvokeContext<ProxyEntityResponse> context, final ProxyEntityMessage message) {
     ClientDescriptor clientDescriptor = context.getClientDescriptor();
+    InvocationContext invocationContext = this.invocationContext.get();
+    ClientDescriptor previousCaller = invocationContext.caller;
     try {
-      invocationContext.set(new InvocationContext(clientDescriptor));
+      invocationContext.caller = clientDescriptor;
       return ProxyEntityResponse.response(message.getType(), message.messageType(), message.invoke(target, clientDescriptor));
     } catch (IllegalAccessException e) {
       throw new IllegalArgumentException(e);
@@ -68,7 +72,7 @@ class ProxyInvoker<T> implements MessageFiring {
       EntityUserException entityUserException = new EntityUserException(errorMessage.toString(), targetException);
       return ProxyEntityResponse.error(entityUserException);
     } finally {
-      invocationContext.remove();
+      invocationContext.caller = previousCaller;
     }
   }
 
@@ -94,12 +98,33 @@ class ProxyInvoker<T> implements MessageFiring {
     if (!messageTypes.contains(type)) {
       throw new IllegalArgumentException("Event type '" + type + "' isn't supported");
     }
-    final InvocationContext invocationContext = this.invocationContext.get();
-    final ClientDescriptor caller = invocationContext == null ? null : invocationContext.caller;
+    broadcast(ProxyEntityResponse.messageResponse(type, message), echo);
+  }
+
+  @Override
+  public <U> void fireMessages(Class<U> type, Collection<? extends U> messages, boolean echo) {
+    if (!messageTypes.contains(type)) {
+      throw new IllegalArgumentException("Event type '" + type + "' isn't supported");
+    }
+    if (messages.isEmpty()) {
+      return;
+    }
+    List<ProxyEntityResponse> responses = new ArrayList<>(messages.size());
+    for (U message : messages) {
+      responses.add(ProxyEntityResponse.messageResponse(type, message));
+    }
+    broadcast(ProxyEntityResponse.batch(responses), echo);
+  }
+
+  /**
+   * Sends the same response instance to all the clients, so that the codec encodes it only once.
+   */
+  private void broadcast(ProxyEntityResponse response, boolean echo) {
+    final ClientDescriptor caller = invocationContext.get().caller;
     for (ClientDescriptor client : clients) {
       if (echo || !client.equals(caller)) {
         try {
-          clientCommunicator.sendNoResponse(client, ProxyEntityResponse.messageResponse(type, message));
+          clientCommunicator.sendNoResponse(client, response);
         } catch (MessageCodecException ex) {
           handleExceptionOnSend(ex);
         }
@@ -112,9 +137,10 @@ class ProxyInvoker<T> implements MessageFiring {
     if (!messageTypes.contains(type)) {
       throw new IllegalArgumentException("Event type '" + type + "' isn't supported");
     }
+    ProxyEntityResponse response = ProxyEntityResponse.messageResponse(type, message);
     for (ClientDescriptor client : clients) {
       try {
-        clientCommunicator.sendNoResponse(client, ProxyEntityResponse.messageResponse(type, message));
+        clientCommunicator.sendNoResponse(client, response);
       } catch (MessageCodecException ex) {
         handleExceptionOnSend(ex);
       }
@@ -157,10 +183,6 @@ class ProxyInvoker<T> implements MessageFiring {
 
   private static final class InvocationContext {
 
-    private final ClientDescriptor caller;
-
-    public InvocationContext(final ClientDescriptor caller) {
-      this.caller = caller;
-    }
+    private ClientDescriptor caller;
   }
 }
@@ -21,8 +21,11 @@ import org.terracotta.voltron.proxy.MessageType;
 import org.terracotta.voltron.proxy.MethodDescriptor;
 import org.terracotta.voltron.proxy.ProxyEntityMessage;
 
+import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author Mathieu Carbou
@@ -33,11 +36,12 @@ class SyncProxyFactory {
 
   static <T> T createProxy(Class<T> synchronizerType) {
     Objects.requireNonNull(synchronizerType);
+    Map<Method, MethodDescriptor> methodDescriptors = new ConcurrentHashMap<>();
     return synchronizerType.cast(Proxy.newProxyInstance(
         synchronizerType.getClassLoader(),
         new Class<?>[]{synchronizerType},
         (proxy, method, args) -> {
-          final MethodDescriptor methodDescriptor = MethodDescriptor.of(method);
+          final MethodDescriptor methodDescriptor = methodDescriptors.computeIfAbsent(method, MethodDescriptor::of);
           ProxyEntityMessage proxyEntityMessage = new ProxyEntityMessage(methodDescriptor, args, MessageType.SYNC);
           PassiveSynchronizationChannel<ProxyEntityMessage> channel = currentChannel.get();
           if (channel == null) {
@@ -28,6 +28,7 @@ import org.terracotta.entity.EntityResponse;
 import org.terracotta.entity.Invocation;
 import org.terracotta.entity.InvocationCallback;
 import org.terracotta.entity.MessageCodec;
+import org.terracotta.entity.MessageCodecException;
 import org.terracotta.voltron.proxy.ClientId;
 import org.terracotta.voltron.proxy.MessageListener;
 import org.terracotta.voltron.proxy.ProxyEntityMessage;
@@ -38,9 +39,12 @@ import org.terracotta.voltron.proxy.client.ClientProxyFactory;
 import org.terracotta.voltron.proxy.client.ServerMessageAware;
 
 import java.io.Serializable;
+import java.util.List;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
@@ -48,12 +52,15 @@ import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
+import static java.util.Arrays.asList;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import org.terracotta.entity.ActiveInvokeChannel;
@@ -151,6 +158,59 @@ public class EndToEndTest {
     assertThat(messageReceived.get(5, TimeUnit.SECONDS), equalTo(message));
   }
 
+  @Test
+  public void testServerInitiatedBatchedMessageFiring() throws Exception {
+    final ProxyMessageCodec messageCodec = new ProxyMessageCodec(Comparable.class, new Class[] {String.class});
+    final AtomicReference<EndpointDelegate> delegate = new AtomicReference<EndpointDelegate>();
+    final List<byte[]> frames = new CopyOnWriteArrayList<>();
+    final ProxyInvoker<Comparable> proxyInvoker = new ProxyInvoker<Comparable>(new Comparable() {
+      public int compareTo(final Object o) {
+        return 42;
+      }
+    }).activateEvents(new ClientCommunicator() {
+      @Override
+      public void closeClientConnection(ClientDescriptor clientDescriptor) {
+
+      }
+
+      public void sendNoResponse(final ClientDescriptor clientDescriptor, final EntityResponse message) throws MessageCodecException {
+        byte[] frame = messageCodec.encodeResponse((ProxyEntityResponse) message);
+        frames.add(frame);
+        delegate.get().handleMessage(messageCodec.decodeResponse(frame));
+      }
+
+      public Future<Void> send(final ClientDescriptor clientDescriptor, final EntityResponse message) {
+        throw new UnsupportedOperationException("Implement me!");
+      }
+    }, new Class[] {String.class});
+    final EntityClientEndpoint endpoint = mock(EntityClientEndpoint.class);
+    doAnswer(invocation -> {
+      delegate.set(invocation.getArgument(0));
+      return null;
+    }).when(endpoint).setDelegate(any());
+
+    final ComparableEntity proxy = ClientProxyFactory.createEntityProxy(ComparableEntity.class, Comparable.class, endpoint, new Class[]{String.class}, new SerializationCodec());
+    final List<String> received = new CopyOnWriteArrayList<>();
+    final CountDownLatch latch = new CountDownLatch(6);
+    proxy.registerMessageListener(String.class, new MessageListener<String>() {
+      @Override
+      public void onMessage(final String message) {
+        received.add(message);
+        latch.countDown();
+      }
+    });
+
+    proxyInvoker.addClient(mock(ClientDescriptor.class));
+    proxyInvoker.addClient(mock(ClientDescriptor.class));
+    proxyInvoker.fireMessages(String.class, asList("a", "b", "c"), false);
+
+    assertThat(latch.await(5, TimeUnit.SECONDS), is(true));
+    assertThat(received, is(asList("a", "b", "c", "a", "b", "c")));
+    // one frame per client, encoded once
+    assertThat(frames.size(), is(2));
+    assertThat(frames.get(0), sameInstance(frames.get(1)));
+  }
+
   @Test
   public void testClientInvokeInitiatedMessageFiring() throws ExecutionException, InterruptedException {
     final SerializationCodec codec = new SerializationCodec();